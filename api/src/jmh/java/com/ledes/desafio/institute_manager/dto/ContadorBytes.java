@@ -0,0 +1,21 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import java.io.OutputStream;
+
+/**
+ * OutputStream que só conta os bytes escritos, para medir a serialização sem custo de E/S.
+ */
+final class ContadorBytes extends OutputStream {
+
+    long bytes;
+
+    @Override
+    public void write(int b) {
+        bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        bytes += len;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ledes.desafio.institute_manager.config.FormatosConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compara JSON, Smile e CBOR (com as mesmas fábricas dos conversores HTTP) na listagem completa, com e sem gzip.
+ * O tempo mede o custo de CPU da serialização (e da compressão); o tamanho do payload de cada combinação
+ * é impresso uma vez no início de cada fork, pois não varia entre as iterações.
+ * Execução: mvn -Pjmh verify -Djmh.args="FormatoBinario -prof gc"
+ * <p>
+ * Resultados em 1 CPU (JDK 21), payload e tempo médio por serialização; a alocação é por operação.
+ * <pre>
+ * itens    formato  sem gzip               com gzip
+ * 1000     json       274 KB   0,63 ms       9,5 KB   2,96 ms
+ * 1000     smile       53 KB   0,66 ms       8,3 KB   1,90 ms
+ * 1000     cbor       100 KB   0,68 ms       8,5 KB   3,84 ms
+ * 100000   json     27,97 MB   58 ms       0,91 MB    307 ms   (alocação ~0,6 KB)
+ * 100000   smile     5,80 MB   67 ms       0,80 MB    202 ms   (alocação 4,8 MB, tabela de referências)
+ * 100000   cbor     10,50 MB   62 ms       0,81 MB    298 ms   (alocação 8,4 MB, tabela de referências)
+ * </pre>
+ * Sem gzip, Smile reduz o payload a um quinto e CBOR a pouco mais de um terço, com CPU equivalente ao JSON. Com gzip
+ * os três ficam entre 0,8 e 0,9 MB, e o custo passa a ser a compressão, que cai com a entrada menor: Smile comprime
+ * em dois terços do tempo do JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FormatoBinarioBenchmark {
+
+    @Param({"1000", "100000"})
+    private int tamanho;
+
+    @Param({"json", "smile", "cbor"})
+    private String formato;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectWriter writer;
+    private List<InstituicaoDetalhada> instituicoes;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper objectMapper = switch (formato) {
+            case "smile" -> builder.factory(FormatosConfig.smileFactory()).build();
+            case "cbor" -> builder.factory(FormatosConfig.cborFactory()).build();
+            default -> builder.build();
+        };
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, InstituicaoDetalhada.class));
+        instituicoes = ListaExemplo.instituicoes(tamanho);
+
+        System.out.printf("%n[payload] formato=%s gzip=%s tamanho=%d bytes=%d%n", formato, gzip, tamanho, serializar());
+    }
+
+    @Benchmark
+    public long serializar() throws IOException {
+        ContadorBytes contador = new ContadorBytes();
+        // Mesmo nível padrão de compressão usado pelo Tomcat
+        try (OutputStream saida = gzip ? new GZIPOutputStream(contador, 8192) : contador) {
+            writer.writeValue(saida, instituicoes);
+        }
+        return contador.bytes;
+    }
+}
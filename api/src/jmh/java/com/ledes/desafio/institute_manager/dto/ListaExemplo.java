@@ -0,0 +1,29 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listagem sintética usada pelos benchmarks de serialização: metade brasileiras, metade estrangeiras,
+ * com endereços repetidos como numa base real.
+ */
+final class ListaExemplo {
+
+    private ListaExemplo() {
+    }
+
+    static List<InstituicaoDetalhada> instituicoes(int tamanho) {
+        List<InstituicaoDetalhada> instituicoes = new ArrayList<>(tamanho);
+        for (long id = 1; id <= tamanho; id++) {
+            instituicoes.add(id % 2 == 0
+                    ? new InstituicaoDetalhada(id, "Universidade " + id, "U" + (id % 100000), true, "Brasil", "79070-900",
+                            "Avenida Costa e Silva", null, "MS", "Campo Grande", "12345678000199", "Universitário", "s/n",
+                            TipoInstituicao.BRASILEIRA, 0L)
+                    : new InstituicaoDetalhada(id, "University " + id, "U" + (id % 100000), true, "Portugal", "3004531",
+                            "Rua Larga", null, "Coimbra", "Coimbra", null, null, null, TipoInstituicao.ESTRANGEIRA, 0L));
+        }
+        return instituicoes;
+    }
+}
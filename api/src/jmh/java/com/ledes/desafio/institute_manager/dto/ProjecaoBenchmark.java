@@ -0,0 +1,42 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de montar uma InstituicaoDetalhada a partir de uma linha da consulta.
+ * Substitui o antigo mapeamento de entidades: a listagem agora usa o construtor da projeção JPQL.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjecaoBenchmark {
+
+    private long id = 1;
+
+    @Benchmark
+    public InstituicaoDetalhada projecaoBrasileira() {
+        return new InstituicaoDetalhada(id++, "Universidade Federal", "UFMS", true, "Brasil", "79070-900",
+                "Avenida Costa e Silva", null, "MS", "Campo Grande", "12345678000199", "Universitário", "s/n",
+                TipoInstituicao.BRASILEIRA, 0L);
+    }
+
+    @Benchmark
+    public InstituicaoDetalhada projecaoEstrangeira() {
+        return new InstituicaoDetalhada(id++, "Universidade de Coimbra", "UC", true, "Portugal", "3004531",
+                "Rua Larga", null, "Coimbra", "Coimbra", null, null, null, TipoInstituicao.ESTRANGEIRA, 0L);
+    }
+}
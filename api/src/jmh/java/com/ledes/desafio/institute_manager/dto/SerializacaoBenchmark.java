@@ -0,0 +1,54 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de serializar a listagem completa em JSON, com a mesma configuração de ObjectMapper do Spring Boot.
+ * A saída é descartada; o benchmark retorna o número de bytes gerados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SerializacaoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int tamanho;
+
+    private ObjectWriter writer;
+    private List<InstituicaoDetalhada> instituicoes;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, InstituicaoDetalhada.class));
+
+        instituicoes = ListaExemplo.instituicoes(tamanho);
+    }
+
+    @Benchmark
+    public long serializarLista() throws IOException {
+        ContadorBytes saida = new ContadorBytes();
+        writer.writeValue(saida, instituicoes);
+        return saida.bytes;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de uma instituição por ID: as três consultas anteriores ao discriminador 'tipo' (instituicao, depois
+ * instituicao_brasileira e, sem resultado, instituicao_estrangeira) contra a consulta única de
+ * InstituicaoRepository.findDetalhadaById, no H2 em memória no modo MySQL. Com conexao=tcp, o banco fica atrás do
+ * servidor TCP do H2 e cada consulta paga uma ida e volta pela interface de loopback, como paga pela rede no MySQL;
+ * com conexao=embutida, mede só o custo das consultas.
+ * Execução: mvn -Pjmh verify -Djmh.args="BuscaPorId"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class BuscaPorIdBenchmark {
+
+    private static final String INSTITUICAO = "select i.id, i.nome, i.sigla, i.status, i.tipo, i.versao from instituicao i where i.id = ?";
+    private static final String BRASILEIRA = "select b.id, b.pais, b.cnpj, b.cep, b.logradouro, b.bairro, b.estado, b.municipio,"
+            + " b.numero, b.complemento from instituicao_brasileira b where b.instituicao_id = ?";
+    private static final String ESTRANGEIRA = "select e.id, e.pais, e.cep, e.logradouro, e.estado_regiao, e.municipio,"
+            + " e.complemento from instituicao_estrangeira e where e.instituicao_id = ?";
+    private static final String DETALHADA = "select i.id, i.nome, i.sigla, i.status, coalesce(b.pais, e.pais), coalesce(b.cep, e.cep),"
+            + " coalesce(b.logradouro, e.logradouro), coalesce(b.complemento, e.complemento), coalesce(b.estado, e.estado_regiao),"
+            + " coalesce(b.municipio, e.municipio), b.cnpj, b.bairro, b.numero, i.tipo, i.versao from instituicao i"
+            + " left join instituicao_brasileira b on b.instituicao_id = i.id and i.tipo = 'BRASILEIRA'"
+            + " left join instituicao_estrangeira e on e.instituicao_id = i.id and i.tipo = 'ESTRANGEIRA'"
+            + " where (b.id is not null or e.id is not null) and i.id = ?";
+
+    /**
+     * Instituições no banco, metade de cada subtipo.
+     */
+    @Param({"10000"})
+    private int quantidade;
+
+    @Param({"embutida", "tcp"})
+    private String conexao;
+
+    private Server servidor;
+    private Connection connection;
+    private long proximo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "mem:busca;MODE=MySQL;DB_CLOSE_DELAY=-1";
+        if ("tcp".equals(conexao)) {
+            servidor = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            connection = DriverManager.getConnection("jdbc:h2:tcp://localhost:" + servidor.getPort() + "/" + url, "sa", "");
+        } else {
+            connection = DriverManager.getConnection("jdbc:h2:" + url, "sa", "");
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            statement.execute("create table instituicao (id bigint primary key, nome varchar(32) not null, sigla varchar(8) not null,"
+                    + " status boolean not null, tipo varchar(16), versao bigint not null)");
+            statement.execute("create table instituicao_brasileira (id bigint auto_increment primary key,"
+                    + " instituicao_id bigint not null references instituicao (id), pais varchar(100), cnpj varchar(14),"
+                    + " cep varchar(9), logradouro varchar(32), bairro varchar(32), estado varchar(32), municipio varchar(32),"
+                    + " numero varchar(8), complemento varchar(16))");
+            statement.execute("create table instituicao_estrangeira (id bigint auto_increment primary key,"
+                    + " instituicao_id bigint not null references instituicao (id), pais varchar(100), cep varchar(9),"
+                    + " logradouro varchar(32), estado_regiao varchar(32), municipio varchar(32), complemento varchar(32))");
+        }
+        try (PreparedStatement instituicao = connection.prepareStatement("insert into instituicao values (?, ?, ?, true, ?, 0)");
+             PreparedStatement brasileira = connection.prepareStatement("insert into instituicao_brasileira (instituicao_id, pais,"
+                     + " cnpj, cep, logradouro, bairro, estado, municipio, numero) values (?, 'Brasil', '12345678000199',"
+                     + " '79070900', 'Avenida Costa e Silva', 'Universitário', 'MS', 'Campo Grande', 's/n')");
+             PreparedStatement estrangeira = connection.prepareStatement("insert into instituicao_estrangeira (instituicao_id, pais,"
+                     + " cep, logradouro, estado_regiao, municipio) values (?, 'Portugal', '3004531', 'Rua Larga', 'Coimbra', 'Coimbra')")) {
+            for (long id = 1; id <= quantidade; id++) {
+                boolean ehBrasileira = id % 2 == 0;
+                instituicao.setLong(1, id);
+                instituicao.setString(2, "Universidade " + id);
+                instituicao.setString(3, "U" + id % 1000);
+                instituicao.setString(4, ehBrasileira ? "BRASILEIRA" : "ESTRANGEIRA");
+                instituicao.executeUpdate();
+                PreparedStatement subtipo = ehBrasileira ? brasileira : estrangeira;
+                subtipo.setLong(1, id);
+                subtipo.executeUpdate();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        if (servidor != null) {
+            servidor.stop();
+        }
+    }
+
+    /**
+     * Antes: a instituição, depois a tabela brasileira e, se não for brasileira, a estrangeira (duas ou três consultas).
+     */
+    @Benchmark
+    public void tresConsultas(Blackhole blackhole) throws SQLException {
+        long id = proximoId();
+        consumir(blackhole, INSTITUICAO, id);
+        if (!consumir(blackhole, BRASILEIRA, id)) {
+            consumir(blackhole, ESTRANGEIRA, id);
+        }
+    }
+
+    /**
+     * Depois: uma consulta, com o discriminador restringindo a junção ao subtipo.
+     */
+    @Benchmark
+    public void consultaUnica(Blackhole blackhole) throws SQLException {
+        consumir(blackhole, DETALHADA, proximoId());
+    }
+
+    private long proximoId() {
+        proximo = proximo % quantidade + 1;
+        return proximo;
+    }
+
+    /**
+     * Prepara e executa a consulta como o Hibernate, que prepara o comando a cada execução.
+     */
+    private boolean consumir(Blackhole blackhole, String sql, long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int colunas = resultSet.getMetaData().getColumnCount();
+                boolean encontrada = false;
+                while (resultSet.next()) {
+                    encontrada = true;
+                    for (int coluna = 1; coluna <= colunas; coluna++) {
+                        blackhole.consume(resultSet.getObject(coluna));
+                    }
+                }
+                return encontrada;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.ResultadoBusca;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência da busca por nome ou sigla no índice de trigramas do InstituicaoBuscaService, com o catálogo montado
+ * pelos mesmos eventos que o mantêm atualizado. O modo SampleTime informa os percentis (p50, p99, p99.9), que devem
+ * ficar abaixo de 1 ms; os termos vão de uma letra, que casa com o início de muitos nomes, a trechos longos.
+ * Execução: mvn -Pjmh verify -Djmh.args="BuscaBenchmark"
+ * <p>
+ * Resultado registrado (JDK 21, 1 CPU, µs):
+ * <pre>
+ * termo                   10000: p50    p99   100000: p50    p99
+ * u                               82    159          1350   3188
+ * uf                               9     25           125    301
+ * fed                             93    190          1100   2377
+ * federal                         85    161          1000   2321
+ * sao paulo                       17     45           249    572
+ * universidade federal            33     65           420    849
+ * </pre>
+ * Com 10 mil instituições, todos os termos ficam abaixo de 1 ms no p99. Com 100 mil, os termos que casam com
+ * dezenas de milhares de nomes (uma letra, "federal") passam de 1 ms: o custo é pontuar cada candidato, e o
+ * catálogo sintético concentra os nomes em poucas palavras. Os picos do p99.9 vêm do GC e da CPU única.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuscaBenchmark {
+
+    private static final String[] TIPOS = {"Universidade", "Instituto", "Faculdade", "Centro Universitário", "Escola"};
+    private static final String[] ESFERAS = {"Federal", "Estadual", "Municipal", "Tecnológica", "Católica", "Paulista"};
+    private static final String[] LOCAIS = {"São Paulo", "Goiás", "Pará", "Paraná", "Bahia", "Piauí", "Ceará", "Acre",
+            "Amapá", "Roraima", "Sergipe", "Alagoas", "Maranhão", "Tocantins", "Rondônia", "Amazonas", "Espírito Santo"};
+
+    /**
+     * Instituições no índice.
+     */
+    @Param({"10000", "100000"})
+    private int quantidade;
+
+    @Param({"u", "uf", "fed", "federal", "sao paulo", "universidade federal"})
+    private String termo;
+
+    private InstituicaoBuscaService instituicaoBuscaService;
+
+    @Setup
+    public void setUp() {
+        instituicaoBuscaService = new InstituicaoBuscaService(null, 20, 100);
+        for (long id = 1; id <= quantidade; id++) {
+            String tipo = TIPOS[(int) (id % TIPOS.length)];
+            String esfera = ESFERAS[(int) (id / TIPOS.length % ESFERAS.length)];
+            String local = LOCAIS[(int) (id / (TIPOS.length * ESFERAS.length) % LOCAIS.length)];
+            String nome = tipo + " " + esfera + " " + local;
+            String sigla = "" + tipo.charAt(0) + esfera.charAt(0) + Long.toString(id, 36).toUpperCase();
+            instituicaoBuscaService.onInstituicaoAlterada(new InstituicaoAlteradaEvent(id, nome.length() > 32 ? nome.substring(0, 32) : nome,
+                    sigla.length() > 8 ? sigla.substring(0, 8) : sigla, id % 10 != 0, TipoAlteracao.CRIADA));
+        }
+    }
+
+    @Benchmark
+    public List<ResultadoBusca> buscar() {
+        return instituicaoBuscaService.buscar(termo, null);
+    }
+}
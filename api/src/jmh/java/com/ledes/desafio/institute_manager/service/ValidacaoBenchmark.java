@@ -0,0 +1,99 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo das validações executadas em todo cadastro e atualização de instituição.
+ * Usa diretamente os validadores pré-montados dos serviços, que não acessam o banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoBenchmark {
+
+    private InstituicaoBrasileira instituicaoBrasileira;
+    private InstituicaoEstrangeira instituicaoEstrangeira;
+    private Instituicao instituicaoInvalida;
+
+    @Setup
+    public void setUp() {
+        instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(novaInstituicao("Universidade Federal", "UFMS"));
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070-900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado("MS");
+        instituicaoBrasileira.setMunicipio("Campo Grande");
+        instituicaoBrasileira.setNumero("s/n");
+
+        instituicaoEstrangeira = new InstituicaoEstrangeira();
+        instituicaoEstrangeira.setInstituicao(novaInstituicao("Universidade de Coimbra", "UC"));
+        instituicaoEstrangeira.setPais("Portugal");
+        instituicaoEstrangeira.setCep("3004531");
+        instituicaoEstrangeira.setLogradouro("Rua Larga");
+        instituicaoEstrangeira.setEstadoRegiao("Coimbra");
+        instituicaoEstrangeira.setMunicipio("Coimbra");
+
+        instituicaoInvalida = novaInstituicao("", "");
+    }
+
+    @Benchmark
+    public List<ErroCampo> validarInstituicao() {
+        return InstituicaoService.VALIDADOR.validar(instituicaoBrasileira.getInstituicao());
+    }
+
+    /**
+     * Caminho de erro: nome e sigla vazios, com as duas violações devolvidas sem exceção.
+     */
+    @Benchmark
+    public List<ErroCampo> validarInstituicaoInvalida() {
+        return InstituicaoService.VALIDADOR.validar(instituicaoInvalida);
+    }
+
+    @Benchmark
+    public List<ErroCampo> validarCamposBrasileira() {
+        return InstituicaoBrasileiraService.VALIDADOR_CAMPOS.validar(instituicaoBrasileira);
+    }
+
+    @Benchmark
+    public List<ErroCampo> validarCamposEstrangeira() {
+        return InstituicaoEstrangeiraService.VALIDADOR_CAMPOS.validar(instituicaoEstrangeira);
+    }
+
+    @Benchmark
+    public List<ErroCampo> validarNovaBrasileira() {
+        return InstituicaoBrasileiraService.VALIDADOR_NOVA.validar(instituicaoBrasileira);
+    }
+
+    @Benchmark
+    public boolean cepPattern() {
+        return InstituicaoEstrangeiraService.CEP_PATTERN.matcher(instituicaoEstrangeira.getCep()).matches();
+    }
+
+    private static Instituicao novaInstituicao(String nome, String sigla) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla(sigla);
+        return instituicao;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ledes.desafio.institute_manager.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Verificação do banco de dados usada por /healthcheck e por /actuator/health.
+ * <p>
+ * O resultado fica guardado por um intervalo curto, e no máximo uma verificação roda por vez: chamadas simultâneas
+ * aguardam a mesma verificação em vez de pedir outra conexão ao pool. A espera é limitada; se o banco não responder
+ * dentro do tempo limite, a chamada retorna DOWN sem esperar o timeout de conexão do HikariCP.
+ */
+@Component
+public class BancoHealthIndicator implements HealthIndicator {
+
+    private final DataSource dataSource;
+    private final long validadeNanos;
+    private final Duration tempoLimite;
+    private final AtomicReference<CompletableFuture<Health>> emAndamento = new AtomicReference<>();
+
+    private volatile Health ultimoResultado;
+    private volatile long verificadoEm;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param dataSource DataSource da aplicação.
+     * @param validade Tempo durante o qual o último resultado é reaproveitado.
+     * @param tempoLimite Tempo máximo de espera por uma verificação.
+     */
+    @Autowired
+    public BancoHealthIndicator(DataSource dataSource,
+                                @Value("${instituicao.healthcheck.validade:5s}") Duration validade,
+                                @Value("${instituicao.healthcheck.tempo-limite:2s}") Duration tempoLimite) {
+        this.dataSource = dataSource;
+        this.validadeNanos = validade.toNanos();
+        this.tempoLimite = tempoLimite;
+    }
+
+    @Override
+    public Health health() {
+        Health resultado = ultimoResultado;
+        if (resultado != null && System.nanoTime() - verificadoEm < validadeNanos) {
+            return resultado;
+        }
+
+        CompletableFuture<Health> verificacao = iniciarOuAcompanhar();
+        try {
+            return verificacao.get(tempoLimite.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return Health.down().withDetail("erro", "O banco não respondeu em " + tempoLimite.toMillis() + " ms.").build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Health.down(e).build();
+        } catch (ExecutionException e) {
+            return Health.down(e.getCause()).build();
+        }
+    }
+
+    /**
+     * Reaproveita a verificação em andamento ou inicia uma nova, em uma thread virtual.
+     * Uma falha inesperada completa a verificação com a exceção e também libera a próxima; sem isso, todas as
+     * chamadas seguintes aguardariam a mesma verificação até o tempo limite.
+     */
+    private CompletableFuture<Health> iniciarOuAcompanhar() {
+        CompletableFuture<Health> nova = new CompletableFuture<>();
+        CompletableFuture<Health> atual = emAndamento.compareAndExchange(null, nova);
+        if (atual != null) {
+            return atual;
+        }
+        Thread.ofVirtual().name("verificacao-banco").start(() -> {
+            try {
+                Health resultado = verificar();
+                ultimoResultado = resultado;
+                verificadoEm = System.nanoTime();
+                nova.complete(resultado);
+            } catch (Throwable e) {
+                nova.completeExceptionally(e);
+            } finally {
+                emAndamento.compareAndSet(nova, null);
+            }
+        });
+        return nova;
+    }
+
+    private Health verificar() {
+        int segundos = (int) Math.max(1, tempoLimite.toSeconds());
+        try (Connection connection = dataSource.getConnection()) {
+            if (connection.isValid(segundos)) {
+                return Health.up().withDetail("banco", connection.getMetaData().getDatabaseProductName()).build();
+            }
+            return Health.down().withDetail("erro", "A conexão não respondeu à validação.").build();
+        } catch (SQLException e) {
+            return Health.down(e).build();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ledes.desafio.institute_manager.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache Caffeine que não guarda um valor lido antes de uma invalidação da mesma chave.
+ * <p>
+ * Sem isso, uma leitura que começa antes do commit de uma alteração e termina depois da invalidação gravaria o valor
+ * antigo, servido até expirar. Cada invalidação incrementa a geração da faixa da chave antes de removê-la; a leitura
+ * anota a geração antes de consultar o banco e só grava, dentro do compute da chave, se ela não mudou. Como a remoção
+ * também passa pelo bloqueio da chave, ou a gravação acontece antes e é removida, ou acontece depois e é descartada.
+ * Chaves da mesma faixa descartam gravações umas das outras, o que só custa uma nova consulta.
+ * <p>
+ * Resultados nulos não são guardados. Usado com @Cacheable(sync = true), que entrega a leitura a get(key, loader).
+ */
+class CacheComGeracoes extends CaffeineCache {
+
+    private static final int FAIXAS = 64;
+
+    private final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS);
+
+    CacheComGeracoes(String nome, Cache<Object, Object> cache) {
+        super(nome, cache, false);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper atual = get(key);
+        if (atual != null) {
+            return (T) atual.get();
+        }
+        int faixa = faixa(key);
+        long geracao = geracoes.get(faixa);
+        T valor;
+        try {
+            valor = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (valor != null) {
+            getNativeCache().asMap().compute(key, (chave, anterior) -> geracoes.get(faixa) == geracao ? valor : anterior);
+        }
+        return valor;
+    }
+
+    @Override
+    public void evict(Object key) {
+        geracoes.incrementAndGet(faixa(key));
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        geracoes.incrementAndGet(faixa(key));
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        incrementarTodas();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        incrementarTodas();
+        return super.invalidate();
+    }
+
+    private void incrementarTodas() {
+        for (int i = 0; i < FAIXAS; i++) {
+            geracoes.incrementAndGet(i);
+        }
+    }
+
+    private static int faixa(Object key) {
+        return Math.floorMod(key.hashCode(), FAIXAS);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ledes.desafio.institute_manager.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+// O cache envolve a transação: invalidações acontecem após o commit e acertos nem abrem transação
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String INSTITUICOES = "instituicoes";
+
+    /**
+     * Região do cache de consultas do Hibernate com a busca dos subtipos pelo ID da instituição.
+     * As regiões do cache de segundo nível são configuradas em hibernate-cache.conf.
+     */
+    public static final String REGIAO_SUBTIPO_POR_INSTITUICAO = "subtipo-por-instituicao";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${instituicao.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                                     @Value("${instituicao.cache.ttl:10m}") Duration ttl) {
+        // Leituras concorrentes com uma alteração não repõem o valor antigo depois da invalidação (CacheComGeracoes)
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(INSTITUICOES) {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String nome, Cache<Object, Object> cache) {
+                return new CacheComGeracoes(nome, cache);
+            }
+        };
+        // Caffeine usa W-TinyLFU para despejo ao atingir o tamanho máximo
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ledes.desafio.institute_manager.config;
+
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.repository.InstituicaoBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Popula o banco em memória do perfil "perf" com instituições sintéticas antes de a aplicação ficar pronta,
+ * para que os testes de carga rodem sem o MySQL do docker-compose. Metade brasileiras e metade estrangeiras,
+ * com estados, municípios e países repetidos como numa base real, gravadas em lotes JDBC.
+ */
+@Component
+@Profile("perf")
+public class CargaInicialPerf implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaInicialPerf.class);
+
+    private static final String[][] CIDADES_BRASIL = {
+            {"MS", "Campo Grande"}, {"MS", "Dourados"}, {"SP", "São Paulo"}, {"SP", "Campinas"},
+            {"RJ", "Rio de Janeiro"}, {"MG", "Belo Horizonte"}, {"PR", "Curitiba"}, {"RS", "Porto Alegre"}
+    };
+
+    private static final String[][] CIDADES_EXTERIOR = {
+            {"Portugal", "Coimbra", "Coimbra"}, {"Portugal", "Lisboa", "Lisboa"}, {"Espanha", "Madrid", "Madrid"},
+            {"Argentina", "Buenos Aires", "La Plata"}, {"Estados Unidos", "California", "Berkeley"},
+            {"Alemanha", "Baviera", "Munique"}
+    };
+
+    private final InstituicaoBatchRepository instituicaoBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int quantidade;
+    private final int tamanhoLote;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param instituicaoBatchRepository Repositório das inserções em lote.
+     * @param transactionTemplate Transação de cada lote.
+     * @param quantidade Quantidade total de instituições a gerar.
+     * @param tamanhoLote Registros por batch JDBC.
+     */
+    @Autowired
+    public CargaInicialPerf(InstituicaoBatchRepository instituicaoBatchRepository, TransactionTemplate transactionTemplate,
+                            @Value("${instituicao.perf.quantidade:10000}") int quantidade,
+                            @Value("${instituicao.importacao.tamanho-lote:500}") int tamanhoLote) {
+        this.instituicaoBatchRepository = instituicaoBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.quantidade = quantidade;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.nanoTime();
+        int brasileiras = quantidade / 2;
+        for (int de = 0; de < brasileiras; de += tamanhoLote) {
+            List<InstituicaoBrasileira> lote = new ArrayList<>(tamanhoLote);
+            for (int i = de; i < Math.min(de + tamanhoLote, brasileiras); i++) {
+                lote.add(brasileira(i));
+            }
+            transactionTemplate.executeWithoutResult(status -> instituicaoBatchRepository.insertBrasileiras(lote));
+        }
+        for (int de = brasileiras; de < quantidade; de += tamanhoLote) {
+            List<InstituicaoEstrangeira> lote = new ArrayList<>(tamanhoLote);
+            for (int i = de; i < Math.min(de + tamanhoLote, quantidade); i++) {
+                lote.add(estrangeira(i));
+            }
+            transactionTemplate.executeWithoutResult(status -> instituicaoBatchRepository.insertEstrangeiras(lote));
+        }
+        log.info("Perfil perf: {} instituições geradas em {} ms.", quantidade, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private static InstituicaoBrasileira brasileira(int i) {
+        String[] cidade = CIDADES_BRASIL[i % CIDADES_BRASIL.length];
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(instituicao("Universidade " + i, "UB" + i));
+        instituicaoBrasileira.setCnpj(String.format("%014d", i));
+        instituicaoBrasileira.setCep("79070900");
+        instituicaoBrasileira.setLogradouro("Avenida Principal");
+        instituicaoBrasileira.setBairro("Centro");
+        instituicaoBrasileira.setEstado(cidade[0]);
+        instituicaoBrasileira.setMunicipio(cidade[1]);
+        instituicaoBrasileira.setNumero(Integer.toString(i % 10000));
+        return instituicaoBrasileira;
+    }
+
+    private static InstituicaoEstrangeira estrangeira(int i) {
+        String[] cidade = CIDADES_EXTERIOR[i % CIDADES_EXTERIOR.length];
+        InstituicaoEstrangeira instituicaoEstrangeira = new InstituicaoEstrangeira();
+        instituicaoEstrangeira.setInstituicao(instituicao("University " + i, "UE" + i));
+        instituicaoEstrangeira.setPais(cidade[0]);
+        instituicaoEstrangeira.setCep("3004531");
+        instituicaoEstrangeira.setLogradouro("Main Street");
+        instituicaoEstrangeira.setEstadoRegiao(cidade[1]);
+        instituicaoEstrangeira.setMunicipio(cidade[2]);
+        return instituicaoEstrangeira;
+    }
+
+    private static Instituicao instituicao(String nome, String sigla) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla(sigla.length() > 8 ? sigla.substring(sigla.length() - 8) : sigla);
+        return instituicao;
+    }
+}
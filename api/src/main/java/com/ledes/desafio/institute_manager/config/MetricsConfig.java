@@ -0,0 +1,30 @@
+package com.ledes.desafio.institute_manager.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Métrica dos métodos públicos dos serviços de instituição, com as tags 'class' e 'method'.
+     */
+    public static final String TIMER_SERVICOS = "instituicao.servico";
+
+    /**
+     * Métrica das gravações em lote via JDBC, que não passam pelos repositórios do Spring Data.
+     */
+    public static final String TIMER_LOTE = "instituicao.repositorio.lote";
+
+    /**
+     * Habilita @Timed nos beans. Os repositórios do Spring Data já são medidos pelo Actuator
+     * (spring.data.repository.invocations), assim como o pool do HikariCP, o cache e a JVM.
+     * Como o cache envolve os serviços, acertos do cache não chegam ao timer do serviço; eles aparecem em cache.gets.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
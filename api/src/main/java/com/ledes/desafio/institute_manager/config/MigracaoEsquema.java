@@ -0,0 +1,109 @@
+package com.ledes.desafio.institute_manager.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Migrações versionadas do esquema, aplicadas na inicialização, depois da atualização do esquema pelo Hibernate
+ * (ddl-auto) e antes de o servidor aceitar requisições. O init.sql só roda em um banco vazio; estas migrações levam
+ * os bancos já existentes ao esquema atual.
+ * <p>
+ * Cada passo adiciona o que falta e preenche as linhas antigas, e pode ser repetido sem efeito. Os passos aplicados
+ * ficam na tabela migracao_esquema e não rodam de novo; se duas instâncias subirem juntas, as duas podem aplicar o
+ * mesmo passo, e a segunda apenas não o registra.
+ */
+@Component
+public class MigracaoEsquema implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracaoEsquema.class);
+
+    private record Passo(int versao, String descricao, Consumer<JdbcTemplate> aplicar) {
+    }
+
+    private static final List<Passo> PASSOS = List.of(
+            new Passo(1, "Subtipo da instituição (coluna tipo)", jdbc -> {
+                if (!existeColuna(jdbc, "instituicao", "tipo")) {
+                    jdbc.execute("alter table instituicao add column tipo varchar(16)");
+                }
+                jdbc.update("update instituicao set tipo = 'BRASILEIRA' where tipo is null"
+                        + " and id in (select instituicao_id from instituicao_brasileira)");
+                jdbc.update("update instituicao set tipo = 'ESTRANGEIRA' where tipo is null"
+                        + " and id in (select instituicao_id from instituicao_estrangeira)");
+            }),
+            new Passo(2, "Versão da instituição (coluna versao)", jdbc -> {
+                if (!existeColuna(jdbc, "instituicao", "versao")) {
+                    jdbc.execute("alter table instituicao add column versao bigint not null default 0");
+                }
+                jdbc.update("update instituicao set versao = 0 where versao is null");
+            }),
+            new Passo(3, "Contador de alterações da coleção (tabela versao_colecao)", jdbc ->
+                    jdbc.execute("create table if not exists versao_colecao (id int primary key, versao bigint not null)"))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param jdbcTemplate Acesso ao banco primário (fora de transação).
+     */
+    @Autowired
+    public MigracaoEsquema(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!existeTabela(jdbcTemplate, "instituicao")) {
+            // Sem o esquema (ddl-auto=none num banco vazio) não há o que migrar
+            return;
+        }
+        jdbcTemplate.execute("create table if not exists migracao_esquema ("
+                + "versao int primary key, descricao varchar(100) not null, aplicada_em timestamp not null)");
+        Set<Integer> aplicadas = new HashSet<>(jdbcTemplate.queryForList("select versao from migracao_esquema", Integer.class));
+        for (Passo passo : PASSOS) {
+            if (aplicadas.contains(passo.versao())) {
+                continue;
+            }
+            long inicio = System.nanoTime();
+            passo.aplicar().accept(jdbcTemplate);
+            try {
+                jdbcTemplate.update("insert into migracao_esquema (versao, descricao, aplicada_em) values (?, ?, current_timestamp)",
+                        passo.versao(), passo.descricao());
+            } catch (DuplicateKeyException e) {
+                // Aplicado ao mesmo tempo por outra instância
+            }
+            log.info("Migração {} aplicada em {} ms: {}.", passo.versao(), (System.nanoTime() - inicio) / 1_000_000,
+                    passo.descricao());
+        }
+    }
+
+    private static boolean existeTabela(JdbcTemplate jdbc, String tabela) {
+        try {
+            jdbc.queryForList("select 1 from " + tabela + " where 1 = 0");
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private static boolean existeColuna(JdbcTemplate jdbc, String tabela, String coluna) {
+        try {
+            jdbc.queryForList("select " + coluna + " from " + tabela + " where 1 = 0");
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ledes.desafio.institute_manager.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Encaminha as conexões de transações somente leitura para a réplica e todas as demais para o primário.
+ * <p>
+ * Leitura das próprias escritas: o commit de uma transação de escrita abre uma janela durante a qual as leituras
+ * desta instância também vão para o primário, cobrindo o atraso de replicação. Assim, quem lê logo depois de
+ * escrever vê o que escreveu, e o cache de instituições, invalidado pela escrita, não é repovoado com o valor
+ * antigo da réplica. A janela vale para as escritas feitas nesta instância.
+ * <p>
+ * Deve ficar atrás de um LazyConnectionDataSourceProxy, para que a conexão só seja obtida depois que a transação
+ * já foi marcada como somente leitura.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    enum Destino {
+        PRIMARIO,
+        REPLICA
+    }
+
+    private final long janelaNanos;
+    private volatile long primarioAte = System.nanoTime();
+
+    /**
+     * @param primario DataSource de escrita, usado também fora de transações.
+     * @param replica DataSource das transações somente leitura.
+     * @param janela Tempo após cada escrita em que as leituras continuam no primário.
+     */
+    public RoteamentoDataSource(DataSource primario, DataSource replica, Duration janela) {
+        this.janelaNanos = janela.toNanos();
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Destino.PRIMARIO;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        primarioAte = System.nanoTime() + janelaNanos;
+                    }
+                }
+            });
+            return Destino.PRIMARIO;
+        }
+        return System.nanoTime() - primarioAte < 0 ? Destino.PRIMARIO : Destino.REPLICA;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ledes.desafio.institute_manager.controller;
+
+import com.ledes.desafio.institute_manager.dto.RespostaErro;
+import com.ledes.desafio.institute_manager.service.ChaveIdempotenciaException;
+import com.ledes.desafio.institute_manager.service.FilaCheiaException;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import com.ledes.desafio.institute_manager.validation.ValidacaoException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.List;
+
+/**
+ * Tradução das exceções dos serviços em respostas HTTP, no lugar dos blocos try/catch de cada controlador.
+ * Todas as respostas de erro usam o corpo RespostaErro.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(ValidacaoException.class)
+    public ResponseEntity<RespostaErro> handleValidacao(ValidacaoException e) {
+        return ResponseEntity.badRequest().body(RespostaErro.validacao(e.getErros()));
+    }
+
+    /**
+     * Só as exceções da própria API viram 400 com a mensagem; qualquer outra exceção (um IllegalArgumentException
+     * de uma biblioteca, por exemplo) é uma falha do servidor e segue para o 500 padrão, sem expor a mensagem.
+     */
+    @ExceptionHandler(RequisicaoInvalidaException.class)
+    public ResponseEntity<RespostaErro> handleRequisicaoInvalida(RequisicaoInvalidaException e) {
+        return resposta(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<RespostaErro> handleNaoEncontrada(EntityNotFoundException e) {
+        return resposta(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    /**
+     * Conflito de versão: com If-Match, o ETag informado não é mais o atual; sem ele, outra requisição alterou a
+     * instituição durante esta (a verificação do @Version).
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<RespostaErro> handleConflitoVersao(OptimisticLockingFailureException e, HttpServletRequest request) {
+        String mensagem = request.getHeader(HttpHeaders.IF_MATCH) != null
+                ? "A instituição foi alterada desde a versão informada em If-Match."
+                : "A instituição foi alterada por outra requisição; carregue-a novamente e repita a operação.";
+        return resposta(HttpStatus.PRECONDITION_FAILED, mensagem);
+    }
+
+    /**
+     * Cadastro assíncrono sem vaga na fila: 503 com Retry-After, para que o cliente reduza o ritmo.
+     */
+    @ExceptionHandler(FilaCheiaException.class)
+    public ResponseEntity<RespostaErro> handleFilaCheia(FilaCheiaException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new RespostaErro(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage(), List.of()));
+    }
+
+    /**
+     * Idempotency-Key reutilizada com outro corpo (422), ou ainda em execução em outra requisição (409, com Retry-After).
+     */
+    @ExceptionHandler(ChaveIdempotenciaException.class)
+    public ResponseEntity<RespostaErro> handleChaveIdempotencia(ChaveIdempotenciaException e) {
+        if (e.isConflitante()) {
+            return resposta(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new RespostaErro(HttpStatus.CONFLICT.value(), e.getMessage(), List.of()));
+    }
+
+    private static ResponseEntity<RespostaErro> resposta(HttpStatus status, String mensagem) {
+        return ResponseEntity.status(status).body(new RespostaErro(status.value(), mensagem, List.of()));
+    }
+}
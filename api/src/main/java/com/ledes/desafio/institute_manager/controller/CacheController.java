@@ -0,0 +1,64 @@
+package com.ledes.desafio.institute_manager.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ledes.desafio.institute_manager.dto.EstatisticasCache;
+import com.ledes.desafio.institute_manager.dto.EstatisticasSnapshot;
+import com.ledes.desafio.institute_manager.service.CatalogoSnapshotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Cache", description = "API para consultar as estatísticas dos caches locais")
+public class CacheController {
+
+    private final CacheManager cacheManager;
+    private final CatalogoSnapshotService catalogoSnapshotService;
+
+    @Autowired
+    public CacheController(CacheManager cacheManager, CatalogoSnapshotService catalogoSnapshotService) {
+        this.cacheManager = cacheManager;
+        this.catalogoSnapshotService = catalogoSnapshotService;
+    }
+
+    @GetMapping("/estatisticas")
+    @Operation(summary = "Obter estatísticas dos caches", description = "Retorna tamanho, acertos, falhas e despejos de cada cache local.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso")
+    })
+    public ResponseEntity<List<EstatisticasCache>> getEstatisticas() {
+        List<EstatisticasCache> estatisticas = new ArrayList<>();
+        for (String nome : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(nome) instanceof CaffeineCache caffeineCache) {
+                Cache<Object, Object> cache = caffeineCache.getNativeCache();
+                CacheStats stats = cache.stats();
+                estatisticas.add(new EstatisticasCache(nome, cache.estimatedSize(), stats.hitCount(),
+                        stats.missCount(), stats.evictionCount(), stats.hitRate()));
+            }
+        }
+        return ResponseEntity.ok(estatisticas);
+    }
+
+    @GetMapping("/snapshot")
+    @Operation(summary = "Obter a ocupação do snapshot do catálogo", description = "Com instituicao.snapshot.habilitado=true, retorna a estimativa do heap ocupado pelo catálogo em memória (colunas com dicionário) e por um List<InstituicaoDetalhada> com os mesmos dados, além dos valores distintos de cada coluna.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Snapshot desabilitado ou ainda não carregado")
+    })
+    public ResponseEntity<EstatisticasSnapshot> getEstatisticasSnapshot() {
+        return ResponseEntity.of(catalogoSnapshotService.getEstatisticas());
+    }
+}
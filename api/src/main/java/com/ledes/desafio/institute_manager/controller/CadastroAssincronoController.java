@@ -0,0 +1,74 @@
+package com.ledes.desafio.institute_manager.controller;
+
+import com.ledes.desafio.institute_manager.dto.EstadoCadastro;
+import com.ledes.desafio.institute_manager.dto.SituacaoCadastro;
+import com.ledes.desafio.institute_manager.service.CadastroAssincronoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/instituicao/cadastros")
+@Tag(name = "Cadastro Assincrono", description = "Situação dos cadastros feitos com o cabeçalho Prefer: respond-async")
+public class CadastroAssincronoController {
+
+    /**
+     * Cabeçalho de preferências do cliente (RFC 7240).
+     */
+    static final String PREFER = "Prefer";
+
+    private static final String RESPOND_ASYNC = "respond-async";
+
+    private final CadastroAssincronoService cadastroAssincronoService;
+
+    @Autowired
+    public CadastroAssincronoController(CadastroAssincronoService cadastroAssincronoService) {
+        this.cadastroAssincronoService = cadastroAssincronoService;
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Consultar um cadastro assíncrono", description = "Retorna a situação de um cadastro aceito com 202. Quando concluído, traz o ID atribuído à instituição e o cabeçalho Location aponta para ela.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação do cadastro retornada com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Cadastro não encontrado ou já expirado")
+    })
+    public ResponseEntity<SituacaoCadastro> getSituacao(@PathVariable String id) {
+        return cadastroAssincronoService.getSituacao(id)
+                .map(situacao -> situacao.getEstado() == EstadoCadastro.CONCLUIDO
+                        ? ResponseEntity.ok().location(URI.create("/api/instituicao/" + situacao.getInstituicaoId())).body(situacao)
+                        : ResponseEntity.ok(situacao))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Indica se o cliente pediu o cadastro assíncrono (Prefer: respond-async).
+     */
+    static boolean isRespondAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preferencia : prefer.split(",")) {
+            String nome = preferencia.split("[;=]", 2)[0].trim();
+            if (RESPOND_ASYNC.equalsIgnoreCase(nome)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resposta 202 de um cadastro enfileirado, com o recurso de situação em Location.
+     */
+    static ResponseEntity<SituacaoCadastro> aceito(SituacaoCadastro situacao) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/instituicao/cadastros/" + situacao.getId()))
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(situacao);
+    }
+}
@@ -0,0 +1,116 @@
+package com.ledes.desafio.institute_manager.controller;
+
+import com.ledes.desafio.institute_manager.dto.VersaoColecao;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Geração e leitura dos ETags usados nos endpoints de instituições.
+ * Instituições usam ETags fortes, exigidos pelo If-Match das atualizações; listagens usam ETags fracos, que só
+ * servem ao If-None-Match e permitem ao Tomcat comprimir a resposta (ele não comprime respostas com ETag forte).
+ * <p>
+ * Um ETag forte promete bytes idênticos, e JSON, Smile e CBOR são bytes diferentes da mesma versão; por isso o ETag
+ * de uma instituição leva o formato negociado pelo Accept ("3" em JSON, "3-smile", "3-cbor"). O If-Match só compara
+ * a versão, pois qualquer representação da versão atual autoriza a atualização.
+ */
+final class ETags {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    private ETags() {
+    }
+
+    /**
+     * ETag de uma instituição, derivado da coluna de versão e do formato da resposta.
+     *
+     * @param versao Versão da instituição.
+     * @param accept Cabeçalho Accept da requisição, ou nulo.
+     */
+    static String of(Long versao, String accept) {
+        String formato = formato(accept);
+        return "\"" + versao + (formato == null ? "" : "-" + formato) + "\"";
+    }
+
+    /**
+     * Formato binário que o Spring MVC escolhe para o Accept, ou nulo para JSON. Segue a ordem dos conversores: os
+     * tipos aceitos valem pela qualidade, e um curinga fica com o JSON, que vem primeiro.
+     */
+    static String formato(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return null;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            // O Spring responde 406 antes de usar o ETag
+            return null;
+        }
+        aceitos.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType aceito : aceitos) {
+            if (aceito.getQualityValue() == 0) {
+                break;
+            }
+            if (aceito.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (aceito.isCompatibleWith(SMILE)) {
+                return "smile";
+            }
+            if (aceito.isCompatibleWith(CBOR)) {
+                return "cbor";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * ETag fraco de uma listagem, derivado da versão da coleção e dos parâmetros que definem a página.
+     * Os parâmetros entram como hash, pois filtros podem trazer aspas ou acentos, que não cabem num cabeçalho.
+     */
+    static String of(VersaoColecao versaoColecao, String... parametros) {
+        StringBuilder etag = new StringBuilder("W/\"").append(versaoColecao.getVersao());
+        if (parametros.length > 0) {
+            StringBuilder chave = new StringBuilder();
+            for (String parametro : parametros) {
+                chave.append(parametro == null ? "" : parametro).append('\u0000');
+            }
+            etag.append('-').append(Integer.toHexString(chave.toString().hashCode()));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Lê a versão esperada de um cabeçalho If-Match.
+     *
+     * @param ifMatch Valor do cabeçalho, ou nulo.
+     * @return Versão esperada, ou nulo quando não há pré-condição (cabeçalho ausente ou "*").
+     * @throws RequisicaoInvalidaException Se o cabeçalho não contiver um ETag forte desta API.
+     */
+    static Long parseVersao(String ifMatch) {
+        if (!StringUtils.hasText(ifMatch) || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.length() < 2 || !valor.startsWith("\"") || !valor.endsWith("\"")) {
+            throw new RequisicaoInvalidaException("If-Match deve conter um ETag forte.");
+        }
+        String versao = valor.substring(1, valor.length() - 1);
+        int formato = versao.indexOf('-');
+        if (formato >= 0 && !List.of("smile", "cbor").contains(versao.substring(formato + 1))) {
+            throw new RequisicaoInvalidaException("If-Match deve conter um ETag forte.");
+        }
+        try {
+            return Long.parseLong(formato < 0 ? versao : versao.substring(0, formato));
+        } catch (NumberFormatException e) {
+            throw new RequisicaoInvalidaException("If-Match deve conter um ETag forte.");
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.ledes.desafio.institute_manager.controller;
 
+import com.ledes.desafio.institute_manager.config.BancoHealthIndicator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,12 +18,23 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Health Check", description = "API para verificar o status da aplicação")
 public class HealthCheckController {
 
+    private final BancoHealthIndicator bancoHealthIndicator;
+
+    @Autowired
+    public HealthCheckController(BancoHealthIndicator bancoHealthIndicator) {
+        this.bancoHealthIndicator = bancoHealthIndicator;
+    }
+
     @GetMapping
-    @Operation(summary = "Verificar o status da aplicação", description = "Retorna o status atual da aplicação.")
+    @Operation(summary = "Verificar o status da aplicação", description = "Retorna o status atual da aplicação, incluindo a conexão com o banco de dados. O resultado da verificação do banco é reaproveitado por alguns segundos.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "A aplicação está funcionando corretamente")
+            @ApiResponse(responseCode = "200", description = "A aplicação está funcionando corretamente"),
+            @ApiResponse(responseCode = "503", description = "O banco de dados está indisponível ou não respondeu a tempo")
     })
     public ResponseEntity<String> checkHealth() {
-        return new ResponseEntity<>("Application is running", HttpStatus.OK);
+        if (Status.UP.equals(bancoHealthIndicator.health().getStatus())) {
+            return new ResponseEntity<>("Application is running", HttpStatus.OK);
+        }
+        return new ResponseEntity<>("Database is unavailable", HttpStatus.SERVICE_UNAVAILABLE);
     }
 }
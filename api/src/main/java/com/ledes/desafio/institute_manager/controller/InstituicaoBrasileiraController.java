@@ -1,15 +1,30 @@
 package com.ledes.desafio.institute_manager.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.RelatorioImportacao;
+import com.ledes.desafio.institute_manager.dto.RespostaErro;
 import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.service.CadastroAssincronoService;
+import com.ledes.desafio.institute_manager.service.FormatoArquivo;
+import com.ledes.desafio.institute_manager.service.IdempotenciaService;
+import com.ledes.desafio.institute_manager.service.InstituicaoImportService;
 import com.ledes.desafio.institute_manager.service.InstituicaoBrasileiraService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -19,39 +34,111 @@ import java.util.Optional;
 public class InstituicaoBrasileiraController {
 
     private final InstituicaoBrasileiraService instituicaoBrasileiraService;
+    private final InstituicaoImportService instituicaoImportService;
+    private final CadastroAssincronoService cadastroAssincronoService;
+    private final IdempotenciaService idempotenciaService;
 
     @Autowired
-    public InstituicaoBrasileiraController(InstituicaoBrasileiraService instituicaoBrasileiraService) {
+    public InstituicaoBrasileiraController(InstituicaoBrasileiraService instituicaoBrasileiraService, InstituicaoImportService instituicaoImportService,
+                                           CadastroAssincronoService cadastroAssincronoService, IdempotenciaService idempotenciaService) {
         this.instituicaoBrasileiraService = instituicaoBrasileiraService;
+        this.instituicaoImportService = instituicaoImportService;
+        this.cadastroAssincronoService = cadastroAssincronoService;
+        this.idempotenciaService = idempotenciaService;
     }
 
     @PostMapping
-    @Operation(summary = "Criar uma nova Instituição Brasileira", description = "Cria uma nova instituição brasileira e retorna os detalhes da instituição criada.")
+    @Operation(summary = "Criar uma nova Instituição Brasileira", description = "Cria uma nova instituição brasileira e retorna os detalhes da instituição criada. Com o cabeçalho Prefer: respond-async, a instituição é validada e enfileirada para gravação em lote; a resposta 202 aponta em Location para a situação do cadastro, que traz o ID quando gravada. Com o cabeçalho Idempotency-Key, repetições com a mesma chave recebem a resposta original (cabeçalho Idempotent-Replayed) sem cadastrar de novo.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Instituição brasileira criada com sucesso"),
-            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos")
+            @ApiResponse(responseCode = "202", description = "Cadastro aceito e enfileirado (Prefer: respond-async)"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em execução; tente novamente após Retry-After"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key já usada com outro corpo de requisição"),
+            @ApiResponse(responseCode = "503", description = "Fila de cadastros cheia; tente novamente após Retry-After")
     })
-    public ResponseEntity<InstituicaoBrasileira> createInstituicaoBrasileira(
+    public ResponseEntity<?> createInstituicaoBrasileira(
+            @RequestHeader(value = CadastroAssincronoController.PREFER, required = false) String prefer,
+            @RequestHeader(value = IdempotenciaService.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @RequestBody InstituicaoBrasileira instituicaoBrasileira) {
+        if (idempotencyKey != null) {
+            return idempotenciaService.executar(TipoInstituicao.BRASILEIRA, idempotencyKey, instituicaoBrasileira,
+                    () -> cadastrar(prefer, instituicaoBrasileira));
+        }
+        return cadastrar(prefer, instituicaoBrasileira);
+    }
+
+    private ResponseEntity<?> cadastrar(String prefer, InstituicaoBrasileira instituicaoBrasileira) {
+        // Dados inválidos respondem 400 com todas as violações, sem passar por exceções. É a única validação do
+        // cadastro assíncrono: a fila recebe somente pedidos válidos
+        List<ErroCampo> erros = instituicaoBrasileiraService.validarNovaInstituicaoBrasileira(instituicaoBrasileira);
+        if (!erros.isEmpty()) {
+            return ResponseEntity.badRequest().body(RespostaErro.validacao(erros));
+        }
+        if (CadastroAssincronoController.isRespondAsync(prefer)) {
+            return CadastroAssincronoController.aceito(cadastroAssincronoService.enfileirarBrasileira(instituicaoBrasileira));
+        }
         InstituicaoBrasileira createdInstituicao = instituicaoBrasileiraService.saveInstituicaoBrasileira(instituicaoBrasileira);
         return ResponseEntity.status(201).body(createdInstituicao);
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Atualizar uma Instituição Brasileira", description = "Atualiza os detalhes de uma instituição brasileira existente.")
+    @Operation(summary = "Atualizar uma Instituição Brasileira", description = "Atualiza os detalhes de uma instituição brasileira existente. Com o cabeçalho If-Match, a atualização só é aplicada se o ETag ainda for o atual.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Instituição brasileira atualizada com sucesso"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
-            @ApiResponse(responseCode = "404", description = "Instituição brasileira não encontrada")
+            @ApiResponse(responseCode = "404", description = "Instituição brasileira não encontrada"),
+            @ApiResponse(responseCode = "412", description = "A instituição foi alterada desde o ETag informado em If-Match")
     })
-    public ResponseEntity<InstituicaoBrasileira> updateInstituicaoBrasileira(
+    public ResponseEntity<?> updateInstituicaoBrasileira(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             @RequestBody InstituicaoBrasileira instituicaoBrasileira) {
-        try {
-            InstituicaoBrasileira updatedInstituicao = instituicaoBrasileiraService.updateInstituicaoBrasileira(id, instituicaoBrasileira);
-            return ResponseEntity.ok(updatedInstituicao);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(null);
+        List<ErroCampo> erros = instituicaoBrasileiraService.validarAtualizacaoInstituicaoBrasileira(instituicaoBrasileira);
+        if (!erros.isEmpty()) {
+            return ResponseEntity.badRequest().body(RespostaErro.validacao(erros));
+        }
+        InstituicaoBrasileira updatedInstituicao = instituicaoBrasileiraService.updateInstituicaoBrasileira(id, instituicaoBrasileira, ETags.parseVersao(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updatedInstituicao.getInstituicao().getVersao(), accept))
+                .body(updatedInstituicao);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Atualizar parcialmente uma Instituição Brasileira", description = "Aplica um JSON Merge Patch (RFC 7396): somente os campos enviados são validados e gravados; null remove um campo opcional. Com o cabeçalho If-Match, a atualização só é aplicada se o ETag ainda for o atual.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Instituição brasileira atualizada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Campos inválidos, desconhecidos ou não atualizáveis"),
+            @ApiResponse(responseCode = "404", description = "Instituição brasileira não encontrada"),
+            @ApiResponse(responseCode = "412", description = "A instituição foi alterada desde o ETag informado em If-Match")
+    })
+    public ResponseEntity<?> patchInstituicaoBrasileira(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestBody JsonNode patch) {
+        List<ErroCampo> erros = instituicaoBrasileiraService.validarPatchInstituicaoBrasileira(patch);
+        if (!erros.isEmpty()) {
+            return ResponseEntity.badRequest().body(RespostaErro.validacao(erros));
         }
+        InstituicaoDetalhada updatedInstituicao = instituicaoBrasileiraService.patchInstituicaoBrasileira(id, patch, ETags.parseVersao(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updatedInstituicao.getVersao(), accept))
+                .body(updatedInstituicao);
+    }
+
+    @PostMapping(value = "/importacao", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Importar Instituições Brasileiras em lote", description = "Recebe um arquivo NDJSON ou CSV, valida cada linha com as regras do cadastro individual e grava os registros válidos em lotes. Retorna os erros por linha.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação processada; consulte o relatório para erros por linha"),
+            @ApiResponse(responseCode = "415", description = "Formato de arquivo não suportado")
+    })
+    public ResponseEntity<RelatorioImportacao> importarInstituicoesBrasileiras(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream corpo) throws IOException {
+        RelatorioImportacao relatorio = instituicaoImportService.importarBrasileiras(
+                InstituicaoImportService.leitor(corpo, contentType), FormatoArquivo.of(contentType));
+        return ResponseEntity.ok(relatorio);
     }
 }
@@ -1,14 +1,30 @@
 package com.ledes.desafio.institute_manager.controller;
 
+import com.ledes.desafio.institute_manager.dto.AlteracaoStatusLote;
+import com.ledes.desafio.institute_manager.dto.AlteracoesInstituicoes;
+import com.ledes.desafio.institute_manager.dto.FiltroInstituicao;
 import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.PaginaInstituicoes;
+import com.ledes.desafio.institute_manager.dto.ResultadoAlteracaoStatus;
+import com.ledes.desafio.institute_manager.dto.ResultadoBusca;
+import com.ledes.desafio.institute_manager.service.FormatoArquivo;
+import com.ledes.desafio.institute_manager.service.InstituicaoBuscaService;
+import com.ledes.desafio.institute_manager.service.InstituicaoEventosService;
+import com.ledes.desafio.institute_manager.service.InstituicaoExportService;
 import com.ledes.desafio.institute_manager.service.InstituicaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,32 +35,128 @@ import java.util.Optional;
 public class InstituicaoController {
 
     private final InstituicaoService instituicaoService;
+    private final InstituicaoExportService instituicaoExportService;
+    private final InstituicaoBuscaService instituicaoBuscaService;
+    private final InstituicaoEventosService instituicaoEventosService;
 
     @Autowired
-    public InstituicaoController(InstituicaoService instituicaoService) {
+    public InstituicaoController(InstituicaoService instituicaoService, InstituicaoExportService instituicaoExportService,
+                                 InstituicaoBuscaService instituicaoBuscaService, InstituicaoEventosService instituicaoEventosService) {
         this.instituicaoService = instituicaoService;
+        this.instituicaoExportService = instituicaoExportService;
+        this.instituicaoBuscaService = instituicaoBuscaService;
+        this.instituicaoEventosService = instituicaoEventosService;
     }
 
     @GetMapping
-    @Operation(summary = "Obter todas as Instituições", description = "Retorna uma lista de todas as instituições, sejam brasileiras ou estrangeiras.")
+    @Operation(summary = "Listar Instituições paginadas", description = "Retorna uma página de instituições, brasileiras ou estrangeiras, ordenadas por ID. Use o cursor 'proximo' para obter a página seguinte. Aceita filtros opcionais de status, país, estado (ou estado/região) e município. Além de JSON, responde em Smile (application/x-jackson-smile) ou CBOR (application/cbor) conforme o cabeçalho Accept.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de instituições retornada com sucesso"),
+            @ApiResponse(responseCode = "304", description = "A página não mudou desde o ETag informado em If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Cursor ou limite inválido")
+    })
+    public ResponseEntity<PaginaInstituicoes> getPaginaInstituicoes(@RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer limite,
+                                                                    @RequestParam(required = false) Boolean status,
+                                                                    @RequestParam(required = false) String pais,
+                                                                    @RequestParam(required = false) String estado,
+                                                                    @RequestParam(required = false) String municipio,
+                                                                    WebRequest webRequest) {
+        FiltroInstituicao filtro = new FiltroInstituicao(status, pais, estado, municipio);
+        // O ETag vem de um resumo da coleção; se o cliente já tem esta versão, nem a página é consultada.
+        // O Accept entra no ETag porque JSON, Smile e CBOR são representações diferentes da mesma página.
+        String etag = ETags.of(instituicaoService.getVersaoColecao(), cursor, limite == null ? null : limite.toString(),
+                status == null ? null : status.toString(), pais, estado, municipio, webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT)
+                .body(instituicaoService.getPaginaInstituicoes(cursor, limite, filtro));
+    }
+
+    @GetMapping(params = "completo=true")
+    @Operation(summary = "Obter todas as Instituições", description = "Retorna uma lista de todas as instituições, sejam brasileiras ou estrangeiras, sem paginação. Exige o parâmetro completo=true e aceita os mesmos filtros da listagem paginada. Além de JSON, responde em Smile (application/x-jackson-smile) ou CBOR (application/cbor) conforme o cabeçalho Accept, com nomes de campo e textos repetidos substituídos por referências.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de instituições retornada com sucesso"),
+            @ApiResponse(responseCode = "304", description = "A lista não mudou desde o ETag informado em If-None-Match"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<List<InstituicaoDetalhada>> getAllInstituicoes() {
-        List<InstituicaoDetalhada> instituicoes = instituicaoService.getAllInstituicoes();
-        return ResponseEntity.ok(instituicoes);
+    public ResponseEntity<List<InstituicaoDetalhada>> getAllInstituicoes(@RequestParam(required = false) Boolean status,
+                                                                         @RequestParam(required = false) String pais,
+                                                                         @RequestParam(required = false) String estado,
+                                                                         @RequestParam(required = false) String municipio,
+                                                                         WebRequest webRequest) {
+        String etag = ETags.of(instituicaoService.getVersaoColecao(),
+                status == null ? null : status.toString(), pais, estado, municipio, webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<InstituicaoDetalhada> instituicoes = instituicaoService.getAllInstituicoes(new FiltroInstituicao(status, pais, estado, municipio));
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(instituicoes);
+    }
+
+    @GetMapping("/busca")
+    @Operation(summary = "Buscar Instituições por nome ou sigla", description = "Busca por trecho do nome ou da sigla, sem diferenciar acentos ou maiúsculas, com resultados ordenados por relevância.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados da busca retornados com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Termo de busca vazio ou limite inválido")
+    })
+    public ResponseEntity<List<ResultadoBusca>> buscarInstituicoes(@RequestParam String q,
+                                                                   @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(instituicaoBuscaService.buscar(q, limite));
+    }
+
+    @GetMapping("/exportacao")
+    @Operation(summary = "Exportar o catálogo de Instituições", description = "Transmite todas as instituições em NDJSON ou CSV, linha a linha, sem montar a lista completa em memória.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Formato de exportação não suportado")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarInstituicoes(@RequestParam(defaultValue = "ndjson") String formato) {
+        FormatoArquivo formatoExportacao = FormatoArquivo.of(formato);
+
+        StreamingResponseBody corpo = saida -> instituicaoExportService.exportar(formatoExportacao, saida);
+        return ResponseEntity.ok()
+                .contentType(formatoExportacao.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("instituicoes." + formatoExportacao.getExtensao()).build().toString())
+                .body(corpo);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Listar alterações de Instituições", description = "Retorna as instituições cadastradas, atualizadas, inativadas ou reativadas depois da marca 'since', em ordem de alteração e com as datas de cadastro, última alteração e inativação, além da marca para a próxima consulta. Sem 'since', retorna todas desde o início. Quando 'mais' é verdadeiro, a consulta seguinte deve ser feita imediatamente com a nova marca. As alterações dos últimos segundos são entregues na consulta seguinte.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Alterações retornadas com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Marca ou limite inválido")
+    })
+    public ResponseEntity<AlteracoesInstituicoes> getAlteracoes(@RequestParam(required = false) String since,
+                                                                @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(instituicaoService.getAlteracoes(since, limite));
+    }
+
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar alterações de Instituições", description = "Feed de Server-Sent Events com os cadastros, atualizações, inativações e reativações confirmados, no lugar de consultar a listagem periodicamente. Cada evento 'instituicao' traz o ID, nome, sigla, status e o tipo da alteração. Ao reconectar com Last-Event-ID (ou o parâmetro 'desde'), as alterações perdidas são reenviadas; se não estiverem mais disponíveis, o evento 'reinicio' indica que a listagem deve ser recarregada.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Feed de alterações aberto")
+    })
+    public SseEmitter acompanharAlteracoes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                           @RequestParam(required = false) String desde) {
+        return instituicaoEventosService.assinar(lastEventId != null ? lastEventId : desde);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obter uma Instituição por ID", description = "Retorna os detalhes de uma instituição específica, seja brasileira ou estrangeira.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Detalhes da instituição retornados com sucesso"),
+            @ApiResponse(responseCode = "304", description = "A instituição não mudou desde o ETag informado em If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Instituição não encontrada")
     })
-    public ResponseEntity<InstituicaoDetalhada> findInstituicaoById(@PathVariable Long id) {
+    public ResponseEntity<InstituicaoDetalhada> findInstituicaoById(@PathVariable Long id,
+                                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // Com ETag na resposta, o Spring responde 304 sem serializar o corpo quando If-None-Match coincide
         Optional<InstituicaoDetalhada> instituicaoDetalhada = instituicaoService.findInstituicaoById(id);
-        return instituicaoDetalhada.map(ResponseEntity::ok)
+        return instituicaoDetalhada.map(instituicao -> ResponseEntity.ok().eTag(ETags.of(instituicao.getVersao(), accept))
+                        .varyBy(HttpHeaders.ACCEPT).body(instituicao))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -55,12 +167,8 @@ public class InstituicaoController {
             @ApiResponse(responseCode = "404", description = "Instituição não encontrada")
     })
     public ResponseEntity<Void> inativarInstituicao(@PathVariable Long id) {
-        try {
-            instituicaoService.inativarInstituicao(id);
-            return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
-        }
+        instituicaoService.inativarInstituicao(id);
+        return ResponseEntity.noContent().build();
     }
 
     @PutMapping("/reativar/{id}")
@@ -70,11 +178,17 @@ public class InstituicaoController {
             @ApiResponse(responseCode = "404", description = "Instituição não encontrada")
     })
     public ResponseEntity<Void> reativarInstituicao(@PathVariable Long id) {
-        try {
-            instituicaoService.reativarInstituicao(id);
-            return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
-        }
+        instituicaoService.reativarInstituicao(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/status")
+    @Operation(summary = "Alterar o status de várias Instituições", description = "Inativa ou reativa, em uma única transação, as instituições informadas por ID ou selecionadas por filtro. Retorna quantas foram alteradas, quantas já tinham o status pedido e quais IDs não existem.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status alterado com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Status ausente, IDs e filtro informados juntos (ou nenhum deles) ou filtro vazio")
+    })
+    public ResponseEntity<ResultadoAlteracaoStatus> alterarStatusEmLote(@RequestBody AlteracaoStatusLote alteracao) {
+        return ResponseEntity.ok(instituicaoService.alterarStatusEmLote(alteracao.getIds(), alteracao.getFiltro(), alteracao.getStatus()));
     }
 }
@@ -1,15 +1,30 @@
 package com.ledes.desafio.institute_manager.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.RelatorioImportacao;
+import com.ledes.desafio.institute_manager.dto.RespostaErro;
 import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.service.CadastroAssincronoService;
+import com.ledes.desafio.institute_manager.service.FormatoArquivo;
+import com.ledes.desafio.institute_manager.service.IdempotenciaService;
+import com.ledes.desafio.institute_manager.service.InstituicaoImportService;
 import com.ledes.desafio.institute_manager.service.InstituicaoEstrangeiraService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -19,36 +34,111 @@ import java.util.Optional;
 public class InstituicaoEstrangeiraController {
 
     private final InstituicaoEstrangeiraService instituicaoEstrangeiraService;
+    private final InstituicaoImportService instituicaoImportService;
+    private final CadastroAssincronoService cadastroAssincronoService;
+    private final IdempotenciaService idempotenciaService;
 
     @Autowired
-    public InstituicaoEstrangeiraController(InstituicaoEstrangeiraService instituicaoEstrangeiraService) {
+    public InstituicaoEstrangeiraController(InstituicaoEstrangeiraService instituicaoEstrangeiraService, InstituicaoImportService instituicaoImportService,
+                                            CadastroAssincronoService cadastroAssincronoService, IdempotenciaService idempotenciaService) {
         this.instituicaoEstrangeiraService = instituicaoEstrangeiraService;
+        this.instituicaoImportService = instituicaoImportService;
+        this.cadastroAssincronoService = cadastroAssincronoService;
+        this.idempotenciaService = idempotenciaService;
     }
 
     @PostMapping
-    @Operation(summary = "Criar uma nova Instituição Estrangeira", description = "Cria uma nova instituição estrangeira e retorna os detalhes da instituição criada.")
+    @Operation(summary = "Criar uma nova Instituição Estrangeira", description = "Cria uma nova instituição estrangeira e retorna os detalhes da instituição criada. Com o cabeçalho Prefer: respond-async, a instituição é validada e enfileirada para gravação em lote; a resposta 202 aponta em Location para a situação do cadastro, que traz o ID quando gravada. Com o cabeçalho Idempotency-Key, repetições com a mesma chave recebem a resposta original (cabeçalho Idempotent-Replayed) sem cadastrar de novo.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Instituição estrangeira criada com sucesso"),
-            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos")
+            @ApiResponse(responseCode = "202", description = "Cadastro aceito e enfileirado (Prefer: respond-async)"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em execução; tente novamente após Retry-After"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key já usada com outro corpo de requisição"),
+            @ApiResponse(responseCode = "503", description = "Fila de cadastros cheia; tente novamente após Retry-After")
     })
-    public ResponseEntity<InstituicaoEstrangeira> createInstituicaoEstrangeira(@RequestBody InstituicaoEstrangeira instituicaoEstrangeira) {
+    public ResponseEntity<?> createInstituicaoEstrangeira(
+            @RequestHeader(value = CadastroAssincronoController.PREFER, required = false) String prefer,
+            @RequestHeader(value = IdempotenciaService.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestBody InstituicaoEstrangeira instituicaoEstrangeira) {
+        if (idempotencyKey != null) {
+            return idempotenciaService.executar(TipoInstituicao.ESTRANGEIRA, idempotencyKey, instituicaoEstrangeira,
+                    () -> cadastrar(prefer, instituicaoEstrangeira));
+        }
+        return cadastrar(prefer, instituicaoEstrangeira);
+    }
+
+    private ResponseEntity<?> cadastrar(String prefer, InstituicaoEstrangeira instituicaoEstrangeira) {
+        // Dados inválidos respondem 400 com todas as violações, sem passar por exceções. É a única validação do
+        // cadastro assíncrono: a fila recebe somente pedidos válidos
+        List<ErroCampo> erros = instituicaoEstrangeiraService.validarNovaInstituicaoEstrangeira(instituicaoEstrangeira);
+        if (!erros.isEmpty()) {
+            return ResponseEntity.badRequest().body(RespostaErro.validacao(erros));
+        }
+        if (CadastroAssincronoController.isRespondAsync(prefer)) {
+            return CadastroAssincronoController.aceito(cadastroAssincronoService.enfileirarEstrangeira(instituicaoEstrangeira));
+        }
         InstituicaoEstrangeira createdInstituicao = instituicaoEstrangeiraService.saveInstituicaoEstrangeira(instituicaoEstrangeira);
         return ResponseEntity.status(201).body(createdInstituicao);
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Atualizar uma Instituição Estrangeira", description = "Atualiza os detalhes de uma instituição estrangeira existente.")
+    @Operation(summary = "Atualizar uma Instituição Estrangeira", description = "Atualiza os detalhes de uma instituição estrangeira existente. O país não é alterado; para mudá-lo, use o PATCH. Com o cabeçalho If-Match, a atualização só é aplicada se o ETag ainda for o atual.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Instituição estrangeira atualizada com sucesso"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
-            @ApiResponse(responseCode = "404", description = "Instituição estrangeira não encontrada")
+            @ApiResponse(responseCode = "404", description = "Instituição estrangeira não encontrada"),
+            @ApiResponse(responseCode = "412", description = "A instituição foi alterada desde o ETag informado em If-Match")
     })
-    public ResponseEntity<InstituicaoEstrangeira> updateInstituicaoEstrangeira(@PathVariable Long id, @RequestBody InstituicaoEstrangeira instituicaoEstrangeira) {
-        try {
-            InstituicaoEstrangeira updatedInstituicao = instituicaoEstrangeiraService.updateInstituicaoEstrangeira(id, instituicaoEstrangeira);
-            return ResponseEntity.ok(updatedInstituicao);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(null);
+    public ResponseEntity<?> updateInstituicaoEstrangeira(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestBody InstituicaoEstrangeira instituicaoEstrangeira) {
+        List<ErroCampo> erros = instituicaoEstrangeiraService.validarAtualizacaoInstituicaoEstrangeira(instituicaoEstrangeira);
+        if (!erros.isEmpty()) {
+            return ResponseEntity.badRequest().body(RespostaErro.validacao(erros));
         }
+        InstituicaoEstrangeira updatedInstituicao = instituicaoEstrangeiraService.updateInstituicaoEstrangeira(id, instituicaoEstrangeira, ETags.parseVersao(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updatedInstituicao.getInstituicao().getVersao(), accept))
+                .body(updatedInstituicao);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Atualizar parcialmente uma Instituição Estrangeira", description = "Aplica um JSON Merge Patch (RFC 7396): somente os campos enviados são validados e gravados; null remove um campo opcional. Com o cabeçalho If-Match, a atualização só é aplicada se o ETag ainda for o atual.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Instituição estrangeira atualizada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Campos inválidos, desconhecidos ou não atualizáveis"),
+            @ApiResponse(responseCode = "404", description = "Instituição estrangeira não encontrada"),
+            @ApiResponse(responseCode = "412", description = "A instituição foi alterada desde o ETag informado em If-Match")
+    })
+    public ResponseEntity<?> patchInstituicaoEstrangeira(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestBody JsonNode patch) {
+        List<ErroCampo> erros = instituicaoEstrangeiraService.validarPatchInstituicaoEstrangeira(patch);
+        if (!erros.isEmpty()) {
+            return ResponseEntity.badRequest().body(RespostaErro.validacao(erros));
+        }
+        InstituicaoDetalhada updatedInstituicao = instituicaoEstrangeiraService.patchInstituicaoEstrangeira(id, patch, ETags.parseVersao(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updatedInstituicao.getVersao(), accept))
+                .body(updatedInstituicao);
+    }
+
+    @PostMapping(value = "/importacao", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Importar Instituições Estrangeiras em lote", description = "Recebe um arquivo NDJSON ou CSV, valida cada linha com as regras do cadastro individual e grava os registros válidos em lotes. Retorna os erros por linha.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação processada; consulte o relatório para erros por linha"),
+            @ApiResponse(responseCode = "415", description = "Formato de arquivo não suportado")
+    })
+    public ResponseEntity<RelatorioImportacao> importarInstituicoesEstrangeiras(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream corpo) throws IOException {
+        RelatorioImportacao relatorio = instituicaoImportService.importarEstrangeiras(
+                InstituicaoImportService.leitor(corpo, contentType), FormatoArquivo.of(contentType));
+        return ResponseEntity.ok(relatorio);
     }
 }
@@ -0,0 +1,24 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Alteração do status de várias instituições de uma vez, selecionadas por ID ou por filtro.")
+public class AlteracaoStatusLote {
+
+    @Schema(description = "Novo status das instituições (true reativa, false inativa)", example = "false", required = true)
+    private Boolean status;
+
+    @Schema(description = "IDs das instituições; não pode ser usado junto com o filtro", example = "[1, 2, 3]")
+    private List<Long> ids;
+
+    @Schema(description = "Filtro das instituições; não pode ser usado junto com os IDs e exige ao menos um critério")
+    private FiltroInstituicao filtro;
+}
@@ -0,0 +1,24 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Instituições alteradas desde uma marca, em ordem de alteração, com a marca para a próxima consulta.")
+public class AlteracoesInstituicoes {
+
+    @Schema(description = "Instituições cadastradas, atualizadas, inativadas ou reativadas depois da marca informada")
+    private List<InstituicaoDetalhada> itens;
+
+    @Schema(description = "Marca opaca a enviar em 'since' na próxima consulta", example = "MjAyNC0wOC0wMlQwOTowMDowMC42NTQzMjEsMTI")
+    private String marca;
+
+    @Schema(description = "Se há mais alterações além do limite; nesse caso, a próxima consulta deve ser feita imediatamente", example = "false")
+    private boolean mais;
+}
@@ -0,0 +1,19 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Violação de uma regra de validação em um campo.")
+public class ErroCampo {
+
+    @Schema(description = "Caminho do campo no corpo da requisição", example = "instituicao.sigla")
+    private String campo;
+
+    @Schema(description = "Regra violada", example = "A sigla deve ter no máximo 8 caracteres e não pode ser vazia.")
+    private String mensagem;
+}
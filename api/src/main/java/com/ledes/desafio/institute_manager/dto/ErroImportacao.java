@@ -0,0 +1,19 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Erro encontrado em uma linha do arquivo de importação.")
+public class ErroImportacao {
+
+    @Schema(description = "Número da linha no arquivo (a partir de 1, contando o cabeçalho do CSV)", example = "42")
+    private long linha;
+
+    @Schema(description = "Motivo pelo qual a linha não foi importada", example = "A sigla deve ter no máximo 8 caracteres e não pode ser vazia.")
+    private String mensagem;
+}
@@ -0,0 +1,10 @@
+package com.ledes.desafio.institute_manager.dto;
+
+/**
+ * Etapas de um cadastro assíncrono.
+ */
+public enum EstadoCadastro {
+    PENDENTE,
+    CONCLUIDO,
+    FALHOU
+}
@@ -0,0 +1,31 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Estatísticas de um cache local da aplicação.")
+public class EstatisticasCache {
+
+    @Schema(description = "Nome do cache", example = "instituicoes")
+    private String nome;
+
+    @Schema(description = "Quantidade aproximada de entradas no cache", example = "1234")
+    private long tamanho;
+
+    @Schema(description = "Quantidade de leituras atendidas pelo cache", example = "98765")
+    private long acertos;
+
+    @Schema(description = "Quantidade de leituras que precisaram ir ao banco", example = "4321")
+    private long falhas;
+
+    @Schema(description = "Quantidade de entradas removidas por tamanho ou expiração", example = "12")
+    private long despejos;
+
+    @Schema(description = "Proporção de leituras atendidas pelo cache (0 a 1)", example = "0.958")
+    private double taxaAcerto;
+}
@@ -0,0 +1,30 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Ocupação do heap pelo snapshot do catálogo em memória, comparada a uma lista de InstituicaoDetalhada com os mesmos dados.")
+public class EstatisticasSnapshot {
+
+    @Schema(description = "Quantidade de instituições no snapshot", example = "100000")
+    private int linhas;
+
+    @Schema(description = "Estimativa do heap ocupado pelo snapshot colunar, em bytes", example = "6815744")
+    private long bytesSnapshot;
+
+    @Schema(description = "Estimativa do heap ocupado por um List<InstituicaoDetalhada> com as mesmas instituições, em bytes", example = "58720256")
+    private long bytesLista;
+
+    @Schema(description = "Tamanho do snapshot em relação à lista (0 a 1)", example = "0.116")
+    private double proporcao;
+
+    @Schema(description = "Valores distintos no dicionário de cada coluna de texto, incluindo o nulo")
+    private Map<String, Integer> valoresDistintos;
+}
@@ -0,0 +1,33 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.StringUtils;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Filtros opcionais da listagem de instituições, aplicados no banco de dados.")
+public class FiltroInstituicao {
+
+    @Schema(description = "Status da instituição (ativa ou inativa)", example = "true")
+    private Boolean status;
+
+    @Schema(description = "País da instituição", example = "Portugal")
+    private String pais;
+
+    @Schema(description = "Estado (brasileiras) ou estado/região (estrangeiras)", example = "MS")
+    private String estado;
+
+    @Schema(description = "Município da instituição", example = "Campo Grande")
+    private String municipio;
+
+    /**
+     * Indica se algum filtro foi informado.
+     */
+    public boolean isVazio() {
+        return status == null && !StringUtils.hasText(pais) && !StringUtils.hasText(estado) && !StringUtils.hasText(municipio);
+    }
+}
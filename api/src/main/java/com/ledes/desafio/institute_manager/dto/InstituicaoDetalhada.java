@@ -1,10 +1,14 @@
 package com.ledes.desafio.institute_manager.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -50,4 +54,33 @@ public class InstituicaoDetalhada {
 
     @Schema(description = "Número do endereço da instituição (aplicável apenas para instituições brasileiras)", example = "1234")
     private String numero;
+
+    @Schema(description = "Subtipo da instituição", example = "BRASILEIRA")
+    private TipoInstituicao tipo;
+
+    @Schema(description = "Versão do registro, usada como ETag", example = "3")
+    private Long versao;
+
+    // Datas de controle, preenchidas somente na consulta de alterações
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Data do cadastro (somente na consulta de alterações)", example = "2024-08-01T10:15:30.123456")
+    private LocalDateTime criadaEm;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Data da última alteração (somente na consulta de alterações)", example = "2024-08-02T09:00:00.654321")
+    private LocalDateTime atualizadaEm;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Data da inativação; ausente nas instituições ativas", example = "2024-08-02T09:00:00.654321")
+    private LocalDateTime inativadaEm;
+
+    /**
+     * Construtor usado pelas projeções da listagem, sem as datas de controle.
+     */
+    public InstituicaoDetalhada(Long id, String nome, String sigla, Boolean status, String pais, String cep,
+                                String logradouro, String complemento, String estado, String municipio, String cnpj,
+                                String bairro, String numero, TipoInstituicao tipo, Long versao) {
+        this(id, nome, sigla, status, pais, cep, logradouro, complemento, estado, municipio, cnpj, bairro, numero,
+                tipo, versao, null, null, null);
+    }
 }
@@ -0,0 +1,21 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Página de instituições detalhadas, ordenada pelo ID da instituição.")
+public class PaginaInstituicoes {
+
+    @Schema(description = "Instituições da página atual")
+    private List<InstituicaoDetalhada> itens;
+
+    @Schema(description = "Cursor opaco para buscar a próxima página; nulo quando não há mais resultados", example = "MTIz")
+    private String proximo;
+}
@@ -0,0 +1,25 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de uma importação em lote de instituições.")
+public class RelatorioImportacao {
+
+    @Schema(description = "Quantidade de registros lidos do arquivo", example = "10000")
+    private long recebidas;
+
+    @Schema(description = "Quantidade de registros inseridos com sucesso", example = "9998")
+    private long importadas;
+
+    @Schema(description = "Erros por linha dos registros que não foram importados")
+    private List<ErroImportacao> erros = new ArrayList<>();
+}
@@ -0,0 +1,31 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Corpo das respostas de erro da API.")
+public class RespostaErro {
+
+    @Schema(description = "Código de status HTTP", example = "400")
+    private int status;
+
+    @Schema(description = "Descrição do erro", example = "Dados inválidos.")
+    private String mensagem;
+
+    @Schema(description = "Violações por campo; vazio quando o erro não se refere a campos específicos")
+    private List<ErroCampo> erros;
+
+    /**
+     * Resposta 400 com todas as violações de validação encontradas.
+     */
+    public static RespostaErro validacao(List<ErroCampo> erros) {
+        return new RespostaErro(400, "Dados inválidos.", erros);
+    }
+}
@@ -0,0 +1,25 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resposta de um cadastro guardada sob a chave de idempotência e devolvida, igual, às repetições do pedido.
+ * O corpo fica como árvore JSON para ser escrito em qualquer formato negociado (JSON, Smile ou CBOR).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RespostaIdempotente {
+
+    private int status;
+
+    private Map<String, List<String>> cabecalhos;
+
+    private JsonNode corpo;
+}
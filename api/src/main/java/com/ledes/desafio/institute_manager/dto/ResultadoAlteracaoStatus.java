@@ -0,0 +1,28 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de uma alteração de status em lote.")
+public class ResultadoAlteracaoStatus {
+
+    @Schema(description = "Quantidade de instituições cujo status foi alterado", example = "998")
+    private int afetadas;
+
+    @Schema(description = "Quantidade de instituições encontradas que já estavam com o status pedido", example = "1")
+    private int inalteradas;
+
+    @Schema(description = "Quantidade de IDs informados que não existem", example = "1")
+    private int naoEncontradas;
+
+    @Schema(description = "IDs informados que não existem", example = "[4242]")
+    private List<Long> idsNaoEncontrados = new ArrayList<>();
+}
@@ -0,0 +1,28 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Instituição encontrada pela busca por nome ou sigla.")
+public class ResultadoBusca {
+
+    @Schema(description = "ID da instituição", example = "1")
+    private Long id;
+
+    @Schema(description = "Nome da instituição", example = "Universidade Federal")
+    private String nome;
+
+    @Schema(description = "Sigla da instituição", example = "UFMS")
+    private String sigla;
+
+    @Schema(description = "Status da instituição (ativa ou inativa)", example = "true")
+    private Boolean status;
+
+    @Schema(description = "Relevância do resultado; maior é melhor", example = "80")
+    private int pontuacao;
+}
@@ -0,0 +1,23 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projeção mínima de 'instituicao' (sem endereço), usada pelas operações em lote para
+ * identificar os registros e publicar os eventos de alteração sem carregar entidades.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumoInstituicao {
+
+    private Long id;
+
+    private String nome;
+
+    private String sigla;
+
+    private Boolean status;
+}
@@ -0,0 +1,41 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Situação de um cadastro assíncrono, consultada até que a instituição seja gravada.")
+public class SituacaoCadastro {
+
+    @Schema(description = "Identificador do cadastro", example = "3f2b8c1e-5d4a-4c57-9a41-0f6f3e0c9b12")
+    private String id;
+
+    @Schema(description = "Tipo da instituição cadastrada", example = "BRASILEIRA")
+    private TipoInstituicao tipo;
+
+    @Schema(description = "Etapa do cadastro", example = "CONCLUIDO")
+    private EstadoCadastro estado;
+
+    @Schema(description = "ID atribuído à instituição, preenchido quando o cadastro é concluído", example = "1")
+    private Long instituicaoId;
+
+    @Schema(description = "Motivo da falha, preenchido quando o cadastro falha")
+    private String erro;
+
+    public static SituacaoCadastro pendente(String id, TipoInstituicao tipo) {
+        return new SituacaoCadastro(id, tipo, EstadoCadastro.PENDENTE, null, null);
+    }
+
+    public SituacaoCadastro concluido(Long instituicaoId) {
+        return new SituacaoCadastro(id, tipo, EstadoCadastro.CONCLUIDO, instituicaoId, null);
+    }
+
+    public SituacaoCadastro falhou(String erro) {
+        return new SituacaoCadastro(id, tipo, EstadoCadastro.FALHOU, null, erro);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ledes.desafio.institute_manager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Versão da coleção de instituições, usada para gerar o ETag das listagens. É o contador da tabela versao_colecao,
+ * incrementado no commit de toda transação que cadastra ou altera instituições e lido pela chave primária, sem
+ * percorrer a tabela de instituições.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VersaoColecao {
+
+    private Long versao;
+}
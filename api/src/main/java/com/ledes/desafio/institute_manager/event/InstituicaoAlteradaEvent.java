@@ -0,0 +1,40 @@
+package com.ledes.desafio.institute_manager.event;
+
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.ResumoInstituicao;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Evento publicado pelos serviços a cada cadastro, atualização ou mudança de status de uma instituição.
+ * Os ouvintes usam @TransactionalEventListener para reagir somente após o commit.
+ */
+@Data
+@AllArgsConstructor
+public class InstituicaoAlteradaEvent {
+
+    private Long id;
+
+    private String nome;
+
+    private String sigla;
+
+    private Boolean status;
+
+    private TipoAlteracao alteracao;
+
+    public static InstituicaoAlteradaEvent of(Instituicao instituicao, TipoAlteracao alteracao) {
+        return new InstituicaoAlteradaEvent(instituicao.getId(), instituicao.getNome(), instituicao.getSigla(),
+                instituicao.getStatus(), alteracao);
+    }
+
+    public static InstituicaoAlteradaEvent of(ResumoInstituicao resumo, TipoAlteracao alteracao) {
+        return new InstituicaoAlteradaEvent(resumo.getId(), resumo.getNome(), resumo.getSigla(), resumo.getStatus(), alteracao);
+    }
+
+    public static InstituicaoAlteradaEvent of(InstituicaoDetalhada instituicao, TipoAlteracao alteracao) {
+        return new InstituicaoAlteradaEvent(instituicao.getId(), instituicao.getNome(), instituicao.getSigla(),
+                instituicao.getStatus(), alteracao);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ledes.desafio.institute_manager.event;
+
+/**
+ * Tipos de alteração publicados quando uma instituição muda.
+ */
+public enum TipoAlteracao {
+    CRIADA,
+    ATUALIZADA,
+    INATIVADA,
+    REATIVADA
+}
@@ -1,21 +1,49 @@
 package com.ledes.desafio.institute_manager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Column;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "instituicao")
+@Cacheable
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "instituicao")
+@Table(name = "instituicao", indexes = {
+        @Index(name = "idx_instituicao_status", columnList = "status"),
+        @Index(name = "idx_instituicao_atualizada_em", columnList = "atualizada_em, id")
+})
 @Schema(description = "Representa uma instituição no sistema")
 public class Instituicao {
 
+    /**
+     * Definições das colunas de data mantidas pelo banco, compartilhadas com as tabelas de subtipo.
+     */
+    public static final String COLUNA_CRIADA_EM = "datetime(6) default current_timestamp(6) not null";
+    public static final String COLUNA_ATUALIZADA_EM = "datetime(6) default current_timestamp(6) on update current_timestamp(6) not null";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(description = "ID único da instituição", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
@@ -32,4 +60,67 @@ public class Instituicao {
     @Column(nullable = false)
     @Schema(description = "Status da instituição (ativa/inativa)", example = "true", defaultValue = "true", required = true)
     private Boolean status = true;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    @Schema(description = "Subtipo da instituição, definido pelo endpoint de cadastro", example = "BRASILEIRA", accessMode = Schema.AccessMode.READ_ONLY)
+    private TipoInstituicao tipo;
+
+    @Version
+    @Column(nullable = false)
+    @Schema(description = "Versão do registro, incrementada a cada alteração da instituição ou do seu endereço; usada no ETag", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long versao = 0L;
+
+    /**
+     * Preenchida pelo banco no INSERT, tanto nos cadastros pela entidade quanto nos batches JDBC.
+     */
+    @JsonIgnore
+    @Column(name = "criada_em", insertable = false, updatable = false, columnDefinition = COLUNA_CRIADA_EM)
+    private LocalDateTime criadaEm;
+
+    /**
+     * Atualizada pelo banco (ON UPDATE) sempre que a linha muda; como toda alteração da instituição ou do seu endereço
+     * incrementa a versão, ela também marca as alterações feitas só na tabela do subtipo. Base da sincronização por
+     * 'changes?since='.
+     */
+    @JsonIgnore
+    @Column(name = "atualizada_em", insertable = false, updatable = false, columnDefinition = COLUNA_ATUALIZADA_EM)
+    private LocalDateTime atualizadaEm;
+
+    /**
+     * Momento da inativação; nulo enquanto a instituição está ativa. Preenchido pelo banco, como atualizada_em, ao
+     * gravar 'inativa'.
+     */
+    @JsonIgnore
+    @Column(name = "inativada_em", insertable = false, updatable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime inativadaEm;
+
+    /**
+     * Grava inativada_em com o relógio do banco quando a instituição é cadastrada inativa ou passa a inativa, e nulo
+     * quando está ativa. Com o @DynamicUpdate, a coluna só entra no UPDATE quando o status muda, então alterar uma instituição
+     * já inativa mantém a data original.
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "inativada_em", columnDefinition = "datetime(6)")
+    @ColumnTransformer(read = "inativada_em is not null", write = "case when ? then current_timestamp(6) end")
+    private Boolean inativa = false;
+
+    /**
+     * Altera o status, marcando 'inativa' para que o próximo UPDATE grave inativada_em.
+     */
+    public void setStatus(Boolean status) {
+        this.status = status;
+        this.inativa = !Boolean.TRUE.equals(status);
+    }
+
+    /**
+     * Nos cadastros pela entidade, acompanha o status informado; os caminhos em lote (batches JDBC e UPDATE de
+     * status) preenchem inativada_em no próprio comando.
+     */
+    @PrePersist
+    void registrarInativacao() {
+        inativa = !Boolean.TRUE.equals(status);
+    }
 }
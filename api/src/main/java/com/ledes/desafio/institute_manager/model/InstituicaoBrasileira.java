@@ -1,19 +1,31 @@
 package com.ledes.desafio.institute_manager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Column;
 import jakarta.persistence.Table;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "instituicao_brasileira")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "instituicao-brasileira")
+@Table(name = "instituicao_brasileira", indexes = {
+        @Index(name = "idx_instituicao_brasileira_estado_municipio", columnList = "estado, municipio"),
+        @Index(name = "idx_instituicao_brasileira_municipio", columnList = "municipio")
+})
 @Schema(description = "Representa uma instituição brasileira no sistema")
 public class InstituicaoBrasileira {
 
@@ -62,4 +74,18 @@ public class InstituicaoBrasileira {
     @Column(length = 16)
     @Schema(description = "Complemento do endereço da instituição brasileira", example = "Apto 101", maxLength = 16)
     private String complemento;
+
+    /**
+     * Preenchida pelo banco no INSERT.
+     */
+    @JsonIgnore
+    @Column(name = "criada_em", insertable = false, updatable = false, columnDefinition = Instituicao.COLUNA_CRIADA_EM)
+    private LocalDateTime criadaEm;
+
+    /**
+     * Atualizada pelo banco (ON UPDATE) quando algum campo do endereço muda.
+     */
+    @JsonIgnore
+    @Column(name = "atualizada_em", insertable = false, updatable = false, columnDefinition = Instituicao.COLUNA_ATUALIZADA_EM)
+    private LocalDateTime atualizadaEm;
 }
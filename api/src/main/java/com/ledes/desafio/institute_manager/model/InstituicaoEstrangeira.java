@@ -1,19 +1,32 @@
 package com.ledes.desafio.institute_manager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Column;
 import jakarta.persistence.Table;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "instituicao_estrangeira")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "instituicao-estrangeira")
+@Table(name = "instituicao_estrangeira", indexes = {
+        @Index(name = "idx_instituicao_estrangeira_pais_estado_municipio", columnList = "pais, estado_regiao, municipio"),
+        @Index(name = "idx_instituicao_estrangeira_estado_municipio", columnList = "estado_regiao, municipio"),
+        @Index(name = "idx_instituicao_estrangeira_municipio", columnList = "municipio")
+})
 @Schema(description = "Representa uma instituição estrangeira no sistema")
 public class InstituicaoEstrangeira {
 
@@ -50,4 +63,18 @@ public class InstituicaoEstrangeira {
     @Column(length = 32)
     @Schema(description = "Complemento do endereço da instituição estrangeira", example = "Apartamento 501", maxLength = 32)
     private String complemento;
+
+    /**
+     * Preenchida pelo banco no INSERT.
+     */
+    @JsonIgnore
+    @Column(name = "criada_em", insertable = false, updatable = false, columnDefinition = Instituicao.COLUNA_CRIADA_EM)
+    private LocalDateTime criadaEm;
+
+    /**
+     * Atualizada pelo banco (ON UPDATE) quando algum campo do endereço muda.
+     */
+    @JsonIgnore
+    @Column(name = "atualizada_em", insertable = false, updatable = false, columnDefinition = Instituicao.COLUNA_ATUALIZADA_EM)
+    private LocalDateTime atualizadaEm;
 }
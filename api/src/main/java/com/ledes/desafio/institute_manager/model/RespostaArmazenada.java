@@ -0,0 +1,50 @@
+package com.ledes.desafio.institute_manager.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Resposta de um POST de cadastro gravada sob a sua chave de idempotência, para que as repetições sobrevivam
+ * a reinícios e sejam reconhecidas por qualquer instância. Usada somente com instituicao.idempotencia.banco=true.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "resposta_idempotente", indexes = {
+        @Index(name = "idx_resposta_idempotente_criada_em", columnList = "criada_em")
+})
+public class RespostaArmazenada {
+
+    /**
+     * Tipo do cadastro e chave enviada pelo cliente (BRASILEIRA:chave), já que a mesma chave pode ser usada nos dois endpoints.
+     */
+    @Id
+    @Column(length = 300)
+    private String chave;
+
+    /**
+     * SHA-256 do corpo da requisição original, para recusar a mesma chave com outro conteúdo.
+     */
+    @Column(nullable = false, length = 44)
+    private String impressao;
+
+    /**
+     * Status, cabeçalhos e corpo da resposta, em JSON.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String resposta;
+
+    @Column(name = "criada_em", nullable = false)
+    private Instant criadaEm;
+}
@@ -0,0 +1,9 @@
+package com.ledes.desafio.institute_manager.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Subtipo de uma instituição, gravado na tabela 'instituicao' para evitar consultas às duas tabelas de subtipo")
+public enum TipoInstituicao {
+    BRASILEIRA,
+    ESTRANGEIRA
+}
@@ -0,0 +1,38 @@
+package com.ledes.desafio.institute_manager.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adiciona à resposta os cabeçalhos X-Sql-Consultas e X-Sql-Tempo-Ms com a medição da requisição até o momento
+ * em que o corpo é escrito. Desligado por padrão (instituicao.sql.cabecalhos), por expor detalhes internos.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "instituicao.sql.cabecalhos", havingValue = "true")
+public class CabecalhosSqlAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        MedicaoSql medicao = MedicaoSql.atual();
+        if (medicao != null) {
+            response.getHeaders().set("X-Sql-Consultas", Integer.toString(medicao.getConsultas()));
+            response.getHeaders().set("X-Sql-Tempo-Ms", Long.toString(TimeUnit.NANOSECONDS.toMillis(medicao.getTempoJdbcNanos())));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,92 @@
+package com.ledes.desafio.institute_manager.monitoring;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Acumula a quantidade de comandos SQL e o tempo de execução JDBC de uma unidade de trabalho (em geral, uma
+ * requisição HTTP), somados pelo MedicaoSqlDataSource. A medição ativa fica associada à thread; tarefas executadas
+ * em outras threads em nome da mesma requisição usam {@link #executarCom(MedicaoSql, Callable)} para continuar somando nela.
+ */
+public final class MedicaoSql {
+
+    private static final ThreadLocal<MedicaoSql> ATUAL = new ThreadLocal<>();
+
+    private final AtomicInteger consultas = new AtomicInteger();
+    private final AtomicLong tempoJdbcNanos = new AtomicLong();
+
+    MedicaoSql() {
+    }
+
+    /**
+     * Inicia uma medição na thread atual, substituindo a anterior, se houver.
+     */
+    public static MedicaoSql iniciar() {
+        MedicaoSql medicao = new MedicaoSql();
+        ATUAL.set(medicao);
+        return medicao;
+    }
+
+    /**
+     * Ativa na thread atual uma medição já iniciada, como a da requisição na thread que escreve a resposta assíncrona.
+     */
+    static void ativar(MedicaoSql medicao) {
+        ATUAL.set(medicao);
+    }
+
+    /**
+     * Medição ativa na thread atual, ou nulo se nenhuma foi iniciada.
+     */
+    public static MedicaoSql atual() {
+        return ATUAL.get();
+    }
+
+    /**
+     * Encerra a medição da thread atual.
+     */
+    public static void encerrar() {
+        ATUAL.remove();
+    }
+
+    /**
+     * Executa a tarefa com a medição informada ativa na thread atual, restaurando a anterior ao final.
+     *
+     * @param medicao Medição a usar, ou nulo para executar sem medição.
+     * @param tarefa Tarefa a executar.
+     * @return Resultado da tarefa.
+     */
+    public static <T> T executarCom(MedicaoSql medicao, Callable<T> tarefa) throws Exception {
+        MedicaoSql anterior = ATUAL.get();
+        if (medicao == null) {
+            ATUAL.remove();
+        } else {
+            ATUAL.set(medicao);
+        }
+        try {
+            return tarefa.call();
+        } finally {
+            if (anterior == null) {
+                ATUAL.remove();
+            } else {
+                ATUAL.set(anterior);
+            }
+        }
+    }
+
+    void registrarConsulta() {
+        consultas.incrementAndGet();
+    }
+
+    void registrarTempoJdbc(long nanos) {
+        tempoJdbcNanos.addAndGet(nanos);
+    }
+
+    public int getConsultas() {
+        return consultas.get();
+    }
+
+    public long getTempoJdbcNanos() {
+        return tempoJdbcNanos.get();
+    }
+}
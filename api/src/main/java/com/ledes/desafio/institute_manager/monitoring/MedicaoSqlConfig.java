@@ -0,0 +1,57 @@
+package com.ledes.desafio.institute_manager.monitoring;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Callable;
+
+/**
+ * Liga a medição de SQL por requisição à camada JDBC e às respostas assíncronas.
+ */
+@Configuration
+public class MedicaoSqlConfig implements WebMvcConfigurer {
+
+    /**
+     * Envolve o DataSource da aplicação com o MedicaoSqlDataSource. Só o bean "dataSource", usado pelo Hibernate e
+     * pelo JdbcTemplate, é envolvido; os pools por trás dele (primário e réplica) não, para não contar duas vezes.
+     */
+    @Bean
+    public static BeanPostProcessor medicaoSqlDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return "dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof MedicaoSqlDataSource) ? new MedicaoSqlDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    /**
+     * O corpo de um StreamingResponseBody, como o da exportação, é escrito em outra thread: a medição da requisição
+     * segue para ela e é registrada pelo MedicaoSqlFilter no despacho assíncrono que encerra a resposta.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+                MedicaoSql medicao = (MedicaoSql) request.getAttribute(MedicaoSqlFilter.ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+                if (medicao != null) {
+                    MedicaoSql.ativar(medicao);
+                }
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+                MedicaoSql.encerrar();
+            }
+        });
+    }
+}
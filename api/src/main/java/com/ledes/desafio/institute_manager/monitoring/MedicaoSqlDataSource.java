@@ -0,0 +1,89 @@
+package com.ledes.desafio.institute_manager.monitoring;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource que conta, na medição ativa da thread, cada comando executado pelas conexões que entrega e soma o tempo
+ * de execução JDBC. Fica abaixo do Hibernate, do JdbcTemplate e das gravações em lote, então todos entram na medição.
+ * <p>
+ * Cada execute, executeQuery, executeUpdate ou executeBatch conta como um comando; um batch conta uma vez, como uma
+ * ida ao banco. A leitura do ResultSet depois da execução não entra no tempo.
+ */
+public class MedicaoSqlDataSource extends DelegatingDataSource {
+
+    /**
+     * @param dataSource DataSource medido.
+     */
+    public MedicaoSqlDataSource(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return medir(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return medir(super.getConnection(username, password));
+    }
+
+    private static Connection medir(Connection conexao) {
+        return (Connection) Proxy.newProxyInstance(MedicaoSqlDataSource.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "getTargetConnection" -> conexao;
+                    default -> {
+                        Object resultado = invocar(conexao, metodo, args);
+                        // createStatement, prepareStatement e prepareCall: o tipo de retorno é a interface do comando
+                        yield resultado instanceof Statement statement
+                                ? medir(statement, metodo.getReturnType(), (Connection) proxy)
+                                : resultado;
+                    }
+                });
+    }
+
+    private static Statement medir(Statement statement, Class<?> tipo, Connection conexao) {
+        return (Statement) Proxy.newProxyInstance(MedicaoSqlDataSource.class.getClassLoader(),
+                new Class<?>[] {tipo}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "getConnection" -> conexao;
+                    default -> metodo.getName().startsWith("execute")
+                            ? executar(statement, metodo, args)
+                            : invocar(statement, metodo, args);
+                });
+    }
+
+    private static Object executar(Statement statement, Method metodo, Object[] args) throws Throwable {
+        MedicaoSql medicao = MedicaoSql.atual();
+        if (medicao == null) {
+            return invocar(statement, metodo, args);
+        }
+        long inicio = System.nanoTime();
+        try {
+            return invocar(statement, metodo, args);
+        } finally {
+            medicao.registrarConsulta();
+            medicao.registrarTempoJdbc(System.nanoTime() - inicio);
+        }
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ledes.desafio.institute_manager.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede os comandos SQL de cada requisição HTTP e publica as métricas por endpoint:
+ * instituicao.sql.consultas (comandos por requisição) e instituicao.sql.tempo (tempo JDBC por requisição).
+ * Requisições acima do orçamento de consultas geram um aviso no log, indicando o endpoint responsável.
+ * <p>
+ * Os comandos são contados na camada JDBC (MedicaoSqlDataSource), então entram os do Hibernate, do JdbcTemplate e dos
+ * batches. Numa resposta assíncrona, a medição segue para a thread que escreve o corpo (MedicaoSqlConfig) e só é
+ * registrada no despacho assíncrono que encerra a requisição. Ficam de fora as tarefas em segundo plano que não
+ * pertencem a uma requisição, como a gravação do cadastro assíncrono.
+ */
+@Component
+public class MedicaoSqlFilter extends OncePerRequestFilter {
+
+    /**
+     * Atributo da requisição com a medição, compartilhada entre o despacho inicial e o assíncrono.
+     */
+    static final String ATRIBUTO = MedicaoSql.class.getName();
+
+    private static final Logger log = LoggerFactory.getLogger(MedicaoSqlFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int orcamento;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param meterRegistry Registro das métricas.
+     * @param orcamento Quantidade de comandos SQL por requisição a partir da qual um aviso é registrado.
+     */
+    @Autowired
+    public MedicaoSqlFilter(MeterRegistry meterRegistry, @Value("${instituicao.sql.orcamento:10}") int orcamento) {
+        this.meterRegistry = meterRegistry;
+        this.orcamento = orcamento;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        MedicaoSql medicao = (MedicaoSql) request.getAttribute(ATRIBUTO);
+        if (medicao == null) {
+            medicao = MedicaoSql.iniciar();
+            request.setAttribute(ATRIBUTO, medicao);
+        } else {
+            MedicaoSql.ativar(medicao);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MedicaoSql.encerrar();
+            if (!isAsyncStarted(request)) {
+                registrar(request, medicao);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, MedicaoSql medicao) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao != null ? padrao.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("instituicao.sql.consultas")
+                .description("Comandos SQL executados por requisição, incluindo JdbcTemplate e o corpo das respostas assíncronas; um batch conta uma vez")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(medicao.getConsultas());
+        Timer.builder("instituicao.sql.tempo")
+                .description("Tempo de execução JDBC dos comandos de cada requisição, sem a leitura dos resultados")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(medicao.getTempoJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (medicao.getConsultas() > orcamento) {
+            log.warn("{} {} executou {} comandos SQL ({} ms de JDBC), acima do orçamento de {}.",
+                    request.getMethod(), uri, medicao.getConsultas(),
+                    TimeUnit.NANOSECONDS.toMillis(medicao.getTempoJdbcNanos()), orcamento);
+        }
+    }
+}
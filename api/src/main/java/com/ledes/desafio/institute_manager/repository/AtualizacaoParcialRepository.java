@@ -0,0 +1,66 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * UPDATEs parciais gerados a partir de um JSON Merge Patch: somente as colunas presentes no patch entram no SET,
+ * sem carregar as entidades antes. Os nomes dos campos chegam já conferidos pelo serviço contra a lista de campos
+ * atualizáveis de cada tipo; os valores sempre vão como parâmetros.
+ */
+@Repository
+public class AtualizacaoParcialRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Atualiza os campos informados de 'instituicao' e incrementa a versão, desde que exista a linha do subtipo.
+     * Mesmo sem campos da instituição, a versão é incrementada, pois uma alteração só no endereço também muda o ETag.
+     *
+     * @param id ID da instituição.
+     * @param subtipo Entidade do subtipo (InstituicaoBrasileira ou InstituicaoEstrangeira) que a instituição deve ter.
+     * @param campos Campos de Instituicao e seus novos valores.
+     * @param versaoEsperada Versão informada pelo cliente (If-Match), ou nulo para atualizar sem pré-condição.
+     * @return Quantidade de linhas alteradas: zero se a instituição não existe, é de outro subtipo ou mudou de versão.
+     */
+    public int updateInstituicao(Long id, Class<?> subtipo, Map<String, Object> campos, Long versaoEsperada) {
+        StringBuilder jpql = new StringBuilder("update Instituicao i set ");
+        campos.keySet().forEach(campo -> jpql.append("i.").append(campo).append(" = :").append(campo).append(", "));
+        jpql.append("i.versao = i.versao + 1 where i.id = :id and exists (select s.id from ")
+                .append(subtipo.getSimpleName()).append(" s where s.instituicao.id = i.id)");
+        if (versaoEsperada != null) {
+            jpql.append(" and i.versao = :versaoEsperada");
+        }
+
+        Query query = entityManager.createQuery(jpql.toString()).setParameter("id", id);
+        campos.forEach(query::setParameter);
+        if (versaoEsperada != null) {
+            query.setParameter("versaoEsperada", versaoEsperada);
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * Atualiza os campos informados da linha do subtipo de uma instituição.
+     *
+     * @param subtipo Entidade do subtipo (InstituicaoBrasileira ou InstituicaoEstrangeira).
+     * @param id ID da instituição.
+     * @param campos Campos do subtipo e seus novos valores; não pode ser vazio.
+     * @return Quantidade de linhas alteradas.
+     */
+    public int updateSubtipo(Class<?> subtipo, Long id, Map<String, Object> campos) {
+        StringBuilder jpql = new StringBuilder("update ").append(subtipo.getSimpleName()).append(" s set ");
+        campos.keySet().forEach(campo -> jpql.append("s.").append(campo).append(" = :").append(campo).append(", "));
+        jpql.setLength(jpql.length() - 2);
+        jpql.append(" where s.instituicao.id = :id");
+
+        Query query = entityManager.createQuery(jpql.toString()).setParameter("id", id);
+        campos.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+}
@@ -0,0 +1,135 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import com.ledes.desafio.institute_manager.config.CacheConfig;
+import com.ledes.desafio.institute_manager.config.MetricsConfig;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Inserções em lote via JDBC. O Hibernate não agrupa inserts de entidades com GenerationType.IDENTITY,
+ * então a importação em massa usa batches JDBC e lê as chaves geradas de 'instituicao' diretamente.
+ * Como esses inserts não passam pelo Hibernate, o cache de consultas dos subtipos é limpo após o commit; do contrário,
+ * uma busca anterior sem resultado continuaria vazia para um ID recém-criado.
+ */
+@Repository
+@Timed(MetricsConfig.TIMER_LOTE)
+public class InstituicaoBatchRepository {
+
+    private static final String INSERT_INSTITUICAO =
+            "insert into instituicao (nome, sigla, status, tipo, versao, inativada_em) values (?, ?, ?, ?, 0, case when ? then null else current_timestamp(6) end)";
+    private static final String INSERT_BRASILEIRA =
+            "insert into instituicao_brasileira (instituicao_id, pais, cnpj, cep, logradouro, bairro, estado, municipio, numero, complemento) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ESTRANGEIRA =
+            "insert into instituicao_estrangeira (instituicao_id, pais, cep, logradouro, estado_regiao, municipio, complemento) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public InstituicaoBatchRepository(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Insere um lote de instituições brasileiras (tabela geral e de subtipo), preenchendo os IDs gerados.
+     */
+    public void insertBrasileiras(List<InstituicaoBrasileira> lote) {
+        insertInstituicoes(lote.stream().map(InstituicaoBrasileira::getInstituicao).toList(), TipoInstituicao.BRASILEIRA);
+        jdbcTemplate.batchUpdate(INSERT_BRASILEIRA, lote, lote.size(), (ps, ib) -> {
+            ps.setLong(1, ib.getInstituicao().getId());
+            ps.setString(2, ib.getPais());
+            ps.setString(3, ib.getCnpj());
+            ps.setString(4, ib.getCep());
+            ps.setString(5, ib.getLogradouro());
+            ps.setString(6, ib.getBairro());
+            ps.setString(7, ib.getEstado());
+            ps.setString(8, ib.getMunicipio());
+            ps.setString(9, ib.getNumero());
+            ps.setString(10, ib.getComplemento());
+        });
+        limparCacheConsultas();
+    }
+
+    /**
+     * Insere um lote de instituições estrangeiras (tabela geral e de subtipo), preenchendo os IDs gerados.
+     */
+    public void insertEstrangeiras(List<InstituicaoEstrangeira> lote) {
+        insertInstituicoes(lote.stream().map(InstituicaoEstrangeira::getInstituicao).toList(), TipoInstituicao.ESTRANGEIRA);
+        jdbcTemplate.batchUpdate(INSERT_ESTRANGEIRA, lote, lote.size(), (ps, ie) -> {
+            ps.setLong(1, ie.getInstituicao().getId());
+            ps.setString(2, ie.getPais());
+            ps.setString(3, ie.getCep());
+            ps.setString(4, ie.getLogradouro());
+            ps.setString(5, ie.getEstadoRegiao());
+            ps.setString(6, ie.getMunicipio());
+            ps.setString(7, ie.getComplemento());
+        });
+        limparCacheConsultas();
+    }
+
+    private void limparCacheConsultas() {
+        Runnable limpar = () -> entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(CacheConfig.REGIAO_SUBTIPO_POR_INSTITUICAO);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    limpar.run();
+                }
+            });
+        } else {
+            limpar.run();
+        }
+    }
+
+    private void insertInstituicoes(List<Instituicao> instituicoes, TipoInstituicao tipo) {
+        // criada_em e atualizada_em vêm do default das colunas; inativada_em, do relógio do banco no próprio INSERT
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            // Só o ID: com RETURN_GENERATED_KEYS, o H2 também devolve as colunas preenchidas pelo default (as datas)
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_INSTITUICAO, new String[] {"id"})) {
+                for (Instituicao instituicao : instituicoes) {
+                    boolean ativa = instituicao.getStatus() == null || instituicao.getStatus();
+                    ps.setString(1, instituicao.getNome());
+                    ps.setString(2, instituicao.getSigla());
+                    ps.setBoolean(3, ativa);
+                    ps.setString(4, tipo.name());
+                    ps.setBoolean(5, ativa);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet chaves = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (chaves.next() && i < instituicoes.size()) {
+                        Instituicao instituicao = instituicoes.get(i++);
+                        instituicao.setId(chaves.getLong(1));
+                        instituicao.setTipo(tipo);
+                        instituicao.setVersao(0L);
+                    }
+                    if (i != instituicoes.size()) {
+                        throw new IllegalStateException("O banco não retornou as chaves geradas de todo o lote.");
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -1,8 +1,13 @@
 package com.ledes.desafio.institute_manager.repository;
 
-import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.config.CacheConfig;
 import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,6 +15,23 @@ import java.util.Optional;
 @Repository
 public interface InstituicaoBrasileiraRepository extends JpaRepository<InstituicaoBrasileira, Long> {
 
-    Optional<InstituicaoBrasileira> findByInstituicao(Instituicao instituicao);
+    /**
+     * Busca o subtipo pelo ID da instituição. O resultado fica no cache de consultas do Hibernate, que guarda só o ID;
+     * o subtipo e a instituição associada vêm do cache de segundo nível, então uma busca repetida não executa SQL.
+     * Qualquer escrita nas tabelas envolvidas invalida o resultado. Sem join fetch, pois o Hibernate 6.5 não consegue
+     * montar uma consulta com join fetch a partir do cache de consultas; com o cache frio, a instituição vem em um
+     * segundo SELECT, se ainda não estiver no cache de segundo nível.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.REGIAO_SUBTIPO_POR_INSTITUICAO)
+    })
+    @Query("""
+            select b from InstituicaoBrasileira b
+            where b.instituicao.id = :instituicaoId
+            """)
+    Optional<InstituicaoBrasileira> findByInstituicaoId(@Param("instituicaoId") Long instituicaoId);
+
+    boolean existsByInstituicaoId(Long instituicaoId);
 
 }
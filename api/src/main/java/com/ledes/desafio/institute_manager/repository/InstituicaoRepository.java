@@ -1,10 +1,121 @@
 package com.ledes.desafio.institute_manager.repository;
 
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.ResumoInstituicao;
 import com.ledes.desafio.institute_manager.model.Instituicao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface InstituicaoRepository extends JpaRepository<Instituicao, Long> {
+public interface InstituicaoRepository extends JpaRepository<Instituicao, Long>, InstituicaoRepositoryCustom {
+
+    /**
+     * Junções e filtro comuns às projeções detalhadas.
+     */
+    String FROM_DETALHADA = """
+            from Instituicao i
+            left join InstituicaoBrasileira b on b.instituicao = i
+                and i.tipo = com.ledes.desafio.institute_manager.model.TipoInstituicao.BRASILEIRA
+            left join InstituicaoEstrangeira e on e.instituicao = i
+                and i.tipo = com.ledes.desafio.institute_manager.model.TipoInstituicao.ESTRANGEIRA
+            where (b.id is not null or e.id is not null)
+            """;
+
+    /**
+     * Projeção de 'instituicao' com as duas tabelas de subtipo em um único SELECT (LEFT JOIN),
+     * montando InstituicaoDetalhada diretamente, sem hidratar entidades gerenciadas.
+     * O discriminador 'tipo' restringe cada junção à tabela do subtipo correto; nas linhas anteriores à coluna,
+     * ele é preenchido pela MigracaoEsquema.
+     */
+    String SELECT_DETALHADA = """
+            select new com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada(
+                i.id, i.nome, i.sigla, i.status,
+                coalesce(b.pais, e.pais), coalesce(b.cep, e.cep), coalesce(b.logradouro, e.logradouro),
+                coalesce(b.complemento, e.complemento), coalesce(b.estado, e.estadoRegiao),
+                coalesce(b.municipio, e.municipio), b.cnpj, b.bairro, b.numero, i.tipo, i.versao)
+            """ + FROM_DETALHADA;
+
+    /**
+     * Mesma projeção de SELECT_DETALHADA, com as datas de cadastro, última alteração e inativação.
+     */
+    String SELECT_DETALHADA_DATAS = """
+            select new com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada(
+                i.id, i.nome, i.sigla, i.status,
+                coalesce(b.pais, e.pais), coalesce(b.cep, e.cep), coalesce(b.logradouro, e.logradouro),
+                coalesce(b.complemento, e.complemento), coalesce(b.estado, e.estadoRegiao),
+                coalesce(b.municipio, e.municipio), b.cnpj, b.bairro, b.numero, i.tipo, i.versao,
+                i.criadaEm, i.atualizadaEm, i.inativadaEm)
+            """ + FROM_DETALHADA;
+
+    @Query(SELECT_DETALHADA + " order by i.id")
+    List<InstituicaoDetalhada> findAllDetalhadas();
+
+    @Query(SELECT_DETALHADA + " and i.id = :id")
+    Optional<InstituicaoDetalhada> findDetalhadaById(@Param("id") Long id);
+
+    @Query(SELECT_DETALHADA + " and i.id in :ids order by i.id")
+    List<InstituicaoDetalhada> findDetalhadasByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DETALHADA + " and i.id > :ultimoId order by i.id")
+    List<InstituicaoDetalhada> findDetalhadasAfter(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    /**
+     * Instituições alteradas depois da marca (atualizada_em, id), em ordem de alteração, usando o índice
+     * idx_instituicao_atualizada_em. O limite 'ate' deixa de fora as alterações mais recentes, cujas transações
+     * ainda podem estar abertas com uma data anterior à de linhas já visíveis.
+     */
+    @Query(SELECT_DETALHADA_DATAS + """
+             and i.atualizadaEm >= :desde and (i.atualizadaEm > :desde or i.id > :ultimoId) and i.atualizadaEm <= :ate
+            order by i.atualizadaEm, i.id""")
+    List<InstituicaoDetalhada> findDetalhadasAlteradas(@Param("desde") LocalDateTime desde, @Param("ultimoId") Long ultimoId,
+                                                       @Param("ate") LocalDateTime ate, Pageable pageable);
+
+    /**
+     * Data e hora atuais do banco, o mesmo relógio que preenche atualizada_em.
+     */
+    @Query("select local datetime")
+    LocalDateTime findAgora();
+
+    /**
+     * Percorre o catálogo completo sem materializar a lista de projeções. Usado nas cargas em memória (índice de
+     * busca e snapshot), que guardam o catálogo de qualquer forma: no MySQL o driver ignora o fetch size sem
+     * cursor e lê o resultado inteiro. A exportação usa streamAllDetalhadas(int), com o fetch size dela.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DETALHADA + " order by i.id")
+    Stream<InstituicaoDetalhada> streamAllDetalhadas();
+
+    @Query("select new com.ledes.desafio.institute_manager.dto.ResumoInstituicao(i.id, i.nome, i.sigla, i.status) from Instituicao i where i.id in :ids")
+    List<ResumoInstituicao> findResumosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Altera o status de várias instituições em um único UPDATE, sem carregá-las.
+     * Só toca as linhas cujo status muda, incrementando a versão delas para invalidar os ETags.
+     * A data de inativação vem do relógio do banco na inativação e é limpa na reativação.
+     *
+     * @return Quantidade de linhas alteradas.
+     */
+    @Modifying
+    @Query("update Instituicao i set i.status = :status, i.versao = i.versao + 1, "
+            + "i.inativadaEm = case when :status = true then null else current_timestamp end "
+            + "where i.id in :ids and i.status <> :status")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") boolean status);
 
 }
@@ -0,0 +1,49 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import com.ledes.desafio.institute_manager.dto.FiltroInstituicao;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.ResumoInstituicao;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface InstituicaoRepositoryCustom {
+
+    /**
+     * Lista instituições detalhadas que atendem aos filtros, em ordem de ID, a partir de um ID (exclusivo).
+     *
+     * @param filtro Filtros a aplicar; campos nulos são ignorados.
+     * @param ultimoId ID a partir do qual a listagem começa (exclusivo).
+     * @param limite Quantidade máxima de itens, ou nulo para todos.
+     * @return Lista de InstituicaoDetalhada ordenada por ID.
+     */
+    List<InstituicaoDetalhada> findDetalhadasByFiltro(FiltroInstituicao filtro, Long ultimoId, Integer limite);
+
+    /**
+     * Lista somente as instituições brasileiras que atendem aos filtros, em ordem de ID.
+     * Não executa consulta quando o filtro de país exclui instituições brasileiras.
+     */
+    List<InstituicaoDetalhada> findBrasileirasByFiltro(FiltroInstituicao filtro, Long ultimoId, Integer limite);
+
+    /**
+     * Lista somente as instituições estrangeiras que atendem aos filtros, em ordem de ID.
+     * Não executa consulta quando o filtro de país é o Brasil.
+     */
+    List<InstituicaoDetalhada> findEstrangeirasByFiltro(FiltroInstituicao filtro, Long ultimoId, Integer limite);
+
+    /**
+     * Lista os resumos (ID, nome, sigla e status) das instituições que atendem aos filtros, dos dois subtipos.
+     * Usado pelas operações em lote, que não precisam do endereço.
+     */
+    List<ResumoInstituicao> findResumosByFiltro(FiltroInstituicao filtro);
+
+    /**
+     * Percorre o catálogo completo em ordem de ID, como streamAllDetalhadas, com o fetch size informado aplicado
+     * somente a esta consulta. Deve ser consumido dentro de uma transação e fechado ao final.
+     *
+     * @param fetchSize Fetch size do statement; no MySQL, Integer.MIN_VALUE transmite as linhas uma a uma.
+     * @return Stream das instituições, sem materializar a lista em memória.
+     */
+    Stream<InstituicaoDetalhada> streamAllDetalhadas(int fetchSize);
+
+}
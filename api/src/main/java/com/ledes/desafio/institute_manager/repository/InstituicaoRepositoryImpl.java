@@ -0,0 +1,149 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import com.ledes.desafio.institute_manager.dto.FiltroInstituicao;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.ResumoInstituicao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementação das consultas filtradas de instituições.
+ * Cada subtipo é consultado na sua própria tabela, com os filtros aplicados às colunas dela, para que o banco
+ * possa usar os índices de (estado, municipio) e (pais, estado_regiao, municipio) em vez de filtrar após o LEFT JOIN.
+ * O filtro de país descarta de antemão o subtipo que não pode atendê-lo.
+ */
+public class InstituicaoRepositoryImpl implements InstituicaoRepositoryCustom {
+
+    private static final String PAIS_BRASIL = "Brasil";
+
+    private static final String SELECT_BRASILEIRA = """
+            select new com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada(
+                i.id, i.nome, i.sigla, i.status, b.pais, b.cep, b.logradouro, b.complemento, b.estado,
+                b.municipio, b.cnpj, b.bairro, b.numero, i.tipo, i.versao)
+            from InstituicaoBrasileira b join b.instituicao i
+            where i.id > :ultimoId
+            """;
+
+    private static final String SELECT_ESTRANGEIRA = """
+            select new com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada(
+                i.id, i.nome, i.sigla, i.status, e.pais, e.cep, e.logradouro, e.complemento, e.estadoRegiao,
+                e.municipio, cast(null as String), cast(null as String), cast(null as String), i.tipo, i.versao)
+            from InstituicaoEstrangeira e join e.instituicao i
+            where i.id > :ultimoId
+            """;
+
+    private static final String SELECT_RESUMO_BRASILEIRA = """
+            select new com.ledes.desafio.institute_manager.dto.ResumoInstituicao(i.id, i.nome, i.sigla, i.status)
+            from InstituicaoBrasileira b join b.instituicao i
+            where i.id > :ultimoId
+            """;
+
+    private static final String SELECT_RESUMO_ESTRANGEIRA = """
+            select new com.ledes.desafio.institute_manager.dto.ResumoInstituicao(i.id, i.nome, i.sigla, i.status)
+            from InstituicaoEstrangeira e join e.instituicao i
+            where i.id > :ultimoId
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<InstituicaoDetalhada> findDetalhadasByFiltro(FiltroInstituicao filtro, Long ultimoId, Integer limite) {
+        List<InstituicaoDetalhada> instituicoes = new ArrayList<>(findBrasileirasByFiltro(filtro, ultimoId, limite));
+        instituicoes.addAll(findEstrangeirasByFiltro(filtro, ultimoId, limite));
+
+        // Junta os dois resultados já ordenados e mantém somente o limite pedido
+        instituicoes.sort(Comparator.comparing(InstituicaoDetalhada::getId));
+        return limite != null && instituicoes.size() > limite ? new ArrayList<>(instituicoes.subList(0, limite)) : instituicoes;
+    }
+
+    @Override
+    public List<InstituicaoDetalhada> findBrasileirasByFiltro(FiltroInstituicao filtro, Long ultimoId, Integer limite) {
+        if (StringUtils.hasText(filtro.getPais()) && !isPaisBrasil(filtro.getPais())) {
+            return List.of();
+        }
+        return consultar(SELECT_BRASILEIRA, InstituicaoDetalhada.class, "b", "estado", null, filtro, ultimoId, limite);
+    }
+
+    @Override
+    public List<InstituicaoDetalhada> findEstrangeirasByFiltro(FiltroInstituicao filtro, Long ultimoId, Integer limite) {
+        if (!StringUtils.hasText(filtro.getPais())) {
+            return consultar(SELECT_ESTRANGEIRA, InstituicaoDetalhada.class, "e", "estadoRegiao", null, filtro, ultimoId, limite);
+        }
+        if (isPaisBrasil(filtro.getPais())) {
+            return List.of();
+        }
+        return consultar(SELECT_ESTRANGEIRA, InstituicaoDetalhada.class, "e", "estadoRegiao", filtro.getPais().trim(), filtro, ultimoId, limite);
+    }
+
+    @Override
+    public List<ResumoInstituicao> findResumosByFiltro(FiltroInstituicao filtro) {
+        List<ResumoInstituicao> resumos = new ArrayList<>();
+        boolean comPais = StringUtils.hasText(filtro.getPais());
+        if (!comPais || isPaisBrasil(filtro.getPais())) {
+            resumos.addAll(consultar(SELECT_RESUMO_BRASILEIRA, ResumoInstituicao.class, "b", "estado", null, filtro, 0L, null));
+        }
+        if (!comPais || !isPaisBrasil(filtro.getPais())) {
+            resumos.addAll(consultar(SELECT_RESUMO_ESTRANGEIRA, ResumoInstituicao.class, "e", "estadoRegiao",
+                    comPais ? filtro.getPais().trim() : null, filtro, 0L, null));
+        }
+        return resumos;
+    }
+
+    @Override
+    public Stream<InstituicaoDetalhada> streamAllDetalhadas(int fetchSize) {
+        return entityManager.createQuery(InstituicaoRepository.SELECT_DETALHADA + " order by i.id", InstituicaoDetalhada.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private static boolean isPaisBrasil(String pais) {
+        return PAIS_BRASIL.equalsIgnoreCase(pais.trim());
+    }
+
+    private <T> List<T> consultar(String select, Class<T> tipo, String alias, String campoEstado, String pais,
+                                  FiltroInstituicao filtro, Long ultimoId, Integer limite) {
+        StringBuilder jpql = new StringBuilder(select);
+        if (pais != null) {
+            jpql.append(" and ").append(alias).append(".pais = :pais");
+        }
+        if (StringUtils.hasText(filtro.getEstado())) {
+            jpql.append(" and ").append(alias).append('.').append(campoEstado).append(" = :estado");
+        }
+        if (StringUtils.hasText(filtro.getMunicipio())) {
+            jpql.append(" and ").append(alias).append(".municipio = :municipio");
+        }
+        if (filtro.getStatus() != null) {
+            jpql.append(" and i.status = :status");
+        }
+        jpql.append(" order by i.id");
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), tipo)
+                .setParameter("ultimoId", ultimoId);
+        if (pais != null) {
+            query.setParameter("pais", pais);
+        }
+        if (StringUtils.hasText(filtro.getEstado())) {
+            query.setParameter("estado", filtro.getEstado().trim());
+        }
+        if (StringUtils.hasText(filtro.getMunicipio())) {
+            query.setParameter("municipio", filtro.getMunicipio().trim());
+        }
+        if (filtro.getStatus() != null) {
+            query.setParameter("status", filtro.getStatus());
+        }
+        if (limite != null) {
+            query.setMaxResults(limite);
+        }
+        return query.getResultList();
+    }
+}
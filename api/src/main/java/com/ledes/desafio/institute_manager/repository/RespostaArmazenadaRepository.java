@@ -0,0 +1,28 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import com.ledes.desafio.institute_manager.model.RespostaArmazenada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface RespostaArmazenadaRepository extends JpaRepository<RespostaArmazenada, String> {
+
+    /**
+     * Busca uma resposta ainda válida. A transação não é somente leitura para ir ao primário: com a réplica de leitura,
+     * uma repetição logo após o cadastro poderia não encontrar a resposta ainda não replicada.
+     */
+    @Transactional
+    Optional<RespostaArmazenada> findByChaveAndCriadaEmAfter(String chave, Instant limite);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RespostaArmazenada r where r.criadaEm < :limite")
+    int deleteExpiradas(@Param("limite") Instant limite);
+}
@@ -0,0 +1,52 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import com.ledes.desafio.institute_manager.dto.VersaoColecao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Contador de alterações da coleção de instituições, numa linha única da tabela versao_colecao (criada pela
+ * MigracaoEsquema). Acesso via JDBC, para que o UPDATE não invalide o cache de segundo nível do Hibernate, como
+ * faria um comando nativo pelo EntityManager.
+ */
+@Repository
+public class VersaoColecaoRepository {
+
+    private static final String SELECT = "select versao from versao_colecao where id = 1";
+    private static final String INCREMENTAR = "update versao_colecao set versao = versao + 1 where id = 1";
+    private static final String INSERIR = "insert into versao_colecao (id, versao) values (1, 1)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public VersaoColecaoRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Versão atual; zero enquanto nenhuma alteração tiver sido registrada.
+     */
+    public VersaoColecao find() {
+        List<Long> versoes = jdbcTemplate.queryForList(SELECT, Long.class);
+        return new VersaoColecao(versoes.isEmpty() ? 0L : versoes.get(0));
+    }
+
+    /**
+     * Incrementa o contador na transação corrente. O bloqueio da linha vai até o commit, então deve ser chamado
+     * o mais perto possível dele.
+     */
+    public void incrementar() {
+        if (jdbcTemplate.update(INCREMENTAR) == 0) {
+            try {
+                jdbcTemplate.update(INSERIR);
+            } catch (DuplicateKeyException e) {
+                // Inserida ao mesmo tempo por outra transação
+                jdbcTemplate.update(INCREMENTAR);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ledes.desafio.institute_manager.dto.SituacaoCadastro;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.repository.InstituicaoBatchRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cadastro assíncrono de instituições, para rajadas de POST (por exemplo, na entrada de um parceiro).
+ * O pedido, já validado pelo controlador com as regras do cadastro síncrono, é colocado numa fila limitada; uma única thread grava a fila em lotes de até
+ * tamanho-lote registros, ou o que chegou em até 'intervalo' depois do primeiro, com batches JDBC e uma transação
+ * por lote. Assim, N cadastros ocupam uma conexão e uma transação, e não N.
+ * <p>
+ * Com a fila cheia, a requisição espera até espera-vaga por uma vaga e depois é recusada (FilaCheiaException),
+ * o que segura os clientes em vez de acumular memória. A situação de cada cadastro fica disponível por 'validade'
+ * para consulta. No encerramento, depois que o servidor web para de receber requisições, a fila é gravada até o
+ * fim antes de o DataSource ser fechado, então nenhum cadastro aceito é perdido.
+ */
+@Service
+public class CadastroAssincronoService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CadastroAssincronoService.class);
+
+    /**
+     * Fase abaixo das do servidor web (que param antes), para que a fila só seja esvaziada quando não chegam mais pedidos.
+     */
+    private static final int FASE = Integer.MAX_VALUE - 4096;
+
+    private final InstituicaoBatchRepository instituicaoBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int tamanhoLote;
+    private final long intervaloNanos;
+    private final long esperaVagaNanos;
+
+    private final BlockingQueue<Pedido> fila;
+    private final Cache<String, SituacaoCadastro> situacoes;
+
+    /**
+     * Os produtores seguram a leitura enquanto enfileiram; o encerramento pega a escrita para fechar a fila
+     * sem que um pedido entre depois da última leitura do gravador.
+     */
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+    private volatile boolean ativo;
+    private Thread gravador;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param instituicaoBatchRepository Repositório de inserções em lote via JDBC.
+     * @param transactionTemplate Template usado para abrir uma transação por lote.
+     * @param eventPublisher Publicador dos eventos de alteração de instituições.
+     * @param meterRegistry Registro onde o tamanho da fila é publicado (instituicao.cadastro.fila).
+     * @param capacidade Quantidade máxima de pedidos aguardando gravação.
+     * @param tamanhoLote Quantidade máxima de registros por transação.
+     * @param intervalo Tempo máximo de espera para completar um lote depois do primeiro pedido.
+     * @param esperaVaga Tempo que uma requisição espera por uma vaga na fila cheia antes de ser recusada.
+     * @param validade Tempo durante o qual a situação de um cadastro pode ser consultada.
+     */
+    @Autowired
+    public CadastroAssincronoService(InstituicaoBatchRepository instituicaoBatchRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     ApplicationEventPublisher eventPublisher,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${instituicao.cadastro-assincrono.capacidade:10000}") int capacidade,
+                                     @Value("${instituicao.cadastro-assincrono.tamanho-lote:500}") int tamanhoLote,
+                                     @Value("${instituicao.cadastro-assincrono.intervalo:50ms}") Duration intervalo,
+                                     @Value("${instituicao.cadastro-assincrono.espera-vaga:1s}") Duration esperaVaga,
+                                     @Value("${instituicao.cadastro-assincrono.validade:1h}") Duration validade) {
+        this.instituicaoBatchRepository = instituicaoBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloNanos = intervalo.toNanos();
+        this.esperaVagaNanos = esperaVaga.toNanos();
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        // Cabem ao menos todos os pedidos da fila, para que um cadastro pendente não seja descartado pelo tamanho
+        this.situacoes = Caffeine.newBuilder()
+                .maximumSize(Math.max(capacidade * 10L, 10_000L))
+                .expireAfterWrite(validade)
+                .build();
+        Gauge.builder("instituicao.cadastro.fila", fila, BlockingQueue::size)
+                .description("Cadastros assíncronos aguardando gravação")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enfileira uma nova instituição brasileira.
+     *
+     * @param instituicaoBrasileira Instituição brasileira a ser cadastrada, já validada com
+     *                              InstituicaoBrasileiraService.validarNovaInstituicaoBrasileira.
+     * @return Situação pendente do cadastro, com o identificador para consulta.
+     * @throws FilaCheiaException Se a fila continuar cheia depois da espera, ou se a aplicação estiver encerrando.
+     */
+    public SituacaoCadastro enfileirarBrasileira(InstituicaoBrasileira instituicaoBrasileira) {
+        return enfileirar(TipoInstituicao.BRASILEIRA, instituicaoBrasileira, instituicaoBrasileira.getInstituicao());
+    }
+
+    /**
+     * Enfileira uma nova instituição estrangeira.
+     *
+     * @param instituicaoEstrangeira Instituição estrangeira a ser cadastrada, já validada com
+     *                               InstituicaoEstrangeiraService.validarNovaInstituicaoEstrangeira.
+     * @return Situação pendente do cadastro, com o identificador para consulta.
+     * @throws FilaCheiaException Se a fila continuar cheia depois da espera, ou se a aplicação estiver encerrando.
+     */
+    public SituacaoCadastro enfileirarEstrangeira(InstituicaoEstrangeira instituicaoEstrangeira) {
+        return enfileirar(TipoInstituicao.ESTRANGEIRA, instituicaoEstrangeira, instituicaoEstrangeira.getInstituicao());
+    }
+
+    /**
+     * Consulta a situação de um cadastro.
+     *
+     * @param id Identificador devolvido ao enfileirar.
+     * @return Situação atual, ou vazio se o identificador não existe ou já expirou.
+     */
+    public Optional<SituacaoCadastro> getSituacao(String id) {
+        return Optional.ofNullable(situacoes.getIfPresent(id));
+    }
+
+    private SituacaoCadastro enfileirar(TipoInstituicao tipo, Object registro, Instituicao instituicao) {
+        instituicao.setTipo(tipo);
+        SituacaoCadastro situacao = SituacaoCadastro.pendente(UUID.randomUUID().toString(), tipo);
+        situacoes.put(situacao.getId(), situacao);
+
+        trava.readLock().lock();
+        try {
+            if (!ativo) {
+                throw recusar(situacao, "A aplicação está encerrando; tente novamente em instantes.");
+            }
+            if (!fila.offer(new Pedido(situacao, registro, instituicao), esperaVagaNanos, TimeUnit.NANOSECONDS)) {
+                throw recusar(situacao, "A fila de cadastros está cheia; tente novamente em instantes.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw recusar(situacao, "Cadastro interrompido antes de entrar na fila.");
+        } finally {
+            trava.readLock().unlock();
+        }
+        return situacao;
+    }
+
+    private FilaCheiaException recusar(SituacaoCadastro situacao, String mensagem) {
+        situacoes.invalidate(situacao.getId());
+        return new FilaCheiaException(mensagem);
+    }
+
+    /**
+     * Laço do gravador: espera o primeiro pedido, completa o lote até o tamanho máximo ou até o intervalo
+     * e grava. Só termina quando a fila foi fechada e está vazia.
+     */
+    private void gravarFila() {
+        List<Pedido> lote = new ArrayList<>(tamanhoLote);
+        while (true) {
+            try {
+                Pedido primeiro = fila.poll(intervaloNanos, TimeUnit.NANOSECONDS);
+                if (primeiro == null) {
+                    // Com a fila fechada nada mais entra, então vazia agora é vazia para sempre
+                    if (!ativo && fila.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                lote.add(primeiro);
+                long limite = System.nanoTime() + intervaloNanos;
+                while (lote.size() < tamanhoLote) {
+                    fila.drainTo(lote, tamanhoLote - lote.size());
+                    long restante = limite - System.nanoTime();
+                    if (lote.size() >= tamanhoLote || restante <= 0) {
+                        break;
+                    }
+                    Pedido proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+                gravarLote(lote);
+                lote.clear();
+            } catch (InterruptedException e) {
+                // A interrupção não descarta pedidos: o encerramento espera a fila esvaziar
+                log.warn("Gravador de cadastros interrompido; continuando até esvaziar a fila.");
+            }
+        }
+    }
+
+    /**
+     * Grava o lote em uma única transação. Se o banco rejeitar o lote, os registros são regravados um a um para que
+     * somente os problemáticos fiquem com a situação FALHOU, como na importação em lote.
+     */
+    private void gravarLote(List<Pedido> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> inserir(lote));
+            lote.forEach(this::concluir);
+        } catch (DataAccessException e) {
+            for (Pedido pedido : lote) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> inserir(List.of(pedido)));
+                    concluir(pedido);
+                } catch (RuntimeException erro) {
+                    falhar(pedido, "Erro ao gravar: " + NestedExceptionUtils.getMostSpecificCause(erro).getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar lote de {} cadastros assíncronos.", lote.size(), e);
+            lote.forEach(pedido -> falhar(pedido, "Erro ao gravar: " + e.getMessage()));
+        }
+    }
+
+    private void inserir(List<Pedido> lote) {
+        List<InstituicaoBrasileira> brasileiras = new ArrayList<>();
+        List<InstituicaoEstrangeira> estrangeiras = new ArrayList<>();
+        for (Pedido pedido : lote) {
+            if (pedido.registro() instanceof InstituicaoBrasileira brasileira) {
+                brasileiras.add(brasileira);
+            } else {
+                estrangeiras.add((InstituicaoEstrangeira) pedido.registro());
+            }
+        }
+        if (!brasileiras.isEmpty()) {
+            instituicaoBatchRepository.insertBrasileiras(brasileiras);
+        }
+        if (!estrangeiras.isEmpty()) {
+            instituicaoBatchRepository.insertEstrangeiras(estrangeiras);
+        }
+        // Os ouvintes recebem os eventos somente após o commit do lote
+        lote.forEach(pedido -> eventPublisher.publishEvent(
+                InstituicaoAlteradaEvent.of(pedido.instituicao(), TipoAlteracao.CRIADA)));
+    }
+
+    private void concluir(Pedido pedido) {
+        situacoes.put(pedido.situacao().getId(), pedido.situacao().concluido(pedido.instituicao().getId()));
+    }
+
+    private void falhar(Pedido pedido, String erro) {
+        situacoes.put(pedido.situacao().getId(), pedido.situacao().falhou(erro));
+    }
+
+    @Override
+    public void start() {
+        ativo = true;
+        gravador = Thread.ofPlatform().name("cadastro-assincrono").daemon(true).start(this::gravarFila);
+    }
+
+    /**
+     * Fecha a fila e espera o gravador gravar todos os pedidos aceitos.
+     */
+    @Override
+    public void stop() {
+        trava.writeLock().lock();
+        try {
+            ativo = false;
+        } finally {
+            trava.writeLock().unlock();
+        }
+        if (!fila.isEmpty()) {
+            log.info("Gravando {} cadastros assíncronos pendentes antes de encerrar.", fila.size());
+        }
+        boolean interrompida = false;
+        while (gravador.isAlive()) {
+            try {
+                gravador.join();
+            } catch (InterruptedException e) {
+                interrompida = true;
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ativo;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+
+    /**
+     * Pedido na fila: a situação pendente, o registro do subtipo e a instituição que recebe o ID gerado.
+     */
+    private record Pedido(SituacaoCadastro situacao, Object registro, Instituicao instituicao) {
+    }
+}
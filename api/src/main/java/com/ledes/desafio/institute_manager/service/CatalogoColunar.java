@@ -0,0 +1,533 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.FiltroInstituicao;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import org.springframework.util.StringUtils;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Cópia imutável do catálogo de instituições em colunas, para responder listagens, filtros e buscas por ID sem o banco.
+ * <p>
+ * Cada campo de texto é uma coluna com dicionário: os valores distintos ficam uma única vez num array, e cada linha
+ * guarda só o código do valor, em byte, char ou int conforme o tamanho do dicionário. Como país, estado e município
+ * se repetem muito, essas colunas custam um ou dois bytes por linha. IDs e versões ficam em arrays primitivos,
+ * ordenados por ID, e o status e o subtipo em bitsets. Os filtros comparam códigos: o valor do filtro é procurado
+ * uma vez no dicionário, e não em cada linha.
+ * <p>
+ * As alterações geram uma nova cópia (comAlteracoes), então quem está lendo nunca vê um catálogo pela metade.
+ * Os dicionários só crescem entre as cópias; quando os valores fora de uso passam da metade, a coluna é compactada.
+ */
+public final class CatalogoColunar {
+
+    private static final String PAIS_BRASIL = "Brasil";
+
+    /**
+     * Colunas de texto, na ordem dos índices abaixo.
+     */
+    private static final List<String> NOMES_COLUNAS = List.of("nome", "sigla", "pais", "cep", "logradouro",
+            "complemento", "estado", "municipio", "cnpj", "bairro", "numero");
+    private static final List<Function<InstituicaoDetalhada, String>> CAMPOS = List.of(
+            InstituicaoDetalhada::getNome, InstituicaoDetalhada::getSigla, InstituicaoDetalhada::getPais,
+            InstituicaoDetalhada::getCep, InstituicaoDetalhada::getLogradouro, InstituicaoDetalhada::getComplemento,
+            InstituicaoDetalhada::getEstado, InstituicaoDetalhada::getMunicipio, InstituicaoDetalhada::getCnpj,
+            InstituicaoDetalhada::getBairro, InstituicaoDetalhada::getNumero);
+    private static final int NOME = 0, SIGLA = 1, PAIS = 2, CEP = 3, LOGRADOURO = 4, COMPLEMENTO = 5, ESTADO = 6,
+            MUNICIPIO = 7, CNPJ = 8, BAIRRO = 9, NUMERO = 10;
+
+    private static final TipoInstituicao[] TIPOS = TipoInstituicao.values();
+
+    private final long[] ids;
+    private final long[] versoes;
+    private final BitSet ativas;
+    private final BitSet brasileiras;
+    /**
+     * Ordinal do tipo mais um; zero para tipo nulo.
+     */
+    private final byte[] tipos;
+    private final Coluna[] colunas;
+
+    private CatalogoColunar(long[] ids, long[] versoes, BitSet ativas, BitSet brasileiras, byte[] tipos, Coluna[] colunas) {
+        this.ids = ids;
+        this.versoes = versoes;
+        this.ativas = ativas;
+        this.brasileiras = brasileiras;
+        this.tipos = tipos;
+        this.colunas = colunas;
+    }
+
+    /**
+     * Monta o catálogo a partir das instituições em ordem crescente de ID.
+     *
+     * @param instituicoes Instituições ordenadas por ID, como em streamAllDetalhadas.
+     * @return Catálogo com as instituições informadas.
+     */
+    public static CatalogoColunar de(Iterator<InstituicaoDetalhada> instituicoes) {
+        Construtor construtor = new Construtor(null, 1024);
+        instituicoes.forEachRemaining(construtor::adicionar);
+        return construtor.construir();
+    }
+
+    /**
+     * Gera uma nova cópia com as instituições alteradas; a cópia atual não muda.
+     *
+     * @param ids IDs alterados.
+     * @param atuais Estado atual, no banco, dos IDs alterados; os IDs ausentes são removidos do catálogo.
+     * @return Novo catálogo.
+     */
+    public CatalogoColunar comAlteracoes(Collection<Long> ids, Collection<InstituicaoDetalhada> atuais) {
+        Map<Long, InstituicaoDetalhada> porId = new HashMap<>();
+        atuais.forEach(instituicao -> porId.put(instituicao.getId(), instituicao));
+        long[] alterados = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+
+        Construtor construtor = new Construtor(this, tamanho() + alterados.length);
+        int linha = 0;
+        for (long id : alterados) {
+            int posicao = posicao(id);
+            int proxima = posicao >= 0 ? posicao : -posicao - 1;
+            // Trecho sem alterações: copiado por intervalo, sem decodificar as linhas
+            construtor.copiar(this, linha, proxima);
+            linha = posicao >= 0 ? posicao + 1 : proxima;
+            InstituicaoDetalhada atual = porId.get(id);
+            if (atual != null) {
+                construtor.adicionar(atual);
+            }
+        }
+        construtor.copiar(this, linha, tamanho());
+        return construtor.construir();
+    }
+
+    /**
+     * Quantidade de instituições no catálogo.
+     */
+    public int tamanho() {
+        return ids.length;
+    }
+
+    /**
+     * Busca uma instituição pelo ID (busca binária).
+     */
+    public Optional<InstituicaoDetalhada> buscar(long id) {
+        int linha = posicao(id);
+        return linha >= 0 ? Optional.of(linha(linha)) : Optional.empty();
+    }
+
+    /**
+     * Lista as instituições que atendem aos filtros, em ordem de ID, com a mesma semântica das consultas filtradas
+     * do InstituicaoRepository: país "Brasil" seleciona as brasileiras, outro país seleciona as estrangeiras daquele
+     * país, e estado vale para o estado (brasileiras) ou o estado/região (estrangeiras). Os textos são comparados
+     * sem diferenciar maiúsculas nem acentos, como na collation padrão do MySQL.
+     *
+     * @param filtro Filtros de status, país, estado e município, ou nulo para nenhum.
+     * @param ultimoId Somente IDs maiores que este (cursor).
+     * @param limite Quantidade máxima de itens, ou nulo para todos.
+     * @return Instituições em ordem crescente de ID.
+     */
+    public List<InstituicaoDetalhada> listar(FiltroInstituicao filtro, long ultimoId, Integer limite) {
+        Criterios criterios = criterios(filtro);
+        List<InstituicaoDetalhada> instituicoes = new ArrayList<>(limite != null ? Math.min(limite, tamanho()) : tamanho());
+        if (criterios == null) {
+            return instituicoes;
+        }
+        int inicio = posicao(ultimoId);
+        for (int linha = inicio >= 0 ? inicio + 1 : -inicio - 1; linha < tamanho(); linha++) {
+            if (limite != null && instituicoes.size() >= limite) {
+                break;
+            }
+            if (aceita(criterios, linha)) {
+                instituicoes.add(linha(linha));
+            }
+        }
+        return instituicoes;
+    }
+
+    /**
+     * Quantidade de valores distintos no dicionário de cada coluna de texto (inclui o nulo).
+     */
+    public Map<String, Integer> valoresDistintos() {
+        Map<String, Integer> distintos = new LinkedHashMap<>();
+        for (int i = 0; i < colunas.length; i++) {
+            distintos.put(NOMES_COLUNAS.get(i), colunas[i].valores.length);
+        }
+        return distintos;
+    }
+
+    /**
+     * Estimativa, em bytes, do heap ocupado por este catálogo.
+     * Considera a JVM de 64 bits com compressed oops (cabeçalho de 12 bytes, referências de 4 bytes, alinhamento
+     * de 8 bytes) e compact strings.
+     */
+    public long estimarBytes() {
+        long bytes = objeto(6 * 4) + array(ids.length, 8) + array(versoes.length, 8) + array(tipos.length, 1)
+                + bitset(ativas) + bitset(brasileiras) + array(colunas.length, 4);
+        for (Coluna coluna : colunas) {
+            bytes += coluna.estimarBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimativa, em bytes, de um List&lt;InstituicaoDetalhada&gt; com as mesmas instituições, como o carregado pelas
+     * consultas de projeção: um objeto por linha, com os seus Long e as suas próprias Strings (o JDBC cria uma String
+     * por célula, mesmo quando o valor se repete). Usa o mesmo modelo de JVM de estimarBytes.
+     */
+    public long estimarBytesLista() {
+        long bytes = objeto(4 + 4 + 4) + array(tamanho(), 4);
+        // 18 referências; Boolean e TipoInstituicao são instâncias compartilhadas
+        long porLinha = objeto(18 * 4);
+        for (int linha = 0; linha < tamanho(); linha++) {
+            bytes += porLinha + longBox(ids[linha]) + longBox(versoes[linha]);
+            for (Coluna coluna : colunas) {
+                String valor = coluna.valor(linha);
+                bytes += valor == null ? 0 : string(valor);
+            }
+        }
+        return bytes;
+    }
+
+    private InstituicaoDetalhada linha(int linha) {
+        int tipo = tipos[linha];
+        return new InstituicaoDetalhada(ids[linha], texto(NOME, linha), texto(SIGLA, linha), ativas.get(linha),
+                texto(PAIS, linha), texto(CEP, linha), texto(LOGRADOURO, linha), texto(COMPLEMENTO, linha),
+                texto(ESTADO, linha), texto(MUNICIPIO, linha), texto(CNPJ, linha), texto(BAIRRO, linha),
+                texto(NUMERO, linha), tipo == 0 ? null : TIPOS[tipo - 1], versoes[linha]);
+    }
+
+    private String texto(int coluna, int linha) {
+        return colunas[coluna].valor(linha);
+    }
+
+    /**
+     * Posição do ID, ou (-(ponto de inserção) - 1) se ele não estiver no catálogo.
+     */
+    private int posicao(long id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /**
+     * Traduz os filtros em códigos de dicionário; nulo quando nenhuma linha pode atendê-los.
+     */
+    private Criterios criterios(FiltroInstituicao filtro) {
+        if (filtro == null || filtro.isVazio()) {
+            return new Criterios(null, null, null, null, null);
+        }
+        Boolean subtipoBrasileira = null;
+        BitSet pais = null;
+        if (StringUtils.hasText(filtro.getPais())) {
+            subtipoBrasileira = PAIS_BRASIL.equalsIgnoreCase(filtro.getPais().trim());
+            if (!subtipoBrasileira) {
+                pais = colunas[PAIS].codigosIguais(filtro.getPais());
+            }
+        }
+        BitSet estado = StringUtils.hasText(filtro.getEstado()) ? colunas[ESTADO].codigosIguais(filtro.getEstado()) : null;
+        BitSet municipio = StringUtils.hasText(filtro.getMunicipio()) ? colunas[MUNICIPIO].codigosIguais(filtro.getMunicipio()) : null;
+        if (Stream.of(pais, estado, municipio).anyMatch(codigos -> codigos != null && codigos.isEmpty())) {
+            return null;
+        }
+        return new Criterios(filtro.getStatus(), subtipoBrasileira, pais, estado, municipio);
+    }
+
+    private static long objeto(long campos) {
+        return alinhar(12 + campos);
+    }
+
+    private static long array(long tamanho, int bytesPorItem) {
+        return alinhar(16 + tamanho * bytesPorItem);
+    }
+
+    private static long bitset(BitSet bitset) {
+        // Objeto BitSet (words, wordsInUse, sizeIsSticky) e o long[] interno, dimensionado pelo maior bit
+        return objeto(4 + 4 + 1) + array((bitset.size() + 63) / 64, 8);
+    }
+
+    private static long string(String valor) {
+        boolean latin1 = valor.chars().allMatch(c -> c <= 0xFF);
+        return objeto(4 + 4 + 1 + 1) + array(valor.length(), latin1 ? 1 : 2);
+    }
+
+    private static long longBox(long valor) {
+        // Long.valueOf reaproveita as instâncias de -128 a 127
+        return valor >= -128 && valor <= 127 ? 0 : objeto(8);
+    }
+
+    private static long alinhar(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private boolean aceita(Criterios criterios, int linha) {
+        return (criterios.status() == null || ativas.get(linha) == criterios.status())
+                && (criterios.brasileira() == null || brasileiras.get(linha) == criterios.brasileira())
+                && (criterios.pais() == null || criterios.pais().get(colunas[PAIS].codigo(linha)))
+                && (criterios.estado() == null || criterios.estado().get(colunas[ESTADO].codigo(linha)))
+                && (criterios.municipio() == null || criterios.municipio().get(colunas[MUNICIPIO].codigo(linha)));
+    }
+
+    /**
+     * Filtros já traduzidos: nulo significa sem restrição; os bitsets marcam os códigos aceitos de cada coluna.
+     */
+    private record Criterios(Boolean status, Boolean brasileira, BitSet pais, BitSet estado, BitSet municipio) {
+    }
+
+    /**
+     * Coluna de texto com dicionário. O código zero é sempre o nulo.
+     */
+    private static final class Coluna {
+
+        private final String[] valores;
+        // Somente um dos três arrays existe, o menor que comporta o dicionário
+        private final byte[] codigosByte;
+        private final char[] codigosChar;
+        private final int[] codigosInt;
+
+        private Coluna(String[] valores, int[] codigos, int tamanho) {
+            this.valores = valores;
+            if (valores.length <= 1 << Byte.SIZE) {
+                codigosByte = new byte[tamanho];
+                for (int i = 0; i < tamanho; i++) {
+                    codigosByte[i] = (byte) codigos[i];
+                }
+                codigosChar = null;
+                codigosInt = null;
+            } else if (valores.length <= 1 << Character.SIZE) {
+                codigosChar = new char[tamanho];
+                for (int i = 0; i < tamanho; i++) {
+                    codigosChar[i] = (char) codigos[i];
+                }
+                codigosByte = null;
+                codigosInt = null;
+            } else {
+                codigosInt = Arrays.copyOf(codigos, tamanho);
+                codigosByte = null;
+                codigosChar = null;
+            }
+        }
+
+        int codigo(int linha) {
+            if (codigosByte != null) {
+                return codigosByte[linha] & 0xFF;
+            }
+            return codigosChar != null ? codigosChar[linha] : codigosInt[linha];
+        }
+
+        String valor(int linha) {
+            return valores[codigo(linha)];
+        }
+
+        /**
+         * Códigos cujo valor é igual ao filtro, sem diferenciar maiúsculas nem acentos. Percorre só o dicionário.
+         */
+        BitSet codigosIguais(String filtro) {
+            Collator collator = Collator.getInstance(Locale.of("pt", "BR"));
+            collator.setStrength(Collator.PRIMARY);
+            String alvo = filtro.trim();
+            BitSet codigos = new BitSet(valores.length);
+            for (int codigo = 1; codigo < valores.length; codigo++) {
+                if (collator.equals(valores[codigo], alvo)) {
+                    codigos.set(codigo);
+                }
+            }
+            return codigos;
+        }
+
+        long estimarBytes() {
+            long bytes = objeto(4 * 4) + array(valores.length, 4);
+            for (String valor : valores) {
+                bytes += valor == null ? 0 : string(valor);
+            }
+            if (codigosByte != null) {
+                return bytes + array(codigosByte.length, 1);
+            }
+            return bytes + (codigosChar != null ? array(codigosChar.length, 2) : array(codigosInt.length, 4));
+        }
+    }
+
+    /**
+     * Monta uma coluna. Na carga, um índice (valor -> código) evita valores repetidos no dicionário.
+     * Sobre uma coluna existente, o dicionário é estendido: os códigos copiados continuam válidos, e um valor novo
+     * só é procurado nos dicionários pequenos; nos grandes (nome, sigla, CNPJ...), ele é acrescentado no fim.
+     */
+    private static final class ConstrutorColuna {
+
+        /**
+         * Tamanho até o qual um valor novo é procurado no dicionário existente antes de ser acrescentado.
+         */
+        private static final int LIMITE_BUSCA = 1024;
+
+        private final List<String> valores;
+        private final Map<String, Integer> indice;
+        private int[] codigos;
+        private int tamanho;
+
+        ConstrutorColuna(Coluna base, int capacidade) {
+            if (base == null) {
+                valores = new ArrayList<>();
+                valores.add(null);
+                indice = new HashMap<>();
+            } else {
+                valores = new ArrayList<>(Arrays.asList(base.valores));
+                indice = null;
+            }
+            codigos = new int[Math.max(capacidade, 16)];
+        }
+
+        void adicionar(String valor) {
+            garantirCapacidade(tamanho + 1);
+            codigos[tamanho++] = codigoDe(valor);
+        }
+
+        void copiar(Coluna base, int de, int ate) {
+            garantirCapacidade(tamanho + ate - de);
+            for (int linha = de; linha < ate; linha++) {
+                codigos[tamanho++] = base.codigo(linha);
+            }
+        }
+
+        private int codigoDe(String valor) {
+            if (valor == null) {
+                return 0;
+            }
+            if (indice != null) {
+                return indice.computeIfAbsent(valor, novo -> {
+                    valores.add(novo);
+                    return valores.size() - 1;
+                });
+            }
+            if (valores.size() <= LIMITE_BUSCA) {
+                int codigo = valores.indexOf(valor);
+                if (codigo > 0) {
+                    return codigo;
+                }
+            }
+            valores.add(valor);
+            return valores.size() - 1;
+        }
+
+        private void garantirCapacidade(int necessaria) {
+            if (necessaria > codigos.length) {
+                codigos = Arrays.copyOf(codigos, Math.max(necessaria, codigos.length + (codigos.length >> 1)));
+            }
+        }
+
+        /**
+         * Fecha a coluna, compactando o dicionário quando mais da metade dos valores não é usada por nenhuma linha.
+         */
+        Coluna construir() {
+            BitSet usados = new BitSet(valores.size());
+            for (int i = 0; i < tamanho; i++) {
+                usados.set(codigos[i]);
+            }
+            usados.set(0);
+            if (valores.size() <= 2 * usados.cardinality() + 64) {
+                return new Coluna(valores.toArray(String[]::new), codigos, tamanho);
+            }
+            // Renumera os valores usados, mantendo a ordem, e remove os repetidos acrescentados nas cópias
+            Map<String, Integer> novosCodigos = new HashMap<>();
+            List<String> compactados = new ArrayList<>();
+            compactados.add(null);
+            int[] mapa = new int[valores.size()];
+            for (int codigo = usados.nextSetBit(1); codigo >= 0; codigo = usados.nextSetBit(codigo + 1)) {
+                mapa[codigo] = novosCodigos.computeIfAbsent(valores.get(codigo), valor -> {
+                    compactados.add(valor);
+                    return compactados.size() - 1;
+                });
+            }
+            for (int i = 0; i < tamanho; i++) {
+                codigos[i] = mapa[codigos[i]];
+            }
+            return new Coluna(compactados.toArray(String[]::new), codigos, tamanho);
+        }
+    }
+
+    /**
+     * Monta um catálogo linha a linha, do zero ou a partir de outro (reaproveitando os dicionários dele).
+     */
+    private static final class Construtor {
+
+        private long[] ids;
+        private long[] versoes;
+        private byte[] tipos;
+        private final BitSet ativas = new BitSet();
+        private final BitSet brasileiras = new BitSet();
+        private final ConstrutorColuna[] colunas = new ConstrutorColuna[NOMES_COLUNAS.size()];
+        private int tamanho;
+
+        Construtor(CatalogoColunar base, int capacidade) {
+            ids = new long[Math.max(capacidade, 16)];
+            versoes = new long[ids.length];
+            tipos = new byte[ids.length];
+            for (int i = 0; i < colunas.length; i++) {
+                colunas[i] = new ConstrutorColuna(base == null ? null : base.colunas[i], ids.length);
+            }
+        }
+
+        void adicionar(InstituicaoDetalhada instituicao) {
+            garantirCapacidade(tamanho + 1);
+            if (tamanho > 0 && instituicao.getId() <= ids[tamanho - 1]) {
+                throw new IllegalArgumentException("As instituições devem estar em ordem crescente de ID.");
+            }
+            ids[tamanho] = instituicao.getId();
+            versoes[tamanho] = instituicao.getVersao() == null ? 0 : instituicao.getVersao();
+            TipoInstituicao tipo = instituicao.getTipo();
+            tipos[tamanho] = (byte) (tipo == null ? 0 : tipo.ordinal() + 1);
+            ativas.set(tamanho, Boolean.TRUE.equals(instituicao.getStatus()));
+            brasileiras.set(tamanho, tipo == TipoInstituicao.BRASILEIRA);
+            for (int i = 0; i < colunas.length; i++) {
+                colunas[i].adicionar(CAMPOS.get(i).apply(instituicao));
+            }
+            tamanho++;
+        }
+
+        void copiar(CatalogoColunar base, int de, int ate) {
+            if (de >= ate) {
+                return;
+            }
+            garantirCapacidade(tamanho + ate - de);
+            System.arraycopy(base.ids, de, ids, tamanho, ate - de);
+            System.arraycopy(base.versoes, de, versoes, tamanho, ate - de);
+            System.arraycopy(base.tipos, de, tipos, tamanho, ate - de);
+            for (int linha = base.ativas.nextSetBit(de); linha >= 0 && linha < ate; linha = base.ativas.nextSetBit(linha + 1)) {
+                ativas.set(tamanho + linha - de);
+            }
+            for (int linha = base.brasileiras.nextSetBit(de); linha >= 0 && linha < ate; linha = base.brasileiras.nextSetBit(linha + 1)) {
+                brasileiras.set(tamanho + linha - de);
+            }
+            for (int i = 0; i < colunas.length; i++) {
+                colunas[i].copiar(base.colunas[i], de, ate);
+            }
+            tamanho += ate - de;
+        }
+
+        private void garantirCapacidade(int necessaria) {
+            if (necessaria > ids.length) {
+                int capacidade = Math.max(necessaria, ids.length + (ids.length >> 1));
+                ids = Arrays.copyOf(ids, capacidade);
+                versoes = Arrays.copyOf(versoes, capacidade);
+                tipos = Arrays.copyOf(tipos, capacidade);
+            }
+        }
+
+        CatalogoColunar construir() {
+            Coluna[] prontas = new Coluna[colunas.length];
+            for (int i = 0; i < colunas.length; i++) {
+                prontas[i] = colunas[i].construir();
+            }
+            // Os bitsets são copiados para que o array interno não fique maior que o necessário
+            return new CatalogoColunar(Arrays.copyOf(ids, tamanho), Arrays.copyOf(versoes, tamanho), (BitSet) ativas.clone(),
+                    (BitSet) brasileiras.clone(), Arrays.copyOf(tipos, tamanho), prontas);
+        }
+    }
+}
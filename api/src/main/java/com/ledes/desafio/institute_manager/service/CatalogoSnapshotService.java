@@ -0,0 +1,232 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.EstatisticasSnapshot;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.VersaoColecao;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import com.ledes.desafio.institute_manager.repository.VersaoColecaoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Modo opcional em que o catálogo fica em memória como um CatalogoColunar (instituicao.snapshot.habilitado), e as
+ * listagens, filtros, buscas por ID e ETags das listagens são respondidos sem consultar o banco.
+ * <p>
+ * O snapshot é carregado quando a aplicação termina de subir e substituído por uma nova cópia após o commit de cada
+ * transação que altera instituições: os IDs alterados na transação são relidos do banco de uma vez, então uma
+ * importação ou alteração em lote gera uma única cópia. Os leitores pegam a cópia atual sem bloqueio.
+ * Como o índice de busca, ele só enxerga as alterações feitas por esta instância.
+ */
+@Service
+public class CatalogoSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoSnapshotService.class);
+
+    /**
+     * IDs por consulta ao reler as instituições alteradas.
+     */
+    private static final int TAMANHO_BLOCO = 1000;
+
+    /**
+     * O catálogo e a versão da coleção lida antes dele, publicados juntos.
+     */
+    private record Snapshot(CatalogoColunar catalogo, VersaoColecao versao) {
+    }
+
+    private final InstituicaoRepository instituicaoRepository;
+    private final VersaoColecaoRepository versaoColecaoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+
+    /**
+     * Serializa a carga e as atualizações; as leituras não passam por ela.
+     */
+    private final Lock trava = new ReentrantLock();
+    private volatile Snapshot atual;
+    private boolean recarregar;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param instituicaoRepository Repositório usado na carga e para reler as instituições alteradas.
+     * @param versaoColecaoRepository Repositório da versão da coleção, usada nos ETags das listagens.
+     * @param transactionManager Gerenciador das transações de leitura do snapshot.
+     * @param habilitado Se o catálogo é mantido em memória e usado nas consultas.
+     */
+    @Autowired
+    public CatalogoSnapshotService(InstituicaoRepository instituicaoRepository,
+                                   VersaoColecaoRepository versaoColecaoRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${instituicao.snapshot.habilitado:false}") boolean habilitado) {
+        this.instituicaoRepository = instituicaoRepository;
+        this.versaoColecaoRepository = versaoColecaoRepository;
+        // Lê do primário, e não da réplica, para não perder alterações recentes; depois do commit, a transação
+        // que terminou ainda está associada à thread, então a leitura abre uma nova
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Snapshot atual, ou nulo se o modo estiver desabilitado ou o snapshot ainda não tiver sido carregado; nesse caso,
+     * a consulta deve ir ao banco.
+     */
+    public CatalogoColunar atual() {
+        Snapshot snapshot = atual;
+        return snapshot == null ? null : snapshot.catalogo();
+    }
+
+    /**
+     * Versão da coleção correspondente ao snapshot atual, ou nula se ele não estiver carregado. É lida antes das
+     * instituições, então nunca é mais nova que o catálogo: no pior caso, o ETag muda sem que a listagem mude.
+     */
+    public VersaoColecao versao() {
+        Snapshot snapshot = atual;
+        return snapshot == null ? null : snapshot.versao();
+    }
+
+    /**
+     * Carrega o snapshot a partir do banco quando a aplicação termina de subir. Segura a trava durante a carga para
+     * que as alterações confirmadas nesse meio-tempo sejam aplicadas depois dela. Se a carga falhar, as consultas
+     * continuam no banco e a carga é repetida na próxima alteração.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitado) {
+            return;
+        }
+        trava.lock();
+        try {
+            long inicio = System.nanoTime();
+            atual = transactionTemplate.execute(status -> {
+                VersaoColecao versao = versaoColecaoRepository.find();
+                try (Stream<InstituicaoDetalhada> instituicoes = instituicaoRepository.streamAllDetalhadas()) {
+                    return new Snapshot(CatalogoColunar.de(instituicoes.iterator()), versao);
+                }
+            });
+            recarregar = false;
+            CatalogoColunar catalogo = atual.catalogo();
+            log.info("Snapshot do catálogo carregado em {} ms: {} instituições, {} KB (List<InstituicaoDetalhada> equivalente: {} KB).",
+                    (System.nanoTime() - inicio) / 1_000_000, catalogo.tamanho(), catalogo.estimarBytes() / 1024,
+                    catalogo.estimarBytesLista() / 1024);
+        } catch (RuntimeException e) {
+            log.error("Não foi possível carregar o snapshot do catálogo; as consultas continuam no banco.", e);
+            atual = null;
+            recarregar = true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Registra a instituição alterada na transação corrente; o snapshot é atualizado uma vez, após o commit, com todas
+     * as alterações da transação. Sem transação, é atualizado na hora.
+     *
+     * @param evento Evento com o ID da instituição alterada.
+     */
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void onInstituicaoAlterada(InstituicaoAlteradaEvent evento) {
+        if (!habilitado) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(List.of(evento.getId()));
+            return;
+        }
+        Set<Long> alteradas = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (alteradas == null) {
+            Set<Long> daTransacao = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, daTransacao);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(daTransacao);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogoSnapshotService.this);
+                }
+            });
+            alteradas = daTransacao;
+        }
+        alteradas.add(evento.getId());
+    }
+
+    /**
+     * Relê as instituições alteradas e publica uma nova cópia do snapshot. A leitura acontece com a trava, então uma
+     * cópia nunca substitui outra com dados mais novos. Se a leitura falhar, o snapshot é descartado (as consultas
+     * voltam ao banco) e recarregado por completo na próxima alteração.
+     */
+    private void aplicar(Collection<Long> ids) {
+        trava.lock();
+        try {
+            if (atual == null) {
+                // Ainda não carregado: a carga lerá o estado já confirmado
+                if (recarregar) {
+                    carregar();
+                }
+                return;
+            }
+            CatalogoColunar anterior = atual.catalogo();
+            atual = transactionTemplate.execute(status -> {
+                VersaoColecao versao = versaoColecaoRepository.find();
+                return new Snapshot(anterior.comAlteracoes(ids, buscar(ids)), versao);
+            });
+        } catch (RuntimeException e) {
+            log.error("Não foi possível atualizar o snapshot do catálogo; as consultas voltam ao banco até a recarga.", e);
+            atual = null;
+            recarregar = true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private List<InstituicaoDetalhada> buscar(Collection<Long> ids) {
+        List<Long> lista = new ArrayList<>(ids);
+        List<InstituicaoDetalhada> instituicoes = new ArrayList<>(lista.size());
+        for (int inicio = 0; inicio < lista.size(); inicio += TAMANHO_BLOCO) {
+            instituicoes.addAll(instituicaoRepository.findDetalhadasByIdIn(
+                    lista.subList(inicio, Math.min(inicio + TAMANHO_BLOCO, lista.size()))));
+        }
+        return instituicoes;
+    }
+
+    /**
+     * Relatório de ocupação do heap: o snapshot comparado a um List&lt;InstituicaoDetalhada&gt; com os mesmos dados.
+     *
+     * @return Estatísticas do snapshot atual, ou vazio se ele não estiver carregado.
+     */
+    public Optional<EstatisticasSnapshot> getEstatisticas() {
+        CatalogoColunar catalogo = atual();
+        if (catalogo == null) {
+            return Optional.empty();
+        }
+        long bytesSnapshot = catalogo.estimarBytes();
+        long bytesLista = catalogo.estimarBytesLista();
+        return Optional.of(new EstatisticasSnapshot(catalogo.tamanho(), bytesSnapshot, bytesLista,
+                bytesLista == 0 ? 0 : (double) bytesSnapshot / bytesLista, catalogo.valoresDistintos()));
+    }
+}
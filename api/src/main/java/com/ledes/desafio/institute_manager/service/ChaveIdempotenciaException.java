@@ -0,0 +1,22 @@
+package com.ledes.desafio.institute_manager.service;
+
+/**
+ * Lançada quando uma chave de idempotência não pode ser atendida: foi usada antes com outro corpo (conflitante)
+ * ou o pedido original ainda está em execução depois da espera.
+ */
+public class ChaveIdempotenciaException extends RuntimeException {
+
+    private final boolean conflitante;
+
+    public ChaveIdempotenciaException(String mensagem, boolean conflitante) {
+        super(mensagem, null, false, false);
+        this.conflitante = conflitante;
+    }
+
+    /**
+     * Indica se a chave foi reutilizada com outro corpo; do contrário, o pedido original ainda está em execução.
+     */
+    public boolean isConflitante() {
+        return conflitante;
+    }
+}
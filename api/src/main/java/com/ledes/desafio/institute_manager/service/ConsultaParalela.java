@@ -0,0 +1,203 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.monitoring.MedicaoSql;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executa consultas independentes em paralelo, cada uma em uma thread virtual e na sua própria transação somente leitura.
+ * Só entra em ação quando as threads virtuais estão habilitadas (spring.threads.virtual.enabled); caso contrário,
+ * as consultas rodam em sequência, numa única transação, na thread que chamou.
+ * <p>
+ * As consultas disparadas de uma vez formam um escopo: o método só retorna depois que todas terminam, e a falha de uma
+ * cancela as demais. Cada consulta paralela ocupa uma conexão do pool, então o número de consultas simultâneas é
+ * limitado por um semáforo dimensionado a partir do HikariCP; sem permissão livre, a consulta roda na própria thread
+ * que chamou, sem esperar e sem disputar o pool com as demais requisições.
+ * <p>
+ * Enquanto aguarda as consultas paralelas, a thread que chamou não pode segurar uma conexão, ou requisições simultâneas
+ * prenderiam o pool e as consultas esperariam o connection-timeout do HikariCP: por isso o chamador não abre transação
+ * e o open-in-view fica desligado (spring.jpa.open-in-view=false).
+ */
+@Component
+public class ConsultaParalela {
+
+    /**
+     * Tamanho padrão do pool do HikariCP, usado quando não se encontra um HikariDataSource atrás do DataSource.
+     */
+    private static final int TAMANHO_POOL_PADRAO = 10;
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final Semaphore conexoes;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param transactionManager Gerenciador das transações de cada consulta.
+     * @param dataSource DataSource da aplicação, usado para descobrir o tamanho do pool de conexões.
+     * @param threadsVirtuais Indica se as requisições rodam em threads virtuais.
+     * @param conexoes Máximo de consultas paralelas simultâneas; zero usa metade do pool de conexões.
+     */
+    @Autowired
+    public ConsultaParalela(PlatformTransactionManager transactionManager, DataSource dataSource,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais,
+                            @Value("${instituicao.consulta-paralela.conexoes:0}") int conexoes) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitada = threadsVirtuais;
+        // Metade do pool fica livre para as requisições que fazem uma única consulta
+        this.conexoes = new Semaphore(conexoes > 0 ? conexoes : Math.max(1, tamanhoPool(dataSource) / 2));
+    }
+
+    /**
+     * Indica se as consultas são executadas em paralelo.
+     */
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Executa as consultas e retorna os resultados na mesma ordem em que foram informadas.
+     *
+     * @param consultas Consultas independentes entre si.
+     * @return Resultado de cada consulta.
+     */
+    public <T> List<List<T>> executar(List<Callable<List<T>>> consultas) {
+        if (!habilitada || consultas.size() == 1) {
+            return transactionTemplate.execute(status -> {
+                List<List<T>> resultados = new ArrayList<>();
+                for (Callable<List<T>> consulta : consultas) {
+                    resultados.add(chamar(consulta));
+                }
+                return resultados;
+            });
+        }
+
+        // O fechamento do executor aguarda todas as threads, então nenhuma consulta sobrevive ao escopo
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // As consultas paralelas continuam somando na medição de SQL da requisição
+            MedicaoSql medicao = MedicaoSql.atual();
+            // Nenhuma tarefa é cancelada pelo Future: o executor daria a tarefa cancelada por encerrada sem esperar a
+            // thread, que ainda poderia estar usando a conexão. Cada tarefa sempre roda e devolve a sua permissão; numa
+            // falha, as que não começaram desistem e as que estão rodando são interrompidas
+            AtomicBoolean cancelado = new AtomicBoolean();
+            Set<Thread> emExecucao = ConcurrentHashMap.newKeySet();
+            List<Future<List<T>>> futuros = new ArrayList<>();
+            for (Callable<List<T>> consulta : consultas) {
+                futuros.add(conexoes.tryAcquire() ? executor.submit(() -> {
+                    emExecucao.add(Thread.currentThread());
+                    try {
+                        if (cancelado.get()) {
+                            throw new CancellationException();
+                        }
+                        return MedicaoSql.executarCom(medicao, () -> emTransacao(consulta));
+                    } finally {
+                        emExecucao.remove(Thread.currentThread());
+                        conexoes.release();
+                    }
+                }) : null);
+            }
+
+            try {
+                List<List<T>> resultados = new ArrayList<>();
+                // Primeiro as consultas sem permissão, na thread atual, enquanto as outras já estão rodando
+                for (int i = 0; i < consultas.size(); i++) {
+                    resultados.add(futuros.get(i) == null ? emTransacao(consultas.get(i)) : null);
+                }
+                for (int i = 0; i < consultas.size(); i++) {
+                    if (futuros.get(i) != null) {
+                        resultados.set(i, aguardar(futuros.get(i)));
+                    }
+                }
+                return resultados;
+            } catch (RuntimeException e) {
+                cancelado.set(true);
+                emExecucao.forEach(Thread::interrupt);
+                throw e;
+            }
+        }
+    }
+
+    private <T> List<T> emTransacao(Callable<List<T>> consulta) {
+        return transactionTemplate.execute(status -> chamar(consulta));
+    }
+
+    private static <T> List<T> chamar(Callable<List<T>> consulta) {
+        try {
+            return consulta.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha ao executar consulta.", e);
+        }
+    }
+
+    private static <T> List<T> aguardar(Future<List<T>> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta interrompida.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Falha ao executar consulta.", e.getCause());
+        }
+    }
+
+    /**
+     * Conexões livres para novas consultas paralelas.
+     */
+    int getConexoesLivres() {
+        return conexoes.availablePermits();
+    }
+
+    /**
+     * Tamanho do pool que atende as consultas. Atravessa os proxies (como o LazyConnectionDataSourceProxy) e, com a
+     * réplica de leitura, o roteamento: as leituras podem ir a qualquer um dos pools, então vale o menor deles.
+     */
+    static int tamanhoPool(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        if (dataSource instanceof DelegatingDataSource delegating && delegating.getTargetDataSource() != null) {
+            return tamanhoPool(delegating.getTargetDataSource());
+        }
+        if (dataSource instanceof AbstractRoutingDataSource roteamento && !roteamento.getResolvedDataSources().isEmpty()) {
+            return roteamento.getResolvedDataSources().values().stream()
+                    .mapToInt(ConsultaParalela::tamanhoPool)
+                    .min()
+                    .orElse(TAMANHO_POOL_PADRAO);
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // Sem acesso ao pool, assume o tamanho padrão do HikariCP
+        }
+        return TAMANHO_POOL_PADRAO;
+    }
+}
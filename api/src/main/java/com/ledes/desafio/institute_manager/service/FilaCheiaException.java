@@ -0,0 +1,12 @@
+package com.ledes.desafio.institute_manager.service;
+
+/**
+ * Lançada quando o cadastro assíncrono não aceita mais pedidos: a fila está cheia ou a aplicação está encerrando.
+ * O cliente deve tentar de novo mais tarde.
+ */
+public class FilaCheiaException extends RuntimeException {
+
+    public FilaCheiaException(String mensagem) {
+        super(mensagem, null, false, false);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos de arquivo suportados pela exportação e pela importação em lote de instituições.
+ */
+public enum FormatoArquivo {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extensao;
+
+    FormatoArquivo(MediaType mediaType, String extensao) {
+        this.mediaType = mediaType;
+        this.extensao = extensao;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    /**
+     * Converte o parâmetro recebido pela API no formato correspondente.
+     *
+     * @param formato Nome do formato (ndjson ou csv), sem diferenciar maiúsculas.
+     * @return FormatoArquivo correspondente.
+     */
+    public static FormatoArquivo of(String formato) {
+        for (FormatoArquivo valor : values()) {
+            if (valor.extensao.equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        throw new RequisicaoInvalidaException("Formato de arquivo não suportado: " + formato);
+    }
+
+    /**
+     * Resolve o formato a partir do Content-Type de uma requisição.
+     *
+     * @param mediaType Content-Type recebido.
+     * @return FormatoArquivo compatível com o Content-Type.
+     */
+    public static FormatoArquivo of(MediaType mediaType) {
+        for (FormatoArquivo valor : values()) {
+            if (valor.mediaType.isCompatibleWith(mediaType)) {
+                return valor;
+            }
+        }
+        throw new RequisicaoInvalidaException("Formato de arquivo não suportado: " + mediaType);
+    }
+}
@@ -0,0 +1,240 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ledes.desafio.institute_manager.dto.RespostaIdempotente;
+import com.ledes.desafio.institute_manager.model.RespostaArmazenada;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.repository.RespostaArmazenadaRepository;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Idempotência dos POST de cadastro (cabeçalho Idempotency-Key). A primeira requisição com uma chave executa o
+ * cadastro e a resposta fica guardada; as repetições com a mesma chave recebem a mesma resposta, com o cabeçalho
+ * Idempotent-Replayed, sem validar nem gravar de novo. Requisições simultâneas com a mesma chave esperam a primeira
+ * terminar, então o cadastro é executado uma única vez.
+ * <p>
+ * As respostas ficam num cache Caffeine limitado por tamanho e validade. Com instituicao.idempotencia.banco=true,
+ * também são gravadas na tabela resposta_idempotente, o que cobre reinícios e outras instâncias; nesse caso, apenas
+ * repetições que chegam depois do término do pedido original são reconhecidas entre instâncias.
+ * Exceções e respostas 5xx não são guardadas: a repetição executa o cadastro de novo.
+ */
+@Service
+public class IdempotenciaService {
+
+    /**
+     * Cabeçalho com a chave de idempotência escolhida pelo cliente.
+     */
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /**
+     * Cabeçalho presente nas respostas devolvidas a partir de uma execução anterior.
+     */
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    private final RespostaArmazenadaRepository respostaArmazenadaRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration validade;
+    private final Duration espera;
+    private final boolean banco;
+
+    private final Cache<String, Execucao> execucoes;
+
+    /**
+     * Instante a partir do qual as respostas expiradas no banco são apagadas de novo.
+     */
+    private final AtomicLong proximaLimpeza = new AtomicLong();
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param respostaArmazenadaRepository Repositório das respostas gravadas no banco.
+     * @param objectMapper ObjectMapper da aplicação, usado na impressão do corpo e para guardar a resposta.
+     * @param capacidade Quantidade máxima de chaves mantidas em memória.
+     * @param validade Tempo durante o qual uma chave é reconhecida.
+     * @param espera Tempo que uma requisição espera pelo término de outra com a mesma chave antes de receber 409.
+     * @param banco Se as respostas também são gravadas no banco.
+     */
+    @Autowired
+    public IdempotenciaService(RespostaArmazenadaRepository respostaArmazenadaRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${instituicao.idempotencia.capacidade:100000}") long capacidade,
+                               @Value("${instituicao.idempotencia.validade:24h}") Duration validade,
+                               @Value("${instituicao.idempotencia.espera:10s}") Duration espera,
+                               @Value("${instituicao.idempotencia.banco:false}") boolean banco) {
+        this.respostaArmazenadaRepository = respostaArmazenadaRepository;
+        this.objectMapper = objectMapper;
+        this.validade = validade;
+        this.espera = espera;
+        this.banco = banco;
+        this.execucoes = Caffeine.newBuilder()
+                .maximumSize(capacidade)
+                .expireAfterWrite(validade)
+                .build();
+    }
+
+    /**
+     * Executa um cadastro no máximo uma vez por chave.
+     *
+     * @param tipo Tipo do cadastro; a mesma chave em endpoints diferentes identifica pedidos diferentes.
+     * @param chave Chave de idempotência enviada pelo cliente.
+     * @param pedido Corpo da requisição, comparado com o da execução original.
+     * @param cadastro Execução do cadastro, chamada somente na primeira requisição com a chave.
+     * @return A resposta do cadastro, ou a resposta guardada se a chave já foi usada.
+     * @throws RequisicaoInvalidaException Se a chave estiver vazia ou for longa demais.
+     * @throws ChaveIdempotenciaException Se a chave foi usada com outro corpo, ou se o pedido original não terminar a tempo.
+     */
+    public ResponseEntity<?> executar(TipoInstituicao tipo, String chave, Object pedido, Supplier<ResponseEntity<?>> cadastro) {
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new RequisicaoInvalidaException("O cabeçalho " + IDEMPOTENCY_KEY + " deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+        // A impressão é calculada antes do cadastro, que preenche o ID no próprio objeto
+        String id = tipo.name() + ':' + chave;
+        String impressao = impressao(pedido);
+
+        while (true) {
+            Execucao nova = new Execucao(impressao, new CompletableFuture<>());
+            Execucao existente = execucoes.asMap().putIfAbsent(id, nova);
+            if (existente == null) {
+                return executarPrimeira(id, nova, cadastro);
+            }
+            exigirMesmoCorpo(existente.impressao(), impressao);
+            RespostaIdempotente resposta = aguardar(existente);
+            if (resposta != null) {
+                return repeticao(resposta);
+            }
+            // A execução anterior falhou sem guardar resposta: esta requisição tenta assumir o cadastro
+        }
+    }
+
+    private ResponseEntity<?> executarPrimeira(String id, Execucao execucao, Supplier<ResponseEntity<?>> cadastro) {
+        RespostaIdempotente gravada = null;
+        try {
+            if (banco) {
+                Optional<RespostaArmazenada> armazenada = buscarNoBanco(id);
+                if (armazenada.isPresent()) {
+                    exigirMesmoCorpo(armazenada.get().getImpressao(), execucao.impressao());
+                    gravada = objectMapper.readValue(armazenada.get().getResposta(), RespostaIdempotente.class);
+                    return repeticao(gravada);
+                }
+            }
+            ResponseEntity<?> resposta = cadastro.get();
+            if (!resposta.getStatusCode().is5xxServerError()) {
+                gravada = new RespostaIdempotente(resposta.getStatusCode().value(), new LinkedHashMap<>(resposta.getHeaders()),
+                        objectMapper.valueToTree(resposta.getBody()));
+                if (banco) {
+                    gravarNoBanco(id, execucao.impressao(), gravada);
+                }
+            }
+            return resposta;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resposta guardada ilegível para a chave " + id, e);
+        } finally {
+            if (gravada == null) {
+                execucoes.asMap().remove(id, execucao);
+            }
+            // Libera quem espera pela mesma chave; sem resposta (null), eles tentam executar
+            execucao.resposta().complete(gravada);
+        }
+    }
+
+    private RespostaIdempotente aguardar(Execucao execucao) {
+        try {
+            return execucao.resposta().get(espera.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new ChaveIdempotenciaException("Uma requisição com a mesma " + IDEMPOTENCY_KEY + " ainda está em execução.", false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChaveIdempotenciaException("Interrompida enquanto esperava a requisição com a mesma " + IDEMPOTENCY_KEY + ".", false);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static void exigirMesmoCorpo(String impressaoOriginal, String impressao) {
+        if (!impressaoOriginal.equals(impressao)) {
+            throw new ChaveIdempotenciaException("A " + IDEMPOTENCY_KEY + " informada já foi usada com outro corpo de requisição.", true);
+        }
+    }
+
+    private static ResponseEntity<?> repeticao(RespostaIdempotente resposta) {
+        return ResponseEntity.status(resposta.getStatus())
+                .headers(cabecalhos -> resposta.getCabecalhos().forEach(cabecalhos::addAll))
+                .header(IDEMPOTENT_REPLAYED, "true")
+                .body(resposta.getCorpo());
+    }
+
+    private Optional<RespostaArmazenada> buscarNoBanco(String id) {
+        return respostaArmazenadaRepository.findByChaveAndCriadaEmAfter(id, Instant.now().minus(validade));
+    }
+
+    /**
+     * Grava a resposta no banco. Uma falha aqui não desfaz o cadastro já concluído: a resposta continua
+     * em memória e apenas deixa de ser reconhecida por outras instâncias.
+     */
+    private void gravarNoBanco(String id, String impressao, RespostaIdempotente resposta) {
+        try {
+            limparExpiradas();
+            respostaArmazenadaRepository.save(new RespostaArmazenada(id, impressao,
+                    objectMapper.writeValueAsString(resposta), Instant.now()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Resposta da chave {} já gravada por outra instância.", id);
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("Não foi possível gravar no banco a resposta da chave {}.", id, e);
+        }
+    }
+
+    /**
+     * Apaga as respostas expiradas no máximo uma vez por minuto, sem depender de agendamento.
+     */
+    private void limparExpiradas() {
+        long agora = System.currentTimeMillis();
+        long proxima = proximaLimpeza.get();
+        if (agora >= proxima && proximaLimpeza.compareAndSet(proxima, agora + Duration.ofMinutes(1).toMillis())) {
+            respostaArmazenadaRepository.deleteExpiradas(Instant.now().minus(validade));
+        }
+    }
+
+    private String impressao(Object pedido) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(pedido));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular a impressão da requisição.", e);
+        }
+    }
+
+    /**
+     * Execução de uma chave: a impressão do corpo original e a resposta, completada quando o cadastro termina.
+     */
+    private record Execucao(String impressao, CompletableFuture<RespostaIdempotente> resposta) {
+    }
+}
@@ -1,36 +1,102 @@
 package com.ledes.desafio.institute_manager.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ledes.desafio.institute_manager.config.CacheConfig;
+import com.ledes.desafio.institute_manager.config.MetricsConfig;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
 import com.ledes.desafio.institute_manager.model.Instituicao;
 import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.repository.AtualizacaoParcialRepository;
 import com.ledes.desafio.institute_manager.repository.InstituicaoBrasileiraRepository;
 import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import com.ledes.desafio.institute_manager.validation.ValidacaoException;
+import com.ledes.desafio.institute_manager.validation.Validador;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * Serviço responsável por gerir as operações relacionadas às instituições brasileiras.
  */
 @Service
+@Timed(MetricsConfig.TIMER_SERVICOS)
 public class InstituicaoBrasileiraService {
 
+    /**
+     * CEP brasileiro: oito dígitos, com ou sem o hífen antes dos três últimos.
+     */
+    static final Pattern CEP_PATTERN = Pattern.compile("\\d{5}-?\\d{3}");
+
     private final InstituicaoBrasileiraRepository instituicaoBrasileiraRepository;
     private final InstituicaoRepository instituicaoRepository;
-    private final InstituicaoService instituicaoService;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtualizacaoParcialRepository atualizacaoParcialRepository;
+
+    /**
+     * Regras montadas uma única vez: dados da instituição e campos de endereço, válidas no cadastro e na atualização.
+     */
+    static final Validador<InstituicaoBrasileira> VALIDADOR_CAMPOS = Validador.<InstituicaoBrasileira>builder()
+            .aninhado("instituicao", InstituicaoBrasileira::getInstituicao, InstituicaoService.VALIDADOR, "Os dados da instituição são obrigatórios.")
+            .regra("cep", instituicao -> instituicao.getCep() != null && CEP_PATTERN.matcher(instituicao.getCep()).matches(), "O CEP deve ter 8 dígitos, com ou sem hífen.")
+            .obrigatorio("logradouro", InstituicaoBrasileira::getLogradouro, 32, "O logradouro deve ter no máximo 32 caracteres e não pode ser vazio.")
+            .obrigatorio("bairro", InstituicaoBrasileira::getBairro, 32, "O bairro deve ter no máximo 32 caracteres e não pode ser vazio.")
+            .obrigatorio("estado", InstituicaoBrasileira::getEstado, 32, "O estado deve ter no máximo 32 caracteres e não pode ser vazio.")
+            .obrigatorio("municipio", InstituicaoBrasileira::getMunicipio, 32, "O município deve ter no máximo 32 caracteres e não pode ser vazio.")
+            .obrigatorio("numero", InstituicaoBrasileira::getNumero, 8, "O número deve ter no máximo 8 caracteres e não pode ser vazio.")
+            .opcional("complemento", InstituicaoBrasileira::getComplemento, 16, "O complemento deve ter no máximo 16 caracteres.")
+            .build();
+
+    /**
+     * Regras do cadastro: as de VALIDADOR_CAMPOS mais a regra do país.
+     */
+    static final Validador<InstituicaoBrasileira> VALIDADOR_NOVA = Validador.<InstituicaoBrasileira>builder()
+            .incluir(VALIDADOR_CAMPOS)
+            .regra("pais", instituicao -> "Brasil".equals(instituicao.getPais()), "O país deve ser Brasil para uma Instituição Brasileira.")
+            .build();
+
+    /**
+     * Campos do subtipo que um PATCH pode alterar, além do país e do nome e sigla da instituição.
+     */
+    private static final Set<String> CAMPOS_PATCH = Set.of("cnpj", "cep", "logradouro", "bairro", "estado", "municipio", "numero", "complemento");
+
+    /**
+     * Campos do subtipo que um PATCH pode remover (null).
+     */
+    private static final Set<String> CAMPOS_ANULAVEIS = Set.of("complemento");
 
     /**
      * Construtor para injeção das dependências necessárias.
      *
      * @param instituicaoBrasileiraRepository Repositório para operações de CRUD de InstituiçãoBrasileira.
-     * @param instituicaoService Serviço para operações comuns a todas as instituições.
+     * @param entityManager EntityManager usado para forçar o incremento de versão da instituição.
+     * @param eventPublisher Publicador dos eventos de alteração de instituições.
+     * @param atualizacaoParcialRepository Repositório dos UPDATEs parciais do PATCH.
      */
     @Autowired
-    public InstituicaoBrasileiraService(InstituicaoBrasileiraRepository instituicaoBrasileiraRepository, InstituicaoRepository instituicaoRepository, InstituicaoService instituicaoService) {
+    public InstituicaoBrasileiraService(InstituicaoBrasileiraRepository instituicaoBrasileiraRepository, InstituicaoRepository instituicaoRepository, EntityManager entityManager, ApplicationEventPublisher eventPublisher, AtualizacaoParcialRepository atualizacaoParcialRepository) {
         this.instituicaoBrasileiraRepository = instituicaoBrasileiraRepository;
         this.instituicaoRepository = instituicaoRepository;
-        this.instituicaoService = instituicaoService;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.atualizacaoParcialRepository = atualizacaoParcialRepository;
     }
 
     /**
@@ -40,108 +106,161 @@ public class InstituicaoBrasileiraService {
      * @param instituicaoBrasileira Instituição brasileira a ser salva.
      * @return A InstituiçãoBrasileira salva.
      */
+    @Transactional
     public InstituicaoBrasileira saveInstituicaoBrasileira(InstituicaoBrasileira instituicaoBrasileira) {
-        instituicaoService.validateNome(instituicaoBrasileira.getInstituicao().getNome());
-        instituicaoService.validateSigla(instituicaoBrasileira.getInstituicao().getSigla());
-        validateInstituicaoBrasileira(instituicaoBrasileira);
+        exigirValida(validarNovaInstituicaoBrasileira(instituicaoBrasileira));
 
         Instituicao instituicao = instituicaoBrasileira.getInstituicao();
+        instituicao.setTipo(TipoInstituicao.BRASILEIRA);
         Instituicao savedInstituicao = instituicaoRepository.save(instituicao);
 
         instituicaoBrasileira.setInstituicao(savedInstituicao);
 
-        return instituicaoBrasileiraRepository.save(instituicaoBrasileira);
+        InstituicaoBrasileira saved = instituicaoBrasileiraRepository.save(instituicaoBrasileira);
+        eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(savedInstituicao, TipoAlteracao.CRIADA));
+        return saved;
     }
 
     /**
      * Atualiza uma instituição brasileira existente.
      * Verifica se a instituição existe, se o país é Brasil, e realiza as validações necessárias.
+     * Usa bloqueio otimista: se a versão esperada não for a atual, ou se outra transação alterar
+     * o registro antes do commit, lança OptimisticLockingFailureException.
      *
      * @param id ‘ID’ da instituição brasileira a ser atualizada.
      * @param updatedInstituicao Dados atualizados da instituição brasileira.
+     * @param versaoEsperada Versão informada pelo cliente (If-Match), ou nulo para atualizar sem pré-condição.
      * @return A InstituiçãoBrasileira atualizada.
      */
-    public InstituicaoBrasileira updateInstituicaoBrasileira(Long id, InstituicaoBrasileira updatedInstituicao) {
-        Optional<Instituicao> instituicaoOptional = instituicaoRepository.findById(id);
-
-        if (instituicaoOptional.isPresent()) {
-            Instituicao instituicao = instituicaoOptional.get();
-
-            Optional<InstituicaoBrasileira> instituicaoBrasileiraOptional = instituicaoBrasileiraRepository.findByInstituicao(instituicao);
-
-            if (instituicaoBrasileiraOptional.isPresent()) {
-                InstituicaoBrasileira existingInstituicao = instituicaoBrasileiraOptional.get();
-
-                // Garantir que o país não seja alterado
-                if (!"Brasil".equals(existingInstituicao.getPais())) {
-                    throw new IllegalArgumentException("Não é possível alterar uma instituição brasileira para estrangeira.");
-                }
-
-                // Validações comuns
-                instituicaoService.validateNome(updatedInstituicao.getInstituicao().getNome());
-                instituicaoService.validateSigla(updatedInstituicao.getInstituicao().getSigla());
-
-                // Validação de campos obrigatórios
-                validateCamposObrigatorios(updatedInstituicao);
-
-                // Atualizando os campos permitidos
-                existingInstituicao.getInstituicao().setNome(updatedInstituicao.getInstituicao().getNome());
-                existingInstituicao.getInstituicao().setSigla(updatedInstituicao.getInstituicao().getSigla());
-                existingInstituicao.setCnpj(updatedInstituicao.getCnpj());
-                existingInstituicao.setCep(updatedInstituicao.getCep());
-                existingInstituicao.setLogradouro(updatedInstituicao.getLogradouro());
-                existingInstituicao.setBairro(updatedInstituicao.getBairro());
-                existingInstituicao.setEstado(updatedInstituicao.getEstado());
-                existingInstituicao.setMunicipio(updatedInstituicao.getMunicipio());
-                existingInstituicao.setNumero(updatedInstituicao.getNumero());
-                existingInstituicao.setComplemento(updatedInstituicao.getComplemento());
-
-                return instituicaoBrasileiraRepository.save(existingInstituicao);
-            } else {
-                throw new IllegalArgumentException("Instituição não encontrada.");
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.INSTITUICOES, key = "#id")
+    public InstituicaoBrasileira updateInstituicaoBrasileira(Long id, InstituicaoBrasileira updatedInstituicao, Long versaoEsperada) {
+        // Uma única consulta: subtipo e instituição associada pelo ID da instituição
+        Optional<InstituicaoBrasileira> instituicaoBrasileiraOptional = instituicaoBrasileiraRepository.findByInstituicaoId(id);
+
+        if (instituicaoBrasileiraOptional.isPresent()) {
+            InstituicaoBrasileira existingInstituicao = instituicaoBrasileiraOptional.get();
+
+            if (versaoEsperada != null && !versaoEsperada.equals(existingInstituicao.getInstituicao().getVersao())) {
+                throw new OptimisticLockingFailureException("A instituição foi alterada por outra requisição.");
             }
+
+            // Garantir que o país não seja alterado
+            if (!"Brasil".equals(existingInstituicao.getPais())) {
+                throw new RequisicaoInvalidaException("Não é possível alterar uma instituição brasileira para estrangeira.");
+            }
+
+            // Nome, sigla e campos obrigatórios
+            exigirValida(validarAtualizacaoInstituicaoBrasileira(updatedInstituicao));
+
+            // Atualizando os campos permitidos
+            existingInstituicao.getInstituicao().setNome(updatedInstituicao.getInstituicao().getNome());
+            existingInstituicao.getInstituicao().setSigla(updatedInstituicao.getInstituicao().getSigla());
+            existingInstituicao.setCnpj(updatedInstituicao.getCnpj());
+            existingInstituicao.setCep(updatedInstituicao.getCep());
+            existingInstituicao.setLogradouro(updatedInstituicao.getLogradouro());
+            existingInstituicao.setBairro(updatedInstituicao.getBairro());
+            existingInstituicao.setEstado(updatedInstituicao.getEstado());
+            existingInstituicao.setMunicipio(updatedInstituicao.getMunicipio());
+            existingInstituicao.setNumero(updatedInstituicao.getNumero());
+            existingInstituicao.setComplemento(updatedInstituicao.getComplemento());
+
+            // Alterações apenas no endereço também geram nova versão da instituição (base do ETag)
+            entityManager.lock(existingInstituicao.getInstituicao(), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+
+            InstituicaoBrasileira saved = instituicaoBrasileiraRepository.save(existingInstituicao);
+            // Entregue aos ouvintes somente após o commit
+            eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(saved.getInstituicao(), TipoAlteracao.ATUALIZADA));
+            return saved;
         } else {
-            throw new IllegalArgumentException("Instituição não encontrada.");
+            throw new EntityNotFoundException("Instituição não encontrada.");
         }
     }
 
     /**
-     * Valida os campos obrigatórios de uma instituição brasileira.
+     * Aplica um JSON Merge Patch a uma instituição brasileira, sem carregá-la antes.
+     * Somente os campos presentes são validados e somente as colunas deles entram nos UPDATEs: um em 'instituicao',
+     * que também incrementa a versão e confere o If-Match, e outro na tabela do subtipo, se algum campo dela mudou.
      *
-     * @param instituicaoBrasileira Instituição brasileira a ser validada.
+     * @param id ID da instituição brasileira.
+     * @param patch Corpo JSON Merge Patch.
+     * @param versaoEsperada Versão informada pelo cliente (If-Match), ou nulo para atualizar sem pré-condição.
+     * @return A instituição atualizada, lida do banco após os UPDATEs.
      */
-    private void validateCamposObrigatorios(InstituicaoBrasileira instituicaoBrasileira) {
-        if (!StringUtils.hasText(instituicaoBrasileira.getLogradouro()) || instituicaoBrasileira.getLogradouro().length() > 32) {
-            throw new IllegalArgumentException("O logradouro deve ter no máximo 32 caracteres e não pode ser vazio.");
-        }
-        if (!StringUtils.hasText(instituicaoBrasileira.getBairro()) || instituicaoBrasileira.getBairro().length() > 32) {
-            throw new IllegalArgumentException("O bairro deve ter no máximo 32 caracteres e não pode ser vazio.");
-        }
-        if (!StringUtils.hasText(instituicaoBrasileira.getEstado()) || instituicaoBrasileira.getEstado().length() > 32) {
-            throw new IllegalArgumentException("O estado deve ter no máximo 32 caracteres e não pode ser vazio.");
-        }
-        if (!StringUtils.hasText(instituicaoBrasileira.getMunicipio()) || instituicaoBrasileira.getMunicipio().length() > 32) {
-            throw new IllegalArgumentException("O município deve ter no máximo 32 caracteres e não pode ser vazio.");
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.INSTITUICOES, key = "#id")
+    public InstituicaoDetalhada patchInstituicaoBrasileira(Long id, JsonNode patch, Long versaoEsperada) {
+        MergePatch mergePatch = lerPatch(patch);
+        exigirValida(mergePatch.validar(novoAlvoPatch(), VALIDADOR_CAMPOS));
+
+        int alteradas = atualizacaoParcialRepository.updateInstituicao(id, InstituicaoBrasileira.class,
+                mergePatch.getCamposInstituicao(), versaoEsperada);
+        if (alteradas == 0) {
+            // Só no caminho de erro uma consulta distingue a versão desatualizada da instituição inexistente
+            if (versaoEsperada != null && instituicaoBrasileiraRepository.existsByInstituicaoId(id)) {
+                throw new OptimisticLockingFailureException("A instituição foi alterada por outra requisição.");
+            }
+            throw new EntityNotFoundException("Instituição não encontrada.");
         }
-        if (!StringUtils.hasText(instituicaoBrasileira.getNumero()) || instituicaoBrasileira.getNumero().length() > 8) {
-            throw new IllegalArgumentException("O número deve ter no máximo 8 caracteres e não pode ser vazio.");
+        if (!mergePatch.getCamposSubtipo().isEmpty()) {
+            atualizacaoParcialRepository.updateSubtipo(InstituicaoBrasileira.class, id, mergePatch.getCamposSubtipo());
         }
 
-        if (instituicaoBrasileira.getComplemento() != null && instituicaoBrasileira.getComplemento().length() > 16) {
-            throw new IllegalArgumentException("O complemento deve ter no máximo 16 caracteres.");
+        InstituicaoDetalhada atualizada = instituicaoRepository.findDetalhadaById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Instituição não encontrada."));
+        eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(atualizada, TipoAlteracao.ATUALIZADA));
+        return atualizada;
+    }
+
+    /**
+     * Valida somente os campos presentes em um JSON Merge Patch de instituição brasileira, incluindo a regra do país.
+     *
+     * @param patch Corpo JSON Merge Patch.
+     * @return Lista de violações; vazia se o patch for válido.
+     */
+    public List<ErroCampo> validarPatchInstituicaoBrasileira(JsonNode patch) {
+        return lerPatch(patch).validar(novoAlvoPatch(), VALIDADOR_CAMPOS);
+    }
+
+    private static MergePatch lerPatch(JsonNode patch) {
+        MergePatch mergePatch = MergePatch.de(patch, CAMPOS_PATCH, CAMPOS_ANULAVEIS);
+        // O país não é atualizável; o patch só pode repeti-lo
+        if (mergePatch.isComPais() && mergePatch.getPais() != null && !"Brasil".equals(mergePatch.getPais())) {
+            mergePatch.rejeitar(MergePatch.PAIS, "Não é possível alterar uma instituição brasileira para estrangeira.");
         }
+        return mergePatch;
+    }
+
+    private static InstituicaoBrasileira novoAlvoPatch() {
+        InstituicaoBrasileira alvo = new InstituicaoBrasileira();
+        alvo.setInstituicao(new Instituicao());
+        return alvo;
     }
 
     /**
-     * Valida uma instituição brasileira, verificando país, CNPJ, CEP e campos obrigatórios.
+     * Valida uma nova instituição brasileira antes de ser persistida: nome, sigla, país e campos obrigatórios.
+     * Usado no cadastro individual e na importação em lote; todas as violações são devolvidas de uma vez.
      *
      * @param instituicaoBrasileira Instituição brasileira a ser validada.
+     * @return Lista de violações; vazia se a instituição for válida.
      */
-    private void validateInstituicaoBrasileira(InstituicaoBrasileira instituicaoBrasileira) {
-        if (!"Brasil".equals(instituicaoBrasileira.getPais())) {
-            throw new IllegalArgumentException("O país deve ser Brasil para uma Instituição Brasileira.");
-        }
+    public List<ErroCampo> validarNovaInstituicaoBrasileira(InstituicaoBrasileira instituicaoBrasileira) {
+        return VALIDADOR_NOVA.validar(instituicaoBrasileira);
+    }
 
-        validateCamposObrigatorios(instituicaoBrasileira);
+    /**
+     * Valida os dados de atualização de uma instituição brasileira. O país não é atualizável e por isso não é validado.
+     *
+     * @param instituicaoBrasileira Dados atualizados da instituição brasileira.
+     * @return Lista de violações; vazia se os dados forem válidos.
+     */
+    public List<ErroCampo> validarAtualizacaoInstituicaoBrasileira(InstituicaoBrasileira instituicaoBrasileira) {
+        return VALIDADOR_CAMPOS.validar(instituicaoBrasileira);
+    }
+
+    private static void exigirValida(List<ErroCampo> erros) {
+        if (!erros.isEmpty()) {
+            throw new ValidacaoException(erros);
+        }
     }
 }
@@ -0,0 +1,270 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.ResultadoBusca;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Serviço de busca por trecho do nome ou da sigla das instituições.
+ * Mantém em memória um índice de trigramas sobre o texto normalizado (sem acentos e em minúsculas),
+ * construído na inicialização e atualizado a cada alteração confirmada de uma instituição.
+ */
+@Service
+public class InstituicaoBuscaService {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private final InstituicaoRepository instituicaoRepository;
+    private final int limitePadrao;
+    private final int limiteMaximo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    private final Map<String, Map<Long, Entrada>> trigramas = new HashMap<>();
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param instituicaoRepository Repositório usado para carregar o índice na inicialização.
+     * @param limitePadrao Quantidade de resultados quando o cliente não informa um limite.
+     * @param limiteMaximo Quantidade máxima de resultados por busca.
+     */
+    @Autowired
+    public InstituicaoBuscaService(InstituicaoRepository instituicaoRepository,
+                                   @Value("${instituicao.busca.limite-padrao:20}") int limitePadrao,
+                                   @Value("${instituicao.busca.limite-maximo:100}") int limiteMaximo) {
+        this.instituicaoRepository = instituicaoRepository;
+        this.limitePadrao = limitePadrao;
+        this.limiteMaximo = limiteMaximo;
+    }
+
+    /**
+     * Constrói o índice a partir do banco quando a aplicação termina de subir.
+     * Segura o bloqueio de escrita durante a carga para que nenhuma alteração concorrente se perca.
+     * Não é somente leitura para ler do primário: com réplica de leitura, uma réplica atrasada deixaria de fora
+     * alterações recentes, que não seriam recuperadas pelos eventos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void construirIndice() {
+        lock.writeLock().lock();
+        try (Stream<InstituicaoDetalhada> instituicoes = instituicaoRepository.streamAllDetalhadas()) {
+            entradas.clear();
+            trigramas.clear();
+            instituicoes.forEach(i -> indexar(i.getId(), i.getNome(), i.getSigla(), i.getStatus()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atualiza o índice após o commit de um cadastro, atualização ou mudança de status.
+     *
+     * @param evento Evento com os dados atuais da instituição.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInstituicaoAlterada(InstituicaoAlteradaEvent evento) {
+        lock.writeLock().lock();
+        try {
+            remover(evento.getId());
+            indexar(evento.getId(), evento.getNome(), evento.getSigla(), evento.getStatus());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca instituições cujo nome ou sigla contenham o termo, ignorando acentos e maiúsculas.
+     * Termos de dois caracteres casam com o início de palavras; de um caractere, com o início do nome ou da sigla.
+     * Os resultados são ordenados por relevância: sigla exata, prefixo da sigla, prefixo do nome,
+     * início de uma palavra do nome e, por fim, trecho em qualquer posição.
+     *
+     * @param termo Trecho do nome ou da sigla.
+     * @param limite Quantidade máxima de resultados; limitada ao máximo configurado.
+     * @return Lista de ResultadoBusca ordenada por relevância.
+     */
+    public List<ResultadoBusca> buscar(String termo, Integer limite) {
+        String consulta = normalizar(termo);
+        if (consulta.isEmpty()) {
+            throw new RequisicaoInvalidaException("O termo de busca não pode ser vazio.");
+        }
+        if (limite != null && limite < 1) {
+            throw new RequisicaoInvalidaException("O limite deve ser maior que zero.");
+        }
+        int tamanho = limite == null ? limitePadrao : Math.min(limite, limiteMaximo);
+
+        // Só os melhores resultados ficam guardados: o pior deles na cabeça da fila, substituído quando aparece um melhor
+        PriorityQueue<Candidato> melhores = new PriorityQueue<>(tamanho + 1, Comparator.reverseOrder());
+        String inicioPalavra = " " + consulta;
+        lock.readLock().lock();
+        try {
+            for (Entrada entrada : candidatos(consulta)) {
+                int pontuacao = pontuar(entrada, consulta, inicioPalavra);
+                if (pontuacao == 0) {
+                    continue;
+                }
+                Candidato candidato = new Candidato(entrada, pontuacao);
+                if (melhores.size() < tamanho) {
+                    melhores.add(candidato);
+                } else if (candidato.compareTo(melhores.peek()) < 0) {
+                    melhores.poll();
+                    melhores.add(candidato);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Candidato> ordenados = new ArrayList<>(melhores);
+        ordenados.sort(null);
+        List<ResultadoBusca> resultados = new ArrayList<>(ordenados.size());
+        for (Candidato candidato : ordenados) {
+            Entrada entrada = candidato.entrada();
+            resultados.add(new ResultadoBusca(entrada.id(), entrada.nome(), entrada.sigla(), entrada.status(), candidato.pontuacao()));
+        }
+        return resultados;
+    }
+
+    /**
+     * Retorna as entradas da menor lista de ocorrências entre os trigramas da consulta, ou nenhuma se algum trigrama
+     * não aparece no índice. Quem contém a consulta contém todos os trigramas dela, e a pontuação confere o trecho
+     * inteiro, então não é preciso cruzar as demais listas.
+     */
+    private Collection<Entrada> candidatos(String consulta) {
+        Map<Long, Entrada> menor = null;
+        for (String trigrama : trigramasConsulta(consulta)) {
+            Map<Long, Entrada> ocorrencias = trigramas.get(trigrama);
+            if (ocorrencias == null) {
+                return List.of();
+            }
+            if (menor == null || ocorrencias.size() < menor.size()) {
+                menor = ocorrencias;
+            }
+        }
+        return menor.values();
+    }
+
+    private int pontuar(Entrada entrada, String consulta, String inicioPalavra) {
+        if (entrada.siglaNormalizada().equals(consulta)) {
+            return 100;
+        }
+        if (entrada.siglaNormalizada().startsWith(consulta)) {
+            return 80;
+        }
+        if (entrada.nomeNormalizado().startsWith(consulta)) {
+            return 60;
+        }
+        if (entrada.nomeNormalizado().contains(inicioPalavra)) {
+            return 50;
+        }
+        if (entrada.siglaNormalizada().contains(consulta) || entrada.nomeNormalizado().contains(consulta)) {
+            return 30;
+        }
+        return 0;
+    }
+
+    private void indexar(Long id, String nome, String sigla, Boolean status) {
+        Entrada entrada = new Entrada(id, nome, sigla, status, normalizar(nome), normalizar(sigla));
+        entradas.put(id, entrada);
+        for (String trigrama : trigramasEntrada(entrada)) {
+            trigramas.computeIfAbsent(trigrama, t -> new HashMap<>()).put(id, entrada);
+        }
+    }
+
+    private void remover(Long id) {
+        Entrada entrada = entradas.remove(id);
+        if (entrada == null) {
+            return;
+        }
+        for (String trigrama : trigramasEntrada(entrada)) {
+            Map<Long, Entrada> ids = trigramas.get(trigrama);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    trigramas.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    private Set<String> trigramasEntrada(Entrada entrada) {
+        Set<String> resultado = new HashSet<>();
+        // Espaços de preenchimento permitem buscar pelo início do texto e de cada palavra
+        adicionarTrigramas(resultado, "  " + entrada.nomeNormalizado() + " ");
+        adicionarTrigramas(resultado, "  " + entrada.siglaNormalizada() + " ");
+        return resultado;
+    }
+
+    private Set<String> trigramasConsulta(String consulta) {
+        Set<String> resultado = new HashSet<>();
+        if (consulta.length() >= 3) {
+            adicionarTrigramas(resultado, consulta);
+        } else {
+            String preenchida = "  " + consulta;
+            resultado.add(preenchida.substring(preenchida.length() - 3));
+        }
+        return resultado;
+    }
+
+    private void adicionarTrigramas(Set<String> destino, String texto) {
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            destino.add(texto.substring(i, i + 3));
+        }
+    }
+
+    /**
+     * Remove acentos, converte para minúsculas e reduz qualquer sequência de caracteres não alfanuméricos a um espaço.
+     */
+    static String normalizar(String texto) {
+        if (!StringUtils.hasText(texto)) {
+            return "";
+        }
+        String semAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private record Entrada(Long id, String nome, String sigla, Boolean status, String nomeNormalizado, String siglaNormalizada) {
+    }
+
+    /**
+     * Entrada que casou com a consulta; a ordem natural é a dos resultados: maior pontuação, nome mais curto e ID.
+     */
+    private record Candidato(Entrada entrada, int pontuacao) implements Comparable<Candidato> {
+
+        @Override
+        public int compareTo(Candidato outro) {
+            if (pontuacao != outro.pontuacao) {
+                return Integer.compare(outro.pontuacao, pontuacao);
+            }
+            int tamanhoNome = Integer.compare(entrada.nome().length(), outro.entrada.nome().length());
+            return tamanhoNome != 0 ? tamanhoNome : entrada.id().compareTo(outro.entrada.id());
+        }
+    }
+}
@@ -1,38 +1,105 @@
 package com.ledes.desafio.institute_manager.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ledes.desafio.institute_manager.config.CacheConfig;
+import com.ledes.desafio.institute_manager.config.MetricsConfig;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
 import com.ledes.desafio.institute_manager.model.Instituicao;
 import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.repository.AtualizacaoParcialRepository;
 import com.ledes.desafio.institute_manager.repository.InstituicaoEstrangeiraRepository;
 import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import com.ledes.desafio.institute_manager.validation.ValidacaoException;
+import com.ledes.desafio.institute_manager.validation.Validador;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
  * Serviço responsável por gerir as operações relacionadas às instituições estrangeiras.
  */
 @Service
+@Timed(MetricsConfig.TIMER_SERVICOS)
 public class InstituicaoEstrangeiraService {
 
+    static final Pattern CEP_PATTERN = Pattern.compile("\\d{1,9}");
+
     private final InstituicaoEstrangeiraRepository instituicaoEstrangeiraRepository;
     private final InstituicaoRepository instituicaoRepository;
-    private final InstituicaoService instituicaoService;
-    private static final Pattern CEP_PATTERN = Pattern.compile("\\d{1,9}");
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtualizacaoParcialRepository atualizacaoParcialRepository;
+
+    /**
+     * Regras montadas uma única vez: dados da instituição e campos de endereço, válidas no cadastro e na atualização.
+     */
+    static final Validador<InstituicaoEstrangeira> VALIDADOR_CAMPOS = Validador.<InstituicaoEstrangeira>builder()
+            .aninhado("instituicao", InstituicaoEstrangeira::getInstituicao, InstituicaoService.VALIDADOR, "Os dados da instituição são obrigatórios.")
+            .formato("cep", InstituicaoEstrangeira::getCep, CEP_PATTERN, "O CEP deve ter no máximo 9 caracteres numéricos.")
+            .obrigatorio("logradouro", InstituicaoEstrangeira::getLogradouro, 32, "O logradouro deve ter no máximo 32 caracteres e não pode ser vazio.")
+            .obrigatorio("estadoRegiao", InstituicaoEstrangeira::getEstadoRegiao, 32, "O estado/região deve ter no máximo 32 caracteres e não pode ser vazio.")
+            .obrigatorio("municipio", InstituicaoEstrangeira::getMunicipio, 32, "O município deve ter no máximo 32 caracteres e não pode ser vazio.")
+            .opcional("complemento", InstituicaoEstrangeira::getComplemento, 32, "O complemento deve ter no máximo 32 caracteres.")
+            .build();
+
+    /**
+     * Regras do PATCH: as de VALIDADOR_CAMPOS mais o país, obrigatório e limitado ao tamanho da coluna.
+     */
+    static final Validador<InstituicaoEstrangeira> VALIDADOR_PATCH = Validador.<InstituicaoEstrangeira>builder()
+            .incluir(VALIDADOR_CAMPOS)
+            .obrigatorio("pais", InstituicaoEstrangeira::getPais, 100, "O país deve ter no máximo 100 caracteres e não pode ser vazio.")
+            .build();
+
+    /**
+     * Regras do cadastro: as do PATCH mais a regra do país.
+     */
+    static final Validador<InstituicaoEstrangeira> VALIDADOR_NOVA = Validador.<InstituicaoEstrangeira>builder()
+            .incluir(VALIDADOR_PATCH)
+            .regra("pais", instituicao -> !"Brasil".equals(instituicao.getPais()), "O país não pode ser Brasil para uma Instituição Estrangeira.")
+            .build();
+
+    /**
+     * Campos do subtipo que um PATCH pode alterar, além do país e do nome e sigla da instituição.
+     */
+    private static final Set<String> CAMPOS_PATCH = Set.of("cep", "logradouro", "estadoRegiao", "municipio", "complemento");
+
+    /**
+     * Campos do subtipo que um PATCH pode remover (null).
+     */
+    private static final Set<String> CAMPOS_ANULAVEIS = Set.of("cep", "complemento");
 
     /**
      * Construtor para injeção das dependências necessárias.
      *
      * @param instituicaoEstrangeiraRepository Repositório para operações de CRUD de InstituicaoEstrangeira.
-     * @param instituicaoService Serviço para operações comuns a todas as instituições.
+     * @param entityManager EntityManager usado para forçar o incremento de versão da instituição.
+     * @param eventPublisher Publicador dos eventos de alteração de instituições.
+     * @param atualizacaoParcialRepository Repositório dos UPDATEs parciais do PATCH.
      */
     @Autowired
-    public InstituicaoEstrangeiraService(InstituicaoEstrangeiraRepository instituicaoEstrangeiraRepository, InstituicaoRepository instituicaoRepository, InstituicaoService instituicaoService) {
+    public InstituicaoEstrangeiraService(InstituicaoEstrangeiraRepository instituicaoEstrangeiraRepository, InstituicaoRepository instituicaoRepository, EntityManager entityManager, ApplicationEventPublisher eventPublisher, AtualizacaoParcialRepository atualizacaoParcialRepository) {
         this.instituicaoEstrangeiraRepository = instituicaoEstrangeiraRepository;
         this.instituicaoRepository = instituicaoRepository;
-        this.instituicaoService = instituicaoService;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.atualizacaoParcialRepository = atualizacaoParcialRepository;
     }
 
     /**
@@ -42,111 +109,163 @@ public class InstituicaoEstrangeiraService {
      * @param instituicaoEstrangeira Instituição estrangeira a ser salva.
      * @return A InstituicaoEstrangeira salva.
      */
+    @Transactional
     public InstituicaoEstrangeira saveInstituicaoEstrangeira(InstituicaoEstrangeira instituicaoEstrangeira) {
-        instituicaoService.validateNome(instituicaoEstrangeira.getInstituicao().getNome());
-        instituicaoService.validateSigla(instituicaoEstrangeira.getInstituicao().getSigla());
-        validateInstituicaoEstrangeira(instituicaoEstrangeira);
+        exigirValida(validarNovaInstituicaoEstrangeira(instituicaoEstrangeira));
 
         Instituicao instituicao = instituicaoEstrangeira.getInstituicao();
+        instituicao.setTipo(TipoInstituicao.ESTRANGEIRA);
         Instituicao savedInstituicao = instituicaoRepository.save(instituicao);
 
         instituicaoEstrangeira.setInstituicao(savedInstituicao);
 
-        return instituicaoEstrangeiraRepository.save(instituicaoEstrangeira);
+        InstituicaoEstrangeira saved = instituicaoEstrangeiraRepository.save(instituicaoEstrangeira);
+        eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(savedInstituicao, TipoAlteracao.CRIADA));
+        return saved;
     }
 
     /**
      * Atualiza uma instituição estrangeira existente.
      * Verifica se a instituição existe, se o país não é Brasil, e realiza as validações necessárias.
+     * O país não é alterado aqui, mesmo que venha no corpo; só o PATCH muda o país.
+     * Usa bloqueio otimista: se a versão esperada não for a atual, ou se outra transação alterar
+     * o registro antes do commit, lança OptimisticLockingFailureException.
      *
      * @param id ‘ID’ da instituição estrangeira a ser atualizada.
      * @param updatedInstituicao Dados atualizados da instituição estrangeira.
+     * @param versaoEsperada Versão informada pelo cliente (If-Match), ou nulo para atualizar sem pré-condição.
      * @return A InstituicaoEstrangeira atualizada.
      */
-    public InstituicaoEstrangeira updateInstituicaoEstrangeira(Long id, InstituicaoEstrangeira updatedInstituicao) {
-        Optional<Instituicao> instituicaoOptional = instituicaoRepository.findById(id);
-
-        if (instituicaoOptional.isPresent()) {
-            Instituicao instituicao = instituicaoOptional.get();
-            Optional<InstituicaoEstrangeira> instituicaoEstrangeiraOptional = instituicaoEstrangeiraRepository.findByInstituicao(instituicao);
-
-            if (instituicaoEstrangeiraOptional.isPresent()) {
-                InstituicaoEstrangeira existingInstituicao = instituicaoEstrangeiraOptional.get();
-
-                // Garantir que o país não seja alterado para o Brasil
-                if ("Brasil".equals(existingInstituicao.getPais())) {
-                    throw new IllegalArgumentException("Não é possível alterar uma instituição estrangeira para brasileira.");
-                }
-
-                // Validações comuns
-                instituicaoService.validateNome(updatedInstituicao.getInstituicao().getNome());
-                instituicaoService.validateSigla(updatedInstituicao.getInstituicao().getSigla());
-
-                // Validação do CEP (não obrigatório)
-                if (updatedInstituicao.getCep() != null && !CEP_PATTERN.matcher(updatedInstituicao.getCep()).matches()) {
-                    throw new IllegalArgumentException("O CEP deve ter no máximo 9 caracteres numéricos.");
-                }
-
-                // Validação de campos obrigatórios
-                validateCamposObrigatorios(updatedInstituicao);
-
-                // Atualizando os campos permitidos
-                existingInstituicao.getInstituicao().setNome(updatedInstituicao.getInstituicao().getNome());
-                existingInstituicao.getInstituicao().setSigla(updatedInstituicao.getInstituicao().getSigla());
-                existingInstituicao.setCep(updatedInstituicao.getCep());
-                existingInstituicao.setLogradouro(updatedInstituicao.getLogradouro());
-                existingInstituicao.setEstadoRegiao(updatedInstituicao.getEstadoRegiao());
-                existingInstituicao.setMunicipio(updatedInstituicao.getMunicipio());
-                existingInstituicao.setComplemento(updatedInstituicao.getComplemento());
-
-                return instituicaoEstrangeiraRepository.save(existingInstituicao);
-            } else {
-                throw new IllegalArgumentException("Instituição não encontrada.");
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.INSTITUICOES, key = "#id")
+    public InstituicaoEstrangeira updateInstituicaoEstrangeira(Long id, InstituicaoEstrangeira updatedInstituicao, Long versaoEsperada) {
+        // Uma única consulta: subtipo e instituição associada pelo ID da instituição
+        Optional<InstituicaoEstrangeira> instituicaoEstrangeiraOptional = instituicaoEstrangeiraRepository.findByInstituicaoId(id);
+
+        if (instituicaoEstrangeiraOptional.isPresent()) {
+            InstituicaoEstrangeira existingInstituicao = instituicaoEstrangeiraOptional.get();
+
+            if (versaoEsperada != null && !versaoEsperada.equals(existingInstituicao.getInstituicao().getVersao())) {
+                throw new OptimisticLockingFailureException("A instituição foi alterada por outra requisição.");
+            }
+
+            // Garantir que o país não seja alterado para o Brasil
+            if ("Brasil".equals(existingInstituicao.getPais())) {
+                throw new RequisicaoInvalidaException("Não é possível alterar uma instituição estrangeira para brasileira.");
             }
+
+            // Nome, sigla, CEP (não obrigatório) e campos obrigatórios
+            exigirValida(validarAtualizacaoInstituicaoEstrangeira(updatedInstituicao));
+
+            // Atualizando os campos permitidos
+            existingInstituicao.getInstituicao().setNome(updatedInstituicao.getInstituicao().getNome());
+            existingInstituicao.getInstituicao().setSigla(updatedInstituicao.getInstituicao().getSigla());
+            existingInstituicao.setCep(updatedInstituicao.getCep());
+            existingInstituicao.setLogradouro(updatedInstituicao.getLogradouro());
+            existingInstituicao.setEstadoRegiao(updatedInstituicao.getEstadoRegiao());
+            existingInstituicao.setMunicipio(updatedInstituicao.getMunicipio());
+            existingInstituicao.setComplemento(updatedInstituicao.getComplemento());
+
+            // Alterações apenas no endereço também geram nova versão da instituição (base do ETag)
+            entityManager.lock(existingInstituicao.getInstituicao(), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+
+            InstituicaoEstrangeira saved = instituicaoEstrangeiraRepository.save(existingInstituicao);
+            // Entregue aos ouvintes somente após o commit
+            eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(saved.getInstituicao(), TipoAlteracao.ATUALIZADA));
+            return saved;
         } else {
-            throw new IllegalArgumentException("Instituição não encontrada.");
+            throw new EntityNotFoundException("Instituição não encontrada.");
         }
     }
 
     /**
-     * Valida os campos obrigatórios de uma instituição estrangeira.
+     * Aplica um JSON Merge Patch a uma instituição estrangeira, sem carregá-la antes.
+     * Somente os campos presentes são validados e somente as colunas deles entram nos UPDATEs: um em 'instituicao',
+     * que também incrementa a versão e confere o If-Match, e outro na tabela do subtipo, se algum campo dela mudou.
      *
-     * @param instituicaoEstrangeira Instituição estrangeira a ser validada.
+     * @param id ID da instituição estrangeira.
+     * @param patch Corpo JSON Merge Patch.
+     * @param versaoEsperada Versão informada pelo cliente (If-Match), ou nulo para atualizar sem pré-condição.
+     * @return A instituição atualizada, lida do banco após os UPDATEs.
      */
-    private void validateCamposObrigatorios(InstituicaoEstrangeira instituicaoEstrangeira) {
-        if (!StringUtils.hasText(instituicaoEstrangeira.getLogradouro()) || instituicaoEstrangeira.getLogradouro().length() > 32) {
-            throw new IllegalArgumentException("O logradouro deve ter no máximo 32 caracteres e não pode ser vazio.");
-        }
-        if (!StringUtils.hasText(instituicaoEstrangeira.getEstadoRegiao()) || instituicaoEstrangeira.getEstadoRegiao().length() > 32) {
-            throw new IllegalArgumentException("O estado/região deve ter no máximo 32 caracteres e não pode ser vazio.");
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.INSTITUICOES, key = "#id")
+    public InstituicaoDetalhada patchInstituicaoEstrangeira(Long id, JsonNode patch, Long versaoEsperada) {
+        MergePatch mergePatch = lerPatch(patch);
+        exigirValida(mergePatch.validar(novoAlvoPatch(), VALIDADOR_PATCH));
+
+        int alteradas = atualizacaoParcialRepository.updateInstituicao(id, InstituicaoEstrangeira.class,
+                mergePatch.getCamposInstituicao(), versaoEsperada);
+        if (alteradas == 0) {
+            // Só no caminho de erro uma consulta distingue a versão desatualizada da instituição inexistente
+            if (versaoEsperada != null && instituicaoEstrangeiraRepository.existsByInstituicaoId(id)) {
+                throw new OptimisticLockingFailureException("A instituição foi alterada por outra requisição.");
+            }
+            throw new EntityNotFoundException("Instituição não encontrada.");
         }
-        if (!StringUtils.hasText(instituicaoEstrangeira.getMunicipio()) || instituicaoEstrangeira.getMunicipio().length() > 32) {
-            throw new IllegalArgumentException("O município deve ter no máximo 32 caracteres e não pode ser vazio.");
+        if (!mergePatch.getCamposSubtipo().isEmpty()) {
+            atualizacaoParcialRepository.updateSubtipo(InstituicaoEstrangeira.class, id, mergePatch.getCamposSubtipo());
         }
 
-        // Validação do complemento (campo opcional)
-        if (instituicaoEstrangeira.getComplemento() != null && instituicaoEstrangeira.getComplemento().length() > 32) {
-            throw new IllegalArgumentException("O complemento deve ter no máximo 32 caracteres.");
+        InstituicaoDetalhada atualizada = instituicaoRepository.findDetalhadaById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Instituição não encontrada."));
+        eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(atualizada, TipoAlteracao.ATUALIZADA));
+        return atualizada;
+    }
+
+    /**
+     * Valida somente os campos presentes em um JSON Merge Patch de instituição estrangeira, incluindo a regra do país.
+     *
+     * @param patch Corpo JSON Merge Patch.
+     * @return Lista de violações; vazia se o patch for válido.
+     */
+    public List<ErroCampo> validarPatchInstituicaoEstrangeira(JsonNode patch) {
+        return lerPatch(patch).validar(novoAlvoPatch(), VALIDADOR_PATCH);
+    }
+
+    private static MergePatch lerPatch(JsonNode patch) {
+        MergePatch mergePatch = MergePatch.de(patch, CAMPOS_PATCH, CAMPOS_ANULAVEIS);
+        // O país pode mudar para outro país estrangeiro, nunca para o Brasil
+        if (mergePatch.isComPais() && mergePatch.getPais() != null) {
+            if ("Brasil".equals(mergePatch.getPais())) {
+                mergePatch.rejeitar(MergePatch.PAIS, "Não é possível alterar uma instituição estrangeira para brasileira.");
+            } else {
+                mergePatch.incluirPais();
+            }
         }
+        return mergePatch;
+    }
+
+    private static InstituicaoEstrangeira novoAlvoPatch() {
+        InstituicaoEstrangeira alvo = new InstituicaoEstrangeira();
+        alvo.setInstituicao(new Instituicao());
+        return alvo;
     }
 
     /**
-     * Valida uma instituição estrangeira, verificando o país, CEP (se fornecido) e os campos obrigatórios.
+     * Valida uma nova instituição estrangeira antes de ser persistida: nome, sigla, país, CEP (se fornecido) e campos obrigatórios.
+     * Usado no cadastro individual e na importação em lote; todas as violações são devolvidas de uma vez.
      *
      * @param instituicaoEstrangeira Instituição estrangeira a ser validada.
+     * @return Lista de violações; vazia se a instituição for válida.
      */
-    private void validateInstituicaoEstrangeira(InstituicaoEstrangeira instituicaoEstrangeira) {
-        // Validação do País
-        if ("Brasil".equals(instituicaoEstrangeira.getPais())) {
-            throw new IllegalArgumentException("O país não pode ser Brasil para uma Instituição Estrangeira.");
-        }
+    public List<ErroCampo> validarNovaInstituicaoEstrangeira(InstituicaoEstrangeira instituicaoEstrangeira) {
+        return VALIDADOR_NOVA.validar(instituicaoEstrangeira);
+    }
 
-        // Validação do CEP (não é obrigatório)
-        if (instituicaoEstrangeira.getCep() != null && !CEP_PATTERN.matcher(instituicaoEstrangeira.getCep()).matches()) {
-            throw new IllegalArgumentException("O CEP deve ter no máximo 9 caracteres numéricos.");
-        }
+    /**
+     * Valida os dados de atualização de uma instituição estrangeira. O país não é atualizável e por isso não é validado.
+     *
+     * @param instituicaoEstrangeira Dados atualizados da instituição estrangeira.
+     * @return Lista de violações; vazia se os dados forem válidos.
+     */
+    public List<ErroCampo> validarAtualizacaoInstituicaoEstrangeira(InstituicaoEstrangeira instituicaoEstrangeira) {
+        return VALIDADOR_CAMPOS.validar(instituicaoEstrangeira);
+    }
 
-        // Validação dos campos obrigatórios
-        validateCamposObrigatorios(instituicaoEstrangeira);
+    private static void exigirValida(List<ErroCampo> erros) {
+        if (!erros.isEmpty()) {
+            throw new ValidacaoException(erros);
+        }
     }
 }
@@ -0,0 +1,316 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Feed de alterações de instituições em Server-Sent Events, para que o frontend acompanhe cadastros, atualizações,
+ * inativações e reativações sem consultar a listagem completa periodicamente.
+ * <p>
+ * Cada alteração confirmada recebe um ID sequencial, é serializada uma única vez e entra num histórico limitado
+ * (historico). Cada assinante tem uma fila própria de até 'buffer' mensagens, esvaziada por uma thread virtual;
+ * um assinante que não acompanha o ritmo e enche a fila é desconectado, sem atrasar a publicação nem os demais.
+ * O EventSource do navegador reconecta sozinho enviando Last-Event-ID, e as mensagens perdidas são reenviadas do
+ * histórico. Se o ID já saiu do histórico ou é de outra execução da aplicação, o assinante recebe o evento
+ * 'reinicio' e deve recarregar a listagem uma vez.
+ */
+@Service
+public class InstituicaoEventosService {
+
+    /**
+     * Nome dos eventos SSE com uma alteração de instituição.
+     */
+    public static final String EVENTO_ALTERACAO = "instituicao";
+
+    /**
+     * Nome do evento SSE que pede ao cliente para recarregar a listagem: as alterações desde o último ID não estão mais
+     * disponíveis.
+     */
+    public static final String EVENTO_REINICIO = "reinicio";
+
+    private static final Logger log = LoggerFactory.getLogger(InstituicaoEventosService.class);
+
+    private final ObjectMapper objectMapper;
+    private final int tamanhoHistorico;
+    private final int tamanhoBuffer;
+    private final Duration intervaloHeartbeat;
+    private final Duration tempoLimite;
+    private final Counter descartes;
+
+    /**
+     * Identifica esta execução nos IDs dos eventos, já que a sequência recomeça a cada inicialização.
+     */
+    private final String execucao = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Lock trava = new ReentrantLock();
+    private final ArrayDeque<Mensagem> historico;
+    private final Set<Assinante> assinantes = new HashSet<>();
+    private long sequencia;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param objectMapper ObjectMapper da aplicação, usado para serializar cada alteração uma única vez.
+     * @param meterRegistry Registro das métricas de assinantes e descartes (instituicao.eventos.*).
+     * @param tamanhoHistorico Quantidade de alterações recentes mantidas para a retomada por Last-Event-ID.
+     * @param tamanhoBuffer Quantidade de mensagens pendentes por assinante antes de ele ser desconectado.
+     * @param intervaloHeartbeat Intervalo dos comentários enviados sem alterações, que mantêm a conexão aberta nos
+     *                           proxies e detectam clientes desconectados.
+     * @param tempoLimite Duração máxima de uma conexão; o cliente reconecta e continua do último ID.
+     */
+    @Autowired
+    public InstituicaoEventosService(ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${instituicao.eventos.historico:10000}") int tamanhoHistorico,
+                                     @Value("${instituicao.eventos.buffer:256}") int tamanhoBuffer,
+                                     @Value("${instituicao.eventos.heartbeat:15s}") Duration intervaloHeartbeat,
+                                     @Value("${instituicao.eventos.tempo-limite:30m}") Duration tempoLimite) {
+        this.objectMapper = objectMapper;
+        this.tamanhoHistorico = tamanhoHistorico;
+        this.tamanhoBuffer = tamanhoBuffer;
+        this.intervaloHeartbeat = intervaloHeartbeat;
+        this.tempoLimite = tempoLimite;
+        this.historico = new ArrayDeque<>(tamanhoHistorico);
+        Gauge.builder("instituicao.eventos.assinantes", this, InstituicaoEventosService::contarAssinantes)
+                .description("Conexões abertas no feed de alterações")
+                .register(meterRegistry);
+        this.descartes = Counter.builder("instituicao.eventos.descartes")
+                .description("Assinantes desconectados por não acompanharem o ritmo das alterações")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre uma assinatura do feed.
+     *
+     * @param ultimoId ID do último evento recebido pelo cliente (Last-Event-ID); nulo para receber somente as próximas alterações.
+     * @return Emissor SSE da assinatura.
+     */
+    public SseEmitter assinar(String ultimoId) {
+        return assinar(ultimoId, new SseEmitter(tempoLimite.toMillis()));
+    }
+
+    /**
+     * Abre uma assinatura com o emissor informado.
+     */
+    SseEmitter assinar(String ultimoId, SseEmitter emitter) {
+        // Uma vaga a mais para a marca de fim, que sempre cabe: as mensagens só entram com a fila abaixo de tamanhoBuffer
+        Assinante assinante = new Assinante(emitter, new ArrayBlockingQueue<>(tamanhoBuffer + 1));
+        List<Mensagem> pendentes;
+        boolean reiniciar;
+        long atual;
+
+        // O histórico é copiado e a fila registrada sob a mesma trava, então nenhuma alteração fica entre os dois
+        trava.lock();
+        try {
+            Long desde = ultimoId == null ? Long.valueOf(sequencia) : sequenciaDe(ultimoId);
+            long primeiraDisponivel = historico.isEmpty() ? sequencia + 1 : historico.peekFirst().sequencia();
+            reiniciar = desde == null || desde > sequencia || desde < primeiraDisponivel - 1;
+            atual = sequencia;
+            pendentes = new ArrayList<>();
+            if (!reiniciar) {
+                for (Mensagem mensagem : historico) {
+                    if (mensagem.sequencia() > desde) {
+                        pendentes.add(mensagem);
+                    }
+                }
+            }
+            assinantes.add(assinante);
+        } finally {
+            trava.unlock();
+        }
+
+        Runnable encerrar = () -> encerrar(assinante);
+        emitter.onCompletion(encerrar);
+        emitter.onTimeout(encerrar);
+        emitter.onError(erro -> encerrar(assinante));
+        Long reinicio = reiniciar ? atual : null;
+        Thread.ofVirtual().name("eventos-instituicao").start(() -> enviar(assinante, pendentes, reinicio));
+        return emitter;
+    }
+
+    /**
+     * Publica uma alteração após o commit do cadastro, atualização ou mudança de status.
+     *
+     * @param evento Evento com os dados atuais da instituição.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInstituicaoAlterada(InstituicaoAlteradaEvent evento) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            log.error("Não foi possível serializar a alteração da instituição {}.", evento.getId(), e);
+            return;
+        }
+        trava.lock();
+        try {
+            Mensagem mensagem = new Mensagem(++sequencia, json);
+            if (historico.size() == tamanhoHistorico) {
+                historico.removeFirst();
+            }
+            historico.addLast(mensagem);
+            for (Assinante assinante : List.copyOf(assinantes)) {
+                if (assinante.fila.size() < tamanhoBuffer) {
+                    assinante.fila.add(mensagem);
+                } else {
+                    // Fila cheia: o assinante é desconectado e retoma do histórico ao reconectar
+                    descartes.increment();
+                    remover(assinante);
+                }
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Laço de envio de um assinante: o evento de reinício, se houver, as mensagens perdidas desde o último ID e,
+     * em seguida, as da fila, com um comentário a cada intervalo sem alterações. Termina na marca de fim, colocada
+     * quando o assinante é removido, ou quando a escrita falha.
+     *
+     * @param reinicio Sequência no momento da assinatura, quando o cliente deve recarregar a listagem; nulo do contrário.
+     */
+    private void enviar(Assinante assinante, List<Mensagem> pendentes, Long reinicio) {
+        SseEmitter emitter = assinante.emitter;
+        try {
+            // O primeiro envio confirma a conexão ao cliente e define o intervalo de reconexão
+            emitter.send(SseEmitter.event().comment("conectado").reconnectTime(1000));
+            if (reinicio != null) {
+                emitter.send(SseEmitter.event().id(idDe(reinicio)).name(EVENTO_REINICIO).data("{}", MediaType.APPLICATION_JSON));
+            }
+            for (Mensagem mensagem : pendentes) {
+                enviar(emitter, mensagem);
+            }
+            while (true) {
+                Mensagem mensagem = assinante.fila.poll(intervaloHeartbeat.toNanos(), TimeUnit.NANOSECONDS);
+                if (mensagem == FIM) {
+                    break;
+                }
+                if (mensagem == null) {
+                    emitter.send(SseEmitter.event().comment(""));
+                } else {
+                    enviar(emitter, mensagem);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Assinante do feed de alterações desconectado.", e);
+        } finally {
+            encerrar(assinante);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // A conexão já foi encerrada pelo cliente ou pelo tempo limite
+            }
+        }
+    }
+
+    private void enviar(SseEmitter emitter, Mensagem mensagem) throws IOException {
+        emitter.send(SseEmitter.event().id(idDe(mensagem.sequencia())).name(EVENTO_ALTERACAO)
+                .data(mensagem.json(), MediaType.APPLICATION_JSON));
+    }
+
+    private void encerrar(Assinante assinante) {
+        trava.lock();
+        try {
+            remover(assinante);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Remove o assinante e coloca a marca de fim na fila dele, para que a thread de envio encerre a conexão.
+     * Deve ser chamado com a trava.
+     */
+    private void remover(Assinante assinante) {
+        if (assinantes.remove(assinante)) {
+            assinante.fila.add(FIM);
+        }
+    }
+
+    /**
+     * Encerra as conexões abertas no desligamento, para que o servidor não espere o tempo limite delas.
+     */
+    @PreDestroy
+    public void encerrarTodos() {
+        trava.lock();
+        try {
+            List.copyOf(assinantes).forEach(this::remover);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private String idDe(long sequencia) {
+        return execucao + "-" + sequencia;
+    }
+
+    /**
+     * Sequência contida num ID de evento desta execução, ou nulo se o ID for de outra execução ou inválido.
+     */
+    private Long sequenciaDe(String id) {
+        int separador = id.lastIndexOf('-');
+        if (separador < 0 || !id.substring(0, separador).equals(execucao)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.substring(separador + 1).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private double contarAssinantes() {
+        trava.lock();
+        try {
+            return assinantes.size();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Alteração serializada com a sua posição na sequência.
+     */
+    private record Mensagem(long sequencia, String json) {
+    }
+
+    /**
+     * Marca de fim da fila de um assinante removido.
+     */
+    private static final Mensagem FIM = new Mensagem(-1, null);
+
+    /**
+     * Conexão de um cliente: o emissor e a fila limitada de mensagens ainda não enviadas.
+     */
+    private record Assinante(SseEmitter emitter, BlockingQueue<Mensagem> fila) {
+    }
+}
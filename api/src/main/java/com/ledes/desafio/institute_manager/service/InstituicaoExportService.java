@@ -0,0 +1,128 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Serviço responsável por exportar o catálogo completo de instituições em NDJSON ou CSV,
+ * escrevendo linha a linha à medida que os registros chegam do banco.
+ */
+@Service
+public class InstituicaoExportService {
+
+    private static final String CSV_CABECALHO = "id,nome,sigla,status,pais,cep,logradouro,complemento,estado,municipio,cnpj,bairro,numero,tipo";
+
+    private final InstituicaoRepository instituicaoRepository;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param instituicaoRepository Repositório com a consulta de projeção em streaming.
+     * @param objectMapper ObjectMapper da aplicação, usado para serializar cada linha NDJSON.
+     * @param fetchSize Fetch size da consulta da exportação.
+     */
+    @Autowired
+    public InstituicaoExportService(InstituicaoRepository instituicaoRepository, ObjectMapper objectMapper,
+                                    @Value("${instituicao.exportacao.fetch-size:1000}") int fetchSize) {
+        this.instituicaoRepository = instituicaoRepository;
+        this.jsonWriter = objectMapper.writerFor(InstituicaoDetalhada.class);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Escreve todas as instituições no formato solicitado.
+     * A consulta lê as linhas aos poucos, conforme o fetch size (no MySQL, Integer.MIN_VALUE faz o driver
+     * transmiti-las uma a uma), e os itens são projeções (não gerenciadas), portanto o consumo de memória
+     * independe do tamanho do catálogo.
+     *
+     * @param formato Formato de saída.
+     * @param saida Stream de saída da resposta HTTP.
+     * @throws IOException Se ocorrer erro de escrita na saída.
+     */
+    @Transactional(readOnly = true)
+    public void exportar(FormatoArquivo formato, OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+
+        if (formato == FormatoArquivo.CSV) {
+            writer.write(CSV_CABECALHO);
+            writer.write('\n');
+        }
+
+        try (Stream<InstituicaoDetalhada> instituicoes = instituicaoRepository.streamAllDetalhadas(fetchSize)) {
+            Iterator<InstituicaoDetalhada> iterator = instituicoes.iterator();
+            while (iterator.hasNext()) {
+                InstituicaoDetalhada instituicao = iterator.next();
+                if (formato == FormatoArquivo.CSV) {
+                    writeCsv(writer, instituicao);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(instituicao));
+                }
+                writer.write('\n');
+            }
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Escreve uma instituição como linha CSV, na mesma ordem do cabeçalho.
+     *
+     * @param writer Destino da linha.
+     * @param instituicao Instituição a ser escrita.
+     * @throws IOException Se ocorrer erro de escrita.
+     */
+    private void writeCsv(Writer writer, InstituicaoDetalhada instituicao) throws IOException {
+        writer.write(String.valueOf(instituicao.getId()));
+        writeCsvCampo(writer, instituicao.getNome());
+        writeCsvCampo(writer, instituicao.getSigla());
+        writeCsvCampo(writer, instituicao.getStatus() == null ? null : instituicao.getStatus().toString());
+        writeCsvCampo(writer, instituicao.getPais());
+        writeCsvCampo(writer, instituicao.getCep());
+        writeCsvCampo(writer, instituicao.getLogradouro());
+        writeCsvCampo(writer, instituicao.getComplemento());
+        writeCsvCampo(writer, instituicao.getEstado());
+        writeCsvCampo(writer, instituicao.getMunicipio());
+        writeCsvCampo(writer, instituicao.getCnpj());
+        writeCsvCampo(writer, instituicao.getBairro());
+        writeCsvCampo(writer, instituicao.getNumero());
+        writeCsvCampo(writer, instituicao.getTipo() == null ? null : instituicao.getTipo().name());
+    }
+
+    /**
+     * Escreve um campo CSV precedido de vírgula, aplicando aspas quando necessário (RFC 4180).
+     *
+     * @param writer Destino do campo.
+     * @param valor Valor do campo; nulo gera campo vazio.
+     * @throws IOException Se ocorrer erro de escrita.
+     */
+    private void writeCsvCampo(Writer writer, String valor) throws IOException {
+        writer.write(',');
+        if (valor == null) {
+            return;
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        writer.write(valor.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
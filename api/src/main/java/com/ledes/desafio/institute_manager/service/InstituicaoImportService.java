@@ -0,0 +1,314 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.dto.ErroImportacao;
+import com.ledes.desafio.institute_manager.dto.RelatorioImportacao;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.repository.InstituicaoBatchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço responsável pela importação em lote de instituições a partir de arquivos NDJSON ou CSV.
+ * Cada linha é validada com as mesmas regras do cadastro individual e as linhas válidas são
+ * gravadas em batches JDBC, um lote por transação.
+ */
+@Service
+public class InstituicaoImportService {
+
+    private static final char BOM = '\uFEFF';
+
+    private final InstituicaoBrasileiraService instituicaoBrasileiraService;
+    private final InstituicaoEstrangeiraService instituicaoEstrangeiraService;
+    private final InstituicaoBatchRepository instituicaoBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int tamanhoLote;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param instituicaoBrasileiraService Serviço com as regras de validação de instituições brasileiras.
+     * @param instituicaoEstrangeiraService Serviço com as regras de validação de instituições estrangeiras.
+     * @param instituicaoBatchRepository Repositório de inserções em lote via JDBC.
+     * @param transactionTemplate Template usado para abrir uma transação por lote.
+     * @param objectMapper ObjectMapper da aplicação, usado para ler as linhas NDJSON.
+     * @param eventPublisher Publicador dos eventos de alteração de instituições.
+     * @param tamanhoLote Quantidade de registros por batch JDBC.
+     */
+    @Autowired
+    public InstituicaoImportService(InstituicaoBrasileiraService instituicaoBrasileiraService,
+                                    InstituicaoEstrangeiraService instituicaoEstrangeiraService,
+                                    InstituicaoBatchRepository instituicaoBatchRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    ObjectMapper objectMapper,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${instituicao.importacao.tamanho-lote:500}") int tamanhoLote) {
+        this.instituicaoBrasileiraService = instituicaoBrasileiraService;
+        this.instituicaoEstrangeiraService = instituicaoEstrangeiraService;
+        this.instituicaoBatchRepository = instituicaoBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Abre o corpo de uma requisição de importação com o charset do Content-Type, ou UTF-8 se ele não informar um.
+     *
+     * @param corpo Corpo da requisição.
+     * @param contentType Content-Type recebido.
+     * @return Reader para importarBrasileiras ou importarEstrangeiras.
+     */
+    public static Reader leitor(InputStream corpo, MediaType contentType) {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        return new InputStreamReader(corpo, charset);
+    }
+
+    /**
+     * Importa instituições brasileiras. No NDJSON cada linha tem o mesmo formato do cadastro individual;
+     * no CSV as colunas são identificadas pelo cabeçalho (nome, sigla, status, cnpj, cep, logradouro,
+     * bairro, estado, municipio, numero, complemento).
+     *
+     * @param reader Conteúdo do arquivo.
+     * @param formato Formato do arquivo.
+     * @return Relatório com a quantidade importada e os erros por linha.
+     * @throws IOException Se ocorrer erro de leitura.
+     */
+    public RelatorioImportacao importarBrasileiras(Reader reader, FormatoArquivo formato) throws IOException {
+        return importar(reader, formato, InstituicaoBrasileira.class, this::brasileiraFromCsv,
+                instituicaoBrasileiraService::validarNovaInstituicaoBrasileira,
+                instituicaoBatchRepository::insertBrasileiras, InstituicaoBrasileira::getInstituicao);
+    }
+
+    /**
+     * Importa instituições estrangeiras. No NDJSON cada linha tem o mesmo formato do cadastro individual;
+     * no CSV as colunas são identificadas pelo cabeçalho (nome, sigla, status, pais, cep, logradouro,
+     * estadoRegiao, municipio, complemento).
+     *
+     * @param reader Conteúdo do arquivo.
+     * @param formato Formato do arquivo.
+     * @return Relatório com a quantidade importada e os erros por linha.
+     * @throws IOException Se ocorrer erro de leitura.
+     */
+    public RelatorioImportacao importarEstrangeiras(Reader reader, FormatoArquivo formato) throws IOException {
+        return importar(reader, formato, InstituicaoEstrangeira.class, this::estrangeiraFromCsv,
+                instituicaoEstrangeiraService::validarNovaInstituicaoEstrangeira,
+                instituicaoBatchRepository::insertEstrangeiras, InstituicaoEstrangeira::getInstituicao);
+    }
+
+    /**
+     * Lê o arquivo linha a linha, valida cada registro e grava os válidos em lotes.
+     */
+    private <T> RelatorioImportacao importar(Reader reader, FormatoArquivo formato, Class<T> tipo,
+                                             Function<Map<String, String>, T> fromCsv,
+                                             Function<T, List<ErroCampo>> validador,
+                                             Consumer<List<T>> inserir,
+                                             Function<T, Instituicao> instituicao) throws IOException {
+        RelatorioImportacao relatorio = new RelatorioImportacao();
+        List<T> lote = new ArrayList<>(tamanhoLote);
+        List<Long> linhasLote = new ArrayList<>(tamanhoLote);
+        BufferedReader linhas = new BufferedReader(reader);
+
+        String[] cabecalho = null;
+        long numeroLinha = 0;
+        String linha;
+        while ((linha = linhas.readLine()) != null) {
+            numeroLinha++;
+            if (numeroLinha == 1 && !linha.isEmpty() && linha.charAt(0) == BOM) {
+                // Planilhas costumam gravar o BOM no início do CSV; ele entraria no nome da primeira coluna
+                linha = linha.substring(1);
+            }
+            if (!StringUtils.hasText(linha)) {
+                continue;
+            }
+            if (formato == FormatoArquivo.CSV && cabecalho == null) {
+                cabecalho = parseCsvLinha(linha).toArray(new String[0]);
+                continue;
+            }
+
+            relatorio.setRecebidas(relatorio.getRecebidas() + 1);
+            try {
+                T registro = formato == FormatoArquivo.CSV
+                        ? fromCsv.apply(toColunas(cabecalho, parseCsvLinha(linha)))
+                        : objectMapper.readValue(linha, tipo);
+                List<ErroCampo> violacoes = validador.apply(registro);
+                if (violacoes.isEmpty()) {
+                    lote.add(registro);
+                    linhasLote.add(numeroLinha);
+                } else {
+                    relatorio.getErros().add(new ErroImportacao(numeroLinha, violacoes.stream()
+                            .map(ErroCampo::getMensagem).collect(Collectors.joining(" "))));
+                }
+            } catch (JsonProcessingException e) {
+                relatorio.getErros().add(new ErroImportacao(numeroLinha, "JSON inválido: " + e.getOriginalMessage()));
+            } catch (IllegalArgumentException e) {
+                relatorio.getErros().add(new ErroImportacao(numeroLinha, e.getMessage()));
+            }
+
+            if (lote.size() >= tamanhoLote) {
+                gravarLote(lote, linhasLote, inserir, instituicao, relatorio);
+            }
+        }
+        gravarLote(lote, linhasLote, inserir, instituicao, relatorio);
+
+        return relatorio;
+    }
+
+    /**
+     * Grava um lote em uma única transação. Se o banco rejeitar o lote, os registros são regravados
+     * um a um para que apenas as linhas problemáticas apareçam no relatório.
+     */
+    private <T> void gravarLote(List<T> lote, List<Long> linhasLote, Consumer<List<T>> inserir,
+                                Function<T, Instituicao> instituicao, RelatorioImportacao relatorio) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                inserir.accept(lote);
+                lote.forEach(registro -> publicarCriacao(instituicao.apply(registro)));
+            });
+            relatorio.setImportadas(relatorio.getImportadas() + lote.size());
+        } catch (DataAccessException e) {
+            for (int i = 0; i < lote.size(); i++) {
+                T registro = lote.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        inserir.accept(List.of(registro));
+                        publicarCriacao(instituicao.apply(registro));
+                    });
+                    relatorio.setImportadas(relatorio.getImportadas() + 1);
+                } catch (DataAccessException erro) {
+                    relatorio.getErros().add(new ErroImportacao(linhasLote.get(i),
+                            "Erro ao gravar: " + NestedExceptionUtils.getMostSpecificCause(erro).getMessage()));
+                }
+            }
+        }
+        lote.clear();
+        linhasLote.clear();
+    }
+
+    /**
+     * Publica o evento de criação; os ouvintes o recebem somente após o commit do lote.
+     */
+    private void publicarCriacao(Instituicao instituicao) {
+        eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(instituicao, TipoAlteracao.CRIADA));
+    }
+
+    private InstituicaoBrasileira brasileiraFromCsv(Map<String, String> colunas) {
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(instituicaoFromCsv(colunas));
+        if (colunas.get("pais") != null) {
+            instituicaoBrasileira.setPais(colunas.get("pais"));
+        }
+        instituicaoBrasileira.setCnpj(colunas.get("cnpj"));
+        instituicaoBrasileira.setCep(colunas.get("cep"));
+        instituicaoBrasileira.setLogradouro(colunas.get("logradouro"));
+        instituicaoBrasileira.setBairro(colunas.get("bairro"));
+        instituicaoBrasileira.setEstado(colunas.get("estado"));
+        instituicaoBrasileira.setMunicipio(colunas.get("municipio"));
+        instituicaoBrasileira.setNumero(colunas.get("numero"));
+        instituicaoBrasileira.setComplemento(colunas.get("complemento"));
+        return instituicaoBrasileira;
+    }
+
+    private InstituicaoEstrangeira estrangeiraFromCsv(Map<String, String> colunas) {
+        InstituicaoEstrangeira instituicaoEstrangeira = new InstituicaoEstrangeira();
+        instituicaoEstrangeira.setInstituicao(instituicaoFromCsv(colunas));
+        instituicaoEstrangeira.setPais(colunas.get("pais"));
+        instituicaoEstrangeira.setCep(colunas.get("cep"));
+        instituicaoEstrangeira.setLogradouro(colunas.get("logradouro"));
+        instituicaoEstrangeira.setEstadoRegiao(colunas.get("estadoRegiao"));
+        instituicaoEstrangeira.setMunicipio(colunas.get("municipio"));
+        instituicaoEstrangeira.setComplemento(colunas.get("complemento"));
+        return instituicaoEstrangeira;
+    }
+
+    private Instituicao instituicaoFromCsv(Map<String, String> colunas) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(colunas.get("nome"));
+        instituicao.setSigla(colunas.get("sigla"));
+        if (colunas.get("status") != null) {
+            instituicao.setStatus(Boolean.parseBoolean(colunas.get("status")));
+        }
+        return instituicao;
+    }
+
+    /**
+     * Associa os valores de uma linha CSV às colunas do cabeçalho. Campos vazios viram nulos.
+     */
+    private Map<String, String> toColunas(String[] cabecalho, List<String> valores) {
+        if (valores.size() != cabecalho.length) {
+            throw new IllegalArgumentException("A linha tem " + valores.size() + " colunas, mas o cabeçalho tem " + cabecalho.length + ".");
+        }
+        Map<String, String> colunas = new HashMap<>(cabecalho.length * 2);
+        for (int i = 0; i < cabecalho.length; i++) {
+            String valor = valores.get(i);
+            colunas.put(cabecalho[i].trim(), valor.isEmpty() ? null : valor);
+        }
+        return colunas;
+    }
+
+    /**
+     * Separa uma linha CSV em campos, respeitando aspas duplas e aspas escapadas ("").
+     * Registros com quebra de linha dentro de um campo não são suportados.
+     */
+    private List<String> parseCsvLinha(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+}
@@ -1,108 +1,294 @@
 package com.ledes.desafio.institute_manager.service;
 
+import com.ledes.desafio.institute_manager.config.CacheConfig;
+import com.ledes.desafio.institute_manager.config.MetricsConfig;
+import com.ledes.desafio.institute_manager.dto.AlteracoesInstituicoes;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.dto.FiltroInstituicao;
 import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.PaginaInstituicoes;
+import com.ledes.desafio.institute_manager.dto.ResultadoAlteracaoStatus;
+import com.ledes.desafio.institute_manager.dto.ResumoInstituicao;
+import com.ledes.desafio.institute_manager.dto.VersaoColecao;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
 import com.ledes.desafio.institute_manager.model.Instituicao;
-import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
-import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
-import com.ledes.desafio.institute_manager.repository.InstituicaoBrasileiraRepository;
-import com.ledes.desafio.institute_manager.repository.InstituicaoEstrangeiraRepository;
 import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import com.ledes.desafio.institute_manager.repository.VersaoColecaoRepository;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import com.ledes.desafio.institute_manager.validation.Validador;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 /**
  * Serviço responsável por gerenciar as operações relacionadas às instituições,
  * incluindo instituições brasileiras e estrangeiras.
  */
 @Service
+@Timed(MetricsConfig.TIMER_SERVICOS)
 public class InstituicaoService {
 
+    /**
+     * Regras dos dados comuns a toda instituição, reutilizadas pelos validadores de cada subtipo.
+     */
+    static final Validador<Instituicao> VALIDADOR = Validador.<Instituicao>builder()
+            .obrigatorio("nome", Instituicao::getNome, 32, "O nome deve ter no máximo 32 caracteres e não pode ser vazio.")
+            .obrigatorio("sigla", Instituicao::getSigla, 8, "A sigla deve ter no máximo 8 caracteres e não pode ser vazia.")
+            .build();
+
     private final InstituicaoRepository instituicaoRepository;
-    private final InstituicaoBrasileiraRepository instituicaoBrasileiraRepository;
-    private final InstituicaoEstrangeiraRepository instituicaoEstrangeiraRepository;
+    private final VersaoColecaoRepository versaoColecaoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConsultaParalela consultaParalela;
+    private final CatalogoSnapshotService catalogoSnapshotService;
+    private final TransactionTemplate leitura;
+    private final int limitePadrao;
+    private final int limiteMaximo;
+    private final int tamanhoBlocoLote;
+    private final int limitePadraoAlteracoes;
+    private final int limiteMaximoAlteracoes;
+    private final Duration atrasoAlteracoes;
 
     /**
      * Construtor para injeção das dependências necessárias.
      *
      * @param instituicaoRepository Repositório para operações de CRUD de Instituicao.
-     * @param instituicaoBrasileiraRepository Repositório para operações de CRUD de InstituicaoBrasileira.
-     * @param instituicaoEstrangeiraRepository Repositório para operações de CRUD de InstituicaoEstrangeira.
+     * @param versaoColecaoRepository Repositório da versão da coleção, usada nos ETags das listagens.
+     * @param eventPublisher Publicador dos eventos de alteração de instituições.
+     * @param consultaParalela Executor das consultas por subtipo quando as threads virtuais estão habilitadas.
+     * @param catalogoSnapshotService Snapshot do catálogo em memória, usado nas consultas quando habilitado.
+     * @param transactionManager Gerenciador das transações somente leitura das consultas que vão ao banco.
+     * @param limitePadrao Quantidade de itens por página quando o cliente não informa um limite.
+     * @param limiteMaximo Quantidade máxima de itens por página aceita pela listagem paginada.
+     * @param tamanhoBlocoLote Quantidade de IDs por comando nas alterações de status em lote.
+     * @param limitePadraoAlteracoes Quantidade de itens da consulta de alterações quando o cliente não informa um limite.
+     * @param limiteMaximoAlteracoes Quantidade máxima de itens aceita pela consulta de alterações.
+     * @param atrasoAlteracoes Margem, em relação ao relógio do banco, das alterações ainda não entregues pela consulta
+     *                         de alterações; deve cobrir a duração das transações de escrita.
      */
     @Autowired
     public InstituicaoService(InstituicaoRepository instituicaoRepository,
-                              InstituicaoBrasileiraRepository instituicaoBrasileiraRepository,
-                              InstituicaoEstrangeiraRepository instituicaoEstrangeiraRepository) {
+                              VersaoColecaoRepository versaoColecaoRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              ConsultaParalela consultaParalela,
+                              CatalogoSnapshotService catalogoSnapshotService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${instituicao.paginacao.limite-padrao:50}") int limitePadrao,
+                              @Value("${instituicao.paginacao.limite-maximo:500}") int limiteMaximo,
+                              @Value("${instituicao.status-lote.tamanho-bloco:1000}") int tamanhoBlocoLote,
+                              @Value("${instituicao.alteracoes.limite-padrao:500}") int limitePadraoAlteracoes,
+                              @Value("${instituicao.alteracoes.limite-maximo:5000}") int limiteMaximoAlteracoes,
+                              @Value("${instituicao.alteracoes.atraso:5s}") Duration atrasoAlteracoes) {
         this.instituicaoRepository = instituicaoRepository;
-        this.instituicaoBrasileiraRepository = instituicaoBrasileiraRepository;
-        this.instituicaoEstrangeiraRepository = instituicaoEstrangeiraRepository;
+        this.versaoColecaoRepository = versaoColecaoRepository;
+        this.eventPublisher = eventPublisher;
+        this.consultaParalela = consultaParalela;
+        this.catalogoSnapshotService = catalogoSnapshotService;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.limitePadrao = limitePadrao;
+        this.limiteMaximo = limiteMaximo;
+        this.tamanhoBlocoLote = tamanhoBlocoLote;
+        this.limitePadraoAlteracoes = limitePadraoAlteracoes;
+        this.limiteMaximoAlteracoes = limiteMaximoAlteracoes;
+        this.atrasoAlteracoes = atrasoAlteracoes;
     }
 
     /**
      * Retorna uma lista de todas as instituições detalhadas, incluindo tanto brasileiras quanto estrangeiras.
+     * Executa uma única consulta de projeção, sem carregar as entidades, ou lê o snapshot em memória, se habilitado.
+     * As consultas que vão ao banco abrem a transação somente leitura só nesse caso, para que as respostas do
+     * snapshot não usem conexão.
      *
      * @return Lista de InstituicaoDetalhada.
      */
     public List<InstituicaoDetalhada> getAllInstituicoes() {
-        List<InstituicaoDetalhada> todasInstituicoesDetalhadas = new ArrayList<>();
+        CatalogoColunar catalogo = catalogoSnapshotService.atual();
+        if (catalogo != null) {
+            return catalogo.listar(null, 0L, null);
+        }
+        return leitura.execute(status -> instituicaoRepository.findAllDetalhadas());
+    }
 
-        List<InstituicaoEstrangeira> instituicoesEstrangeiras = instituicaoEstrangeiraRepository.findAll();
-        instituicoesEstrangeiras.forEach(ie -> todasInstituicoesDetalhadas.add(mapToInstituicaoDetalhada(ie)));
+    /**
+     * Retorna todas as instituições detalhadas que atendem aos filtros informados.
+     * Os filtros são aplicados no banco de dados, ou no snapshot em memória, se habilitado; sem filtros, equivale a
+     * getAllInstituicoes().
+     * Com threads virtuais habilitadas, brasileiras e estrangeiras são consultadas ao mesmo tempo, cada uma na sua
+     * transação; por isso este método não abre transação própria, que prenderia uma conexão durante a espera.
+     *
+     * @param filtro Filtros de status, país, estado e município.
+     * @return Lista de InstituicaoDetalhada ordenada por ID.
+     */
+    public List<InstituicaoDetalhada> getAllInstituicoes(FiltroInstituicao filtro) {
+        FiltroInstituicao criterios = filtro == null ? new FiltroInstituicao() : filtro;
+        CatalogoColunar catalogo = catalogoSnapshotService.atual();
+        if (catalogo != null) {
+            return catalogo.listar(criterios, 0L, null);
+        }
+        List<Callable<List<InstituicaoDetalhada>>> consultas = consultaParalela.isHabilitada()
+                ? List.of(() -> instituicaoRepository.findBrasileirasByFiltro(criterios, 0L, null),
+                          () -> instituicaoRepository.findEstrangeirasByFiltro(criterios, 0L, null))
+                : List.of(() -> criterios.isVazio()
+                          ? instituicaoRepository.findAllDetalhadas()
+                          : instituicaoRepository.findDetalhadasByFiltro(criterios, 0L, null));
 
-        List<InstituicaoBrasileira> instituicoesBrasileiras = instituicaoBrasileiraRepository.findAll();
-        instituicoesBrasileiras.forEach(ib -> todasInstituicoesDetalhadas.add(mapToInstituicaoDetalhada(ib)));
+        List<List<InstituicaoDetalhada>> partes = consultaParalela.executar(consultas);
+        if (partes.size() == 1) {
+            return partes.get(0);
+        }
+        List<InstituicaoDetalhada> instituicoes = new ArrayList<>();
+        partes.forEach(instituicoes::addAll);
+        instituicoes.sort(Comparator.comparing(InstituicaoDetalhada::getId));
+        return instituicoes;
+    }
 
-        return todasInstituicoesDetalhadas;
+    /**
+     * Retorna uma página de instituições detalhadas usando paginação por cursor (keyset) sobre o ID da instituição.
+     * A ordenação é estável entre brasileiras e estrangeiras, pois ambas compartilham o ID da tabela 'instituicao'.
+     *
+     * @param cursor Cursor opaco retornado pela página anterior, ou nulo para a primeira página.
+     * @param limite Quantidade de itens desejada; limitada ao máximo configurado.
+     * @return PaginaInstituicoes com os itens e o cursor da próxima página.
+     */
+    public PaginaInstituicoes getPaginaInstituicoes(String cursor, Integer limite) {
+        return getPaginaInstituicoes(cursor, limite, null);
     }
 
     /**
-     * Busca uma instituição pelo ID, retornando uma InstituicaoDetalhada.
-     * Pode buscar tanto em InstituicaoBrasileira quanto em InstituicaoEstrangeira.
+     * Retorna uma página de instituições detalhadas que atendem aos filtros informados.
+     * O cursor continua sendo o último ID, então a paginação se mantém estável com os filtros aplicados.
      *
-     * @param id ID da instituição a ser buscada.
-     * @return Optional contendo a InstituicaoDetalhada se encontrada, ou vazio se não encontrada.
+     * @param cursor Cursor opaco retornado pela página anterior, ou nulo para a primeira página.
+     * @param limite Quantidade de itens desejada; limitada ao máximo configurado.
+     * @param filtro Filtros de status, país, estado e município, ou nulo para nenhum.
+     * @return PaginaInstituicoes com os itens e o cursor da próxima página.
      */
-    public Optional<InstituicaoDetalhada> findInstituicaoById(Long id) {
-        // Tenta encontrar a instituição pela ID na tabela 'instituicao'
-        Optional<Instituicao> instituicaoOptional = instituicaoRepository.findById(id);
+    public PaginaInstituicoes getPaginaInstituicoes(String cursor, Integer limite, FiltroInstituicao filtro) {
+        int tamanho = resolveLimite(limite);
+        Long ultimoId = decodeCursor(cursor);
 
-        if (instituicaoOptional.isPresent()) {
-            Instituicao instituicao = instituicaoOptional.get();
+        // Busca um item a mais para saber se existe próxima página sem precisar de COUNT
+        CatalogoColunar catalogo = catalogoSnapshotService.atual();
+        List<InstituicaoDetalhada> itens = catalogo != null
+                ? catalogo.listar(filtro, ultimoId, tamanho + 1)
+                : leitura.execute(status -> filtro == null || filtro.isVazio()
+                        ? instituicaoRepository.findDetalhadasAfter(ultimoId, PageRequest.of(0, tamanho + 1))
+                        : instituicaoRepository.findDetalhadasByFiltro(filtro, ultimoId, tamanho + 1));
+        boolean temProxima = itens.size() > tamanho;
+        if (temProxima) {
+            itens = itens.subList(0, tamanho);
+        }
 
-            // Tenta encontrar a instituição correspondente na tabela de InstituicaoBrasileira
-            Optional<InstituicaoBrasileira> instituicaoBrasileiraOptional = instituicaoBrasileiraRepository.findByInstituicao(instituicao);
-            if (instituicaoBrasileiraOptional.isPresent()) {
-                return Optional.of(mapToInstituicaoDetalhada(instituicaoBrasileiraOptional.get()));
-            }
+        String proximo = temProxima ? encodeCursor(itens.get(itens.size() - 1).getId()) : null;
+        return new PaginaInstituicoes(itens, proximo);
+    }
 
-            // Tenta encontrar a instituição correspondente na tabela de InstituicaoEstrangeira
-            Optional<InstituicaoEstrangeira> instituicaoEstrangeiraOptional = instituicaoEstrangeiraRepository.findByInstituicao(instituicao);
-            if (instituicaoEstrangeiraOptional.isPresent()) {
-                return Optional.of(mapToInstituicaoDetalhada(instituicaoEstrangeiraOptional.get()));
-            }
+    /**
+     * Retorna as instituições alteradas (cadastradas, atualizadas, inativadas ou reativadas) depois da marca informada,
+     * para sincronizações incrementais sem baixar o catálogo inteiro. A marca é a data da última alteração entregue
+     * (atualizada_em, preenchida pelo banco em todo INSERT e UPDATE) com o ID como desempate, então alterações no
+     * mesmo instante não se perdem entre duas consultas.
+     * As alterações dos últimos instantes (instituicao.alteracoes.atraso) ficam para a consulta seguinte: uma transação
+     * ainda aberta pode confirmar depois uma data anterior à de linhas já entregues.
+     * Roda no primário, e não na réplica, para que a marca não volte no tempo com o atraso de replicação.
+     *
+     * @param since Marca retornada pela consulta anterior, uma data e hora ISO (hora do banco), ou nulo para todas.
+     * @param limite Quantidade máxima de itens; limitada ao máximo configurado.
+     * @return AlteracoesInstituicoes com os itens em ordem de alteração e a nova marca.
+     * @throws RequisicaoInvalidaException Se a marca ou o limite forem inválidos.
+     */
+    @Transactional
+    public AlteracoesInstituicoes getAlteracoes(String since, Integer limite) {
+        int tamanho = resolveLimite(limite, limitePadraoAlteracoes, limiteMaximoAlteracoes);
+        Marca desde = decodeMarca(since);
+        LocalDateTime ate = instituicaoRepository.findAgora().minus(atrasoAlteracoes);
+
+        List<InstituicaoDetalhada> itens = instituicaoRepository.findDetalhadasAlteradas(desde.atualizadaEm(),
+                desde.id(), ate, PageRequest.of(0, tamanho + 1));
+        boolean mais = itens.size() > tamanho;
+        if (mais) {
+            itens = itens.subList(0, tamanho);
         }
 
-        // Caso não encontre a instituição, retorna um Optional vazio
-        return Optional.empty();
+        Marca marca = itens.isEmpty() ? desde
+                : new Marca(itens.get(itens.size() - 1).getAtualizadaEm(), itens.get(itens.size() - 1).getId());
+        return new AlteracoesInstituicoes(itens, encodeMarca(marca), mais);
     }
 
+    /**
+     * Retorna a versão da coleção de instituições, usada como ETag das listagens sem precisar montar nem serializar
+     * a lista. É uma leitura pela chave primária do contador de alterações, barata mesmo a cada página.
+     *
+     * @return VersaoColecao com o contador de alterações da coleção.
+     */
+    public VersaoColecao getVersaoColecao() {
+        VersaoColecao versao = catalogoSnapshotService.versao();
+        if (versao != null) {
+            return versao;
+        }
+        return leitura.execute(status -> versaoColecaoRepository.find());
+    }
+
+    /**
+     * Busca uma instituição pelo ID, retornando uma InstituicaoDetalhada.
+     * Pode ser tanto uma InstituicaoBrasileira quanto uma InstituicaoEstrangeira.
+     * O resultado fica em cache; IDs inexistentes não são guardados, para que um cadastro novo apareça imediatamente.
+     * Com sync, o cache recebe a leitura e descarta o resultado se a chave foi invalidada enquanto ela acontecia.
+     *
+     * @param id ID da instituição a ser buscada.
+     * @return Optional contendo a InstituicaoDetalhada se encontrada, ou vazio se não encontrada.
+     */
+    @Cacheable(cacheNames = CacheConfig.INSTITUICOES, key = "#id", sync = true)
+    public Optional<InstituicaoDetalhada> findInstituicaoById(Long id) {
+        CatalogoColunar catalogo = catalogoSnapshotService.atual();
+        if (catalogo != null) {
+            return catalogo.buscar(id);
+        }
+        // Uma única consulta pela chave primária; o subtipo vem do LEFT JOIN com as tabelas de subtipo
+        return leitura.execute(status -> instituicaoRepository.findDetalhadaById(id));
+    }
 
     /**
      * Inativa uma instituição, alterando seu status para false.
      *
      * @param id ID da instituição a ser inativada.
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.INSTITUICOES, key = "#id")
     public void inativarInstituicao(Long id) {
         Optional<Instituicao> optionalInstituicao = instituicaoRepository.findById(id);
         if (optionalInstituicao.isPresent()) {
             Instituicao instituicao = optionalInstituicao.get();
             instituicao.setStatus(false);
             instituicaoRepository.save(instituicao);
+            eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(instituicao, TipoAlteracao.INATIVADA));
         } else {
             throw new EntityNotFoundException("Instituição não encontrada.");
         }
@@ -113,100 +299,193 @@ public class InstituicaoService {
      *
      * @param id ID da instituição a ser reativada.
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.INSTITUICOES, key = "#id")
     public void reativarInstituicao(Long id) {
         Optional<Instituicao> optionalInstituicao = instituicaoRepository.findById(id);
         if (optionalInstituicao.isPresent()) {
             Instituicao instituicao = optionalInstituicao.get();
             instituicao.setStatus(true);
             instituicaoRepository.save(instituicao);
+            eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(instituicao, TipoAlteracao.REATIVADA));
         } else {
             throw new EntityNotFoundException("Instituição não encontrada.");
         }
     }
 
     /**
-     * Valida o nome da instituição, garantindo que não seja vazio e tenha no máximo 32 caracteres.
+     * Altera o status de várias instituições em uma única transação, selecionadas por ID ou por filtro.
+     * Nenhuma entidade é carregada: para cada bloco de IDs, uma projeção identifica os registros existentes e
+     * um único UPDATE altera somente os que mudam de status, incrementando a versão deles.
+     * Um evento é publicado por instituição alterada. O cache por ID é esvaziado após o commit, já que
+     * não há como invalidar uma lista de chaves pela anotação.
      *
-     * @param nome Nome da instituição a ser validado.
+     * @param ids IDs das instituições; nulo quando a seleção é por filtro.
+     * @param filtro Filtro das instituições; nulo quando a seleção é por ID.
+     * @param status Novo status das instituições.
+     * @return Quantidades de instituições alteradas, inalteradas e não encontradas.
      */
-    public void validateNome(String nome) {
-        if (!StringUtils.hasText(nome) || nome.length() > 32) {
-            throw new IllegalArgumentException("O nome deve ter no máximo 32 caracteres e não pode ser vazio.");
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.INSTITUICOES, allEntries = true)
+    public ResultadoAlteracaoStatus alterarStatusEmLote(Collection<Long> ids, FiltroInstituicao filtro, Boolean status) {
+        if (status == null) {
+            throw new RequisicaoInvalidaException("O status deve ser informado.");
+        }
+        if ((ids == null) == (filtro == null)) {
+            throw new RequisicaoInvalidaException("Informe os IDs ou o filtro das instituições, mas não ambos.");
+        }
+        if (filtro != null && filtro.isVazio()) {
+            throw new RequisicaoInvalidaException("O filtro deve ter ao menos um critério.");
+        }
+
+        ResultadoAlteracaoStatus resultado = new ResultadoAlteracaoStatus();
+        TipoAlteracao alteracao = status ? TipoAlteracao.REATIVADA : TipoAlteracao.INATIVADA;
+        if (filtro != null) {
+            alterarStatus(instituicaoRepository.findResumosByFiltro(filtro), status, alteracao, resultado);
+            return resultado;
         }
+
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        for (int inicio = 0; inicio < distintos.size(); inicio += tamanhoBlocoLote) {
+            List<Long> bloco = distintos.subList(inicio, Math.min(inicio + tamanhoBlocoLote, distintos.size()));
+            List<ResumoInstituicao> encontradas = instituicaoRepository.findResumosByIdIn(bloco);
+
+            Set<Long> idsEncontrados = new HashSet<>();
+            encontradas.forEach(resumo -> idsEncontrados.add(resumo.getId()));
+            for (Long id : bloco) {
+                if (!idsEncontrados.contains(id)) {
+                    resultado.getIdsNaoEncontrados().add(id);
+                }
+            }
+            alterarStatus(encontradas, status, alteracao, resultado);
+        }
+        resultado.setNaoEncontradas(resultado.getIdsNaoEncontrados().size());
+        return resultado;
     }
 
     /**
-     * Valida a sigla da instituição, garantindo que não seja vazia e tenha no máximo 8 caracteres.
-     *
-     * @param sigla Sigla da instituição a ser validada.
+     * Altera, em blocos, o status das instituições que ainda não o têm e publica os eventos correspondentes.
      */
-    public void validateSigla(String sigla) {
-        if (!StringUtils.hasText(sigla) || sigla.length() > 8) {
-            throw new IllegalArgumentException("A sigla deve ter no máximo 8 caracteres e não pode ser vazia.");
+    private void alterarStatus(List<ResumoInstituicao> instituicoes, boolean status, TipoAlteracao alteracao,
+                               ResultadoAlteracaoStatus resultado) {
+        List<ResumoInstituicao> alterar = instituicoes.stream().filter(resumo -> resumo.getStatus() != status).toList();
+        resultado.setInalteradas(resultado.getInalteradas() + instituicoes.size() - alterar.size());
+
+        for (int inicio = 0; inicio < alterar.size(); inicio += tamanhoBlocoLote) {
+            List<ResumoInstituicao> bloco = alterar.subList(inicio, Math.min(inicio + tamanhoBlocoLote, alterar.size()));
+            int afetadas = instituicaoRepository.updateStatusByIdIn(bloco.stream().map(ResumoInstituicao::getId).toList(), status);
+            resultado.setAfetadas(resultado.getAfetadas() + afetadas);
+        }
+        for (ResumoInstituicao resumo : alterar) {
+            resumo.setStatus(status);
+            eventPublisher.publishEvent(InstituicaoAlteradaEvent.of(resumo, alteracao));
         }
     }
 
     /**
-     * Mapeia campos comuns entre InstituicaoBrasileira e InstituicaoEstrangeira para InstituicaoDetalhada.
+     * Valida os dados comuns a toda instituição (nome e sigla), devolvendo todas as violações encontradas.
+     *
+     * @param instituicao Instituição a ser validada.
+     * @return Lista de violações; vazia se a instituição for válida.
+     */
+    public List<ErroCampo> validarInstituicao(Instituicao instituicao) {
+        return VALIDADOR.validar(instituicao);
+    }
+
+    /**
+     * Resolve o tamanho da página, aplicando o padrão quando ausente e o máximo configurado.
      *
-     * @param instituicaoDetalhada Objeto onde os campos serão mapeados.
-     * @param instituicao Objeto Instituicao com os dados a serem mapeados.
-     * @param pais País da instituição.
-     * @param cep CEP da instituição.
-     * @param logradouro Logradouro da instituição.
-     * @param estado Estado ou região da instituição.
-     * @param municipio Município da instituição.
-     * @param complemento Complemento do endereço da instituição.
+     * @param limite Limite informado pelo cliente.
+     * @return Tamanho efetivo da página.
      */
-    private void mapCommonFields(InstituicaoDetalhada instituicaoDetalhada,
-                                 Instituicao instituicao, String pais, String cep,
-                                 String logradouro, String estado,
-                                 String municipio, String complemento) {
-        instituicaoDetalhada.setId(instituicao.getId());
-        instituicaoDetalhada.setNome(instituicao.getNome());
-        instituicaoDetalhada.setSigla(instituicao.getSigla());
-        instituicaoDetalhada.setStatus(instituicao.getStatus());
-        instituicaoDetalhada.setPais(pais);
-        instituicaoDetalhada.setCep(cep);
-        instituicaoDetalhada.setLogradouro(logradouro);
-        instituicaoDetalhada.setEstado(estado);
-        instituicaoDetalhada.setMunicipio(municipio);
-        instituicaoDetalhada.setComplemento(complemento);
+    private int resolveLimite(Integer limite) {
+        return resolveLimite(limite, limitePadrao, limiteMaximo);
+    }
 
+    private static int resolveLimite(Integer limite, int padrao, int maximo) {
+        if (limite == null) {
+            return padrao;
+        }
+        if (limite < 1) {
+            throw new RequisicaoInvalidaException("O limite deve ser maior que zero.");
+        }
+        return Math.min(limite, maximo);
     }
 
     /**
-     * Mapeia uma InstituicaoEstrangeira para uma InstituicaoDetalhada.
+     * Codifica o último ID de uma página em um cursor opaco.
      *
-     * @param instituicaoEstrangeira Instituição estrangeira a ser mapeada.
-     * @return Objeto InstituicaoDetalhada com os dados mapeados.
+     * @param ultimoId ID da última instituição da página.
+     * @return Cursor codificado em Base64 (URL safe).
      */
-    private InstituicaoDetalhada mapToInstituicaoDetalhada(InstituicaoEstrangeira instituicaoEstrangeira) {
-        InstituicaoDetalhada instituicaoDetalhada = new InstituicaoDetalhada();
-        mapCommonFields(instituicaoDetalhada, instituicaoEstrangeira.getInstituicao(),
-                instituicaoEstrangeira.getPais(), instituicaoEstrangeira.getCep(),
-                instituicaoEstrangeira.getLogradouro(), instituicaoEstrangeira.getEstadoRegiao(),
-                instituicaoEstrangeira.getMunicipio(), instituicaoEstrangeira.getComplemento());
+    private String encodeCursor(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(ultimoId.toString().getBytes(StandardCharsets.UTF_8));
+    }
 
-        return instituicaoDetalhada;
+    /**
+     * Decodifica um cursor opaco, retornando o último ID já entregue ao cliente.
+     *
+     * @param cursor Cursor recebido do cliente.
+     * @return ID a partir do qual a próxima página começa (exclusivo).
+     */
+    private Long decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return 0L;
+        }
+        try {
+            long ultimoId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (ultimoId < 0) {
+                throw new RequisicaoInvalidaException("Cursor inválido.");
+            }
+            return ultimoId;
+        } catch (IllegalArgumentException e) {
+            throw new RequisicaoInvalidaException("Cursor inválido.");
+        }
     }
 
     /**
-     * Mapeia uma InstituicaoBrasileira para uma InstituicaoDetalhada.
+     * Codifica a posição da última alteração entregue em uma marca opaca.
+     */
+    private String encodeMarca(Marca marca) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((marca.atualizadaEm() + "," + marca.id()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica uma marca opaca ou uma data e hora ISO (equivalente à marca dessa data com ID zero).
      *
-     * @param instituicaoBrasileira Instituição brasileira a ser mapeada.
-     * @return Objeto InstituicaoDetalhada com os dados mapeados.
+     * @param since Marca recebida do cliente.
+     * @return Posição a partir da qual as alterações são entregues (exclusiva).
      */
-    private InstituicaoDetalhada mapToInstituicaoDetalhada(InstituicaoBrasileira instituicaoBrasileira) {
-        InstituicaoDetalhada instituicaoDetalhada = new InstituicaoDetalhada();
-        mapCommonFields(instituicaoDetalhada, instituicaoBrasileira.getInstituicao(),
-                instituicaoBrasileira.getPais(), instituicaoBrasileira.getCep(),
-                instituicaoBrasileira.getLogradouro(), instituicaoBrasileira.getEstado(),
-                instituicaoBrasileira.getMunicipio(), instituicaoBrasileira.getComplemento());
-        instituicaoDetalhada.setBairro(instituicaoBrasileira.getBairro());
-        instituicaoDetalhada.setNumero(instituicaoBrasileira.getNumero());
-        instituicaoDetalhada.setCnpj(instituicaoBrasileira.getCnpj());
+    private Marca decodeMarca(String since) {
+        if (!StringUtils.hasText(since)) {
+            return Marca.INICIO;
+        }
+        try {
+            return new Marca(LocalDateTime.parse(since), 0L);
+        } catch (DateTimeParseException e) {
+            // Não é uma data: marca opaca
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(since), StandardCharsets.UTF_8).split(",");
+            if (partes.length != 2) {
+                throw new RequisicaoInvalidaException("Marca inválida.");
+            }
+            long id = Long.parseLong(partes[1]);
+            if (id < 0) {
+                throw new RequisicaoInvalidaException("Marca inválida.");
+            }
+            return new Marca(LocalDateTime.parse(partes[0]), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RequisicaoInvalidaException("Marca inválida.");
+        }
+    }
 
-        return instituicaoDetalhada;
+    /**
+     * Posição de uma alteração na ordem (atualizada_em, id).
+     */
+    private record Marca(LocalDateTime atualizadaEm, Long id) {
+        static final Marca INICIO = new Marca(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
     }
 }
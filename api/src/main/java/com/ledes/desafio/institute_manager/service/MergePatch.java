@@ -0,0 +1,160 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import com.ledes.desafio.institute_manager.validation.Validador;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch (RFC 7396) de uma instituição, separado em campos de 'instituicao' e campos do subtipo.
+ * Campos ausentes não mudam; null remove o valor. Só os campos presentes são validados e atualizados.
+ */
+final class MergePatch {
+
+    static final String INSTITUICAO = "instituicao";
+    static final String PAIS = "pais";
+
+    private static final Set<String> CAMPOS_INSTITUICAO = Set.of("nome", "sigla");
+
+    private final Map<String, Object> camposInstituicao = new LinkedHashMap<>();
+    private final Map<String, Object> camposSubtipo = new LinkedHashMap<>();
+    private final Set<String> caminhos = new HashSet<>();
+    private final List<ErroCampo> erros = new ArrayList<>();
+    private boolean comPais;
+    private String pais;
+
+    private MergePatch() {
+    }
+
+    /**
+     * Lê o patch, conferindo cada campo contra os campos atualizáveis do subtipo.
+     * Campos desconhecidos ou somente leitura (id, status, tipo, versao) e valores que não são texto viram erros.
+     *
+     * @param patch Corpo da requisição.
+     * @param camposSubtipo Campos atualizáveis do subtipo, além de pais.
+     * @param anulaveis Campos do subtipo que aceitam null.
+     * @return MergePatch com os campos separados e os erros de leitura.
+     */
+    static MergePatch de(JsonNode patch, Set<String> camposSubtipo, Set<String> anulaveis) {
+        if (patch == null || !patch.isObject()) {
+            throw new RequisicaoInvalidaException("O corpo deve ser um objeto JSON (JSON Merge Patch).");
+        }
+
+        MergePatch mergePatch = new MergePatch();
+        patch.fields().forEachRemaining(campo -> {
+            String nome = campo.getKey();
+            JsonNode valor = campo.getValue();
+            if (INSTITUICAO.equals(nome)) {
+                mergePatch.lerInstituicao(valor);
+            } else if (PAIS.equals(nome)) {
+                mergePatch.comPais = true;
+                mergePatch.pais = mergePatch.texto(nome, valor, false);
+            } else if (camposSubtipo.contains(nome)) {
+                mergePatch.caminhos.add(nome);
+                mergePatch.camposSubtipo.put(nome, mergePatch.texto(nome, valor, anulaveis.contains(nome)));
+            } else {
+                mergePatch.erros.add(new ErroCampo(nome, "O campo não existe ou não pode ser alterado."));
+            }
+        });
+        return mergePatch;
+    }
+
+    private void lerInstituicao(JsonNode valor) {
+        if (!valor.isObject()) {
+            // null ou outro valor removeria a instituição, o que nunca é válido
+            caminhos.add(INSTITUICAO);
+            erros.add(new ErroCampo(INSTITUICAO, "Os dados da instituição são obrigatórios."));
+            return;
+        }
+        valor.fields().forEachRemaining(campo -> {
+            String caminho = INSTITUICAO + "." + campo.getKey();
+            if (CAMPOS_INSTITUICAO.contains(campo.getKey())) {
+                caminhos.add(caminho);
+                camposInstituicao.put(campo.getKey(), texto(caminho, campo.getValue(), false));
+            } else {
+                erros.add(new ErroCampo(caminho, "O campo não existe ou não pode ser alterado."));
+            }
+        });
+    }
+
+    private String texto(String caminho, JsonNode valor, boolean anulavel) {
+        if (valor.isNull()) {
+            if (!anulavel) {
+                erros.add(new ErroCampo(caminho, "O campo é obrigatório e não pode ser removido."));
+            }
+            return null;
+        }
+        if (!valor.isTextual()) {
+            erros.add(new ErroCampo(caminho, "O campo deve ser um texto."));
+            return null;
+        }
+        return valor.textValue();
+    }
+
+    /**
+     * Valida somente os campos presentes no patch: aplica-os sobre um objeto vazio, avalia as regras do subtipo e
+     * descarta as violações de campos ausentes. Um mesmo campo não é reportado duas vezes.
+     *
+     * @param alvo Objeto vazio do subtipo, com a instituição já criada.
+     * @param validador Regras de campo do subtipo.
+     * @return Erros de leitura seguidos das violações dos campos presentes.
+     */
+    <T> List<ErroCampo> validar(T alvo, Validador<T> validador) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(alvo);
+        camposSubtipo.forEach(wrapper::setPropertyValue);
+        camposInstituicao.forEach((campo, valor) -> wrapper.setPropertyValue(INSTITUICAO + "." + campo, valor));
+
+        List<ErroCampo> resultado = new ArrayList<>(erros);
+        Set<String> reportados = new HashSet<>();
+        erros.forEach(erro -> reportados.add(erro.getCampo()));
+        for (ErroCampo erro : validador.validar(alvo)) {
+            if (caminhos.contains(erro.getCampo()) && reportados.add(erro.getCampo())) {
+                resultado.add(erro);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Registra uma violação de regra própria do subtipo, como a do país; deve ser chamado antes de validar.
+     */
+    void rejeitar(String campo, String mensagem) {
+        erros.add(new ErroCampo(campo, mensagem));
+    }
+
+    /**
+     * Inclui o país entre os campos do subtipo, para que seja validado e atualizado como os demais.
+     */
+    void incluirPais() {
+        caminhos.add(PAIS);
+        camposSubtipo.put(PAIS, pais);
+    }
+
+    Map<String, Object> getCamposInstituicao() {
+        return camposInstituicao;
+    }
+
+    Map<String, Object> getCamposSubtipo() {
+        return camposSubtipo;
+    }
+
+    /**
+     * Indica se o patch traz o país.
+     */
+    boolean isComPais() {
+        return comPais;
+    }
+
+    String getPais() {
+        return pais;
+    }
+}
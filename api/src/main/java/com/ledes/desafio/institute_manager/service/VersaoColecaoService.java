@@ -0,0 +1,60 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.repository.VersaoColecaoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Mantém a versão da coleção usada nos ETags das listagens: cada transação que cadastra ou altera instituições
+ * incrementa o contador uma vez, logo antes do commit, de modo que a linha do contador fica bloqueada só durante
+ * o commit, e a nova versão fica visível junto com as alterações.
+ */
+@Service
+public class VersaoColecaoService {
+
+    private final VersaoColecaoRepository versaoColecaoRepository;
+
+    /**
+     * Construtor para injeção das dependências necessárias.
+     *
+     * @param versaoColecaoRepository Repositório do contador.
+     */
+    @Autowired
+    public VersaoColecaoService(VersaoColecaoRepository versaoColecaoRepository) {
+        this.versaoColecaoRepository = versaoColecaoRepository;
+    }
+
+    /**
+     * Registra o incremento na transação corrente, uma vez por transação; sem transação, incrementa na hora.
+     *
+     * @param evento Evento da instituição alterada.
+     */
+    @EventListener
+    public void onInstituicaoAlterada(InstituicaoAlteradaEvent evento) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Fora de transação o incremento usa uma conexão própria e não acompanha o commit da alteração.
+            // Por isso os serviços que publicam o evento são transacionais
+            versaoColecaoRepository.incrementar();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                versaoColecaoRepository.incrementar();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(VersaoColecaoService.this);
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.ledes.desafio.institute_manager.validation;
+
+/**
+ * Lançada quando a requisição não pode ser atendida como foi enviada: um parâmetro, cabeçalho ou corpo malformado,
+ * como um cursor que não foi emitido pela API ou um If-Match que não é um ETag desta API.
+ * A mensagem é escrita para o cliente e volta no corpo da resposta 400; as demais exceções não expõem a mensagem.
+ */
+public class RequisicaoInvalidaException extends RuntimeException {
+
+    public RequisicaoInvalidaException(String mensagem) {
+        super(mensagem, null, false, false);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ledes.desafio.institute_manager.validation;
+
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Lançada pelos serviços quando recebem dados que não passaram na validação.
+ * Os controladores validam antes de chamar o serviço, então no fluxo HTTP ela só aparece para chamadores que
+ * não validaram antes. Não preenche a pilha de chamadas, pois carrega erros de entrada e não falhas do programa.
+ */
+@Getter
+public class ValidacaoException extends RuntimeException {
+
+    private final List<ErroCampo> erros;
+
+    public ValidacaoException(List<ErroCampo> erros) {
+        super("Dados inválidos.", null, false, false);
+        this.erros = erros;
+    }
+}
@@ -0,0 +1,140 @@
+package com.ledes.desafio.institute_manager.validation;
+
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Conjunto imutável de regras de validação de um tipo, montado uma única vez e reutilizado em todas as requisições.
+ * Todas as regras são avaliadas e as violações são devolvidas juntas, sem lançar exceções.
+ *
+ * @param <T> Tipo validado.
+ */
+public final class Validador<T> {
+
+    private final Regra<T>[] regras;
+
+    private Validador(List<Regra<T>> regras) {
+        @SuppressWarnings("unchecked")
+        Regra<T>[] array = regras.toArray(new Regra[0]);
+        this.regras = array;
+    }
+
+    /**
+     * Inicia a montagem de um validador.
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Avalia todas as regras sobre o objeto.
+     *
+     * @param alvo Objeto a validar.
+     * @return Violações encontradas, na ordem das regras; lista vazia se o objeto for válido.
+     */
+    public List<ErroCampo> validar(T alvo) {
+        List<ErroCampo> erros = null;
+        for (Regra<T> regra : regras) {
+            erros = regra.avaliar(alvo, "", erros);
+        }
+        return erros == null ? List.of() : erros;
+    }
+
+    private List<ErroCampo> validar(T alvo, String prefixo, List<ErroCampo> erros) {
+        for (Regra<T> regra : regras) {
+            erros = regra.avaliar(alvo, prefixo, erros);
+        }
+        return erros;
+    }
+
+    private static List<ErroCampo> adicionar(List<ErroCampo> erros, String campo, String mensagem) {
+        List<ErroCampo> lista = erros == null ? new ArrayList<>(4) : erros;
+        lista.add(new ErroCampo(campo, mensagem));
+        return lista;
+    }
+
+    /**
+     * Regra aplicada a um objeto; acrescenta as violações à lista (criada somente quando há a primeira violação).
+     */
+    @FunctionalInterface
+    private interface Regra<T> {
+        List<ErroCampo> avaliar(T alvo, String prefixo, List<ErroCampo> erros);
+    }
+
+    public static final class Builder<T> {
+
+        private final List<Regra<T>> regras = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Texto obrigatório (não vazio) com tamanho máximo.
+         */
+        public Builder<T> obrigatorio(String campo, Function<T, String> valor, int tamanhoMaximo, String mensagem) {
+            return regra(campo, alvo -> {
+                String texto = valor.apply(alvo);
+                return StringUtils.hasText(texto) && texto.length() <= tamanhoMaximo;
+            }, mensagem);
+        }
+
+        /**
+         * Texto opcional com tamanho máximo; nulo é aceito.
+         */
+        public Builder<T> opcional(String campo, Function<T, String> valor, int tamanhoMaximo, String mensagem) {
+            return regra(campo, alvo -> {
+                String texto = valor.apply(alvo);
+                return texto == null || texto.length() <= tamanhoMaximo;
+            }, mensagem);
+        }
+
+        /**
+         * Texto opcional que, quando informado, deve corresponder ao padrão.
+         */
+        public Builder<T> formato(String campo, Function<T, String> valor, Pattern padrao, String mensagem) {
+            return regra(campo, alvo -> {
+                String texto = valor.apply(alvo);
+                return texto == null || padrao.matcher(texto).matches();
+            }, mensagem);
+        }
+
+        /**
+         * Regra livre sobre o objeto.
+         */
+        public Builder<T> regra(String campo, Predicate<T> valido, String mensagem) {
+            regras.add((alvo, prefixo, erros) -> valido.test(alvo) ? erros : adicionar(erros, prefixo + campo, mensagem));
+            return this;
+        }
+
+        /**
+         * Valida um objeto aninhado com o validador dele, prefixando os campos; o objeto aninhado é obrigatório.
+         */
+        public <U> Builder<T> aninhado(String campo, Function<T, U> valor, Validador<U> validador, String mensagemAusente) {
+            regras.add((alvo, prefixo, erros) -> {
+                U aninhado = valor.apply(alvo);
+                return aninhado == null
+                        ? adicionar(erros, prefixo + campo, mensagemAusente)
+                        : validador.validar(aninhado, prefixo + campo + ".", erros);
+            });
+            return this;
+        }
+
+        /**
+         * Inclui todas as regras de outro validador do mesmo tipo.
+         */
+        public Builder<T> incluir(Validador<T> validador) {
+            regras.add(validador::validar);
+            return this;
+        }
+
+        public Validador<T> build() {
+            return new Validador<>(regras);
+        }
+    }
+}
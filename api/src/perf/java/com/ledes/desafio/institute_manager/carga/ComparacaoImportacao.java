@@ -0,0 +1,203 @@
+package com.ledes.desafio.institute_manager.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.InstituteManagerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compara a vazão da importação em lote (NDJSON e CSV) com a do cadastro individual pela API, gravando as mesmas
+ * instituições brasileiras, com a aplicação no perfil "perf" (H2 em memória). Cada modo é aquecido e medido algumas
+ * vezes; o resultado é a mediana.
+ * <p>
+ * Parâmetros chave=valor: linhas por execução (padrão 5000), clientes do cadastro individual concorrente (padrão 16),
+ * repeticoes medidas por modo (padrão 3), saida (padrão target/carga) e nome (padrão importacao).
+ * <p>
+ * Execução: mvn -Pperf verify -Dcarga.main=com.ledes.desafio.institute_manager.carga.ComparacaoImportacao -Dcarga.args="linhas=10000"
+ * <p>
+ * Resultado registrado (JDK 21, 1 CPU, linhas=5000, repeticoes=3, lote de 500):
+ * <pre>
+ * modo                         linhas  tempo (ms)   linhas/s
+ * individual (1 cliente)         5000       14821      337.3
+ * individual (16 clientes)       5000        6832      731.8
+ * importacao ndjson              5000         643     7767.7
+ * importacao csv                 5000         621     8049.4
+ * </pre>
+ * A importação NDJSON ficou 10.6x acima do cadastro individual com 16 clientes e 23x acima do sequencial. A
+ * diferença vem de uma transação e dois batches JDBC por lote, contra uma requisição HTTP, uma transação e os inserts
+ * com IDENTITY por instituição. No H2 em memória o commit é quase gratuito e cliente e servidor dividem a CPU, o que
+ * favorece o cadastro individual; no MySQL cada commit individual ainda paga a ida ao banco e o flush do log.
+ */
+public final class ComparacaoImportacao {
+
+    private static final DateTimeFormatter FORMATO_ARQUIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String CABECALHO_CSV = "nome,sigla,cnpj,cep,logradouro,bairro,estado,municipio,numero";
+
+    private final URI base;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long sequencia;
+
+    private ComparacaoImportacao(URI base) {
+        this.base = base;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            int separador = arg.indexOf('=');
+            if (separador < 1) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use chave=valor).");
+            }
+            valores.put(arg.substring(0, separador), arg.substring(separador + 1));
+        }
+        int linhas = Integer.parseInt(valores.getOrDefault("linhas", "5000"));
+        int clientes = Integer.parseInt(valores.getOrDefault("clientes", "16"));
+        int repeticoes = Integer.parseInt(valores.getOrDefault("repeticoes", "3"));
+        Path saida = Path.of(valores.getOrDefault("saida", "target/carga"));
+        String nome = valores.getOrDefault("nome", "importacao");
+
+        // O reinício do DevTools executaria o main de novo, sem os argumentos
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(InstituteManagerApplication.class)
+                .profiles("perf")
+                .run("--server.port=0", "--instituicao.perf.quantidade=1000")) {
+            int porta = ((ServletWebServerApplicationContext) contexto).getWebServer().getPort();
+            new ComparacaoImportacao(URI.create("http://localhost:" + porta)).executar(linhas, clientes, repeticoes, saida, nome);
+        }
+    }
+
+    private void executar(int linhas, int clientes, int repeticoes, Path saida, String nome) throws Exception {
+        StringBuilder tabela = new StringBuilder(String.format("%-26s %8s %11s %10s%n", "modo", "linhas", "tempo (ms)", "linhas/s"));
+        double sequencial = medir(tabela, "individual (1 cliente)", linhas, repeticoes, quantidade -> individual(quantidade, 1));
+        double concorrente = medir(tabela, "individual (" + clientes + " clientes)", linhas, repeticoes,
+                quantidade -> individual(quantidade, clientes));
+        double ndjson = medir(tabela, "importacao ndjson", linhas, repeticoes, quantidade -> importar(quantidade, false));
+        medir(tabela, "importacao csv", linhas, repeticoes, quantidade -> importar(quantidade, true));
+        tabela.append(String.format("ndjson/individual: %.1fx (%d clientes), %.1fx (1 cliente)%n",
+                ndjson / concorrente, clientes, ndjson / sequencial));
+
+        Files.createDirectories(saida);
+        Path resumo = saida.resolve(nome + "-" + LocalDateTime.now().format(FORMATO_ARQUIVO) + ".txt");
+        try (PrintStream arquivo = new PrintStream(Files.newOutputStream(resumo))) {
+            arquivo.print(tabela);
+        }
+        System.out.print(tabela);
+        System.out.println("Resultados em " + resumo.toAbsolutePath());
+    }
+
+    /**
+     * Aquece o modo com um quinto das linhas e o mede nas execuções seguintes; a vazão registrada é a mediana.
+     *
+     * @return Linhas gravadas por segundo.
+     */
+    private double medir(StringBuilder tabela, String modo, int linhas, int repeticoes, Modo execucao) throws Exception {
+        execucao.gravar(Math.max(1, linhas / 5));
+        long[] tempos = new long[repeticoes];
+        for (int i = 0; i < repeticoes; i++) {
+            long inicio = System.nanoTime();
+            execucao.gravar(linhas);
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        long mediana = tempos[repeticoes / 2];
+        double vazao = linhas / (mediana / 1e9);
+        tabela.append(String.format("%-26s %8d %11d %10.1f%n", modo, linhas, TimeUnit.NANOSECONDS.toMillis(mediana), vazao));
+        return vazao;
+    }
+
+    private void individual(int quantidade, int clientes) throws InterruptedException {
+        Semaphore vagas = new Semaphore(clientes);
+        LongAdder erros = new LongAdder();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < quantidade; i++) {
+                HttpRequest requisicao = HttpRequest.newBuilder(base.resolve("/api/instituicao/brasileira"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json(proximaSigla())))
+                        .build();
+                vagas.acquire();
+                executor.submit(() -> {
+                    try {
+                        if (http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode() != 201) {
+                            erros.increment();
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        erros.increment();
+                    } finally {
+                        vagas.release();
+                    }
+                });
+            }
+        }
+        if (erros.sum() > 0) {
+            throw new IllegalStateException(erros.sum() + " cadastros individuais falharam.");
+        }
+    }
+
+    private void importar(int quantidade, boolean csv) throws IOException, InterruptedException {
+        StringBuilder corpo = new StringBuilder(quantidade * 200);
+        if (csv) {
+            corpo.append(CABECALHO_CSV).append('\n');
+        }
+        for (int i = 0; i < quantidade; i++) {
+            String sigla = proximaSigla();
+            corpo.append(csv ? csv(sigla) : json(sigla)).append('\n');
+        }
+        HttpRequest requisicao = HttpRequest.newBuilder(base.resolve("/api/instituicao/brasileira/importacao"))
+                .header("Content-Type", csv ? "text/csv;charset=UTF-8" : "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo.toString()))
+                .build();
+        HttpResponse<String> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        JsonNode relatorio = objectMapper.readTree(resposta.body());
+        if (resposta.statusCode() != 200 || relatorio.get("importadas").asLong() != quantidade) {
+            throw new IllegalStateException("Importação incompleta: " + resposta.body());
+        }
+    }
+
+    private String proximaSigla() {
+        return "I" + Long.toString(sequencia++, 36);
+    }
+
+    private static String json(String sigla) {
+        return """
+                {"instituicao":{"nome":"Importada %s","sigla":"%s"},"pais":"Brasil","cnpj":"12345678000199","cep":"79070900",\
+                "logradouro":"Avenida Principal","bairro":"Centro","estado":"MS","municipio":"Campo Grande","numero":"1"}\
+                """.formatted(sigla, sigla);
+    }
+
+    private static String csv(String sigla) {
+        return "Importada " + sigla + "," + sigla + ",12345678000199,79070900,Avenida Principal,Centro,MS,Campo Grande,1";
+    }
+
+    /**
+     * Grava a quantidade informada de instituições por um dos caminhos comparados.
+     */
+    @FunctionalInterface
+    private interface Modo {
+        void gravar(int quantidade) throws Exception;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ledes.desafio.institute_manager.carga;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parâmetros do teste de carga, lidos de argumentos no formato chave=valor.
+ * <ul>
+ *     <li>taxa: requisições por segundo, somando todas as operações (padrão 200);</li>
+ *     <li>clientes: máximo de requisições simultâneas (padrão 32);</li>
+ *     <li>aquecimento e duracao: em segundos (padrão 10 e 30);</li>
+ *     <li>quantidade: instituições geradas no banco em memória (padrão 10000);</li>
+ *     <li>mix: peso de cada operação, por exemplo listar:30,buscar:40,criar:10,atualizar:15,inativar:5;</li>
+ *     <li>saida: diretório dos resultados (padrão target/carga);</li>
+ *     <li>nome: prefixo dos arquivos de resultado, para comparar execuções (padrão carga).</li>
+ * </ul>
+ */
+final class ConfiguracaoCarga {
+
+    final int taxa;
+    final int clientes;
+    final Duration aquecimento;
+    final Duration duracao;
+    final int quantidade;
+    final Map<Operacao, Integer> mix;
+    final Path saida;
+    final String nome;
+
+    private ConfiguracaoCarga(Map<String, String> valores) {
+        taxa = Integer.parseInt(valores.getOrDefault("taxa", "200"));
+        clientes = Integer.parseInt(valores.getOrDefault("clientes", "32"));
+        aquecimento = Duration.ofSeconds(Long.parseLong(valores.getOrDefault("aquecimento", "10")));
+        duracao = Duration.ofSeconds(Long.parseLong(valores.getOrDefault("duracao", "30")));
+        quantidade = Integer.parseInt(valores.getOrDefault("quantidade", "10000"));
+        mix = lerMix(valores.getOrDefault("mix", "listar:30,buscar:40,criar:10,atualizar:15,inativar:5"));
+        saida = Path.of(valores.getOrDefault("saida", "target/carga"));
+        nome = valores.getOrDefault("nome", "carga");
+        if (taxa < 1 || clientes < 1 || duracao.isZero()) {
+            throw new IllegalArgumentException("taxa, clientes e duracao devem ser maiores que zero.");
+        }
+    }
+
+    static ConfiguracaoCarga de(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            int separador = arg.indexOf('=');
+            if (separador < 1) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use chave=valor).");
+            }
+            valores.put(arg.substring(0, separador), arg.substring(separador + 1));
+        }
+        return new ConfiguracaoCarga(valores);
+    }
+
+    private static Map<Operacao, Integer> lerMix(String mix) {
+        Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+        for (String item : mix.split(",")) {
+            String[] partes = item.trim().split(":");
+            pesos.put(Operacao.valueOf(partes[0].trim().toUpperCase()), Integer.parseInt(partes[1].trim()));
+        }
+        return pesos;
+    }
+
+    @Override
+    public String toString() {
+        return "taxa=" + taxa + "/s clientes=" + clientes + " aquecimento=" + aquecimento.toSeconds() + "s duracao="
+                + duracao.toSeconds() + "s quantidade=" + quantidade + " mix=" + mix;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ledes.desafio.institute_manager.carga;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Operações exercitadas pelo teste de carga, cada uma montando a sua requisição a partir dos IDs existentes.
+ */
+enum Operacao {
+
+    LISTAR {
+        @Override
+        HttpRequest requisicao(URI base, List<Long> brasileiras, List<Long> todas) {
+            return HttpRequest.newBuilder(base.resolve("/api/instituicao?limite=50")).GET().build();
+        }
+    },
+    BUSCAR {
+        @Override
+        HttpRequest requisicao(URI base, List<Long> brasileiras, List<Long> todas) {
+            return HttpRequest.newBuilder(base.resolve("/api/instituicao/" + sortear(todas))).GET().build();
+        }
+    },
+    CRIAR {
+        @Override
+        HttpRequest requisicao(URI base, List<Long> brasileiras, List<Long> todas) {
+            return HttpRequest.newBuilder(base.resolve("/api/instituicao/brasileira"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(brasileira("Carga " + ThreadLocalRandom.current().nextInt(1_000_000))))
+                    .build();
+        }
+    },
+    ATUALIZAR {
+        @Override
+        HttpRequest requisicao(URI base, List<Long> brasileiras, List<Long> todas) {
+            return HttpRequest.newBuilder(base.resolve("/api/instituicao/brasileira/" + sortear(brasileiras)))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(brasileira("Atualizada " + ThreadLocalRandom.current().nextInt(1000))))
+                    .build();
+        }
+    },
+    INATIVAR {
+        @Override
+        HttpRequest requisicao(URI base, List<Long> brasileiras, List<Long> todas) {
+            return HttpRequest.newBuilder(base.resolve("/api/instituicao/" + sortear(todas))).DELETE().build();
+        }
+    };
+
+    abstract HttpRequest requisicao(URI base, List<Long> brasileiras, List<Long> todas);
+
+    private static Long sortear(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static String brasileira(String nome) {
+        return """
+                {"instituicao":{"nome":"%s","sigla":"CARGA"},"pais":"Brasil","cnpj":"12345678000199","cep":"79070900",\
+                "logradouro":"Avenida Principal","bairro":"Centro","estado":"MS","municipio":"Campo Grande","numero":"1"}\
+                """.formatted(nome);
+    }
+}
@@ -0,0 +1,212 @@
+package com.ledes.desafio.institute_manager.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.InstituteManagerApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Teste de carga autocontido: sobe a aplicação no perfil "perf" (H2 em memória, populado na inicialização),
+ * numa porta local aleatória, e dispara as operações REST a uma taxa fixa com clientes concorrentes.
+ * <p>
+ * As requisições seguem um modelo aberto: cada uma tem um horário previsto e a latência é medida a partir dele,
+ * então a espera por um cliente livre entra na medição (sem omissão coordenada). Os resultados de cada operação
+ * vão para um resumo em texto e para um log do HdrHistogram (.hlog), que podem ser comparados entre execuções.
+ * <p>
+ * Execução: mvn -Pperf verify -Dcarga.args="taxa=300 duracao=60"
+ */
+public final class TesteCarga {
+
+    private static final DateTimeFormatter FORMATO_ARQUIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ConfiguracaoCarga config;
+    private final URI base;
+    private final HttpClient http;
+    private final Map<Operacao, Histogram> latencias = new EnumMap<>(Operacao.class);
+    private final Map<Operacao, LongAdder> erros = new EnumMap<>(Operacao.class);
+    private final Operacao[] sorteio;
+
+    private TesteCarga(ConfiguracaoCarga config, URI base) {
+        this.config = config;
+        this.base = base;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        List<Operacao> pesos = new ArrayList<>();
+        config.mix.forEach((operacao, peso) -> {
+            latencias.put(operacao, new ConcurrentHistogram(3));
+            erros.put(operacao, new LongAdder());
+            for (int i = 0; i < peso; i++) {
+                pesos.add(operacao);
+            }
+        });
+        this.sorteio = pesos.toArray(new Operacao[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracaoCarga config = ConfiguracaoCarga.de(args);
+        // O reinício do DevTools executaria o main de novo, sem os argumentos
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(InstituteManagerApplication.class)
+                .profiles("perf")
+                .run("--server.port=0", "--instituicao.perf.quantidade=" + config.quantidade)) {
+            int porta = ((ServletWebServerApplicationContext) contexto).getWebServer().getPort();
+            new TesteCarga(config, URI.create("http://localhost:" + porta)).executar();
+        }
+    }
+
+    private void executar() throws IOException, InterruptedException {
+        List<Long> todas = new ArrayList<>();
+        List<Long> brasileiras = new ArrayList<>();
+        carregarIds(todas, brasileiras);
+        System.out.printf("Teste de carga: %s (%d instituicoes, %d brasileiras)%n", config, todas.size(), brasileiras.size());
+
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / config.taxa;
+        long inicio = System.nanoTime();
+        long inicioMedicao = inicio + config.aquecimento.toNanos();
+        long fim = inicioMedicao + config.duracao.toNanos();
+        long inicioMedicaoMillis = System.currentTimeMillis() + config.aquecimento.toMillis();
+        Semaphore clientes = new Semaphore(config.clientes);
+
+        // O fechamento do executor aguarda as requisições ainda em andamento
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long n = 0; ; n++) {
+                long previsto = inicio + n * intervalo;
+                if (previsto >= fim) {
+                    break;
+                }
+                esperarAte(previsto);
+                Operacao operacao = sorteio[ThreadLocalRandom.current().nextInt(sorteio.length)];
+                HttpRequest requisicao = operacao.requisicao(base, brasileiras, todas);
+                executor.submit(() -> enviar(operacao, requisicao, previsto, previsto >= inicioMedicao, clientes));
+            }
+        }
+        gravarResultados(inicioMedicaoMillis);
+    }
+
+    private void enviar(Operacao operacao, HttpRequest requisicao, long previsto, boolean medir, Semaphore clientes) {
+        boolean sucesso;
+        clientes.acquireUninterruptibly();
+        try {
+            sucesso = http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+        } catch (IOException | InterruptedException e) {
+            sucesso = false;
+        } finally {
+            clientes.release();
+        }
+        if (medir) {
+            latencias.get(operacao).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - previsto));
+            if (!sucesso) {
+                erros.get(operacao).increment();
+            }
+        }
+    }
+
+    private void carregarIds(List<Long> todas, List<Long> brasileiras) throws IOException, InterruptedException {
+        HttpResponse<byte[]> resposta = http.send(HttpRequest.newBuilder(base.resolve("/api/instituicao?completo=true")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        for (JsonNode instituicao : new ObjectMapper().readTree(resposta.body())) {
+            todas.add(instituicao.get("id").asLong());
+            if ("BRASILEIRA".equals(instituicao.get("tipo").asText())) {
+                brasileiras.add(instituicao.get("id").asLong());
+            }
+        }
+        if (todas.isEmpty() || brasileiras.isEmpty()) {
+            throw new IllegalStateException("O banco do perfil perf não tem instituições suficientes.");
+        }
+    }
+
+    private static void esperarAte(long instante) {
+        long restante;
+        while ((restante = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+
+    /**
+     * Grava o resumo (vazão e percentis por operação, em ms) e o log do HdrHistogram, com uma entrada por operação.
+     */
+    private void gravarResultados(long inicioMedicaoMillis) throws IOException {
+        Files.createDirectories(config.saida);
+        String arquivo = config.nome + "-" + LocalDateTime.now().format(FORMATO_ARQUIVO);
+        Path resumo = config.saida.resolve(arquivo + ".txt");
+        Path log = config.saida.resolve(arquivo + ".hlog");
+        double segundos = config.duracao.toMillis() / 1000.0;
+
+        Histogram total = new Histogram(3);
+        StringBuilder tabela = new StringBuilder(String.format("%-10s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operacao", "requisicoes", "erros", "req/s", "p50", "p90", "p99", "p99.9", "max"));
+        latencias.forEach((operacao, histograma) -> {
+            total.add(histograma);
+            tabela.append(linha(operacao.name().toLowerCase(), histograma, erros.get(operacao).sum(), segundos));
+        });
+        tabela.append(linha("total", total, erros.values().stream().mapToLong(LongAdder::sum).sum(), segundos));
+
+        try (PrintStream saida = new PrintStream(Files.newOutputStream(resumo))) {
+            saida.println("# " + config);
+            saida.println("# Latências em ms, medidas a partir do horário previsto de cada requisição");
+            saida.print(tabela);
+            for (Map.Entry<Operacao, Histogram> entrada : latencias.entrySet()) {
+                saida.println();
+                saida.println("## " + entrada.getKey().name().toLowerCase());
+                entrada.getValue().outputPercentileDistribution(saida, 1000.0);
+            }
+        }
+        try (PrintStream saida = new PrintStream(Files.newOutputStream(log))) {
+            HistogramLogWriter writer = new HistogramLogWriter(saida);
+            writer.outputLogFormatVersion();
+            writer.outputComment(config.toString());
+            writer.outputStartTime(inicioMedicaoMillis);
+            writer.outputLegend();
+            for (Map.Entry<Operacao, Histogram> entrada : latencias.entrySet()) {
+                Histogram histograma = entrada.getValue();
+                histograma.setTag(entrada.getKey().name().toLowerCase());
+                histograma.setStartTimeStamp(inicioMedicaoMillis);
+                histograma.setEndTimeStamp(inicioMedicaoMillis + config.duracao.toMillis());
+                writer.outputIntervalHistogram(histograma);
+            }
+        }
+
+        System.out.print(tabela);
+        System.out.println("Resultados em " + resumo.toAbsolutePath() + " e " + log.getFileName());
+    }
+
+    private static String linha(String nome, Histogram histograma, long erros, double segundos) {
+        return String.format("%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", nome, histograma.getTotalCount(), erros,
+                histograma.getTotalCount() / segundos, ms(histograma, 50), ms(histograma, 90), ms(histograma, 99),
+                ms(histograma, 99.9), histograma.getMaxValue() / 1000.0);
+    }
+
+    private static double ms(Histogram histograma, double percentil) {
+        return histograma.getValueAtPercentile(percentil) / 1000.0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ledes.desafio.institute_manager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O tempo limite é longo o bastante para que uma verificação presa apareça como demora do teste.
+ */
+class BancoHealthIndicatorTests {
+
+    private final AtomicInteger falhasRestantes = new AtomicInteger();
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:healthcheck", "sa", "") {
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (falhasRestantes.getAndDecrement() > 0) {
+                throw new IllegalStateException("Pool fechado.");
+            }
+            return super.getConnection();
+        }
+    };
+
+    @Test
+    void bancoDisponivelFicaUp() {
+        Health health = new BancoHealthIndicator(dataSource, Duration.ofSeconds(5), Duration.ofSeconds(2)).health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("H2", health.getDetails().get("banco"));
+    }
+
+    @Test
+    void falhaInesperadaNaoPrendeAsVerificacoesSeguintes() {
+        BancoHealthIndicator indicador = new BancoHealthIndicator(dataSource, Duration.ofSeconds(5), Duration.ofSeconds(30));
+        falhasRestantes.set(1);
+
+        long inicio = System.nanoTime();
+        Health falha = indicador.health();
+        assertEquals(Status.DOWN, falha.getStatus());
+        assertEquals("java.lang.IllegalStateException: Pool fechado.", falha.getDetails().get("error"));
+
+        // A falha não é guardada e a verificação seguinte não aguarda a anterior
+        assertEquals(Status.UP, indicador.health().getStatus());
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).compareTo(Duration.ofSeconds(10)) < 0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ledes.desafio.institute_manager.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A invalidação é feita dentro da leitura, no ponto em que um commit concorrente a faria.
+ */
+class CacheComGeracoesTests {
+
+    private final CacheComGeracoes cache = new CacheComGeracoes("teste", Caffeine.newBuilder().build());
+
+    @Test
+    void leituraSemInvalidacaoFicaNoCache() {
+        assertEquals("v1", cache.get(1L, () -> "v1"));
+
+        assertEquals("v1", cache.get(1L).get());
+    }
+
+    @Test
+    void acertoNaoExecutaALeitura() {
+        AtomicInteger leituras = new AtomicInteger();
+        cache.get(1L, () -> "v" + leituras.incrementAndGet());
+
+        assertEquals("v1", cache.get(1L, () -> "v" + leituras.incrementAndGet()));
+        assertEquals(1, leituras.get());
+    }
+
+    @Test
+    void leituraConcorrenteComAInvalidacaoNaoFicaNoCache() {
+        // A leitura viu o valor antigo; a alteração foi confirmada e invalidou a chave antes da gravação
+        assertEquals("antigo", cache.get(1L, () -> {
+            cache.evict(1L);
+            return "antigo";
+        }));
+        assertNull(cache.get(1L));
+
+        // A leitura seguinte, posterior à invalidação, volta a ser guardada
+        assertEquals("novo", cache.get(1L, () -> "novo"));
+        assertEquals("novo", cache.get(1L).get());
+    }
+
+    @Test
+    void esvaziarDuranteALeituraDescartaOResultado() {
+        assertEquals("antigo", cache.get(1L, () -> {
+            cache.clear();
+            return "antigo";
+        }));
+        assertNull(cache.get(1L));
+
+        assertEquals("antigo", cache.get(2L, () -> {
+            cache.evictIfPresent(2L);
+            return "antigo";
+        }));
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void invalidacaoDeOutraFaixaNaoAfetaALeitura() {
+        // 1 e 2 caem em faixas diferentes
+        assertEquals("v1", cache.get(1L, () -> {
+            cache.evict(2L);
+            return "v1";
+        }));
+        assertEquals("v1", cache.get(1L).get());
+    }
+
+    @Test
+    void resultadoNuloNaoFicaNoCache() {
+        assertNull(cache.get(1L, () -> null));
+
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.getNativeCache().estimatedSize());
+    }
+}
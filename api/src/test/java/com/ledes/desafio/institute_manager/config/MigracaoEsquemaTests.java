@@ -0,0 +1,66 @@
+package com.ledes.desafio.institute_manager.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Um banco no esquema anterior às colunas 'tipo' e 'versao', com instituições dos dois subtipos.
+ */
+class MigracaoEsquemaTests {
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:migracao;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("drop all objects");
+        jdbc.execute("create table instituicao (id int auto_increment primary key, nome varchar(32) not null,"
+                + " sigla varchar(8) not null, status tinyint(1) default 1)");
+        jdbc.execute("create table instituicao_brasileira (id int auto_increment primary key, instituicao_id int not null,"
+                + " cnpj varchar(14) not null)");
+        jdbc.execute("create table instituicao_estrangeira (id int auto_increment primary key, instituicao_id int not null,"
+                + " pais varchar(100) not null)");
+        jdbc.update("insert into instituicao (id, nome, sigla) values (1, 'UFMS', 'UFMS'), (2, 'Coimbra', 'UC')");
+        jdbc.update("insert into instituicao_brasileira (instituicao_id, cnpj) values (1, '12345678000199')");
+        jdbc.update("insert into instituicao_estrangeira (instituicao_id, pais) values (2, 'Portugal')");
+    }
+
+    @Test
+    void bancoAntigoRecebeColunasPreenchidas() {
+        new MigracaoEsquema(jdbc).afterSingletonsInstantiated();
+
+        assertEquals(List.of("BRASILEIRA", "ESTRANGEIRA"), jdbc.queryForList("select tipo from instituicao order by id", String.class));
+        assertEquals(List.of(0L, 0L), jdbc.queryForList("select versao from instituicao order by id", Long.class));
+        assertEquals(List.of(1, 2, 3), jdbc.queryForList("select versao from migracao_esquema order by versao", Integer.class));
+        assertEquals(0, jdbc.queryForObject("select count(*) from versao_colecao", Integer.class));
+    }
+
+    @Test
+    void passoAplicadoNaoRodaDeNovo() {
+        MigracaoEsquema migracaoEsquema = new MigracaoEsquema(jdbc);
+        migracaoEsquema.afterSingletonsInstantiated();
+
+        // Uma linha sem tipo depois da migração não é mais tocada
+        jdbc.update("insert into instituicao (id, nome, sigla, versao) values (3, 'UFGD', 'UFGD', 4)");
+        jdbc.update("insert into instituicao_brasileira (instituicao_id, cnpj) values (3, '12345678000100')");
+        migracaoEsquema.afterSingletonsInstantiated();
+
+        assertEquals(null, jdbc.queryForObject("select tipo from instituicao where id = 3", String.class));
+        assertEquals(3, jdbc.queryForObject("select count(*) from migracao_esquema", Integer.class));
+    }
+
+    @Test
+    void bancoVazioNaoEhMigrado() {
+        jdbc.execute("drop all objects");
+
+        new MigracaoEsquema(jdbc).afterSingletonsInstantiated();
+
+        assertEquals(0, jdbc.queryForObject("select count(*) from information_schema.tables where table_schema = 'PUBLIC'", Integer.class));
+    }
+}
@@ -0,0 +1,126 @@
+package com.ledes.desafio.institute_manager.config;
+
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.service.InstituicaoBrasileiraService;
+import com.ledes.desafio.institute_manager.service.InstituicaoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dois bancos H2 independentes fazem o papel de primário e réplica; como não há replicação entre eles,
+ * o que é lido de cada um mostra para onde a consulta foi.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primario;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "instituicao.replica.url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "instituicao.replica.driver-class-name=org.h2.Driver",
+        "instituicao.replica.username=sa",
+        "instituicao.replica.password=",
+        "instituicao.replica.janela-leitura-propria=200ms",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ReplicaLeituraConfigTests {
+
+    private static final long ID_SOMENTE_NA_REPLICA = 1000L;
+
+    @Autowired
+    private InstituicaoService instituicaoService;
+
+    @Autowired
+    private InstituicaoBrasileiraService instituicaoBrasileiraService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    @Qualifier("primarioDataSource")
+    private DataSource primario;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // A réplica recebe o esquema criado pelo Hibernate no primário e uma instituição que só existe nela
+        JdbcTemplate jdbcPrimario = new JdbcTemplate(primario);
+        JdbcTemplate jdbcReplica = new JdbcTemplate(replica);
+        jdbcReplica.execute("drop all objects");
+        jdbcPrimario.queryForList("script nodata", String.class).forEach(jdbcReplica::execute);
+        jdbcReplica.update("insert into instituicao (id, nome, sigla, status, tipo, versao) values (?, 'Réplica', 'REP', true, 'BRASILEIRA', 0)",
+                ID_SOMENTE_NA_REPLICA);
+        jdbcReplica.update("insert into instituicao_brasileira (instituicao_id, pais, cnpj, cep, logradouro, bairro, estado, municipio, numero) "
+                + "values (?, 'Brasil', '12345678000199', '79070900', 'Av', 'B', 'MS', 'CG', '1')", ID_SOMENTE_NA_REPLICA);
+
+        cacheManager.getCache(CacheConfig.INSTITUICOES).clear();
+        // Espera passar a janela de leitura das próprias escritas de testes anteriores
+        Thread.sleep(300);
+    }
+
+    @Test
+    void leiturasVaoParaReplicaEEscritasParaPrimario() {
+        Optional<InstituicaoDetalhada> lida = instituicaoService.findInstituicaoById(ID_SOMENTE_NA_REPLICA);
+        assertTrue(lida.isPresent());
+        assertEquals("Réplica", lida.get().getNome());
+
+        Long id = instituicaoBrasileiraService.saveInstituicaoBrasileira(novaBrasileira()).getInstituicao().getId();
+
+        assertEquals(1, contar(primario, id));
+        assertEquals(0, contar(replica, id));
+    }
+
+    @Test
+    void leituraLogoAposEscritaVaiParaPrimario() throws InterruptedException {
+        Long id = instituicaoBrasileiraService.saveInstituicaoBrasileira(novaBrasileira()).getInstituicao().getId();
+
+        // Dentro da janela a leitura vai ao primário, mesmo sem a escrita ter chegado à réplica
+        assertTrue(instituicaoService.findInstituicaoById(id).isPresent());
+        assertFalse(instituicaoService.findInstituicaoById(ID_SOMENTE_NA_REPLICA).isPresent());
+
+        cacheManager.getCache(CacheConfig.INSTITUICOES).clear();
+        Thread.sleep(300);
+
+        // Passada a janela, as leituras voltam para a réplica
+        assertFalse(instituicaoService.findInstituicaoById(id).isPresent());
+        assertTrue(instituicaoService.findInstituicaoById(ID_SOMENTE_NA_REPLICA).isPresent());
+    }
+
+    private static long contar(DataSource dataSource, Long id) {
+        return new JdbcTemplate(dataSource).queryForObject("select count(*) from instituicao where id = ?", Long.class, id);
+    }
+
+    private static InstituicaoBrasileira novaBrasileira() {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome("Universidade Federal");
+        instituicao.setSigla("UF");
+
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(instituicao);
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado("MS");
+        instituicaoBrasileira.setMunicipio("Campo Grande");
+        instituicaoBrasileira.setNumero("s/n");
+        return instituicaoBrasileira;
+    }
+}
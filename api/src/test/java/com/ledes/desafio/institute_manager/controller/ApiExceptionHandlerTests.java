@@ -0,0 +1,31 @@
+package com.ledes.desafio.institute_manager.controller;
+
+import com.ledes.desafio.institute_manager.dto.RespostaErro;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiExceptionHandlerTests {
+
+    private final ApiExceptionHandler handler = new ApiExceptionHandler();
+
+    @Test
+    void conflitoDeVersaoSoCitaIfMatchQuandoARequisicaoOInformou() {
+        ObjectOptimisticLockingFailureException conflito = new ObjectOptimisticLockingFailureException("Instituicao", 1L);
+
+        MockHttpServletRequest comIfMatch = new MockHttpServletRequest("PUT", "/api/instituicao/brasileira/1");
+        comIfMatch.addHeader(HttpHeaders.IF_MATCH, "\"3\"");
+        ResponseEntity<RespostaErro> resposta = handler.handleConflitoVersao(conflito, comIfMatch);
+        assertEquals(HttpStatus.PRECONDITION_FAILED, resposta.getStatusCode());
+        assertEquals("A instituição foi alterada desde a versão informada em If-Match.", resposta.getBody().getMensagem());
+
+        MockHttpServletRequest semIfMatch = new MockHttpServletRequest("PUT", "/api/instituicao/brasileira/1");
+        assertEquals("A instituição foi alterada por outra requisição; carregue-a novamente e repita a operação.",
+                handler.handleConflitoVersao(conflito, semIfMatch).getBody().getMensagem());
+    }
+}
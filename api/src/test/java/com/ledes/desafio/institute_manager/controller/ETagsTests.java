@@ -0,0 +1,31 @@
+package com.ledes.desafio.institute_manager.controller;
+
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ETagsTests {
+
+    @Test
+    void etagDaInstituicaoDependeDoFormatoNegociado() {
+        assertEquals("\"3\"", ETags.of(3L, null));
+        assertEquals("\"3\"", ETags.of(3L, "*/*"));
+        assertEquals("\"3\"", ETags.of(3L, "application/json, application/cbor"));
+        assertEquals("\"3-smile\"", ETags.of(3L, "application/x-jackson-smile"));
+        assertEquals("\"3-cbor\"", ETags.of(3L, "application/json;q=0.5, application/cbor"));
+        assertEquals("\"3\"", ETags.of(3L, "application/cbor;q=0, */*"));
+    }
+
+    @Test
+    void ifMatchAceitaQualquerRepresentacaoDaVersao() {
+        assertEquals(3L, ETags.parseVersao("\"3\""));
+        assertEquals(3L, ETags.parseVersao("\"3-smile\""));
+        assertEquals(3L, ETags.parseVersao(ETags.of(3L, "application/cbor")));
+        assertNull(ETags.parseVersao("*"));
+        assertThrows(RequisicaoInvalidaException.class, () -> ETags.parseVersao("W/\"3\""));
+        assertThrows(RequisicaoInvalidaException.class, () -> ETags.parseVersao("\"3-xml\""));
+    }
+}
@@ -0,0 +1,157 @@
+package com.ledes.desafio.institute_manager.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import com.ledes.desafio.institute_manager.service.InstituicaoExportService;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * O corpo da exportação é escrito dentro da transação do teste, como faria a thread da resposta assíncrona.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ExportacaoInstituicoesTests {
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void ndjsonTemUmaInstituicaoPorLinhaEmOrdemDeId() throws IOException {
+        Long idBrasileira = novaBrasileira("Universidade Federal", "UF").getInstituicao().getId();
+        Long idEstrangeira = novaEstrangeira("University of Coimbra", "UC").getInstituicao().getId();
+        Long idInativa = novaBrasileira("Instituto Federal", "IF").getInstituicao().getId();
+        entityManager.createQuery("update Instituicao i set i.status = false where i.id = :id")
+                .setParameter("id", idInativa).executeUpdate();
+
+        ResponseEntity<StreamingResponseBody> resposta = controller().exportarInstituicoes("ndjson");
+
+        assertEquals(MediaType.parseMediaType("application/x-ndjson"), resposta.getHeaders().getContentType());
+        assertEquals("attachment; filename=\"instituicoes.ndjson\"", resposta.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        List<InstituicaoDetalhada> linhas = new ArrayList<>();
+        for (String linha : corpo(resposta).split("\n")) {
+            linhas.add(objectMapper.readValue(linha, InstituicaoDetalhada.class));
+        }
+        assertEquals(List.of(idBrasileira, idEstrangeira, idInativa), linhas.stream().map(InstituicaoDetalhada::getId).toList());
+
+        InstituicaoDetalhada brasileira = linhas.get(0);
+        assertEquals("UF", brasileira.getSigla());
+        assertEquals("MS", brasileira.getEstado());
+        assertEquals("12345678000199", brasileira.getCnpj());
+        assertEquals(TipoInstituicao.BRASILEIRA, brasileira.getTipo());
+        InstituicaoDetalhada estrangeira = linhas.get(1);
+        assertEquals("Portugal", estrangeira.getPais());
+        assertEquals("Coimbra", estrangeira.getEstado());
+        assertNull(estrangeira.getCnpj());
+        assertEquals(TipoInstituicao.ESTRANGEIRA, estrangeira.getTipo());
+        assertEquals(false, linhas.get(2).getStatus());
+    }
+
+    @Test
+    void csvTemCabecalhoEAspasQuandoNecessario() throws IOException {
+        Long idBrasileira = novaBrasileira("UF, Campus \"Sede\"", "UF").getInstituicao().getId();
+        Long idEstrangeira = novaEstrangeira("University of Coimbra", "UC").getInstituicao().getId();
+
+        // O formato não diferencia maiúsculas
+        ResponseEntity<StreamingResponseBody> resposta = controller().exportarInstituicoes("CSV");
+
+        assertEquals(MediaType.parseMediaType("text/csv;charset=UTF-8"), resposta.getHeaders().getContentType());
+        assertEquals("attachment; filename=\"instituicoes.csv\"", resposta.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals("""
+                id,nome,sigla,status,pais,cep,logradouro,complemento,estado,municipio,cnpj,bairro,numero,tipo
+                %d,"UF, Campus ""Sede""\",UF,true,Brasil,79070-900,Avenida Costa e Silva,,MS,Campo Grande,12345678000199,Universitário,s/n,BRASILEIRA
+                %d,University of Coimbra,UC,true,Portugal,3004531,Rua Larga,Paço das Escolas,Coimbra,Coimbra,,,,ESTRANGEIRA
+                """.formatted(idBrasileira, idEstrangeira), corpo(resposta));
+    }
+
+    @Test
+    void catalogoVazioExportaSoOCabecalho() throws IOException {
+        assertEquals("", corpo(controller().exportarInstituicoes("ndjson")));
+        assertEquals("id,nome,sigla,status,pais,cep,logradouro,complemento,estado,municipio,cnpj,bairro,numero,tipo\n",
+                corpo(controller().exportarInstituicoes("csv")));
+    }
+
+    @Test
+    void formatoDesconhecidoEhRejeitadoAntesDeConsultar() {
+        assertThrows(RequisicaoInvalidaException.class, () -> controller().exportarInstituicoes("xml"));
+    }
+
+    /**
+     * Somente a exportação é usada; o fetch size pequeno faz o driver buscar as linhas em várias idas ao banco.
+     */
+    private InstituicaoController controller() {
+        return new InstituicaoController(null, new InstituicaoExportService(instituicaoRepository, objectMapper, 2), null, null);
+    }
+
+    private String corpo(ResponseEntity<StreamingResponseBody> resposta) throws IOException {
+        entityManager.flush();
+        entityManager.clear();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        resposta.getBody().writeTo(saida);
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+
+    private InstituicaoBrasileira novaBrasileira(String nome, String sigla) {
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(novaInstituicao(nome, sigla, TipoInstituicao.BRASILEIRA));
+        instituicaoBrasileira.setPais("Brasil");
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070-900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado("MS");
+        instituicaoBrasileira.setMunicipio("Campo Grande");
+        instituicaoBrasileira.setNumero("s/n");
+        entityManager.persist(instituicaoBrasileira);
+        return instituicaoBrasileira;
+    }
+
+    private InstituicaoEstrangeira novaEstrangeira(String nome, String sigla) {
+        InstituicaoEstrangeira instituicaoEstrangeira = new InstituicaoEstrangeira();
+        instituicaoEstrangeira.setInstituicao(novaInstituicao(nome, sigla, TipoInstituicao.ESTRANGEIRA));
+        instituicaoEstrangeira.setPais("Portugal");
+        instituicaoEstrangeira.setCep("3004531");
+        instituicaoEstrangeira.setLogradouro("Rua Larga");
+        instituicaoEstrangeira.setEstadoRegiao("Coimbra");
+        instituicaoEstrangeira.setMunicipio("Coimbra");
+        instituicaoEstrangeira.setComplemento("Paço das Escolas");
+        entityManager.persist(instituicaoEstrangeira);
+        return instituicaoEstrangeira;
+    }
+
+    private Instituicao novaInstituicao(String nome, String sigla, TipoInstituicao tipo) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla(sigla);
+        instituicao.setTipo(tipo);
+        entityManager.persist(instituicao);
+        return instituicao;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ledes.desafio.institute_manager.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Com threads virtuais não há limite de requisições simultâneas, só o pool de conexões. Cada listagem completa lê a
+ * versão da coleção e depois consulta brasileiras e estrangeiras em paralelo; se a requisição ainda segurasse a
+ * conexão da primeira leitura, tantas listagens quanto o pool prenderiam todas as conexões e as consultas paralelas
+ * esperariam o connection-timeout do HikariCP até falhar. Cada listagem recebe permissão para as duas consultas
+ * paralelas, para que nenhuma termine na própria thread e libere a conexão antes das outras.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:listagem;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=" + ListagemCompletaConcorrenteTests.TAMANHO_POOL,
+        "spring.datasource.hikari.connection-timeout=250",
+        "instituicao.consulta-paralela.conexoes=" + 2 * ListagemCompletaConcorrenteTests.TAMANHO_POOL
+})
+class ListagemCompletaConcorrenteTests {
+
+    static final int TAMANHO_POOL = 4;
+
+    private static final int RODADAS = 10;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Instituições suficientes para que as listagens se sobreponham
+        if (jdbcTemplate.queryForObject("select count(*) from instituicao", Long.class) == 0) {
+            jdbcTemplate.update("insert into instituicao (id, nome, sigla, status, tipo, versao) "
+                    + "select x, concat('Instituicao ', x), 'I', true, case when mod(x, 2) = 0 then 'BRASILEIRA' else 'ESTRANGEIRA' end, 0 "
+                    + "from system_range(1, 2000)");
+            jdbcTemplate.update("insert into instituicao_brasileira (instituicao_id, pais, cnpj, cep, logradouro, bairro, estado, municipio, numero) "
+                    + "select id, 'Brasil', '12345678000199', '79070900', 'Av', 'B', 'MS', 'CG', '1' from instituicao where tipo = 'BRASILEIRA'");
+            jdbcTemplate.update("insert into instituicao_estrangeira (instituicao_id, pais, logradouro, estado_regiao, municipio) "
+                    + "select id, 'Portugal', 'Rua Larga', 'Coimbra', 'Coimbra' from instituicao where tipo = 'ESTRANGEIRA'");
+        }
+    }
+
+    @Test
+    void listagensSimultaneasNaoEsgotamOPool() throws Exception {
+        for (int rodada = 0; rodada < RODADAS; rodada++) {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<ResponseEntity<String>>> respostas = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < TAMANHO_POOL; i++) {
+                    respostas.add(executor.submit(() -> {
+                        largada.await();
+                        return restTemplate.getForEntity("/api/instituicao?completo=true", String.class);
+                    }));
+                }
+                largada.countDown();
+            }
+            for (Future<ResponseEntity<String>> resposta : respostas) {
+                assertEquals(HttpStatusCode.valueOf(200), resposta.get().getStatusCode(), "rodada " + rodada);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ledes.desafio.institute_manager.monitoring;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserções sobre a quantidade de comandos SQL executados por um trecho de código, usando a mesma medição das
+ * requisições HTTP. Uma regressão N+1 aparece como falha de teste em vez de lentidão em produção.
+ */
+public final class AssercoesSql {
+
+    private AssercoesSql() {
+    }
+
+    /**
+     * Executa a ação e verifica que ela executou exatamente a quantidade de comandos SQL esperada.
+     *
+     * @param esperado Quantidade de comandos SQL esperada.
+     * @param acao Ação a executar.
+     * @return Resultado da ação.
+     */
+    public static <T> T assertConsultas(int esperado, Supplier<T> acao) {
+        MedicaoSql medicao = new MedicaoSql();
+        T resultado;
+        try {
+            resultado = MedicaoSql.executarCom(medicao, acao::get);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        assertEquals(esperado, medicao.getConsultas(), "Quantidade de comandos SQL executados");
+        return resultado;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ledes.desafio.institute_manager.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static com.ledes.desafio.institute_manager.monitoring.AssercoesSql.assertConsultas;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comandos executados pelo JdbcTemplate, que não passam pelo Hibernate.
+ */
+class MedicaoSqlDataSourceTests {
+
+    private final MedicaoSqlDataSource dataSource = new MedicaoSqlDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:medicao;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("drop all objects");
+        jdbc.execute("create table contador (id int primary key, valor bigint not null)");
+    }
+
+    @Test
+    void cadaExecucaoContaUmComando() {
+        assertConsultas(1, () -> jdbc.update("insert into contador (id, valor) values (1, 0)"));
+        assertConsultas(1, () -> jdbc.update("update contador set valor = valor + 1 where id = ?", 1));
+        assertEquals(1L, assertConsultas(1, () -> jdbc.queryForObject("select valor from contador where id = 1", Long.class)));
+    }
+
+    @Test
+    void batchContaUmaVez() {
+        assertConsultas(1, () -> jdbc.batchUpdate("insert into contador (id, valor) values (?, 0)",
+                List.of(new Object[] {1}, new Object[] {2}, new Object[] {3})));
+
+        assertEquals(3L, jdbc.queryForObject("select count(*) from contador", Long.class));
+    }
+
+    @Test
+    void tempoSoEhSomadoNaMedicaoAtiva() throws Exception {
+        MedicaoSql medicao = new MedicaoSql();
+        MedicaoSql.executarCom(medicao, () -> jdbc.queryForList("select * from contador"));
+        // Sem medição ativa, nada é somado
+        jdbc.queryForList("select * from contador");
+
+        assertEquals(1, medicao.getConsultas());
+        assertTrue(medicao.getTempoJdbcNanos() > 0);
+    }
+
+    @Test
+    void comandoDevolveAConexaoMedida() throws Exception {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement statement = conexao.prepareStatement("select 1")) {
+            assertSame(conexao, statement.getConnection());
+            assertEquals(conexao, conexao);
+            assertTrue(DataSourceUtils.getTargetConnection(conexao) != conexao);
+        }
+    }
+}
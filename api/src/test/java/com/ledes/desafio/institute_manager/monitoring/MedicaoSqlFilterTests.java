@@ -0,0 +1,85 @@
+package com.ledes.desafio.institute_manager.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Métricas por requisição medidas pela aplicação inteira, com as requisições feitas por HTTP.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:medicaosql;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "instituicao.exportacao.fetch-size=100"
+})
+class MedicaoSqlFilterTests {
+
+    private static final String CORPO_BRASILEIRA = """
+            {"instituicao":{"nome":"Universidade Federal","sigla":"%s"},"pais":"Brasil","cnpj":"12345678000199",\
+            "cep":"79070900","logradouro":"Avenida Costa e Silva","bairro":"Universitário","estado":"MS",\
+            "municipio":"Campo Grande","numero":"s/n"}""";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry.clear();
+    }
+
+    @Test
+    void incrementoDaVersaoDaColecaoEntraNoCadastro() {
+        cadastrar("UF1");
+        meterRegistry.clear();
+
+        cadastrar("UF2");
+
+        // INSERT em 'instituicao', INSERT no subtipo e o UPDATE do contador da coleção, feito pelo JdbcTemplate
+        DistributionSummary consultas = consultas("POST", "/api/instituicao/brasileira");
+        assertEquals(1, consultas.count());
+        assertEquals(3.0, consultas.totalAmount());
+    }
+
+    @Test
+    void exportacaoEhMedidaNaThreadDaRespostaAssincrona() {
+        cadastrar("UF3");
+
+        ResponseEntity<String> resposta = restTemplate.getForEntity("/api/instituicao/exportacao", String.class);
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        // Uma única medição, registrada ao fim da resposta, com a consulta da exportação
+        DistributionSummary consultas = consultas("GET", "/api/instituicao/exportacao");
+        assertEquals(1, consultas.count());
+        assertEquals(1.0, consultas.totalAmount());
+    }
+
+    private void cadastrar(String sigla) {
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> resposta = restTemplate.postForEntity("/api/instituicao/brasileira",
+                new HttpEntity<>(CORPO_BRASILEIRA.formatted(sigla), cabecalhos), String.class);
+        assertEquals(HttpStatus.CREATED, resposta.getStatusCode(), resposta.getBody());
+    }
+
+    private DistributionSummary consultas(String metodo, String uri) {
+        return meterRegistry.get("instituicao.sql.consultas").tag("method", metodo).tag("uri", uri).summary();
+    }
+}
@@ -0,0 +1,123 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.monitoring.MedicaoSqlConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.ledes.desafio.institute_manager.monitoring.AssercoesSql.assertConsultas;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cache de segundo nível e de consultas do Hibernate. Cada chamada roda na sua própria transação, como nas
+ * requisições, porque o cache só é povoado e invalidado no commit.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({InstituicaoBatchRepository.class, MedicaoSqlConfig.class})
+class InstituicaoBrasileiraRepositoryTests {
+
+    @Autowired
+    private InstituicaoBrasileiraRepository instituicaoBrasileiraRepository;
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private InstituicaoBatchRepository instituicaoBatchRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        InstituicaoBrasileira instituicaoBrasileira = novaBrasileira("Universidade Federal");
+        transactionTemplate.executeWithoutResult(status -> instituicaoBatchRepository.insertBrasileiras(List.of(instituicaoBrasileira)));
+        id = instituicaoBrasileira.getInstituicao().getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        instituicaoBrasileiraRepository.deleteAllInBatch();
+        instituicaoRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void buscaRepetidaPorInstituicaoNaoExecutaSql() {
+        // Cache frio: o subtipo e depois a instituição associada
+        assertConsultas(2, () -> instituicaoBrasileiraRepository.findByInstituicaoId(id));
+
+        InstituicaoBrasileira repetida = assertConsultas(0, () -> instituicaoBrasileiraRepository.findByInstituicaoId(id)).orElseThrow();
+        assertEquals("Universidade Federal", repetida.getInstituicao().getNome());
+        assertEquals("Campo Grande", repetida.getMunicipio());
+
+        // A instituição carregada pela consulta também atende a busca por ID
+        assertConsultas(0, () -> instituicaoRepository.findById(id));
+    }
+
+    @Test
+    void atualizacoesNaoDeixamResultadoDesatualizadoNoCache() {
+        instituicaoBrasileiraRepository.findByInstituicaoId(id);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            InstituicaoBrasileira instituicaoBrasileira = instituicaoBrasileiraRepository.findByInstituicaoId(id).orElseThrow();
+            instituicaoBrasileira.getInstituicao().setNome("Universidade Estadual");
+            instituicaoBrasileira.setMunicipio("Dourados");
+        });
+        InstituicaoBrasileira atualizada = instituicaoBrasileiraRepository.findByInstituicaoId(id).orElseThrow();
+        assertEquals("Universidade Estadual", atualizada.getInstituicao().getNome());
+        assertEquals("Dourados", atualizada.getMunicipio());
+
+        // UPDATE em massa (inativação em lote) invalida a região da entidade
+        transactionTemplate.executeWithoutResult(status -> instituicaoRepository.updateStatusByIdIn(List.of(id), false));
+        assertFalse(instituicaoRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void insercaoEmLoteLimpaResultadoVazioEmCache() {
+        Long proximoId = id + 1;
+        assertTrue(instituicaoBrasileiraRepository.findByInstituicaoId(proximoId).isEmpty());
+
+        transactionTemplate.executeWithoutResult(status -> instituicaoBatchRepository.insertBrasileiras(List.of(novaBrasileira("Universidade Nova"))));
+
+        assertTrue(instituicaoBrasileiraRepository.findByInstituicaoId(proximoId).isPresent());
+    }
+
+    private static InstituicaoBrasileira novaBrasileira(String nome) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla("UF");
+        instituicao.setTipo(TipoInstituicao.BRASILEIRA);
+
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(instituicao);
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado("MS");
+        instituicaoBrasileira.setMunicipio("Campo Grande");
+        instituicaoBrasileira.setNumero("s/n");
+        return instituicaoBrasileira;
+    }
+}
@@ -0,0 +1,199 @@
+package com.ledes.desafio.institute_manager.repository;
+
+import com.ledes.desafio.institute_manager.dto.FiltroInstituicao;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ledes.desafio.institute_manager.repository.InstituicaoRepositoryTests$CapturaSql"
+})
+class InstituicaoRepositoryTests {
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 20; i++) {
+            entityManager.persist(novaBrasileira("Universidade " + i, "UF" + i, i % 2 == 0 ? "MS" : "SP",
+                    i % 4 == 0 ? "Dourados" : "Campo Grande", i % 5 != 0));
+            entityManager.persist(novaEstrangeira("University " + i, "U" + i, i % 2 == 0 ? "Portugal" : "Chile",
+                    i % 2 == 0 ? "Coimbra" : "Santiago", true));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        CapturaSql.SQL.clear();
+    }
+
+    @Test
+    void filtroPorEstadoEMunicipioRetornaSomenteBrasileirasCorrespondentes() {
+        List<InstituicaoDetalhada> instituicoes = instituicaoRepository.findDetalhadasByFiltro(
+                new FiltroInstituicao(null, null, "MS", "Dourados"), 0L, null);
+
+        assertEquals(5, instituicoes.size());
+        assertTrue(instituicoes.stream().allMatch(i -> "MS".equals(i.getEstado()) && "Dourados".equals(i.getMunicipio())));
+        assertOrdenadoPorId(instituicoes);
+    }
+
+    @Test
+    void filtroPorPaisConsultaSomenteOSubtipoCompativel() {
+        List<InstituicaoDetalhada> instituicoes = instituicaoRepository.findDetalhadasByFiltro(
+                new FiltroInstituicao(null, "Portugal", null, null), 0L, null);
+
+        assertEquals(10, instituicoes.size());
+        assertTrue(instituicoes.stream().allMatch(i -> i.getTipo() == TipoInstituicao.ESTRANGEIRA));
+        assertEquals(1, CapturaSql.SQL.size());
+    }
+
+    @Test
+    void filtroPorStatusRespeitaCursorELimite() {
+        List<InstituicaoDetalhada> primeira = instituicaoRepository.findDetalhadasByFiltro(
+                new FiltroInstituicao(false, null, null, null), 0L, 2);
+        List<InstituicaoDetalhada> segunda = instituicaoRepository.findDetalhadasByFiltro(
+                new FiltroInstituicao(false, null, null, null), primeira.get(1).getId(), 10);
+
+        assertEquals(2, primeira.size());
+        assertEquals(2, segunda.size());
+        assertTrue(segunda.stream().noneMatch(InstituicaoDetalhada::getStatus));
+        assertTrue(segunda.get(0).getId() > primeira.get(1).getId());
+    }
+
+    @Test
+    void filtroPorEstadoEMunicipioUsaIndiceDaTabelaBrasileira() {
+        instituicaoRepository.findDetalhadasByFiltro(new FiltroInstituicao(null, "Brasil", "MS", "Dourados"), 0L, null);
+
+        assertEquals(1, CapturaSql.SQL.size());
+        assertTrue(explain(CapturaSql.SQL.get(0), 0L, "MS", "Dourados")
+                .contains("IDX_INSTITUICAO_BRASILEIRA_ESTADO_MUNICIPIO"));
+    }
+
+    @Test
+    void filtroPorPaisEEstadoUsaIndiceDaTabelaEstrangeira() {
+        instituicaoRepository.findDetalhadasByFiltro(new FiltroInstituicao(null, "Portugal", "Coimbra", null), 0L, null);
+
+        assertEquals(1, CapturaSql.SQL.size());
+        assertTrue(explain(CapturaSql.SQL.get(0), 0L, "Portugal", "Coimbra")
+                .contains("IDX_INSTITUICAO_ESTRANGEIRA_PAIS_ESTADO_MUNICIPIO"));
+    }
+
+    @Test
+    void filtroPorMunicipioUsaIndiceEmAmbosOsSubtipos() {
+        instituicaoRepository.findDetalhadasByFiltro(new FiltroInstituicao(null, null, null, "Coimbra"), 0L, null);
+
+        assertEquals(2, CapturaSql.SQL.size());
+        assertTrue(explain(CapturaSql.SQL.get(0), 0L, "Coimbra").contains("IDX_INSTITUICAO_BRASILEIRA_MUNICIPIO"));
+        assertTrue(explain(CapturaSql.SQL.get(1), 0L, "Coimbra").contains("IDX_INSTITUICAO_ESTRANGEIRA_MUNICIPIO"));
+    }
+
+    @Test
+    void alteracoesPercorremTodasAsLinhasPelaMarca() {
+        // As linhas gravadas na mesma transação têm a mesma data: o ID desempata a marca
+        LocalDateTime desde = LocalDateTime.of(1970, 1, 1, 0, 0);
+        Long ultimoId = 0L;
+        LocalDateTime ate = instituicaoRepository.findAgora();
+        Set<Long> entregues = new HashSet<>();
+        List<InstituicaoDetalhada> pagina;
+        do {
+            pagina = instituicaoRepository.findDetalhadasAlteradas(desde, ultimoId, ate, PageRequest.of(0, 7));
+            for (InstituicaoDetalhada instituicao : pagina) {
+                assertTrue(entregues.add(instituicao.getId()));
+                assertEquals(instituicao.getStatus(), instituicao.getInativadaEm() == null);
+                desde = instituicao.getAtualizadaEm();
+                ultimoId = instituicao.getId();
+            }
+        } while (!pagina.isEmpty());
+
+        assertEquals(40, entregues.size());
+    }
+
+    /**
+     * Executa EXPLAIN sobre o SQL gerado pelo Hibernate, com os parâmetros na ordem em que aparecem.
+     */
+    private String explain(String sql, Object... parametros) {
+        String plano = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parametros));
+        return plano.toUpperCase();
+    }
+
+    private static void assertOrdenadoPorId(List<InstituicaoDetalhada> instituicoes) {
+        for (int i = 1; i < instituicoes.size(); i++) {
+            assertTrue(instituicoes.get(i - 1).getId() < instituicoes.get(i).getId());
+        }
+    }
+
+    private InstituicaoBrasileira novaBrasileira(String nome, String sigla, String estado, String municipio, boolean status) {
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(novaInstituicao(nome, sigla, status, TipoInstituicao.BRASILEIRA));
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070-900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado(estado);
+        instituicaoBrasileira.setMunicipio(municipio);
+        instituicaoBrasileira.setNumero("s/n");
+        return instituicaoBrasileira;
+    }
+
+    private InstituicaoEstrangeira novaEstrangeira(String nome, String sigla, String pais, String estadoRegiao, boolean status) {
+        InstituicaoEstrangeira instituicaoEstrangeira = new InstituicaoEstrangeira();
+        instituicaoEstrangeira.setInstituicao(novaInstituicao(nome, sigla, status, TipoInstituicao.ESTRANGEIRA));
+        instituicaoEstrangeira.setPais(pais);
+        instituicaoEstrangeira.setCep("3004531");
+        instituicaoEstrangeira.setLogradouro("Rua Larga");
+        instituicaoEstrangeira.setEstadoRegiao(estadoRegiao);
+        instituicaoEstrangeira.setMunicipio(estadoRegiao);
+        return instituicaoEstrangeira;
+    }
+
+    private Instituicao novaInstituicao(String nome, String sigla, boolean status, TipoInstituicao tipo) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla(sigla);
+        instituicao.setStatus(status);
+        instituicao.setTipo(tipo);
+        entityManager.persist(instituicao);
+        return instituicao;
+    }
+
+    /**
+     * Guarda as consultas geradas pelo Hibernate para que o plano de execução possa ser verificado.
+     */
+    public static class CapturaSql implements StatementInspector {
+
+        static final List<String> SQL = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select")) {
+                SQL.add(sql);
+            }
+            return sql;
+        }
+    }
+}
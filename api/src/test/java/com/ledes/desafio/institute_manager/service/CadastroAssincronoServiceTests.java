@@ -0,0 +1,303 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.controller.ApiExceptionHandler;
+import com.ledes.desafio.institute_manager.controller.CadastroAssincronoController;
+import com.ledes.desafio.institute_manager.dto.EstadoCadastro;
+import com.ledes.desafio.institute_manager.dto.SituacaoCadastro;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.repository.InstituicaoBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * O gravador roda na própria thread e confirma cada lote, então os testes não usam a transação do @DataJpaTest.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CadastroAssincronoServiceTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Integer> lotes = Collections.synchronizedList(new ArrayList<>());
+    private final List<Object> eventos = Collections.synchronizedList(new ArrayList<>());
+    private CountDownLatch gravando = new CountDownLatch(0);
+    private CountDownLatch liberar = new CountDownLatch(0);
+    private CadastroAssincronoService service;
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        if (service != null && service.isRunning()) {
+            service.stop();
+        }
+        jdbcTemplate.update("delete from instituicao_brasileira");
+        jdbcTemplate.update("delete from instituicao_estrangeira");
+        jdbcTemplate.update("delete from instituicao");
+    }
+
+    @Test
+    void loteFechaAoAtingirOTamanho() {
+        iniciar(100, 5, Duration.ofSeconds(2));
+
+        List<SituacaoCadastro> situacoes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            situacoes.add(service.enfileirarBrasileira(brasileira("UF" + i, "12345678000199")));
+        }
+
+        // Bem antes do intervalo: os lotes foram gravados por estarem cheios
+        aguardarConclusao(situacoes, Duration.ofMillis(1500));
+        assertEquals(List.of(5, 5), lotes);
+        assertEquals(10, contar("instituicao"));
+        assertEquals(10, eventos.size());
+    }
+
+    @Test
+    void loteIncompletoEhGravadoAoFimDoIntervalo() {
+        iniciar(100, 500, Duration.ofMillis(200));
+
+        long inicio = System.nanoTime();
+        List<SituacaoCadastro> situacoes = List.of(
+                service.enfileirarBrasileira(brasileira("UFMS", "12345678000199")),
+                service.enfileirarEstrangeira(estrangeira("UC")),
+                service.enfileirarBrasileira(brasileira("UFGD", "12345678000100")));
+
+        aguardarConclusao(situacoes, Duration.ofSeconds(5));
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(150));
+        // Um lote só, com as duas tabelas de subtipo gravadas na mesma transação
+        assertEquals(List.of(3), lotes);
+        assertEquals(2, contar("instituicao_brasileira"));
+        assertEquals(1, contar("instituicao_estrangeira"));
+    }
+
+    @Test
+    void filaCheiaRecusaDepoisDaEsperaComRetryAfter() throws InterruptedException {
+        gravando = new CountDownLatch(1);
+        liberar = new CountDownLatch(1);
+        iniciar(2, 1, Duration.ofMillis(10), Duration.ofMillis(100));
+
+        // O primeiro pedido prende o gravador; os dois seguintes ocupam a fila
+        List<SituacaoCadastro> aceitos = new ArrayList<>();
+        aceitos.add(service.enfileirarBrasileira(brasileira("UF0", "12345678000199")));
+        assertTrue(gravando.await(5, TimeUnit.SECONDS));
+        aceitos.add(service.enfileirarBrasileira(brasileira("UF1", "12345678000199")));
+        aceitos.add(service.enfileirarBrasileira(brasileira("UF2", "12345678000199")));
+
+        long inicio = System.nanoTime();
+        FilaCheiaException recusa = assertThrows(FilaCheiaException.class,
+                () -> service.enfileirarBrasileira(brasileira("UF3", "12345678000199")));
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(90));
+
+        ResponseEntity<?> resposta = new ApiExceptionHandler().handleFilaCheia(recusa);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resposta.getStatusCode());
+        assertEquals("1", resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        liberar.countDown();
+        aguardarConclusao(aceitos, Duration.ofSeconds(5));
+        assertEquals(3, contar("instituicao"));
+    }
+
+    @Test
+    void loteRejeitadoEhRegravadoUmAUm() {
+        iniciar(100, 3, Duration.ofSeconds(1));
+
+        // O CNPJ longo demais passa pela validação, mas não cabe na coluna: o banco rejeita o lote inteiro
+        SituacaoCadastro primeiro = service.enfileirarBrasileira(brasileira("UFMS", "12345678000199"));
+        SituacaoCadastro rejeitado = service.enfileirarBrasileira(brasileira("UFGD", "123456780001990000"));
+        SituacaoCadastro terceiro = service.enfileirarBrasileira(brasileira("UFMT", "12345678000100"));
+
+        aguardar(List.of(primeiro, rejeitado, terceiro), Duration.ofSeconds(5));
+        assertEquals(List.of(3, 1, 1, 1), lotes);
+        assertEquals(EstadoCadastro.CONCLUIDO, situacao(primeiro).getEstado());
+        assertEquals(EstadoCadastro.CONCLUIDO, situacao(terceiro).getEstado());
+        SituacaoCadastro falha = situacao(rejeitado);
+        assertEquals(EstadoCadastro.FALHOU, falha.getEstado());
+        assertTrue(falha.getErro().startsWith("Erro ao gravar: "), falha.getErro());
+        assertEquals(2, contar("instituicao"));
+        // Só os cadastros gravados publicam eventos
+        assertEquals(2, eventos.size());
+    }
+
+    @Test
+    void situacaoAcompanhaOCadastro() {
+        gravando = new CountDownLatch(1);
+        liberar = new CountDownLatch(1);
+        iniciar(100, 1, Duration.ofMillis(10));
+        CadastroAssincronoController controller = new CadastroAssincronoController(service);
+
+        SituacaoCadastro pendente = service.enfileirarBrasileira(brasileira("UFMS", "12345678000199"));
+        assertEquals(EstadoCadastro.PENDENTE, situacao(pendente).getEstado());
+        assertEquals(HttpStatus.OK, controller.getSituacao(pendente.getId()).getStatusCode());
+        assertEquals(null, controller.getSituacao(pendente.getId()).getHeaders().getLocation());
+
+        liberar.countDown();
+        aguardarConclusao(List.of(pendente), Duration.ofSeconds(5));
+        SituacaoCadastro concluido = situacao(pendente);
+        assertNotNull(concluido.getInstituicaoId());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from instituicao where id = ?", Integer.class,
+                concluido.getInstituicaoId()));
+        assertEquals("/api/instituicao/" + concluido.getInstituicaoId(),
+                controller.getSituacao(pendente.getId()).getHeaders().getLocation().toString());
+
+        assertTrue(service.getSituacao("desconhecido").isEmpty());
+        assertEquals(HttpStatus.NOT_FOUND, controller.getSituacao("desconhecido").getStatusCode());
+    }
+
+    @Test
+    void stopGravaTodaAFilaAntesDeEncerrar() {
+        iniciar(1000, 7, Duration.ofMillis(300));
+
+        List<SituacaoCadastro> situacoes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            situacoes.add(service.enfileirarEstrangeira(estrangeira("U" + i)));
+        }
+        service.stop();
+
+        // Nada fica pendente depois do stop, e a fila não aceita mais pedidos
+        for (SituacaoCadastro situacao : situacoes) {
+            assertEquals(EstadoCadastro.CONCLUIDO, situacao(situacao).getEstado());
+        }
+        assertEquals(50, contar("instituicao_estrangeira"));
+        assertThrows(FilaCheiaException.class, () -> service.enfileirarEstrangeira(estrangeira("UC")));
+    }
+
+    private void iniciar(int capacidade, int tamanhoLote, Duration intervalo) {
+        iniciar(capacidade, tamanhoLote, intervalo, Duration.ofSeconds(1));
+    }
+
+    private void iniciar(int capacidade, int tamanhoLote, Duration intervalo, Duration esperaVaga) {
+        InstituicaoBatchRepository repository = new InstituicaoBatchRepository(jdbcTemplate, entityManagerFactory) {
+            @Override
+            public void insertBrasileiras(List<InstituicaoBrasileira> lote) {
+                registrar(lote.size());
+                super.insertBrasileiras(lote);
+            }
+
+            @Override
+            public void insertEstrangeiras(List<InstituicaoEstrangeira> lote) {
+                registrar(lote.size());
+                super.insertEstrangeiras(lote);
+            }
+        };
+        service = new CadastroAssincronoService(repository, transactionTemplate, eventos::add, new SimpleMeterRegistry(),
+                capacidade, tamanhoLote, intervalo, esperaVaga, Duration.ofMinutes(1));
+        service.start();
+    }
+
+    /**
+     * Soma os registros gravados em cada transação, que num lote misto chama os dois inserts.
+     */
+    private void registrar(int tamanho) {
+        gravando.countDown();
+        try {
+            liberar.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int[] lote = (int[]) TransactionSynchronizationManager.getResource(lotes);
+        if (lote == null) {
+            int[] novo = {0};
+            TransactionSynchronizationManager.bindResource(lotes, novo);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(lotes);
+                    lotes.add(novo[0]);
+                }
+            });
+            lote = novo;
+        }
+        lote[0] += tamanho;
+    }
+
+    private void aguardarConclusao(List<SituacaoCadastro> situacoes, Duration limite) {
+        aguardar(situacoes, limite);
+        for (SituacaoCadastro situacao : situacoes) {
+            assertEquals(EstadoCadastro.CONCLUIDO, situacao(situacao).getEstado(), situacao(situacao).getErro());
+        }
+    }
+
+    private void aguardar(List<SituacaoCadastro> situacoes, Duration limite) {
+        long fim = System.nanoTime() + limite.toNanos();
+        while (situacoes.stream().anyMatch(situacao -> situacao(situacao).getEstado() == EstadoCadastro.PENDENTE)) {
+            if (System.nanoTime() > fim) {
+                fail("Cadastros ainda pendentes depois de " + limite);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private SituacaoCadastro situacao(SituacaoCadastro situacao) {
+        return service.getSituacao(situacao.getId()).orElseThrow();
+    }
+
+    private int contar(String tabela) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tabela, Integer.class);
+    }
+
+    private static InstituicaoBrasileira brasileira(String sigla, String cnpj) {
+        InstituicaoBrasileira brasileira = new InstituicaoBrasileira();
+        brasileira.setInstituicao(instituicao(sigla));
+        brasileira.setPais("Brasil");
+        brasileira.setCnpj(cnpj);
+        brasileira.setCep("79070900");
+        brasileira.setLogradouro("Avenida Costa e Silva");
+        brasileira.setBairro("Universitário");
+        brasileira.setEstado("MS");
+        brasileira.setMunicipio("Campo Grande");
+        brasileira.setNumero("s/n");
+        return brasileira;
+    }
+
+    private static InstituicaoEstrangeira estrangeira(String sigla) {
+        InstituicaoEstrangeira estrangeira = new InstituicaoEstrangeira();
+        estrangeira.setInstituicao(instituicao(sigla));
+        estrangeira.setPais("Portugal");
+        estrangeira.setCep("3004531");
+        estrangeira.setLogradouro("Rua Larga");
+        estrangeira.setEstadoRegiao("Coimbra");
+        estrangeira.setMunicipio("Coimbra");
+        return estrangeira;
+    }
+
+    private static Instituicao instituicao(String sigla) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome("Universidade " + sigla);
+        instituicao.setSigla(sigla);
+        return instituicao;
+    }
+}
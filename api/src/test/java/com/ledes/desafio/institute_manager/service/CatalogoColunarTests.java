@@ -0,0 +1,90 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.FiltroInstituicao;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogoColunarTests {
+
+    private final List<InstituicaoDetalhada> instituicoes = instituicoes(1000);
+    private final CatalogoColunar catalogo = CatalogoColunar.de(instituicoes.iterator());
+
+    @Test
+    void linhasSaoDevolvidasComoForamCarregadas() {
+        assertEquals(instituicoes, catalogo.listar(null, 0L, null));
+        assertEquals(instituicoes.get(41), catalogo.buscar(42L).orElseThrow());
+        assertTrue(catalogo.buscar(1001L).isEmpty());
+        assertEquals(1000, catalogo.tamanho());
+    }
+
+    @Test
+    void filtrosSeguemASemanticaDasConsultas() {
+        // Brasil seleciona as brasileiras; estado vale para o estado ou o estado/região, sem diferenciar maiúsculas
+        List<InstituicaoDetalhada> brasileiras = catalogo.listar(new FiltroInstituicao(null, "brasil", "ms", null), 0L, null);
+        assertEquals(500, brasileiras.size());
+        assertTrue(brasileiras.stream().allMatch(i -> i.getTipo() == TipoInstituicao.BRASILEIRA));
+
+        List<InstituicaoDetalhada> coimbra = catalogo.listar(new FiltroInstituicao(true, "Portugal", null, "Coimbra"), 0L, 3);
+        assertEquals(List.of(1L, 3L, 5L), coimbra.stream().map(InstituicaoDetalhada::getId).toList());
+
+        assertTrue(catalogo.listar(new FiltroInstituicao(null, "Chile", null, null), 0L, null).isEmpty());
+        assertEquals(List.of(11L, 13L), catalogo.listar(new FiltroInstituicao(null, "Portugal", null, null), 10L, 2)
+                .stream().map(InstituicaoDetalhada::getId).toList());
+    }
+
+    @Test
+    void alteracoesGeramNovaCopiaSemMudarAAtual() {
+        InstituicaoDetalhada inativada = instituicoes.get(1);
+        InstituicaoDetalhada alterada = new InstituicaoDetalhada(inativada.getId(), inativada.getNome(), inativada.getSigla(),
+                false, "Brasil", inativada.getCep(), inativada.getLogradouro(), null, "SP", "São Paulo",
+                inativada.getCnpj(), inativada.getBairro(), inativada.getNumero(), TipoInstituicao.BRASILEIRA, 1L);
+        InstituicaoDetalhada nova = new InstituicaoDetalhada(1001L, "Universidade Nova", "UN", true, "Chile", "8320000",
+                "Avenida Libertador", null, "Santiago", "Santiago", null, null, null, TipoInstituicao.ESTRANGEIRA, 0L);
+
+        // A instituição 3 não existe mais no banco e é removida
+        CatalogoColunar copia = catalogo.comAlteracoes(Set.of(2L, 3L, 1001L), List.of(alterada, nova));
+
+        assertEquals(inativada, catalogo.buscar(2L).orElseThrow());
+        assertEquals(alterada, copia.buscar(2L).orElseThrow());
+        assertEquals(nova, copia.buscar(1001L).orElseThrow());
+        assertTrue(copia.buscar(3L).isEmpty());
+        assertEquals(1000, copia.tamanho());
+        assertEquals(List.of(2L), copia.listar(new FiltroInstituicao(false, null, "SP", null), 0L, null)
+                .stream().map(InstituicaoDetalhada::getId).toList());
+        assertFalse(copia.listar(new FiltroInstituicao(null, "Chile", null, null), 0L, null).isEmpty());
+    }
+
+    @Test
+    void snapshotOcupaMenosQueALista() {
+        // País, estado e município viram um byte por linha; os textos repetidos ficam uma vez só
+        assertTrue(catalogo.estimarBytes() * 3 < catalogo.estimarBytesLista());
+        assertEquals(3, catalogo.valoresDistintos().get("pais"));
+    }
+
+    /**
+     * Metade brasileiras (IDs pares), metade estrangeiras, com endereços repetidos como numa base real.
+     * Cada linha tem as suas próprias Strings, como as lidas do banco.
+     */
+    private static List<InstituicaoDetalhada> instituicoes(int tamanho) {
+        List<InstituicaoDetalhada> instituicoes = new ArrayList<>(tamanho);
+        for (long id = 1; id <= tamanho; id++) {
+            instituicoes.add(id % 2 == 0
+                    ? new InstituicaoDetalhada(id, "Universidade " + id, "U" + id, true, new String("Brasil"), "79070-900",
+                            new String("Avenida Costa e Silva"), null, new String("MS"), new String("Campo Grande"),
+                            "12345678000199", "Universitário", "s/n", TipoInstituicao.BRASILEIRA, 0L)
+                    : new InstituicaoDetalhada(id, "University " + id, "U" + id, true, new String("Portugal"), "3004531",
+                            new String("Rua Larga"), null, new String("Coimbra"), new String("Coimbra"), null, null, null,
+                            TipoInstituicao.ESTRANGEIRA, 0L));
+        }
+        return instituicoes;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.config.RoteamentoDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConsultaParalelaTests {
+
+    private final DataSourceTransactionManager transactionManager =
+            new DataSourceTransactionManager(new DriverManagerDataSource("jdbc:h2:mem:consulta;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    @Test
+    void limiteUsaOMenorPoolAtrasDoRoteamento() {
+        try (HikariDataSource primario = pool(12); HikariDataSource replica = pool(8)) {
+            LazyConnectionDataSourceProxy dataSource =
+                    new LazyConnectionDataSourceProxy(new RoteamentoDataSource(primario, replica, Duration.ofSeconds(5)));
+
+            assertEquals(8, ConsultaParalela.tamanhoPool(dataSource));
+            assertEquals(4, new ConsultaParalela(transactionManager, dataSource, true, 0).getConexoesLivres());
+        }
+    }
+
+    @Test
+    void falhaDevolveTodasAsPermissoes() {
+        ConsultaParalela consultaParalela = new ConsultaParalela(transactionManager, pool(10), true, 3);
+
+        for (int i = 0; i < 50; i++) {
+            List<Callable<List<Integer>>> consultas = new ArrayList<>();
+            consultas.add(() -> {
+                throw new IllegalStateException("falha");
+            });
+            for (int j = 0; j < 4; j++) {
+                consultas.add(() -> {
+                    Thread.sleep(5);
+                    return List.of(1);
+                });
+            }
+            assertThrows(IllegalStateException.class, () -> consultaParalela.executar(consultas));
+            assertEquals(3, consultaParalela.getConexoesLivres(), "iteração " + i);
+        }
+
+        // Com todas as permissões de volta, as consultas continuam indo para as threads virtuais
+        assertEquals(List.of(List.of(1), List.of(2)), consultaParalela.executar(List.of(() -> List.of(1), () -> List.of(2))));
+    }
+
+    private static HikariDataSource pool(int tamanho) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:consulta;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(tamanho);
+        return dataSource;
+    }
+}
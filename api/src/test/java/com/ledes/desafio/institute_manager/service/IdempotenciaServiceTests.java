@@ -0,0 +1,102 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotenciaServiceTests {
+
+    private final IdempotenciaService idempotenciaService =
+            new IdempotenciaService(null, new ObjectMapper(), 100, Duration.ofHours(1), Duration.ofSeconds(5), false);
+
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    @Test
+    void repeticaoDevolveRespostaGuardadaSemExecutar() {
+        ResponseEntity<?> original = idempotenciaService.executar(TipoInstituicao.BRASILEIRA, "chave", Map.of("nome", "UFMS"), this::cadastrar);
+        ResponseEntity<?> repetida = idempotenciaService.executar(TipoInstituicao.BRASILEIRA, "chave", Map.of("nome", "UFMS"), this::cadastrar);
+
+        assertEquals(1, execucoes.get());
+        assertNull(original.getHeaders().getFirst(IdempotenciaService.IDEMPOTENT_REPLAYED));
+        assertEquals("true", repetida.getHeaders().getFirst(IdempotenciaService.IDEMPOTENT_REPLAYED));
+        assertEquals(201, repetida.getStatusCode().value());
+        assertEquals("/api/instituicao/1", repetida.getHeaders().getFirst("Location"));
+
+        // A mesma chave no outro endpoint é outro pedido
+        idempotenciaService.executar(TipoInstituicao.ESTRANGEIRA, "chave", Map.of("nome", "UFMS"), this::cadastrar);
+        assertEquals(2, execucoes.get());
+    }
+
+    @Test
+    void mesmaChaveComOutroCorpoEhRecusada() {
+        idempotenciaService.executar(TipoInstituicao.BRASILEIRA, "chave", Map.of("nome", "UFMS"), this::cadastrar);
+
+        ChaveIdempotenciaException e = assertThrows(ChaveIdempotenciaException.class, () ->
+                idempotenciaService.executar(TipoInstituicao.BRASILEIRA, "chave", Map.of("nome", "UFGD"), this::cadastrar));
+        assertTrue(e.isConflitante());
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void falhaNaoEhGuardada() {
+        assertThrows(IllegalStateException.class, () ->
+                idempotenciaService.executar(TipoInstituicao.BRASILEIRA, "chave", Map.of("nome", "UFMS"), () -> {
+                    throw new IllegalStateException("banco indisponível");
+                }));
+
+        idempotenciaService.executar(TipoInstituicao.BRASILEIRA, "chave", Map.of("nome", "UFMS"), this::cadastrar);
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void requisicoesSimultaneasExecutamUmaVez() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<?>>> respostas = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                respostas.add(executor.submit(() -> idempotenciaService.executar(TipoInstituicao.BRASILEIRA, "chave", Map.of("nome", "UFMS"), () -> {
+                    aguardar(liberar);
+                    return cadastrar();
+                })));
+            }
+            Thread.sleep(100);
+            liberar.countDown();
+            for (Future<ResponseEntity<?>> resposta : respostas) {
+                assertEquals(201, resposta.get().getStatusCode().value());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, execucoes.get());
+    }
+
+    private static void aguardar(CountDownLatch liberar) {
+        try {
+            liberar.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ResponseEntity<?> cadastrar() {
+        int id = execucoes.incrementAndGet();
+        return ResponseEntity.status(201).header("Location", "/api/instituicao/" + id).body(Map.of("id", id));
+    }
+}
@@ -0,0 +1,171 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.ResultadoBusca;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * O índice é montado pelos eventos, como após cada commit; somente a carga inicial lê o banco.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class InstituicaoBuscaServiceTests {
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private InstituicaoBuscaService instituicaoBuscaService;
+
+    @BeforeEach
+    void setUp() {
+        instituicaoBuscaService = new InstituicaoBuscaService(instituicaoRepository, 20, 100);
+    }
+
+    @Test
+    void indiceInicialVemDoBanco() {
+        Long id = novaBrasileira("Universidade Federal", "UFMS");
+        novaBrasileira("Instituto Federal", "IFMS");
+        entityManager.flush();
+
+        instituicaoBuscaService.construirIndice();
+
+        assertEquals(List.of(id), ids("UFMS"));
+        assertEquals(2, instituicaoBuscaService.buscar("federal", null).size());
+    }
+
+    @Test
+    void resultadosSeguemARelevancia() {
+        alterar(1L, "Fundação Educacional", "FED", true, TipoAlteracao.CRIADA);
+        alterar(2L, "Confederação Nacional", "CN", true, TipoAlteracao.CRIADA);
+        alterar(3L, "Universidade Federal", "UFMS", true, TipoAlteracao.CRIADA);
+        alterar(4L, "Federação das Escolas", "FE", true, TipoAlteracao.CRIADA);
+        alterar(5L, "Outra Instituição", "FEDX", true, TipoAlteracao.CRIADA);
+        alterar(6L, "Fundação Estadual", "FES", true, TipoAlteracao.CRIADA);
+
+        // Sigla exata, prefixo da sigla, prefixo do nome, início de palavra e trecho; a 6 não contém o termo
+        List<ResultadoBusca> resultados = instituicaoBuscaService.buscar("fed", null);
+        assertEquals(List.of(1L, 5L, 4L, 3L, 2L), resultados.stream().map(ResultadoBusca::getId).toList());
+        assertEquals(List.of(100, 80, 60, 50, 30), resultados.stream().map(ResultadoBusca::getPontuacao).toList());
+    }
+
+    @Test
+    void empateOrdenaPeloNomeMaisCurtoEDepoisPeloId() {
+        alterar(3L, "Universidade Federal do Paraná", "UFPR", true, TipoAlteracao.CRIADA);
+        alterar(2L, "Universidade Federal", "UF1", true, TipoAlteracao.CRIADA);
+        alterar(1L, "Universidade Estadual", "UE", true, TipoAlteracao.CRIADA);
+        alterar(4L, "Universidade Federal", "UF2", true, TipoAlteracao.CRIADA);
+
+        // Todos são prefixo do nome; "Universidade Estadual" tem um caractere a mais que "Universidade Federal"
+        assertEquals(List.of(2L, 4L, 1L, 3L), ids("universidade"));
+    }
+
+    @Test
+    void termosCurtosCasamComOInicioDePalavras() {
+        alterar(1L, "Universidade Federal", "UFMS", true, TipoAlteracao.CRIADA);
+        alterar(2L, "Centro Ufológico", "CU", true, TipoAlteracao.CRIADA);
+        alterar(3L, "Grupo Sufista", "GS", true, TipoAlteracao.CRIADA);
+        alterar(4L, "Universidade Estadual", "UE", true, TipoAlteracao.CRIADA);
+        alterar(5L, "Escola Unida", "EU", true, TipoAlteracao.CRIADA);
+
+        // Duas letras: início da sigla ou de uma palavra do nome, nunca no meio da palavra
+        assertEquals(List.of(1L, 2L), ids("UF"));
+        // Uma letra: somente o início do nome ou da sigla; as duas siglas começam com o termo
+        assertEquals(List.of(1L, 4L), ids("u"));
+        assertEquals(List.of(5L), ids("e"));
+    }
+
+    @Test
+    void acentosEMaiusculasSaoIgnorados() {
+        alterar(1L, "Universidade de São Paulo", "USP", true, TipoAlteracao.CRIADA);
+        alterar(2L, "Pontifícia Univ. Católica", "PUC-SP", true, TipoAlteracao.CRIADA);
+
+        for (String termo : new String[] {"são paulo", "SAO PAULO", "Sao-Paulo", "  são   PAULO "}) {
+            assertEquals(List.of(1L), ids(termo), termo);
+        }
+        assertEquals(List.of(2L), ids("catolica"));
+        assertEquals(List.of(2L), ids("puc sp"));
+        // O resultado traz o texto original, com acentos
+        assertEquals("Universidade de São Paulo", instituicaoBuscaService.buscar("sao", null).get(0).getNome());
+    }
+
+    @Test
+    void eventosAtualizamOIndice() {
+        alterar(1L, "Universidade Federal", "UFMS", true, TipoAlteracao.CRIADA);
+        assertEquals(List.of(1L), ids("federal"));
+
+        // Os trigramas do nome antigo saem do índice
+        alterar(1L, "Universidade Estadual", "UEMS", true, TipoAlteracao.ATUALIZADA);
+        assertEquals(List.of(), ids("federal"));
+        assertEquals(List.of(), ids("UFMS"));
+        assertEquals(List.of(1L), ids("estadual"));
+
+        alterar(1L, "Universidade Estadual", "UEMS", false, TipoAlteracao.INATIVADA);
+        assertEquals(false, instituicaoBuscaService.buscar("UEMS", null).get(0).getStatus());
+
+        alterar(1L, "Universidade Estadual", "UEMS", true, TipoAlteracao.REATIVADA);
+        assertEquals(true, instituicaoBuscaService.buscar("UEMS", null).get(0).getStatus());
+        assertEquals(1, instituicaoBuscaService.buscar("universidade", null).size());
+    }
+
+    @Test
+    void limiteEhValidadoELimitadoAoMaximo() {
+        InstituicaoBuscaService busca = new InstituicaoBuscaService(instituicaoRepository, 2, 3);
+        for (long id = 1; id <= 5; id++) {
+            busca.onInstituicaoAlterada(new InstituicaoAlteradaEvent(id, "Universidade " + id, "U" + id, true, TipoAlteracao.CRIADA));
+        }
+
+        assertEquals(2, busca.buscar("universidade", null).size());
+        assertEquals(3, busca.buscar("universidade", 50).size());
+        assertEquals(1, busca.buscar("universidade", 1).size());
+        assertThrows(RequisicaoInvalidaException.class, () -> busca.buscar("universidade", 0));
+        assertThrows(RequisicaoInvalidaException.class, () -> busca.buscar(" ", null));
+        // Só separadores: nada sobra depois da normalização
+        assertThrows(RequisicaoInvalidaException.class, () -> busca.buscar("--", null));
+    }
+
+    private void alterar(Long id, String nome, String sigla, boolean status, TipoAlteracao alteracao) {
+        instituicaoBuscaService.onInstituicaoAlterada(new InstituicaoAlteradaEvent(id, nome, sigla, status, alteracao));
+    }
+
+    private List<Long> ids(String termo) {
+        return instituicaoBuscaService.buscar(termo, null).stream().map(ResultadoBusca::getId).toList();
+    }
+
+    private Long novaBrasileira(String nome, String sigla) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla(sigla);
+        instituicao.setTipo(TipoInstituicao.BRASILEIRA);
+        entityManager.persist(instituicao);
+
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(instituicao);
+        instituicaoBrasileira.setPais("Brasil");
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070-900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado("MS");
+        instituicaoBrasileira.setMunicipio("Campo Grande");
+        instituicaoBrasileira.setNumero("s/n");
+        entityManager.persist(instituicaoBrasileira);
+        return instituicao.getId();
+    }
+}
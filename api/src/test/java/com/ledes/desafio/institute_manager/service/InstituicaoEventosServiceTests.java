@@ -0,0 +1,211 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstituicaoEventosServiceTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InstituicaoEventosService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.encerrarTodos();
+        }
+    }
+
+    @Test
+    void novaAssinaturaRecebeSoAsProximasAlteracoes() throws InterruptedException {
+        iniciar(100, 10);
+        publicar(1L, 2L);
+
+        Emissor emissor = assinar(null);
+        publicar(3L);
+
+        Evento evento = emissor.proximo();
+        assertEquals(InstituicaoEventosService.EVENTO_ALTERACAO, evento.nome());
+        assertTrue(evento.id().endsWith("-3"), evento.id());
+        assertTrue(evento.dados().contains("\"id\":3"), evento.dados());
+        assertTrue(evento.dados().contains("\"alteracao\":\"ATUALIZADA\""), evento.dados());
+        assertNull(emissor.eventos.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void retomadaPeloUltimoIdReenviaOHistorico() throws InterruptedException {
+        iniciar(100, 10);
+        Emissor primeiro = assinar(null);
+        publicar(1L, 2L, 3L);
+        String idDoPrimeiro = primeiro.proximo().id();
+
+        // Reconexão com o ID do primeiro evento: os dois seguintes vêm do histórico, depois as novas alterações
+        Emissor retomado = assinar(idDoPrimeiro);
+        publicar(4L);
+
+        assertEquals(List.of("2", "3", "4"), List.of(retomado.proximo().sequencia(), retomado.proximo().sequencia(),
+                retomado.proximo().sequencia()));
+        assertNull(retomado.eventos.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void idForaDoHistoricoPedeReinicio() throws InterruptedException {
+        iniciar(3, 10);
+        Emissor primeiro = assinar(null);
+        publicar(1L, 2L, 3L, 4L, 5L);
+        String idDoPrimeiro = primeiro.proximo().id();
+        String execucao = idDoPrimeiro.substring(0, idDoPrimeiro.lastIndexOf('-'));
+
+        // O evento 2 já saiu do histórico de três: retomar do 1 perderia alterações
+        for (String ultimoId : new String[] {idDoPrimeiro, "outra-2", execucao + "-99", "invalido"}) {
+            Emissor emissor = assinar(ultimoId);
+            Evento reinicio = emissor.proximo();
+            assertEquals(InstituicaoEventosService.EVENTO_REINICIO, reinicio.nome(), ultimoId);
+            // O reinício traz o ID atual: a próxima reconexão continua dele
+            assertEquals(execucao + "-5", reinicio.id());
+            assertNull(emissor.eventos.poll(50, TimeUnit.MILLISECONDS), ultimoId);
+        }
+
+        Emissor doLimite = assinar(execucao + "-2");
+        assertEquals("3", doLimite.proximo().sequencia());
+    }
+
+    @Test
+    void assinanteLentoEhDesconectadoSemAtrasarOsDemais() throws InterruptedException {
+        iniciar(100, 2);
+        Emissor lento = new Emissor(new CountDownLatch(1));
+        service.assinar(null, lento);
+        Emissor rapido = assinar(null);
+
+        // O lento fica preso na primeira alteração; as duas seguintes enchem a fila dele e a quarta o desconecta.
+        // O rápido recebe cada alteração antes da próxima
+        publicar(1L);
+        assertTrue(lento.enviando.await(5, TimeUnit.SECONDS));
+        assertEquals("1", rapido.proximo().sequencia());
+        for (long id = 2; id <= 5; id++) {
+            publicar(id);
+            assertEquals(Long.toString(id), rapido.proximo().sequencia());
+        }
+
+        assertEquals(1.0, meterRegistry.get("instituicao.eventos.descartes").counter().count());
+        assertEquals(1.0, meterRegistry.get("instituicao.eventos.assinantes").gauge().value());
+
+        // Liberado, o lento recebe o que já estava na fila e a conexão é encerrada
+        lento.liberar.countDown();
+        String ultimo = null;
+        for (String sequencia : List.of("1", "2", "3")) {
+            Evento evento = lento.proximo();
+            assertEquals(sequencia, evento.sequencia());
+            ultimo = evento.id();
+        }
+        assertTrue(lento.encerrado.await(5, TimeUnit.SECONDS));
+
+        // Ao reconectar, retoma do histórico
+        Emissor reconectado = assinar(ultimo);
+        assertEquals("4", reconectado.proximo().sequencia());
+        assertEquals("5", reconectado.proximo().sequencia());
+    }
+
+    private void iniciar(int historico, int buffer) {
+        service = new InstituicaoEventosService(new ObjectMapper(), meterRegistry, historico, buffer,
+                Duration.ofSeconds(30), Duration.ofMinutes(1));
+    }
+
+    private Emissor assinar(String ultimoId) {
+        Emissor emissor = new Emissor(new CountDownLatch(0));
+        service.assinar(ultimoId, emissor);
+        return emissor;
+    }
+
+    private void publicar(Long... ids) {
+        for (Long id : ids) {
+            service.onInstituicaoAlterada(new InstituicaoAlteradaEvent(id, "Universidade " + id, "U" + id, true,
+                    TipoAlteracao.ATUALIZADA));
+        }
+    }
+
+    private record Evento(String id, String nome, String dados) {
+
+        String sequencia() {
+            return id.substring(id.lastIndexOf('-') + 1);
+        }
+
+        static Evento de(String texto) {
+            String id = null;
+            String nome = null;
+            String dados = null;
+            for (String linha : texto.split("\n")) {
+                if (linha.startsWith("id:")) {
+                    id = linha.substring(3);
+                } else if (linha.startsWith("event:")) {
+                    nome = linha.substring(6);
+                } else if (linha.startsWith("data:")) {
+                    dados = linha.substring(5);
+                }
+            }
+            return new Evento(id, nome, dados);
+        }
+    }
+
+    /**
+     * Emissor sem conexão HTTP que guarda os eventos enviados, ignorando os comentários (conexão e heartbeat).
+     * Com 'liberar' fechado, o primeiro envio de evento fica bloqueado, como um cliente que não lê a conexão.
+     */
+    private static class Emissor extends SseEmitter {
+
+        private final BlockingQueue<Evento> eventos = new LinkedBlockingQueue<>();
+        private final CountDownLatch liberar;
+        private final CountDownLatch enviando = new CountDownLatch(1);
+        private final CountDownLatch encerrado = new CountDownLatch(1);
+
+        Emissor(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String texto = builder.build().stream().map(dados -> dados.getData().toString()).collect(Collectors.joining());
+            if (texto.startsWith(":")) {
+                return;
+            }
+            enviando.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            eventos.add(Evento.de(texto));
+        }
+
+        @Override
+        public void complete() {
+            encerrado.countDown();
+        }
+
+        Evento proximo() throws InterruptedException {
+            Evento evento = eventos.poll(5, TimeUnit.SECONDS);
+            assertNotNull(evento, "Nenhum evento recebido.");
+            return evento;
+        }
+    }
+}
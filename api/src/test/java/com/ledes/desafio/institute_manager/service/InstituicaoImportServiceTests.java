@@ -0,0 +1,221 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.ErroImportacao;
+import com.ledes.desafio.institute_manager.dto.RelatorioImportacao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.repository.AtualizacaoParcialRepository;
+import com.ledes.desafio.institute_manager.repository.InstituicaoBatchRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cada lote é confirmado na própria transação, então os testes não usam a transação do @DataJpaTest.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({InstituicaoBrasileiraService.class, InstituicaoEstrangeiraService.class, AtualizacaoParcialRepository.class})
+class InstituicaoImportServiceTests {
+
+    private static final String CABECALHO_BRASILEIRA = "nome,sigla,status,cnpj,cep,logradouro,bairro,estado,municipio,numero,complemento";
+
+    @Autowired
+    private InstituicaoBrasileiraService instituicaoBrasileiraService;
+
+    @Autowired
+    private InstituicaoEstrangeiraService instituicaoEstrangeiraService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Integer> lotes = new ArrayList<>();
+    private final List<Object> eventos = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from instituicao_brasileira");
+        jdbcTemplate.update("delete from instituicao_estrangeira");
+        jdbcTemplate.update("delete from instituicao");
+    }
+
+    @Test
+    void csvRespeitaAspasEColunasDoCabecalho() throws IOException {
+        // As colunas seguem o cabeçalho, não uma ordem fixa; campos vazios viram nulos
+        String csv = """
+                sigla,nome,logradouro,cep,pais,municipio,estadoRegiao,complemento,status
+                UC,"University of Coimbra, Portugal","Rua ""Larga"", 10",3004531,Portugal,Coimbra,Coimbra,,false
+                """;
+
+        RelatorioImportacao relatorio = servico(500).importarEstrangeiras(new StringReader(csv), FormatoArquivo.CSV);
+
+        assertEquals(new RelatorioImportacao(1, 1, List.of()), relatorio);
+        Map<String, Object> linha = jdbcTemplate.queryForMap("select i.nome, i.status, i.inativada_em, e.logradouro, e.complemento "
+                + "from instituicao i join instituicao_estrangeira e on e.instituicao_id = i.id");
+        assertEquals("University of Coimbra, Portugal", linha.get("nome"));
+        assertEquals("Rua \"Larga\", 10", linha.get("logradouro"));
+        assertEquals(null, linha.get("complemento"));
+        assertEquals(false, linha.get("status"));
+        assertTrue(linha.get("inativada_em") != null);
+    }
+
+    @Test
+    void ndjsonUsaOFormatoDoCadastroIndividual() throws IOException {
+        String ndjson = brasileiraJson("UFMS") + "\n\n" + brasileiraJson("UFGD") + "\r\n";
+
+        RelatorioImportacao relatorio = servico(500).importarBrasileiras(new StringReader(ndjson), FormatoArquivo.NDJSON);
+
+        // Linhas em branco são ignoradas e não contam como recebidas
+        assertEquals(new RelatorioImportacao(2, 2, List.of()), relatorio);
+        assertEquals(List.of("UFGD", "UFMS"), jdbcTemplate.queryForList("select sigla from instituicao order by sigla", String.class));
+        assertEquals(2, eventos.size());
+    }
+
+    @Test
+    void linhasInvalidasVoltamNoRelatorioSemImpedirAsDemais() throws IOException {
+        String csv = CABECALHO_BRASILEIRA + "\n"
+                + "Universidade Federal,UFMS,true,12345678000199,79070-900,Avenida Costa e Silva,Universitário,MS,Campo Grande,s/n,\n"
+                + "Universidade Federal,SIGLA LONGA,true,12345678000199,7907,Avenida Costa e Silva,Universitário,MS,Campo Grande,s/n,\n"
+                + "Universidade Federal,UFGD,true,12345678000199\n"
+                + "Universidade Federal,UFMT,true,12345678000199,78060-900,Avenida Fernando Corrêa,Boa Esperança,MT,Cuiabá,2367,\n";
+        String ndjson = brasileiraJson("UFMS") + "\n{\"instituicao\": \n" + brasileiraJson("UFGD").replace("\"MS\"", "\"\"") + "\n";
+
+        RelatorioImportacao relatorioCsv = servico(500).importarBrasileiras(new StringReader(csv), FormatoArquivo.CSV);
+        RelatorioImportacao relatorioNdjson = servico(500).importarBrasileiras(new StringReader(ndjson), FormatoArquivo.NDJSON);
+
+        // A numeração conta o cabeçalho do CSV; as mensagens de uma linha vêm juntas
+        assertEquals(4, relatorioCsv.getRecebidas());
+        assertEquals(2, relatorioCsv.getImportadas());
+        assertEquals(List.of(3L, 4L), relatorioCsv.getErros().stream().map(ErroImportacao::getLinha).toList());
+        assertEquals("A sigla deve ter no máximo 8 caracteres e não pode ser vazia. O CEP deve ter 8 dígitos, com ou sem hífen.",
+                relatorioCsv.getErros().get(0).getMensagem());
+        assertEquals("A linha tem 4 colunas, mas o cabeçalho tem 11.", relatorioCsv.getErros().get(1).getMensagem());
+
+        assertEquals(3, relatorioNdjson.getRecebidas());
+        assertEquals(1, relatorioNdjson.getImportadas());
+        assertEquals(List.of(2L, 3L), relatorioNdjson.getErros().stream().map(ErroImportacao::getLinha).toList());
+        assertTrue(relatorioNdjson.getErros().get(0).getMensagem().startsWith("JSON inválido: "));
+        assertEquals("O estado deve ter no máximo 32 caracteres e não pode ser vazio.", relatorioNdjson.getErros().get(1).getMensagem());
+        assertEquals(3, contar("instituicao_brasileira"));
+    }
+
+    @Test
+    void charsetVemDoContentType() throws IOException {
+        String csv = CABECALHO_BRASILEIRA + "\n"
+                + "Universidade de São Paulo,USP,true,12345678000199,05508-900,Rua da Reitoria,Butantã,SP,São Paulo,374,\n";
+        MediaType latin1 = MediaType.parseMediaType("text/csv;charset=ISO-8859-1");
+
+        RelatorioImportacao relatorio = servico(500).importarBrasileiras(
+                InstituicaoImportService.leitor(new ByteArrayInputStream(csv.getBytes(StandardCharsets.ISO_8859_1)), latin1),
+                FormatoArquivo.of(latin1));
+
+        assertEquals(1, relatorio.getImportadas());
+        assertEquals("Universidade de São Paulo", jdbcTemplate.queryForObject("select nome from instituicao", String.class));
+        assertEquals("Butantã", jdbcTemplate.queryForObject("select bairro from instituicao_brasileira", String.class));
+    }
+
+    @Test
+    void bomDoUtf8NaoEntraNoCabecalho() throws IOException {
+        // Sem charset no Content-Type o arquivo é lido como UTF-8
+        byte[] csv = ("\uFEFF" + CABECALHO_BRASILEIRA + "\n"
+                + "Universidade de Brasília,UnB,true,12345678000199,70910-900,Campus Darcy Ribeiro,Asa Norte,DF,Brasília,s/n,\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        RelatorioImportacao relatorio = servico(500).importarBrasileiras(
+                InstituicaoImportService.leitor(new ByteArrayInputStream(csv), MediaType.parseMediaType("text/csv")),
+                FormatoArquivo.CSV);
+
+        assertEquals(new RelatorioImportacao(1, 1, List.of()), relatorio);
+        assertEquals("Universidade de Brasília", jdbcTemplate.queryForObject("select nome from instituicao", String.class));
+    }
+
+    @Test
+    void registrosSaoGravadosEmLotesDoTamanhoConfigurado() throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            ndjson.append(brasileiraJson("UF" + i)).append('\n');
+        }
+
+        RelatorioImportacao relatorio = servico(3).importarBrasileiras(new StringReader(ndjson.toString()), FormatoArquivo.NDJSON);
+
+        assertEquals(7, relatorio.getImportadas());
+        assertEquals(List.of(3, 3, 1), lotes);
+    }
+
+    @Test
+    void loteRejeitadoEhRegravadoUmAUm() throws IOException {
+        // O CNPJ longo demais passa pela validação, mas não cabe na coluna: o banco rejeita o lote inteiro
+        String ndjson = brasileiraJson("UFMS") + "\n"
+                + brasileiraJson("UFGD").replace("12345678000199", "123456780001990000") + "\n"
+                + brasileiraJson("UFMT") + "\n"
+                + brasileiraJson("UFPR") + "\n";
+
+        RelatorioImportacao relatorio = servico(3).importarBrasileiras(new StringReader(ndjson), FormatoArquivo.NDJSON);
+
+        // O primeiro lote falha e é refeito linha a linha; o último lote não é afetado
+        assertEquals(List.of(3, 1, 1, 1, 1), lotes);
+        assertEquals(4, relatorio.getRecebidas());
+        assertEquals(3, relatorio.getImportadas());
+        assertEquals(1, relatorio.getErros().size());
+        assertEquals(2L, relatorio.getErros().get(0).getLinha());
+        assertTrue(relatorio.getErros().get(0).getMensagem().startsWith("Erro ao gravar: "));
+        assertEquals(List.of("UFMS", "UFMT", "UFPR"), jdbcTemplate.queryForList("select sigla from instituicao order by sigla", String.class));
+        // Só as linhas gravadas publicam eventos
+        assertEquals(3, eventos.size());
+    }
+
+    private InstituicaoImportService servico(int tamanhoLote) {
+        InstituicaoBatchRepository repository = new InstituicaoBatchRepository(jdbcTemplate, entityManagerFactory) {
+            @Override
+            public void insertBrasileiras(List<InstituicaoBrasileira> lote) {
+                lotes.add(lote.size());
+                super.insertBrasileiras(lote);
+            }
+
+            @Override
+            public void insertEstrangeiras(List<InstituicaoEstrangeira> lote) {
+                lotes.add(lote.size());
+                super.insertEstrangeiras(lote);
+            }
+        };
+        return new InstituicaoImportService(instituicaoBrasileiraService, instituicaoEstrangeiraService, repository,
+                transactionTemplate, Jackson2ObjectMapperBuilder.json().build(), eventos::add, tamanhoLote);
+    }
+
+    private int contar(String tabela) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tabela, Integer.class);
+    }
+
+    private static String brasileiraJson(String sigla) {
+        return """
+                {"instituicao":{"nome":"Universidade %s","sigla":"%s"},"pais":"Brasil","cnpj":"12345678000199",\
+                "cep":"79070900","logradouro":"Avenida Costa e Silva","bairro":"Universitário","estado":"MS",\
+                "municipio":"Campo Grande","numero":"s/n"}""".formatted(sigla, sigla);
+    }
+}
@@ -0,0 +1,183 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.dto.PaginaInstituicoes;
+import com.ledes.desafio.institute_manager.dto.ResultadoAlteracaoStatus;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.monitoring.MedicaoSqlConfig;
+import com.ledes.desafio.institute_manager.repository.VersaoColecaoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.ledes.desafio.institute_manager.monitoring.AssercoesSql.assertConsultas;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({InstituicaoService.class, ConsultaParalela.class, CatalogoSnapshotService.class, VersaoColecaoRepository.class,
+        MedicaoSqlConfig.class})
+class InstituicaoServiceTests {
+
+    @Autowired
+    private InstituicaoService instituicaoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long idBrasileira;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            InstituicaoBrasileira instituicaoBrasileira = novaBrasileira("Universidade " + i, "UF" + i);
+            entityManager.persist(instituicaoBrasileira);
+            entityManager.persist(novaEstrangeira("University " + i, "U" + i));
+            idBrasileira = instituicaoBrasileira.getInstituicao().getId();
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllInstituicoesExecutaUmaUnicaConsulta() {
+        List<InstituicaoDetalhada> instituicoes = assertConsultas(1, instituicaoService::getAllInstituicoes);
+
+        assertEquals(10, instituicoes.size());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getPaginaInstituicoesExecutaUmaUnicaConsultaPorPagina() {
+        PaginaInstituicoes primeira = assertConsultas(1, () -> instituicaoService.getPaginaInstituicoes(null, 4));
+        assertEquals(4, primeira.getItens().size());
+        assertNotNull(primeira.getProximo());
+
+        PaginaInstituicoes segunda = assertConsultas(1, () -> instituicaoService.getPaginaInstituicoes(primeira.getProximo(), 10));
+        assertEquals(6, segunda.getItens().size());
+        assertNull(segunda.getProximo());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findInstituicaoByIdExecutaUmaUnicaConsulta() {
+        Optional<InstituicaoDetalhada> instituicao = assertConsultas(1, () -> instituicaoService.findInstituicaoById(idBrasileira));
+
+        assertTrue(instituicao.isPresent());
+        assertEquals(TipoInstituicao.BRASILEIRA, instituicao.get().getTipo());
+        assertEquals("12345678000199", instituicao.get().getCnpj());
+    }
+
+    @Test
+    void alterarStatusEmLoteNaoCarregaEntidades() {
+        List<Long> ids = instituicaoService.getAllInstituicoes().stream().map(InstituicaoDetalhada::getId).toList();
+        List<Long> pedidos = new ArrayList<>(ids);
+        pedidos.add(-1L);
+        statistics.clear();
+
+        // Um SELECT da projeção e um UPDATE por bloco
+        ResultadoAlteracaoStatus resultado = assertConsultas(2, () -> instituicaoService.alterarStatusEmLote(pedidos, null, false));
+
+        assertEquals(10, resultado.getAfetadas());
+        assertEquals(0, resultado.getInalteradas());
+        assertEquals(List.of(-1L), resultado.getIdsNaoEncontrados());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        ResultadoAlteracaoStatus repetido = instituicaoService.alterarStatusEmLote(ids, null, false);
+        assertEquals(0, repetido.getAfetadas());
+        assertEquals(10, repetido.getInalteradas());
+
+        entityManager.clear();
+        InstituicaoDetalhada inativada = instituicaoService.findInstituicaoById(idBrasileira).orElseThrow();
+        assertFalse(inativada.getStatus());
+        assertEquals(1L, inativada.getVersao());
+    }
+
+    @Test
+    void dataDeInativacaoVemDoBancoEEhMantidaNasAlteracoes() {
+        instituicaoService.inativarInstituicao(idBrasileira);
+        entityManager.flush();
+
+        // O mesmo UPDATE preenche atualizada_em e inativada_em com o relógio do banco
+        Object[] inativada = datas();
+        assertNotNull(inativada[1]);
+        assertEquals(inativada[0], inativada[1]);
+
+        entityManager.find(Instituicao.class, idBrasileira).setNome("Universidade Renomeada");
+        entityManager.flush();
+        assertEquals(inativada[1], datas()[1]);
+
+        instituicaoService.reativarInstituicao(idBrasileira);
+        entityManager.flush();
+        assertNull(datas()[1]);
+    }
+
+    /**
+     * atualizada_em e inativada_em da instituição brasileira, lidas do banco.
+     */
+    private Object[] datas() {
+        return (Object[]) entityManager.createNativeQuery("select atualizada_em, inativada_em from instituicao where id = :id")
+                .setParameter("id", idBrasileira)
+                .getSingleResult();
+    }
+
+    private InstituicaoBrasileira novaBrasileira(String nome, String sigla) {
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(novaInstituicao(nome, sigla, TipoInstituicao.BRASILEIRA));
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070-900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado("MS");
+        instituicaoBrasileira.setMunicipio("Campo Grande");
+        instituicaoBrasileira.setNumero("s/n");
+        return instituicaoBrasileira;
+    }
+
+    private InstituicaoEstrangeira novaEstrangeira(String nome, String sigla) {
+        InstituicaoEstrangeira instituicaoEstrangeira = new InstituicaoEstrangeira();
+        instituicaoEstrangeira.setInstituicao(novaInstituicao(nome, sigla, TipoInstituicao.ESTRANGEIRA));
+        instituicaoEstrangeira.setPais("Portugal");
+        instituicaoEstrangeira.setCep("3004531");
+        instituicaoEstrangeira.setLogradouro("Rua Larga");
+        instituicaoEstrangeira.setEstadoRegiao("Coimbra");
+        instituicaoEstrangeira.setMunicipio("Coimbra");
+        return instituicaoEstrangeira;
+    }
+
+    private Instituicao novaInstituicao(String nome, String sigla, TipoInstituicao tipo) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla(sigla);
+        instituicao.setTipo(tipo);
+        entityManager.persist(instituicao);
+        return instituicao;
+    }
+}
@@ -0,0 +1,198 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.config.CacheConfig;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.repository.AtualizacaoParcialRepository;
+import com.ledes.desafio.institute_manager.repository.VersaoColecaoRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cada caminho de escrita remove a instituição do cache por ID, e a leitura seguinte traz os dados novos.
+ * Na transação do teste o commit não acontece, então a invalidação ocorre ao fim do método anotado.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({CacheConfig.class, InstituicaoService.class, InstituicaoBrasileiraService.class, InstituicaoEstrangeiraService.class,
+        AtualizacaoParcialRepository.class, ConsultaParalela.class, CatalogoSnapshotService.class, VersaoColecaoRepository.class})
+class InvalidacaoCacheTests {
+
+    @Autowired
+    private InstituicaoService instituicaoService;
+
+    @Autowired
+    private InstituicaoBrasileiraService instituicaoBrasileiraService;
+
+    @Autowired
+    private InstituicaoEstrangeiraService instituicaoEstrangeiraService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Long idBrasileira;
+    private Long idEstrangeira;
+
+    @BeforeEach
+    void setUp() {
+        InstituicaoBrasileira brasileira = novaBrasileira("Universidade Federal", "UF");
+        entityManager.persist(brasileira.getInstituicao());
+        entityManager.persist(brasileira);
+        InstituicaoEstrangeira estrangeira = novaEstrangeira();
+        entityManager.persist(estrangeira.getInstituicao());
+        entityManager.persist(estrangeira);
+        idBrasileira = brasileira.getInstituicao().getId();
+        idEstrangeira = estrangeira.getInstituicao().getId();
+        entityManager.flush();
+        entityManager.clear();
+        cache().clear();
+    }
+
+    @Test
+    void updateInvalidaAInstituicao() {
+        carregar(idBrasileira);
+        carregar(idEstrangeira);
+
+        instituicaoBrasileiraService.updateInstituicaoBrasileira(idBrasileira, novaBrasileira("Universidade Nova", "UN"), null);
+        assertNull(cache().get(idBrasileira));
+        // As demais chaves continuam no cache
+        assertNotNull(cache().get(idEstrangeira));
+        assertEquals("Universidade Nova", carregar(idBrasileira).getNome());
+
+        InstituicaoEstrangeira estrangeira = novaEstrangeira();
+        estrangeira.setMunicipio("Lisboa");
+        instituicaoEstrangeiraService.updateInstituicaoEstrangeira(idEstrangeira, estrangeira, null);
+        assertNull(cache().get(idEstrangeira));
+        assertEquals("Lisboa", carregar(idEstrangeira).getMunicipio());
+    }
+
+    @Test
+    void patchInvalidaAInstituicao() {
+        carregar(idBrasileira);
+        carregar(idEstrangeira);
+
+        instituicaoBrasileiraService.patchInstituicaoBrasileira(idBrasileira, json("{\"instituicao\": {\"sigla\": \"UFX\"}}"), null);
+        assertNull(cache().get(idBrasileira));
+        assertEquals("UFX", carregar(idBrasileira).getSigla());
+
+        instituicaoEstrangeiraService.patchInstituicaoEstrangeira(idEstrangeira, json("{\"municipio\": \"Lisboa\"}"), null);
+        assertNull(cache().get(idEstrangeira));
+        assertEquals("Lisboa", carregar(idEstrangeira).getMunicipio());
+    }
+
+    @Test
+    void inativacaoEReativacaoInvalidamAInstituicao() {
+        carregar(idBrasileira);
+
+        instituicaoService.inativarInstituicao(idBrasileira);
+        assertNull(cache().get(idBrasileira));
+        assertEquals(false, carregar(idBrasileira).getStatus());
+
+        instituicaoService.reativarInstituicao(idBrasileira);
+        assertNull(cache().get(idBrasileira));
+        assertEquals(true, carregar(idBrasileira).getStatus());
+    }
+
+    @Test
+    void alteracaoEmLoteEsvaziaOCache() {
+        carregar(idBrasileira);
+        carregar(idEstrangeira);
+
+        // Somente a brasileira muda, mas a anotação não tem como invalidar uma lista de chaves
+        instituicaoService.alterarStatusEmLote(List.of(idBrasileira), null, false);
+        assertNull(cache().get(idBrasileira));
+        assertNull(cache().get(idEstrangeira));
+        entityManager.clear();
+        assertEquals(false, carregar(idBrasileira).getStatus());
+        assertEquals(true, carregar(idEstrangeira).getStatus());
+    }
+
+    @Test
+    void idInexistenteNaoFicaNoCache() {
+        assertTrue(instituicaoService.findInstituicaoById(-1L).isEmpty());
+
+        assertNull(cache().get(-1L));
+    }
+
+    /**
+     * Busca pelo serviço e confere que o resultado ficou no cache.
+     */
+    private InstituicaoDetalhada carregar(Long id) {
+        InstituicaoDetalhada instituicao = instituicaoService.findInstituicaoById(id).orElseThrow();
+        Cache.ValueWrapper guardado = cache().get(id);
+        assertNotNull(guardado);
+        assertEquals(instituicao, guardado.get());
+        return instituicao;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CacheConfig.INSTITUICOES);
+    }
+
+    private JsonNode json(String corpo) {
+        try {
+            return objectMapper.readTree(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Dados de uma instituição brasileira, usados no cadastro e no corpo do update.
+     */
+    private InstituicaoBrasileira novaBrasileira(String nome, String sigla) {
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(novaInstituicao(nome, sigla, TipoInstituicao.BRASILEIRA));
+        instituicaoBrasileira.setPais("Brasil");
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070-900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado("MS");
+        instituicaoBrasileira.setMunicipio("Campo Grande");
+        instituicaoBrasileira.setNumero("s/n");
+        return instituicaoBrasileira;
+    }
+
+    private InstituicaoEstrangeira novaEstrangeira() {
+        InstituicaoEstrangeira instituicaoEstrangeira = new InstituicaoEstrangeira();
+        instituicaoEstrangeira.setInstituicao(novaInstituicao("University of Coimbra", "UC", TipoInstituicao.ESTRANGEIRA));
+        instituicaoEstrangeira.setPais("Portugal");
+        instituicaoEstrangeira.setCep("3004531");
+        instituicaoEstrangeira.setLogradouro("Rua Larga");
+        instituicaoEstrangeira.setEstadoRegiao("Coimbra");
+        instituicaoEstrangeira.setMunicipio("Coimbra");
+        return instituicaoEstrangeira;
+    }
+
+    private Instituicao novaInstituicao(String nome, String sigla, TipoInstituicao tipo) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla(sigla);
+        instituicao.setTipo(tipo);
+        return instituicao;
+    }
+}
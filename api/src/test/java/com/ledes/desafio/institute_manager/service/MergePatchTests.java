@@ -0,0 +1,130 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.validation.RequisicaoInvalidaException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MergePatchTests {
+
+    private static final Set<String> CAMPOS = Set.of("cep", "logradouro", "complemento");
+    private static final Set<String> ANULAVEIS = Set.of("complemento");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void camposSaoSeparadosEntreInstituicaoESubtipo() {
+        MergePatch patch = ler("{\"instituicao\": {\"sigla\": \"UFX\"}, \"logradouro\": \"Rua Nova\", \"complemento\": null}");
+
+        assertEquals(Map.of("sigla", "UFX"), patch.getCamposInstituicao());
+        Map<String, Object> subtipo = new HashMap<>();
+        subtipo.put("logradouro", "Rua Nova");
+        subtipo.put("complemento", null);
+        assertEquals(subtipo, patch.getCamposSubtipo());
+        assertFalse(patch.isComPais());
+        assertTrue(patch.validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS).isEmpty());
+    }
+
+    @Test
+    void camposDesconhecidosOuSomenteLeituraSaoRejeitados() {
+        MergePatch patch = ler("{\"id\": 7, \"status\": false, \"versao\": 3, \"cnpj\": \"1\","
+                + " \"instituicao\": {\"tipo\": \"BRASILEIRA\", \"nome\": \"Universidade\"}}");
+
+        assertEquals(List.of("id", "status", "versao", "cnpj", "instituicao.tipo"),
+                campos(patch.validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS)));
+        // Nada além dos campos atualizáveis entra nos UPDATEs
+        assertEquals(Set.of("nome"), patch.getCamposInstituicao().keySet());
+        assertTrue(patch.getCamposSubtipo().isEmpty());
+    }
+
+    @Test
+    void valoresQueNaoSaoTextoSaoRejeitados() {
+        MergePatch patch = ler("{\"cep\": 3004531, \"logradouro\": [\"Rua\"], \"instituicao\": {\"nome\": {}}}");
+
+        List<ErroCampo> erros = patch.validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS);
+        assertEquals(List.of("cep", "logradouro", "instituicao.nome"), campos(erros));
+        assertTrue(erros.stream().allMatch(erro -> erro.getMensagem().equals("O campo deve ser um texto.")));
+    }
+
+    @Test
+    void nullSoRemoveCamposOpcionais() {
+        MergePatch patch = ler("{\"complemento\": null, \"logradouro\": null, \"instituicao\": {\"sigla\": null}}");
+
+        List<ErroCampo> erros = patch.validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS);
+        // Cada campo é reportado uma vez, mesmo que a regra do validador também falhe para ele
+        assertEquals(List.of("logradouro", "instituicao.sigla"), campos(erros));
+        assertEquals("O campo é obrigatório e não pode ser removido.", erros.get(0).getMensagem());
+    }
+
+    @Test
+    void instituicaoNaoPodeSerRemovida() {
+        for (String corpo : new String[] {"{\"instituicao\": null}", "{\"instituicao\": \"UFX\"}"}) {
+            assertEquals(List.of(new ErroCampo("instituicao", "Os dados da instituição são obrigatórios.")),
+                    ler(corpo).validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS), corpo);
+        }
+    }
+
+    @Test
+    void somenteCamposPresentesSaoValidados() {
+        // O alvo vazio violaria logradouro, estadoRegiao e municipio; só o CEP está no patch
+        assertEquals(List.of("cep"), campos(ler("{\"cep\": \"ABC\"}")
+                .validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS)));
+        assertEquals(List.of("instituicao.sigla"), campos(ler("{\"instituicao\": {\"sigla\": \"SIGLA LONGA\"}}")
+                .validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS)));
+        assertTrue(ler("{}").validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS).isEmpty());
+    }
+
+    @Test
+    void paisFicaForaDosCamposDoSubtipo() {
+        MergePatch patch = ler("{\"pais\": \"Chile\"}");
+
+        assertTrue(patch.isComPais());
+        assertEquals("Chile", patch.getPais());
+        assertTrue(patch.getCamposSubtipo().isEmpty());
+
+        MergePatch removido = ler("{\"pais\": null}");
+        assertTrue(removido.isComPais());
+        assertEquals(List.of("pais"), campos(removido.validar(alvo(), InstituicaoEstrangeiraService.VALIDADOR_CAMPOS)));
+    }
+
+    @Test
+    void corpoQueNaoEObjetoEhRejeitado() {
+        for (String corpo : new String[] {"[]", "\"texto\"", "null"}) {
+            assertThrows(RequisicaoInvalidaException.class, () -> ler(corpo), corpo);
+        }
+        assertThrows(RequisicaoInvalidaException.class, () -> MergePatch.de(null, CAMPOS, ANULAVEIS));
+    }
+
+    private MergePatch ler(String json) {
+        try {
+            JsonNode patch = objectMapper.readTree(json);
+            return MergePatch.de(patch, CAMPOS, ANULAVEIS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static InstituicaoEstrangeira alvo() {
+        InstituicaoEstrangeira alvo = new InstituicaoEstrangeira();
+        alvo.setInstituicao(new Instituicao());
+        return alvo;
+    }
+
+    private static List<String> campos(List<ErroCampo> erros) {
+        return erros.stream().map(ErroCampo::getCampo).toList();
+    }
+}
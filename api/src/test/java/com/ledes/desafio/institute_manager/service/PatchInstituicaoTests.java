@@ -0,0 +1,263 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.dto.InstituicaoDetalhada;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import com.ledes.desafio.institute_manager.model.TipoInstituicao;
+import com.ledes.desafio.institute_manager.monitoring.MedicaoSqlConfig;
+import com.ledes.desafio.institute_manager.repository.AtualizacaoParcialRepository;
+import com.ledes.desafio.institute_manager.repository.InstituicaoRepository;
+import com.ledes.desafio.institute_manager.validation.ValidacaoException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static com.ledes.desafio.institute_manager.monitoring.AssercoesSql.assertConsultas;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ledes.desafio.institute_manager.service.PatchInstituicaoTests$RegistroSql"
+})
+@Import({InstituicaoBrasileiraService.class, InstituicaoEstrangeiraService.class, AtualizacaoParcialRepository.class,
+        MedicaoSqlConfig.class})
+class PatchInstituicaoTests {
+
+    @Autowired
+    private InstituicaoBrasileiraService instituicaoBrasileiraService;
+
+    @Autowired
+    private InstituicaoEstrangeiraService instituicaoEstrangeiraService;
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Long idBrasileira;
+    private Long idEstrangeira;
+
+    @BeforeEach
+    void setUp() {
+        idBrasileira = novaBrasileira().getInstituicao().getId();
+        idEstrangeira = novaEstrangeira().getInstituicao().getId();
+        entityManager.flush();
+        entityManager.clear();
+        RegistroSql.COMANDOS.clear();
+    }
+
+    @Test
+    void updateAlteraSomenteAsColunasDoPatch() {
+        // Um UPDATE em 'instituicao', um na tabela do subtipo e a leitura do resultado, sem carregar a entidade antes
+        InstituicaoDetalhada atualizada = assertConsultas(3, () -> instituicaoBrasileiraService.patchInstituicaoBrasileira(
+                idBrasileira, json("{\"instituicao\": {\"sigla\": \"UFX\"}, \"numero\": \"100\"}"), null));
+
+        assertEquals(List.of(Set.of("sigla", "versao"), Set.of("numero")), colunasAtualizadas());
+        assertEquals("UFX", atualizada.getSigla());
+        assertEquals("100", atualizada.getNumero());
+        assertEquals("Universidade Federal", atualizada.getNome());
+        assertEquals("79070-900", atualizada.getCep());
+        assertEquals(1L, atualizada.getVersao());
+    }
+
+    @Test
+    void patchSoDoSubtipoIncrementaAVersao() {
+        InstituicaoDetalhada atualizada = instituicaoEstrangeiraService.patchInstituicaoEstrangeira(
+                idEstrangeira, json("{\"municipio\": \"Lisboa\"}"), null);
+
+        assertEquals(List.of(Set.of("versao"), Set.of("municipio")), colunasAtualizadas());
+        assertEquals("Lisboa", atualizada.getMunicipio());
+        assertEquals("Coimbra", atualizada.getEstado());
+        assertEquals(1L, atualizada.getVersao());
+    }
+
+    @Test
+    void nullRemoveCampoOpcional() {
+        InstituicaoDetalhada atualizada = instituicaoEstrangeiraService.patchInstituicaoEstrangeira(
+                idEstrangeira, json("{\"cep\": null, \"complemento\": null}"), null);
+
+        assertNull(atualizada.getCep());
+        assertNull(atualizada.getComplemento());
+        assertEquals("Rua Larga", atualizada.getLogradouro());
+    }
+
+    @Test
+    void patchInvalidoNaoExecutaUpdate() {
+        ValidacaoException erro = assertThrows(ValidacaoException.class, () -> instituicaoBrasileiraService
+                .patchInstituicaoBrasileira(idBrasileira, json("{\"cnpj\": null, \"cep\": \"7907\", \"versao\": 9}"), null));
+
+        assertEquals(List.of("cnpj", "versao", "cep"), erro.getErros().stream().map(ErroCampo::getCampo).toList());
+        assertEquals(List.of(), colunasAtualizadas());
+    }
+
+    @Test
+    void paisDaBrasileiraSoPodeSerRepetido() {
+        InstituicaoDetalhada atualizada = instituicaoBrasileiraService.patchInstituicaoBrasileira(
+                idBrasileira, json("{\"pais\": \"Brasil\"}"), null);
+        assertEquals("Brasil", atualizada.getPais());
+        // O país da brasileira não é coluna atualizável
+        assertEquals(List.of(Set.of("versao")), colunasAtualizadas());
+
+        for (String corpo : new String[] {"{\"pais\": \"Argentina\"}", "{\"pais\": null}"}) {
+            ValidacaoException erro = assertThrows(ValidacaoException.class,
+                    () -> instituicaoBrasileiraService.patchInstituicaoBrasileira(idBrasileira, json(corpo), null), corpo);
+            assertEquals("pais", erro.getErros().get(0).getCampo(), corpo);
+        }
+    }
+
+    @Test
+    void paisDaEstrangeiraNaoPodeSerBrasil() {
+        InstituicaoDetalhada atualizada = instituicaoEstrangeiraService.patchInstituicaoEstrangeira(
+                idEstrangeira, json("{\"pais\": \"Chile\"}"), null);
+        assertEquals("Chile", atualizada.getPais());
+
+        ValidacaoException erro = assertThrows(ValidacaoException.class, () -> instituicaoEstrangeiraService
+                .patchInstituicaoEstrangeira(idEstrangeira, json("{\"pais\": \"Brasil\"}"), null));
+        assertEquals(List.of(new ErroCampo("pais", "Não é possível alterar uma instituição estrangeira para brasileira.")),
+                erro.getErros());
+    }
+
+    @Test
+    void paisDaEstrangeiraEhObrigatorioEAte100Caracteres() {
+        for (String pais : new String[] {"", "   ", "P".repeat(101)}) {
+            ValidacaoException erro = assertThrows(ValidacaoException.class, () -> instituicaoEstrangeiraService
+                    .patchInstituicaoEstrangeira(idEstrangeira, objectMapper.createObjectNode().put("pais", pais), null));
+            assertEquals(List.of(new ErroCampo("pais", "O país deve ter no máximo 100 caracteres e não pode ser vazio.")),
+                    erro.getErros(), pais);
+        }
+        assertEquals(List.of(), colunasAtualizadas());
+
+        String longo = "P".repeat(100);
+        assertEquals(longo, instituicaoEstrangeiraService.patchInstituicaoEstrangeira(
+                idEstrangeira, objectMapper.createObjectNode().put("pais", longo), null).getPais());
+    }
+
+    @Test
+    void ifMatchConfereAVersao() {
+        InstituicaoDetalhada atualizada = instituicaoBrasileiraService.patchInstituicaoBrasileira(
+                idBrasileira, json("{\"bairro\": \"Centro\"}"), 0L);
+        assertEquals(1L, atualizada.getVersao());
+
+        // A versão 0 não é mais a atual: nada muda
+        assertThrows(OptimisticLockingFailureException.class, () -> instituicaoBrasileiraService
+                .patchInstituicaoBrasileira(idBrasileira, json("{\"bairro\": \"Jardim\"}"), 0L));
+        entityManager.clear();
+        assertEquals("Centro", instituicaoRepository.findDetalhadaById(idBrasileira).orElseThrow().getBairro());
+
+        assertEquals(2L, instituicaoBrasileiraService.patchInstituicaoBrasileira(
+                idBrasileira, json("{\"bairro\": \"Jardim\"}"), 1L).getVersao());
+    }
+
+    @Test
+    void instituicaoInexistenteOuDeOutroTipoNaoEhEncontrada() {
+        assertThrows(EntityNotFoundException.class, () -> instituicaoBrasileiraService
+                .patchInstituicaoBrasileira(-1L, json("{\"bairro\": \"Centro\"}"), null));
+        assertThrows(EntityNotFoundException.class, () -> instituicaoBrasileiraService
+                .patchInstituicaoBrasileira(-1L, json("{\"bairro\": \"Centro\"}"), 0L));
+        // O ID existe, mas é de uma estrangeira: o UPDATE exige a linha do subtipo
+        assertThrows(EntityNotFoundException.class, () -> instituicaoBrasileiraService
+                .patchInstituicaoBrasileira(idEstrangeira, json("{\"instituicao\": {\"nome\": \"Outra\"}}"), 0L));
+
+        entityManager.clear();
+        Instituicao estrangeira = entityManager.find(Instituicao.class, idEstrangeira);
+        assertEquals("University of Coimbra", estrangeira.getNome());
+        assertEquals(0L, estrangeira.getVersao());
+    }
+
+    /**
+     * Colunas do SET de cada UPDATE executado, na ordem de execução.
+     */
+    private static List<Set<String>> colunasAtualizadas() {
+        return RegistroSql.COMANDOS.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("update"))
+                .map(sql -> sql.substring(sql.indexOf(" set ") + 5, sql.indexOf(" where ")))
+                .map(set -> Arrays.stream(set.split(","))
+                        .map(atribuicao -> atribuicao.substring(0, atribuicao.indexOf('=')).trim())
+                        .map(coluna -> coluna.substring(coluna.indexOf('.') + 1))
+                        .collect(Collectors.toSet()))
+                .toList();
+    }
+
+    private JsonNode json(String corpo) {
+        try {
+            return objectMapper.readTree(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private InstituicaoBrasileira novaBrasileira() {
+        InstituicaoBrasileira instituicaoBrasileira = new InstituicaoBrasileira();
+        instituicaoBrasileira.setInstituicao(novaInstituicao("Universidade Federal", "UF", TipoInstituicao.BRASILEIRA));
+        instituicaoBrasileira.setPais("Brasil");
+        instituicaoBrasileira.setCnpj("12345678000199");
+        instituicaoBrasileira.setCep("79070-900");
+        instituicaoBrasileira.setLogradouro("Avenida Costa e Silva");
+        instituicaoBrasileira.setBairro("Universitário");
+        instituicaoBrasileira.setEstado("MS");
+        instituicaoBrasileira.setMunicipio("Campo Grande");
+        instituicaoBrasileira.setNumero("s/n");
+        entityManager.persist(instituicaoBrasileira);
+        return instituicaoBrasileira;
+    }
+
+    private InstituicaoEstrangeira novaEstrangeira() {
+        InstituicaoEstrangeira instituicaoEstrangeira = new InstituicaoEstrangeira();
+        instituicaoEstrangeira.setInstituicao(novaInstituicao("University of Coimbra", "UC", TipoInstituicao.ESTRANGEIRA));
+        instituicaoEstrangeira.setPais("Portugal");
+        instituicaoEstrangeira.setCep("3004531");
+        instituicaoEstrangeira.setLogradouro("Rua Larga");
+        instituicaoEstrangeira.setEstadoRegiao("Coimbra");
+        instituicaoEstrangeira.setMunicipio("Coimbra");
+        instituicaoEstrangeira.setComplemento("Paço das Escolas");
+        entityManager.persist(instituicaoEstrangeira);
+        return instituicaoEstrangeira;
+    }
+
+    private Instituicao novaInstituicao(String nome, String sigla, TipoInstituicao tipo) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome(nome);
+        instituicao.setSigla(sigla);
+        instituicao.setTipo(tipo);
+        entityManager.persist(instituicao);
+        return instituicao;
+    }
+
+    /**
+     * Guarda o SQL preparado pelo Hibernate; a contagem é feita pelo MedicaoSqlDataSource.
+     */
+    public static class RegistroSql implements StatementInspector {
+
+        static final List<String> COMANDOS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            COMANDOS.add(sql);
+            return sql;
+        }
+    }
+}
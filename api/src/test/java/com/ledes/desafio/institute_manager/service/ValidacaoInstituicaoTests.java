@@ -0,0 +1,131 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import com.ledes.desafio.institute_manager.model.Instituicao;
+import com.ledes.desafio.institute_manager.model.InstituicaoBrasileira;
+import com.ledes.desafio.institute_manager.model.InstituicaoEstrangeira;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regras de cadastro e atualização dos dois subtipos.
+ */
+class ValidacaoInstituicaoTests {
+
+    @Test
+    void brasileiraValida() {
+        assertTrue(InstituicaoBrasileiraService.VALIDADOR_NOVA.validar(brasileira("79070-900")).isEmpty());
+        assertTrue(InstituicaoBrasileiraService.VALIDADOR_NOVA.validar(brasileira("79070900")).isEmpty());
+    }
+
+    @Test
+    void violacoesDaBrasileiraVoltamJuntas() {
+        InstituicaoBrasileira invalida = brasileira("7907");
+        invalida.getInstituicao().setNome("");
+        invalida.getInstituicao().setSigla("SIGLA LONGA");
+        invalida.setBairro(null);
+        invalida.setPais("Argentina");
+
+        assertEquals(List.of("instituicao.nome", "instituicao.sigla", "cep", "bairro", "pais"), campos(
+                InstituicaoBrasileiraService.VALIDADOR_NOVA.validar(invalida)));
+    }
+
+    @Test
+    void cepDaBrasileiraTemOitoDigitos() {
+        for (String cep : new String[] {null, "", "7907090", "790709000", "79070-9000", "7907a-900", "79.070-900"}) {
+            assertEquals(List.of("cep"), campos(InstituicaoBrasileiraService.VALIDADOR_CAMPOS.validar(brasileira(cep))), cep);
+        }
+    }
+
+    @Test
+    void brasileiraDeveSerDoBrasilSoNoCadastro() {
+        InstituicaoBrasileira argentina = brasileira("79070900");
+        argentina.setPais("Argentina");
+
+        assertEquals(List.of(new ErroCampo("pais", "O país deve ser Brasil para uma Instituição Brasileira.")),
+                InstituicaoBrasileiraService.VALIDADOR_NOVA.validar(argentina));
+        // Na atualização o país não é lido
+        assertTrue(InstituicaoBrasileiraService.VALIDADOR_CAMPOS.validar(argentina).isEmpty());
+    }
+
+    @Test
+    void estrangeiraNaoPodeSerDoBrasil() {
+        assertTrue(InstituicaoEstrangeiraService.VALIDADOR_NOVA.validar(estrangeira("3004531")).isEmpty());
+
+        InstituicaoEstrangeira brasil = estrangeira("3004531");
+        brasil.setPais("Brasil");
+        assertEquals(List.of(new ErroCampo("pais", "O país não pode ser Brasil para uma Instituição Estrangeira.")),
+                InstituicaoEstrangeiraService.VALIDADOR_NOVA.validar(brasil));
+    }
+
+    @Test
+    void paisDaEstrangeiraEhObrigatorioEAte100Caracteres() {
+        for (String pais : new String[] {null, "", "   ", "P".repeat(101)}) {
+            InstituicaoEstrangeira invalida = estrangeira("3004531");
+            invalida.setPais(pais);
+            assertEquals(List.of(new ErroCampo("pais", "O país deve ter no máximo 100 caracteres e não pode ser vazio.")),
+                    InstituicaoEstrangeiraService.VALIDADOR_NOVA.validar(invalida), pais);
+        }
+    }
+
+    @Test
+    void cepDaEstrangeiraEhOpcionalENumerico() {
+        for (String cep : new String[] {null, "1", "123456789"}) {
+            assertTrue(InstituicaoEstrangeiraService.VALIDADOR_CAMPOS.validar(estrangeira(cep)).isEmpty(), cep);
+        }
+        for (String cep : new String[] {"", "1234567890", "SW1A 1AA", "3004-531"}) {
+            assertEquals(List.of("cep"), campos(InstituicaoEstrangeiraService.VALIDADOR_CAMPOS.validar(estrangeira(cep))), cep);
+        }
+    }
+
+    @Test
+    void violacoesDaEstrangeiraVoltamJuntas() {
+        InstituicaoEstrangeira invalida = estrangeira("ABC");
+        invalida.setInstituicao(null);
+        invalida.setMunicipio("Um município com nome longo demais");
+        invalida.setComplemento(null);
+
+        assertEquals(List.of("instituicao", "cep", "municipio"), campos(
+                InstituicaoEstrangeiraService.VALIDADOR_NOVA.validar(invalida)));
+    }
+
+    private static List<String> campos(List<ErroCampo> erros) {
+        return erros.stream().map(ErroCampo::getCampo).toList();
+    }
+
+    private static InstituicaoBrasileira brasileira(String cep) {
+        InstituicaoBrasileira brasileira = new InstituicaoBrasileira();
+        brasileira.setInstituicao(instituicao("UFMS"));
+        brasileira.setPais("Brasil");
+        brasileira.setCnpj("12345678000199");
+        brasileira.setCep(cep);
+        brasileira.setLogradouro("Avenida Costa e Silva");
+        brasileira.setBairro("Universitário");
+        brasileira.setEstado("MS");
+        brasileira.setMunicipio("Campo Grande");
+        brasileira.setNumero("s/n");
+        return brasileira;
+    }
+
+    private static InstituicaoEstrangeira estrangeira(String cep) {
+        InstituicaoEstrangeira estrangeira = new InstituicaoEstrangeira();
+        estrangeira.setInstituicao(instituicao("UC"));
+        estrangeira.setPais("Portugal");
+        estrangeira.setCep(cep);
+        estrangeira.setLogradouro("Rua Larga");
+        estrangeira.setEstadoRegiao("Coimbra");
+        estrangeira.setMunicipio("Coimbra");
+        return estrangeira;
+    }
+
+    private static Instituicao instituicao(String sigla) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome("Universidade " + sigla);
+        instituicao.setSigla(sigla);
+        return instituicao;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ledes.desafio.institute_manager.service;
+
+import com.ledes.desafio.institute_manager.config.MigracaoEsquema;
+import com.ledes.desafio.institute_manager.event.InstituicaoAlteradaEvent;
+import com.ledes.desafio.institute_manager.event.TipoAlteracao;
+import com.ledes.desafio.institute_manager.repository.VersaoColecaoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * O contador só muda no commit, então cada teste controla as próprias transações.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({MigracaoEsquema.class, VersaoColecaoRepository.class, VersaoColecaoService.class})
+class VersaoColecaoServiceTests {
+
+    @Autowired
+    private VersaoColecaoRepository versaoColecaoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void cadaTransacaoIncrementaUmaVez() {
+        long inicial = versao();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publicar(1L);
+            publicar(2L);
+            publicar(3L);
+            // Antes do commit, as leituras de fora ainda não veem a nova versão
+            assertEquals(inicial, versao());
+        });
+        assertEquals(inicial + 1, versao());
+
+        transactionTemplate.executeWithoutResult(status -> publicar(1L));
+        assertEquals(inicial + 2, versao());
+    }
+
+    @Test
+    void transacaoDesfeitaNaoMudaAVersao() {
+        long inicial = versao();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publicar(1L);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(inicial, versao());
+    }
+
+    @Test
+    void alteracaoForaDeTransacaoIncrementaNaHora() {
+        long inicial = versao();
+
+        publicar(1L);
+
+        assertEquals(inicial + 1, versao());
+    }
+
+    private long versao() {
+        return versaoColecaoRepository.find().getVersao();
+    }
+
+    private void publicar(Long id) {
+        eventPublisher.publishEvent(new InstituicaoAlteradaEvent(id, "UFMS", "UFMS", true, TipoAlteracao.ATUALIZADA));
+    }
+}
@@ -0,0 +1,60 @@
+package com.ledes.desafio.institute_manager.validation;
+
+import com.ledes.desafio.institute_manager.dto.ErroCampo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidadorTests {
+
+    private record Endereco(String cep, String municipio) {
+    }
+
+    private record Pessoa(String nome, String apelido, Endereco endereco) {
+    }
+
+    private static final Validador<Endereco> VALIDADOR_ENDERECO = Validador.<Endereco>builder()
+            .formato("cep", Endereco::cep, Pattern.compile("\\d{8}"), "CEP inválido.")
+            .obrigatorio("municipio", Endereco::municipio, 10, "Município inválido.")
+            .build();
+
+    private static final Validador<Pessoa> VALIDADOR = Validador.<Pessoa>builder()
+            .obrigatorio("nome", Pessoa::nome, 5, "Nome inválido.")
+            .opcional("apelido", Pessoa::apelido, 3, "Apelido inválido.")
+            .aninhado("endereco", Pessoa::endereco, VALIDADOR_ENDERECO, "Endereço obrigatório.")
+            .build();
+
+    @Test
+    void todasAsViolacoesVoltamJuntasNaOrdemDasRegras() {
+        List<ErroCampo> erros = VALIDADOR.validar(new Pessoa(" ", "Longo", new Endereco("123", "")));
+
+        assertEquals(List.of("nome", "apelido", "endereco.cep", "endereco.municipio"),
+                erros.stream().map(ErroCampo::getCampo).toList());
+        assertEquals("Nome inválido.", erros.get(0).getMensagem());
+    }
+
+    @Test
+    void objetoValidoNaoTemViolacoes() {
+        assertTrue(VALIDADOR.validar(new Pessoa("Ana", null, new Endereco(null, "Dourados"))).isEmpty());
+    }
+
+    @Test
+    void aninhadoAusenteEhUmaViolacao() {
+        assertEquals(List.of(new ErroCampo("endereco", "Endereço obrigatório.")), VALIDADOR.validar(new Pessoa("Ana", null, null)));
+    }
+
+    @Test
+    void incluirSomaAsRegrasDeOutroValidador() {
+        Validador<Pessoa> comRegra = Validador.<Pessoa>builder()
+                .incluir(VALIDADOR)
+                .regra("nome", pessoa -> !"Admin".equals(pessoa.nome()), "Nome reservado.")
+                .build();
+
+        assertEquals(List.of(new ErroCampo("endereco", "Endereço obrigatório."), new ErroCampo("nome", "Nome reservado.")),
+                comRegra.validar(new Pessoa("Admin", null, null)));
+    }
+}
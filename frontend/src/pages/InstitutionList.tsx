@@ -30,13 +30,74 @@ const InstitutionList: React.FC = () => {
     const navigate = useNavigate();
 
     useEffect(() => {
-        api.get('/api/instituicao')
-            .then(resposta => {
-                setInstituicoes(resposta.data);
-            })
-            .catch(erro => {
-                console.error('Houve um erro ao buscar as instituições!', erro);
-            });
+        // Alterações que chegam enquanto a lista está sendo carregada; aplicadas depois dela, para não se perderem
+        let pendentes: any[] | null = [];
+
+        const aplicarAlteracao = (alteracao: any) => {
+            if (alteracao.alteracao === 'CRIADA' || alteracao.alteracao === 'ATUALIZADA') {
+                api.get(`/api/instituicao/${alteracao.id}`)
+                    .then(resposta => {
+                        setInstituicoes(prevInstituicoes =>
+                            prevInstituicoes.some(inst => inst.id === alteracao.id)
+                                ? prevInstituicoes.map(inst => inst.id === alteracao.id ? resposta.data : inst)
+                                : [...prevInstituicoes, resposta.data]
+                        );
+                    })
+                    .catch(erro => {
+                        console.error('Houve um erro ao buscar a instituição alterada!', erro);
+                    });
+            } else {
+                setInstituicoes(prevInstituicoes =>
+                    prevInstituicoes.map(inst =>
+                        inst.id === alteracao.id ? { ...inst, status: alteracao.status } : inst
+                    )
+                );
+            }
+        };
+
+        const carregarInstituicoes = () => {
+            pendentes = pendentes ?? [];
+            const aplicarPendentes = () => {
+                const acumuladas = pendentes ?? [];
+                pendentes = null;
+                acumuladas.forEach(aplicarAlteracao);
+            };
+            api.get('/api/instituicao', { params: { completo: true } })
+                .then(resposta => {
+                    setInstituicoes(resposta.data);
+                    aplicarPendentes();
+                })
+                .catch(erro => {
+                    console.error('Houve um erro ao buscar as instituições!', erro);
+                    aplicarPendentes();
+                });
+        };
+
+        // Alterações feitas por outros usuários chegam pelo feed de eventos, sem recarregar a lista inteira.
+        // A assinatura vem antes da lista: ela só é carregada depois que o feed está aberto, então toda alteração
+        // posterior à lista chega pelo feed. Reaplicar uma alteração que a lista já traz não muda nada.
+        // O EventSource reconecta sozinho e continua do último evento recebido (Last-Event-ID).
+        const eventos = new EventSource(`${api.defaults.baseURL}/api/instituicao/eventos`);
+        let listaSolicitada = false;
+        const carregarUmaVez = () => {
+            if (!listaSolicitada) {
+                listaSolicitada = true;
+                carregarInstituicoes();
+            }
+        };
+        eventos.addEventListener('open', carregarUmaVez);
+        // Sem o feed, a lista é carregada mesmo assim, apenas sem as atualizações até ele reconectar
+        eventos.addEventListener('error', carregarUmaVez);
+        eventos.addEventListener('instituicao', evento => {
+            const alteracao = JSON.parse((evento as MessageEvent).data);
+            if (pendentes) {
+                pendentes.push(alteracao);
+            } else {
+                aplicarAlteracao(alteracao);
+            }
+        });
+        // As alterações desde o último evento não estão mais disponíveis no servidor: a lista é recarregada
+        eventos.addEventListener('reinicio', () => carregarInstituicoes());
 
         // Requisição para obter o mapeamento de países e bandeiras
         ibgeApi.get('/')
@@ -50,6 +111,8 @@ const InstitutionList: React.FC = () => {
             .catch(erro => {
                 console.error('Erro ao buscar os países do IBGE!', erro);
             });
+
+        return () => eventos.close();
     }, []);
 
     const obterCodigoBandeira = (pais: string) => {
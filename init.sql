@@ -4,7 +4,12 @@ CREATE TABLE instituicao (
     id INT AUTO_INCREMENT PRIMARY KEY,
     nome VARCHAR(32) NOT NULL,
     sigla VARCHAR(8) NOT NULL,
-    status TINYINT(1) DEFAULT 1
+    status TINYINT(1) DEFAULT 1,
+    tipo VARCHAR(16),
+    versao BIGINT NOT NULL DEFAULT 0,
+    criada_em DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    atualizada_em DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    inativada_em DATETIME(6)
 );
 CREATE TABLE instituicao_brasileira (
     id INT AUTO_INCREMENT PRIMARY KEY,
@@ -18,6 +23,8 @@ CREATE TABLE instituicao_brasileira (
     municipio VARCHAR(32) NOT NULL,
     numero VARCHAR(8) NOT NULL,
     complemento VARCHAR(16),
+    criada_em DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    atualizada_em DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
     FOREIGN KEY (instituicao_id) REFERENCES instituicao(id) ON DELETE CASCADE
 );
 CREATE TABLE instituicao_estrangeira (
@@ -29,5 +36,38 @@ CREATE TABLE instituicao_estrangeira (
     estado_regiao VARCHAR(32) NOT NULL,
     municipio VARCHAR(32) NOT NULL,
     complemento VARCHAR(32),
+    criada_em DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    atualizada_em DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
     FOREIGN KEY (instituicao_id) REFERENCES instituicao(id) ON DELETE CASCADE
 );
+
+-- Respostas dos cadastros por chave de idempotência (usada com instituicao.idempotencia.banco=true)
+CREATE TABLE resposta_idempotente (
+    chave VARCHAR(300) PRIMARY KEY,
+    impressao VARCHAR(44) NOT NULL,
+    resposta LONGTEXT NOT NULL,
+    criada_em DATETIME(6) NOT NULL
+);
+CREATE INDEX idx_resposta_idempotente_criada_em ON resposta_idempotente (criada_em);
+
+-- Versão da coleção de instituições, incrementada por toda transação de escrita; base do ETag das listagens
+CREATE TABLE versao_colecao (
+    id INT PRIMARY KEY,
+    versao BIGINT NOT NULL
+);
+INSERT INTO versao_colecao (id, versao) VALUES (1, 0);
+
+-- Índices secundários dos filtros da listagem (status, país, estado/estado_regiao e município).
+-- Os subtipos são filtrados na própria tabela, então cada combinação de filtros tem um índice com prefixo utilizável.
+CREATE INDEX idx_instituicao_status ON instituicao (status);
+CREATE INDEX idx_instituicao_brasileira_estado_municipio ON instituicao_brasileira (estado, municipio);
+CREATE INDEX idx_instituicao_brasileira_municipio ON instituicao_brasileira (municipio);
+CREATE INDEX idx_instituicao_estrangeira_pais_estado_municipio ON instituicao_estrangeira (pais, estado_regiao, municipio);
+CREATE INDEX idx_instituicao_estrangeira_estado_municipio ON instituicao_estrangeira (estado_regiao, municipio);
+CREATE INDEX idx_instituicao_estrangeira_municipio ON instituicao_estrangeira (municipio);
+
+-- Consulta de alterações (GET /api/instituicao/changes), em ordem de atualizada_em com o ID como desempate
+CREATE INDEX idx_instituicao_atualizada_em ON instituicao (atualizada_em, id);
+
+-- Bancos criados antes das colunas 'tipo' e 'versao' são migrados na inicialização da API (MigracaoEsquema),
+-- que registra os passos aplicados na tabela migracao_esquema.